@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+import com.alibaba.fastjson.JSON;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 列式批次中某一行的视图，供逐行处理批次的 writer 或者 transformer 使用。
+ * 读取时直接访问批次中的 vector；第一次修改时把该行复制为独立的列表，之后的读写都作用于副本，
+ * 不会影响批次本身和其他行
+ */
+public class BatchRowRecord
+        implements Record
+{
+    private final RecordBatch batch;
+
+    private final int row;
+
+    // 修改过的行，为 null 时表示直接读取批次
+    private List<Column> columns;
+
+    public BatchRowRecord(RecordBatch batch, int row)
+    {
+        this.batch = batch;
+        this.row = row;
+    }
+
+    @Override
+    public void addColumn(Column column)
+    {
+        materialize().add(column);
+    }
+
+    @Override
+    public void setColumn(int i, Column column)
+    {
+        if (i < 0) {
+            throw new IllegalArgumentException("不能给index小于0的column设置值");
+        }
+        List<Column> values = materialize();
+        while (values.size() <= i) {
+            values.add(null);
+        }
+        values.set(i, column);
+    }
+
+    @Override
+    public Column getColumn(int i)
+    {
+        if (null == columns) {
+            return batch.getColumn(row, i);
+        }
+        if (i < 0 || i >= columns.size()) {
+            return null;
+        }
+        return columns.get(i);
+    }
+
+    @Override
+    public int getColumnNumber()
+    {
+        return null == columns ? batch.getColumnNumber() : columns.size();
+    }
+
+    @Override
+    public int getByteSize()
+    {
+        int size = 0;
+        for (int i = 0; i < getColumnNumber(); i++) {
+            Column column = getColumn(i);
+            if (null != column) {
+                size += column.getByteSize();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int getMemorySize()
+    {
+        // 内存已经按整个批次统计过
+        return 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        List<Column> data = new ArrayList<>(getColumnNumber());
+        for (int i = 0; i < getColumnNumber(); i++) {
+            data.add(getColumn(i));
+        }
+        Map<String, Object> json = new HashMap<>();
+        json.put("size", this.getColumnNumber());
+        json.put("data", data);
+        return JSON.toJSONString(json);
+    }
+
+    private List<Column> materialize()
+    {
+        if (null == columns) {
+            int size = batch.getColumnNumber();
+            List<Column> values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(batch.getColumn(row, i));
+            }
+            columns = values;
+        }
+        return columns;
+    }
+}
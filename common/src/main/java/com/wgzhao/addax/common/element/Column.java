@@ -20,6 +20,7 @@
 package com.wgzhao.addax.common.element;
 
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.annotation.JSONField;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -45,6 +46,18 @@ public abstract class Column
         return this.rawData;
     }
 
+    /**
+     * 判断是否为 null 值。writer 只需要判空时应调用本方法而不是 {@link #getRawData()}，
+     * 以原生类型保存数据的子类不需要为此生成原始数据对象
+     *
+     * @return 是否为 null 值
+     */
+    @JSONField(serialize = false)
+    public boolean isNull()
+    {
+        return null == getRawData();
+    }
+
     protected void setRawData(Object rawData)
     {
         this.rawData = rawData;
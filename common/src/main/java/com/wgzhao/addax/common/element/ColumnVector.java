@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+import java.util.Arrays;
+
+/**
+ * 列式批次中的一列，保存同一列连续 N 行的数据以及对应的空值位图
+ * <p>
+ * 理解列式批次的插件可以直接访问具体子类（如 {@link LongColumnVector}）中的原生数组，
+ * 其他插件通过 {@link #getColumn(int)} 得到与行式 Record 一致的 Column 视图
+ */
+public abstract class ColumnVector
+{
+    // 每个 vector 对象本身以及空值位图数组的大致开销
+    protected static final int VECTOR_HEAD = 64;
+
+    private final Column.Type type;
+
+    private final int capacity;
+
+    private final long[] nulls;
+
+    private boolean noNulls = true;
+
+    protected ColumnVector(Column.Type type, int capacity)
+    {
+        this.type = type;
+        this.capacity = capacity;
+        this.nulls = new long[(capacity + 63) >>> 6];
+    }
+
+    /**
+     * 根据列类型创建合适的 vector，LONG/INT、DOUBLE、STRING 使用原生数组保存，其余类型直接保存 Column 对象
+     *
+     * @param type 列类型
+     * @param capacity 最大行数
+     * @return ColumnVector
+     */
+    public static ColumnVector create(Column.Type type, int capacity)
+    {
+        switch (type) {
+            case INT:
+            case LONG:
+                return new LongColumnVector(capacity);
+            case DOUBLE:
+                return new DoubleColumnVector(capacity);
+            case STRING:
+                return new StringColumnVector(capacity);
+            default:
+                return new GenericColumnVector(type, capacity);
+        }
+    }
+
+    public Column.Type getType()
+    {
+        return type;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public boolean isNull(int row)
+    {
+        return !noNulls && (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    public boolean hasNulls()
+    {
+        return !noNulls;
+    }
+
+    public void setNull(int row)
+    {
+        nulls[row >>> 6] |= 1L << row;
+        noNulls = false;
+    }
+
+    protected void setNotNull(int row)
+    {
+        if (!noNulls) {
+            nulls[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    public void reset()
+    {
+        if (!noNulls) {
+            Arrays.fill(nulls, 0L);
+            noNulls = true;
+        }
+    }
+
+    /**
+     * 第 row 行数据的 Column 视图
+     *
+     * @param row 行号
+     * @return Column
+     */
+    public abstract Column getColumn(int row);
+
+    /**
+     * 把一个 Column 的值写入第 row 行，null 或者 rawData 为 null 时记为空值
+     *
+     * @param row 行号
+     * @param column 列数据
+     */
+    public abstract void setColumn(int row, Column column);
+
+    /**
+     * 前 rowCount 行数据的字节数，与行式 Column 的 byteSize 口径一致
+     *
+     * @param rowCount 行数
+     * @return 字节数
+     */
+    public abstract int getByteSize(int rowCount);
+
+    /**
+     * 该 vector 占用的内存大小
+     *
+     * @param rowCount 行数
+     * @return 字节数
+     */
+    public int getMemorySize(int rowCount)
+    {
+        return VECTOR_HEAD + nulls.length * 8 + capacity * 8;
+    }
+}
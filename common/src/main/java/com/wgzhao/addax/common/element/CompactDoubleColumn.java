@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.exception.CommonErrorCode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * 以原生 double 保存数据的 DoubleColumn
+ * <p>
+ * {@link DoubleColumn} 把浮点数先转成字符串保存，每次 asDouble 都要重新解析。
+ * 本类直接保存 double，asDouble 没有任何开销；asString 的结果与 DoubleColumn(Double) 完全一致，
+ * {@link #getRawData()} 也按需生成同样的字符串。
+ * 需要保留精确小数位（如 DECIMAL/NUMERIC）的数据请继续使用 DoubleColumn(String)。
+ */
+public class CompactDoubleColumn
+        extends DoubleColumn
+{
+    private static final double LONG_UPPER_BOUND = 0x1p63;
+
+    private final double value;
+
+    public CompactDoubleColumn(double value)
+    {
+        super();
+        this.value = value;
+        super.setByteSize(8);
+    }
+
+    public double doubleValue()
+    {
+        return value;
+    }
+
+    private boolean isSpecific()
+    {
+        return Double.isNaN(value) || Double.isInfinite(value);
+    }
+
+    @Override
+    public boolean isNull()
+    {
+        return false;
+    }
+
+    @Override
+    public Object getRawData()
+    {
+        Object rawData = super.getRawData();
+        if (null == rawData) {
+            rawData = this.asString();
+            super.setRawData(rawData);
+        }
+        return rawData;
+    }
+
+    @Override
+    public BigDecimal asBigDecimal()
+    {
+        if (isSpecific()) {
+            throw AddaxException.asAddaxException(
+                    CommonErrorCode.CONVERT_NOT_SUPPORT,
+                    String.format("String[%s] 无法转换为Double类型 .", value));
+        }
+        // 与 new BigDecimal(toPlainString()) 的标度保持一致
+        BigDecimal decimal = BigDecimal.valueOf(value);
+        return decimal.scale() < 0 ? decimal.setScale(0) : decimal;
+    }
+
+    @Override
+    public Double asDouble()
+    {
+        return value;
+    }
+
+    @Override
+    public Long asLong()
+    {
+        if (isSpecific() || value >= LONG_UPPER_BOUND || value < -LONG_UPPER_BOUND) {
+            OverFlowUtil.validateLongNotOverFlow(this.asBigInteger());
+        }
+        return (long) value;
+    }
+
+    @Override
+    public BigInteger asBigInteger()
+    {
+        return this.asBigDecimal().toBigInteger();
+    }
+
+    @Override
+    public String asString()
+    {
+        if (isSpecific()) {
+            return String.valueOf(value);
+        }
+        return this.asBigDecimal().toPlainString();
+    }
+}
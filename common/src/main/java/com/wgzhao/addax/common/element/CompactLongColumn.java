@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.exception.CommonErrorCode;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Date;
+
+/**
+ * 以原生 long 保存数据的 LongColumn
+ * <p>
+ * {@link LongColumn} 统一使用 BigInteger 保存数据，每个单元格都要额外分配对象，
+ * 而绝大多数整数都在 long 的范围内。本类直接保存 long，各 asXXX 方法不再做任何解析，
+ * 只有在调用 {@link #getRawData()} 时才按需生成 BigInteger，保持与 LongColumn 一致的行为。
+ * 超出 long 范围的数据请继续使用 LongColumn，{@link #valueOf(String)} 会自动选择。
+ */
+public class CompactLongColumn
+        extends LongColumn
+{
+    private final long value;
+
+    public CompactLongColumn(long value)
+    {
+        super();
+        this.value = value;
+        super.setByteSize(8);
+    }
+
+    /**
+     * 从字符串构造整数列，能用 long 表示的返回 CompactLongColumn，其余（溢出、科学计数法等）退回 LongColumn
+     *
+     * @param data 整数的字符串表示
+     * @return LongColumn
+     */
+    public static LongColumn valueOf(String data)
+    {
+        if (null == data) {
+            return new LongColumn();
+        }
+        try {
+            return new CompactLongColumn(Long.parseLong(data));
+        }
+        catch (NumberFormatException e) {
+            return new LongColumn(data);
+        }
+    }
+
+    public long longValue()
+    {
+        return value;
+    }
+
+    @Override
+    public boolean isNull()
+    {
+        return false;
+    }
+
+    @Override
+    public Object getRawData()
+    {
+        Object rawData = super.getRawData();
+        if (null == rawData) {
+            rawData = BigInteger.valueOf(value);
+            super.setRawData(rawData);
+        }
+        return rawData;
+    }
+
+    @Override
+    public BigInteger asBigInteger()
+    {
+        return BigInteger.valueOf(value);
+    }
+
+    @Override
+    public Long asLong()
+    {
+        return value;
+    }
+
+    @Override
+    public Double asDouble()
+    {
+        return (double) value;
+    }
+
+    @Override
+    public Boolean asBoolean()
+    {
+        return value != 0;
+    }
+
+    @Override
+    public BigDecimal asBigDecimal()
+    {
+        return BigDecimal.valueOf(value);
+    }
+
+    @Override
+    public String asString()
+    {
+        return Long.toString(value);
+    }
+
+    @Override
+    public Date asDate()
+    {
+        return new Date(value);
+    }
+
+    @Override
+    public byte[] asBytes()
+    {
+        throw AddaxException.asAddaxException(
+                CommonErrorCode.CONVERT_NOT_SUPPORT, "Long类型不能转为Bytes .");
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+/**
+ * 以 double[] 保存浮点列
+ */
+public class DoubleColumnVector
+        extends ColumnVector
+{
+    private final double[] vector;
+
+    public DoubleColumnVector(int capacity)
+    {
+        super(Column.Type.DOUBLE, capacity);
+        this.vector = new double[capacity];
+    }
+
+    public double getDouble(int row)
+    {
+        return vector[row];
+    }
+
+    public void setDouble(int row, double value)
+    {
+        vector[row] = value;
+        setNotNull(row);
+    }
+
+    /**
+     * 直接访问底层数组，空值所在位置的值没有意义，需要结合 {@link #isNull(int)} 判断
+     *
+     * @return double array
+     */
+    public double[] getVector()
+    {
+        return vector;
+    }
+
+    @Override
+    public Column getColumn(int row)
+    {
+        return isNull(row) ? new DoubleColumn() : new CompactDoubleColumn(vector[row]);
+    }
+
+    @Override
+    public void setColumn(int row, Column column)
+    {
+        if (null == column || column.isNull()) {
+            setNull(row);
+        }
+        else if (column instanceof CompactDoubleColumn) {
+            setDouble(row, ((CompactDoubleColumn) column).doubleValue());
+        }
+        else {
+            setDouble(row, column.asDouble());
+        }
+    }
+
+    @Override
+    public int getByteSize(int rowCount)
+    {
+        return rowCount * 8;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+/**
+ * 直接保存 Column 对象的 vector，用于日期、布尔、二进制等类型，
+ * 以及由行式 Record 组装而来的批次，保证数据与原始 Column 完全一致
+ */
+public class GenericColumnVector
+        extends ColumnVector
+{
+    // 与框架中 ClassSize.COLUMN_HEAD 保持一致
+    private static final int COLUMN_HEAD = 24;
+
+    private final Column[] vector;
+
+    public GenericColumnVector(Column.Type type, int capacity)
+    {
+        super(type, capacity);
+        this.vector = new Column[capacity];
+    }
+
+    @Override
+    public Column getColumn(int row)
+    {
+        return vector[row];
+    }
+
+    @Override
+    public void setColumn(int row, Column column)
+    {
+        if (null == column || column.isNull()) {
+            setNull(row);
+        }
+        else {
+            setNotNull(row);
+        }
+        vector[row] = column;
+    }
+
+    @Override
+    public int getByteSize(int rowCount)
+    {
+        int size = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (null != vector[i]) {
+                size += vector[i].getByteSize();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int getMemorySize(int rowCount)
+    {
+        return super.getMemorySize(rowCount) + getByteSize(rowCount) + rowCount * COLUMN_HEAD;
+    }
+}
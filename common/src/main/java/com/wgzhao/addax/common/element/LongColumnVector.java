@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+/**
+ * 以 long[] 保存整数列
+ */
+public class LongColumnVector
+        extends ColumnVector
+{
+    private final long[] vector;
+
+    public LongColumnVector(int capacity)
+    {
+        super(Column.Type.LONG, capacity);
+        this.vector = new long[capacity];
+    }
+
+    public long getLong(int row)
+    {
+        return vector[row];
+    }
+
+    public void setLong(int row, long value)
+    {
+        vector[row] = value;
+        setNotNull(row);
+    }
+
+    /**
+     * 直接访问底层数组，空值所在位置的值没有意义，需要结合 {@link #isNull(int)} 判断
+     *
+     * @return long array
+     */
+    public long[] getVector()
+    {
+        return vector;
+    }
+
+    @Override
+    public Column getColumn(int row)
+    {
+        return isNull(row) ? new LongColumn() : new CompactLongColumn(vector[row]);
+    }
+
+    @Override
+    public void setColumn(int row, Column column)
+    {
+        if (null == column || column.isNull()) {
+            setNull(row);
+        }
+        else if (column instanceof CompactLongColumn) {
+            setLong(row, ((CompactLongColumn) column).longValue());
+        }
+        else {
+            setLong(row, column.asLong());
+        }
+    }
+
+    @Override
+    public int getByteSize(int rowCount)
+    {
+        return rowCount * 8;
+    }
+}
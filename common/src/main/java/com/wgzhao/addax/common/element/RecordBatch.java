@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+/**
+ * 列式记录批次，由若干个 {@link ColumnVector} 组成，保存连续 N 行数据
+ * <p>
+ * 通过 {@link com.wgzhao.addax.common.plugin.RecordSender#sendBatchToWriter(RecordBatch)} 和
+ * {@link com.wgzhao.addax.common.plugin.RecordReceiver#getBatchFromReader()} 在 reader 与 writer 之间整体传递，
+ * 一个批次在 channel 中只占用一个槽位，内存按原生数组计算，不再为每一行、每一列计算对象头。
+ * 不理解批次的 writer 仍然通过 getFromReader 拿到逐行的 Record 视图。
+ */
+public class RecordBatch
+{
+    public static final int DEFAULT_SIZE = 1024;
+
+    private final ColumnVector[] vectors;
+
+    private final int capacity;
+
+    private int rowCount = 0;
+
+    public RecordBatch(ColumnVector[] vectors, int capacity)
+    {
+        this.vectors = vectors;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 按列类型创建批次
+     *
+     * @param types 每一列的类型
+     * @param capacity 最大行数
+     * @return RecordBatch
+     */
+    public static RecordBatch create(Column.Type[] types, int capacity)
+    {
+        ColumnVector[] vectors = new ColumnVector[types.length];
+        for (int i = 0; i < types.length; i++) {
+            vectors[i] = ColumnVector.create(types[i], capacity);
+        }
+        return new RecordBatch(vectors, capacity);
+    }
+
+    /**
+     * 创建直接保存 Column 对象的批次，用于把行式 Record 组装成批次，列数由 record 决定
+     *
+     * @param record 参考记录
+     * @param capacity 最大行数
+     * @return RecordBatch
+     */
+    public static RecordBatch createGeneric(Record record, int capacity)
+    {
+        ColumnVector[] vectors = new ColumnVector[record.getColumnNumber()];
+        for (int i = 0; i < vectors.length; i++) {
+            Column column = record.getColumn(i);
+            Column.Type type = null == column ? Column.Type.NULL : column.getType();
+            vectors[i] = new GenericColumnVector(type, capacity);
+        }
+        return new RecordBatch(vectors, capacity);
+    }
+
+    public int getColumnNumber()
+    {
+        return vectors.length;
+    }
+
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * 直接填充 vector 的 reader 在写完数据后设置行数
+     *
+     * @param rowCount 行数
+     */
+    public void setRowCount(int rowCount)
+    {
+        if (rowCount < 0 || rowCount > capacity) {
+            throw new IllegalArgumentException(
+                    String.format("行数[%d]超出批次容量[%d]", rowCount, capacity));
+        }
+        this.rowCount = rowCount;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public boolean isFull()
+    {
+        return rowCount >= capacity;
+    }
+
+    public boolean isEmpty()
+    {
+        return rowCount == 0;
+    }
+
+    public ColumnVector getVector(int col)
+    {
+        return vectors[col];
+    }
+
+    public Column getColumn(int row, int col)
+    {
+        if (col < 0 || col >= vectors.length) {
+            return null;
+        }
+        return vectors[col].getColumn(row);
+    }
+
+    /**
+     * 第 row 行的记录视图，修改该记录不会影响批次中的数据
+     *
+     * @param row 行号
+     * @return Record
+     */
+    public Record getRecord(int row)
+    {
+        return new BatchRowRecord(this, row);
+    }
+
+    /**
+     * 把一条行式记录追加到批次末尾，多出的列被忽略，缺少的列记为空值
+     *
+     * @param record 记录
+     */
+    public void addRecord(Record record)
+    {
+        if (isFull()) {
+            throw new IllegalStateException(String.format("批次已满，容量为[%d]", capacity));
+        }
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i].setColumn(rowCount, record.getColumn(i));
+        }
+        rowCount++;
+    }
+
+    public int getByteSize()
+    {
+        int size = 0;
+        for (ColumnVector vector : vectors) {
+            size += vector.getByteSize(rowCount);
+        }
+        return size;
+    }
+
+    public int getMemorySize()
+    {
+        int size = 0;
+        for (ColumnVector vector : vectors) {
+            size += vector.getMemorySize(rowCount);
+        }
+        return size;
+    }
+
+    /**
+     * 清空批次以便复用，注意批次交给 sendBatchToWriter 之后归 writer 所有，reader 不能再复用
+     */
+    public void reset()
+    {
+        for (ColumnVector vector : vectors) {
+            vector.reset();
+        }
+        rowCount = 0;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.common.element;
+
+/**
+ * 以 String[] 保存字符串列
+ */
+public class StringColumnVector
+        extends ColumnVector
+{
+    private final String[] vector;
+
+    public StringColumnVector(int capacity)
+    {
+        super(Column.Type.STRING, capacity);
+        this.vector = new String[capacity];
+    }
+
+    public String getString(int row)
+    {
+        return vector[row];
+    }
+
+    public void setString(int row, String value)
+    {
+        if (null == value) {
+            setNull(row);
+        }
+        else {
+            setNotNull(row);
+        }
+        vector[row] = value;
+    }
+
+    public String[] getVector()
+    {
+        return vector;
+    }
+
+    @Override
+    public Column getColumn(int row)
+    {
+        return new StringColumn(vector[row]);
+    }
+
+    @Override
+    public void setColumn(int row, Column column)
+    {
+        setString(row, null == column ? null : column.asString());
+    }
+
+    @Override
+    public int getByteSize(int rowCount)
+    {
+        int size = 0;
+        for (int i = 0; i < rowCount; i++) {
+            if (null != vector[i]) {
+                size += vector[i].length();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int getMemorySize(int rowCount)
+    {
+        // String 对象头加上 char 数组头，大致为 40 字节
+        return super.getMemorySize(rowCount) + getByteSize(rowCount) * 2 + rowCount * 40;
+    }
+}
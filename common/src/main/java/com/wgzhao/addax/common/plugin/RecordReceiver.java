@@ -36,11 +36,41 @@
 package com.wgzhao.addax.common.plugin;
 
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.RecordBatch;
 
 public interface RecordReceiver
 {
 
     Record getFromReader();
 
+    /**
+     * 以列式批次读取数据，与 getFromReader 可以交替调用，返回 null 表示数据已经读完。
+     * 默认实现把一条记录包装为单行批次
+     *
+     * @return 列式批次
+     */
+    default RecordBatch getBatchFromReader()
+    {
+        Record record = getFromReader();
+        if (null == record) {
+            return null;
+        }
+        RecordBatch batch = RecordBatch.createGeneric(record, 1);
+        batch.addRecord(record);
+        return batch;
+    }
+
+    /**
+     * writer 处理完一条记录、且不再持有它的引用时，可以调用本方法把记录归还给框架复用。
+     * 仅在开启 core.transport.exchanger.recycle 时生效，默认什么也不做。
+     * 缓存记录的 writer（例如批量提交）必须在批次提交或者脏数据收集完成之后再归还
+     *
+     * @param record 已经处理完的记录
+     */
+    default void recycle(Record record)
+    {
+        //
+    }
+
     void shutdown();
 }
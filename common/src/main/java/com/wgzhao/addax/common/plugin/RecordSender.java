@@ -20,6 +20,7 @@
 package com.wgzhao.addax.common.plugin;
 
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.RecordBatch;
 
 public interface RecordSender
 {
@@ -28,6 +29,23 @@ public interface RecordSender
 
     void sendToWriter(Record record);
 
+    /**
+     * 以列式批次发送数据，批次交出后归 writer 所有，调用方不能再修改或复用。
+     * 默认实现逐行转换为 Record 发送
+     *
+     * @param batch 列式批次
+     */
+    default void sendBatchToWriter(RecordBatch batch)
+    {
+        for (int row = 0; row < batch.getRowCount(); row++) {
+            Record record = createRecord();
+            for (int col = 0; col < batch.getColumnNumber(); col++) {
+                record.addColumn(batch.getColumn(row, col));
+            }
+            sendToWriter(record);
+        }
+    }
+
     void flush();
 
     void terminate();
@@ -36,6 +36,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * PerfTrace 记录 job（local模式），taskGroup（distribute模式），因为这2种都是jvm，即一个jvm里只需要有1个PerfTrace。
@@ -54,6 +56,8 @@ public class PerfTrace
     private final SumPerf4Report sumPerf4Report = new SumPerf4Report();
     private final Set<PerfRecord> needReportPool4NotEnd = new HashSet<>();
     private final List<PerfRecord> totalEndReport = new ArrayList<>();
+    // PHASE => 已结束记录的耗时汇总，运行过程中即可读取
+    private final ConcurrentHashMap<PerfRecord.PHASE, PhaseLatency> phaseLatencies = new ConcurrentHashMap<>();
     private volatile boolean enable;
     private volatile boolean isJob;
     private long instId;
@@ -169,6 +173,10 @@ public class PerfTrace
                 //ArrayList非线程安全
                 PerfRecord.ACTION action = perfRecord.getAction();
                 if (action == PerfRecord.ACTION.END) {
+                    if (perfRecord.getElapsedTimeInNs() >= 0) {
+                        phaseLatencies.computeIfAbsent(perfRecord.getPhase(), k -> new PhaseLatency())
+                                .add(perfRecord.getElapsedTimeInNs());
+                    }
                     synchronized (totalEndReport) {
                         totalEndReport.add(perfRecord);
 
@@ -278,6 +286,11 @@ public class PerfTrace
         return needReportPool4NotEnd;
     }
 
+    public Map<PerfRecord.PHASE, PhaseLatency> getPhaseLatencies()
+    {
+        return phaseLatencies;
+    }
+
     public Map<Integer, String> getTaskDetails()
     {
         return taskDetails;
@@ -503,6 +516,38 @@ public class PerfTrace
         }
     }
 
+    /**
+     * 单个阶段的耗时统计，与 {@link SumPerfRecord4Print} 不同，每条记录结束时立即累加
+     */
+    public static class PhaseLatency
+    {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalTimeInNs = new LongAdder();
+        private final LongAccumulator maxTimeInNs = new LongAccumulator(Math::max, 0L);
+
+        public void add(long elapsedTimeInNs)
+        {
+            count.increment();
+            totalTimeInNs.add(elapsedTimeInNs);
+            maxTimeInNs.accumulate(elapsedTimeInNs);
+        }
+
+        public long getCount()
+        {
+            return count.sum();
+        }
+
+        public long getTotalTimeInNs()
+        {
+            return totalTimeInNs.sum();
+        }
+
+        public long getMaxTimeInNs()
+        {
+            return maxTimeInNs.get();
+        }
+    }
+
     public static class SumPerfRecord4Print
     {
         private long perfTimeTotal = 0;
@@ -26,6 +26,7 @@ import com.wgzhao.addax.common.statistics.PerfTrace;
 import com.wgzhao.addax.common.statistics.VMInfo;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.core.job.JobContainer;
+import com.wgzhao.addax.core.statistics.metrics.MetricsRegistry;
 import com.wgzhao.addax.core.taskgroup.TaskGroupContainer;
 import com.wgzhao.addax.core.util.ConfigParser;
 import com.wgzhao.addax.core.util.ConfigurationValidate;
@@ -104,7 +105,14 @@ public class Engine
         //初始化PerfTrace
         PerfTrace perfTrace = PerfTrace.getInstance(isJob, instanceId, taskGroupId, priority, traceEnable);
         perfTrace.setJobInfo(jobInfoConfig, perfReportEnable, channelNumber);
-        container.start();
+
+        MetricsRegistry.start(allConf);
+        try {
+            container.start();
+        }
+        finally {
+            MetricsRegistry.stop();
+        }
     }
 
     // 注意屏蔽敏感信息
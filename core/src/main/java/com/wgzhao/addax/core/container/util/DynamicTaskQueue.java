@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.container.util;
+
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 动态调度模式下作业级别共享的 task 队列
+ * <p>
+ * task 按 loadBalanceResourceMark 分为多个资源队列，任一 taskGroup 有空闲 channel 时从这里领取下一个 task，
+ * 而不是在启动前就固定分配到某个 taskGroup。领取时优先选择当前运行 task 最少的资源，
+ * 并保证同一资源上同时运行的 task 数不超过 maxChannelPerResource（0 表示不限制）。
+ * 所有方法都在同一把锁下执行，供同一进程内的多个 taskGroupContainer 线程共同使用。
+ */
+public class DynamicTaskQueue
+{
+    private final List<String> resourceMarks = new ArrayList<>();
+
+    private final Map<String, Deque<Configuration>> resourceQueues = new HashMap<>();
+
+    private final Map<String, Integer> runningCount = new HashMap<>();
+
+    private final Map<Integer, String> taskResourceMark = new HashMap<>();
+
+    private final int maxChannelPerResource;
+
+    // 轮询的起始位置，运行数相同的资源之间依次领取
+    private int cursor = 0;
+
+    private int remaining = 0;
+
+    public DynamicTaskQueue(List<Configuration> taskGroupConfigurations, int maxChannelPerResource)
+    {
+        this.maxChannelPerResource = maxChannelPerResource;
+        List<Configuration> taskConfigs = new ArrayList<>();
+        for (Configuration taskGroupConfiguration : taskGroupConfigurations) {
+            taskConfigs.addAll(taskGroupConfiguration.getListConfiguration(CoreConstant.ADDAX_JOB_CONTENT));
+        }
+        Map<Integer, Configuration> taskConfigMap = new HashMap<>();
+        for (Configuration taskConfig : taskConfigs) {
+            taskConfigMap.put(taskConfig.getInt(CoreConstant.TASK_ID), taskConfig);
+        }
+        LinkedHashMap<String, List<Integer>> resourceMarkAndTaskIdMap = JobAssignUtil.parseAndGetResourceMarkAndTaskIdMap(taskConfigs);
+        for (Map.Entry<String, List<Integer>> entry : resourceMarkAndTaskIdMap.entrySet()) {
+            Deque<Configuration> queue = new ArrayDeque<>();
+            for (Integer taskId : entry.getValue()) {
+                queue.addLast(taskConfigMap.get(taskId));
+                taskResourceMark.put(taskId, entry.getKey());
+            }
+            resourceMarks.add(entry.getKey());
+            resourceQueues.put(entry.getKey(), queue);
+            runningCount.put(entry.getKey(), 0);
+            remaining += queue.size();
+        }
+    }
+
+    /**
+     * 领取下一个可以运行的 task
+     *
+     * @return task 配置，队列为空或者所有资源都已达到并发上限时返回 null
+     */
+    public synchronized Configuration poll()
+    {
+        String selected = null;
+        int selectedIndex = -1;
+        int size = resourceMarks.size();
+        for (int i = 0; i < size; i++) {
+            int index = (cursor + i) % size;
+            String resourceMark = resourceMarks.get(index);
+            if (resourceQueues.get(resourceMark).isEmpty()) {
+                continue;
+            }
+            int running = runningCount.get(resourceMark);
+            if (maxChannelPerResource > 0 && running >= maxChannelPerResource) {
+                continue;
+            }
+            if (selected == null || running < runningCount.get(selected)) {
+                selected = resourceMark;
+                selectedIndex = index;
+            }
+        }
+        if (selected == null) {
+            return null;
+        }
+        cursor = (selectedIndex + 1) % size;
+        runningCount.put(selected, runningCount.get(selected) + 1);
+        remaining--;
+        return resourceQueues.get(selected).pollFirst();
+    }
+
+    /**
+     * task 运行结束（不再重试）后归还其资源上的并发名额
+     *
+     * @param taskId task id
+     */
+    public synchronized void release(int taskId)
+    {
+        String resourceMark = taskResourceMark.get(taskId);
+        if (resourceMark != null) {
+            runningCount.put(resourceMark, Math.max(0, runningCount.get(resourceMark) - 1));
+        }
+    }
+
+    /**
+     * @return 是否还有未领取的 task
+     */
+    public synchronized boolean isEmpty()
+    {
+        return remaining == 0;
+    }
+}
@@ -113,7 +113,7 @@ public final class JobAssignUtil
      * @param contentConfig configuration
      * @return hashmap
      */
-    private static LinkedHashMap<String, List<Integer>> parseAndGetResourceMarkAndTaskIdMap(List<Configuration> contentConfig)
+    static LinkedHashMap<String, List<Integer>> parseAndGetResourceMarkAndTaskIdMap(List<Configuration> contentConfig)
     {
         // key: resourceMark, value: taskId
         LinkedHashMap<String, List<Integer>> readerResourceMarkAndTaskIdMap = new LinkedHashMap<>();
@@ -443,7 +443,14 @@ public class JobContainer
         int needChannelNumberByByte = Integer.MAX_VALUE;
         int needChannelNumberByRecord = Integer.MAX_VALUE;
 
-        boolean isByteLimit = (this.configuration.getInt(
+        // 共享限速模式下，作业级别的 byte/record 限速由所有 channel 共用的令牌桶保证，不再据此推算 channel 数
+        boolean isSharedLimit = this.configuration.getBool(
+                CoreConstant.ADDAX_JOB_SETTING_SPEED_SHARED, false);
+        if (isSharedLimit) {
+            LOG.info("Job speed limit is shared by all channels.");
+        }
+
+        boolean isByteLimit = !isSharedLimit && (this.configuration.getInt(
                 CoreConstant.ADDAX_JOB_SETTING_SPEED_BYTE, 0) > 0);
         if (isByteLimit) {
             long globalLimitedByteSpeed = this.configuration.getInt(
@@ -465,7 +472,7 @@ public class JobContainer
             LOG.info("Job set Max-Byte-Speed to {} bytes.", globalLimitedByteSpeed);
         }
 
-        boolean isRecordLimit = (this.configuration.getInt(
+        boolean isRecordLimit = !isSharedLimit && (this.configuration.getInt(
                 CoreConstant.ADDAX_JOB_SETTING_SPEED_RECORD, 0)) > 0;
         if (isRecordLimit) {
             long globalLimitedRecordSpeed = this.configuration.getInt(
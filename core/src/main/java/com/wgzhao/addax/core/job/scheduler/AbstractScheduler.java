@@ -25,8 +25,10 @@ import com.wgzhao.addax.core.meta.State;
 import com.wgzhao.addax.core.statistics.communication.Communication;
 import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
 import com.wgzhao.addax.core.statistics.container.communicator.AbstractContainerCommunicator;
+import com.wgzhao.addax.core.transport.channel.Channel;
 import com.wgzhao.addax.core.util.ErrorRecordChecker;
 import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import com.wgzhao.addax.core.util.StateChangeSignal;
 import com.wgzhao.addax.core.util.container.CoreConstant;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -41,6 +43,9 @@ public abstract class AbstractScheduler
 
     private final AbstractContainerCommunicator containerCommunicator;
 
+    // taskGroup 结束时发出通知，调度循环被立即唤醒，不必等满 jobSleepInterval
+    private final StateChangeSignal taskGroupStateSignal = new StateChangeSignal();
+
     private Long jobId;
 
     public AbstractScheduler(AbstractContainerCommunicator containerCommunicator)
@@ -53,6 +58,11 @@ public abstract class AbstractScheduler
         return jobId;
     }
 
+    protected StateChangeSignal getTaskGroupStateSignal()
+    {
+        return taskGroupStateSignal;
+    }
+
     public void schedule(List<Configuration> configurations)
     {
         Validate.notNull(configurations,
@@ -121,7 +131,10 @@ public abstract class AbstractScheduler
                     dealFailedStat(this.containerCommunicator, nowJobContainerCommunication.getThrowable());
                 }
 
-                Thread.sleep(jobSleepIntervalInMillSec);
+                // 等待 taskGroup 状态变化，最长等待 jobSleepInterval，且不会错过下一次汇报
+                long waitMillis = Math.min(jobSleepIntervalInMillSec,
+                        lastReportTimeStamp + jobReportIntervalInMillSec - System.currentTimeMillis() + 1);
+                taskGroupStateSignal.await(Math.max(1L, waitMillis));
             }
         }
         catch (InterruptedException e) {
@@ -131,6 +144,12 @@ public abstract class AbstractScheduler
             throw AddaxException.asAddaxException(
                     FrameworkErrorCode.RUNTIME_ERROR, e);
         }
+        finally {
+            // 无论成功还是失败，作业结束后都不再需要作业级别的共享限速器
+            if (this.jobId != null) {
+                Channel.removeSharedRateLimiters(this.jobId);
+            }
+        }
     }
 
     protected abstract void startAllTaskGroup(List<Configuration> configurations);
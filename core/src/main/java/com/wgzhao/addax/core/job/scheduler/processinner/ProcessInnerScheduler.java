@@ -21,11 +21,15 @@ package com.wgzhao.addax.core.job.scheduler.processinner;
 
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.container.util.DynamicTaskQueue;
 import com.wgzhao.addax.core.job.scheduler.AbstractScheduler;
 import com.wgzhao.addax.core.statistics.container.communicator.AbstractContainerCommunicator;
 import com.wgzhao.addax.core.taskgroup.TaskGroupContainer;
 import com.wgzhao.addax.core.taskgroup.runner.TaskGroupContainerRunner;
 import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -34,9 +38,16 @@ import java.util.concurrent.Executors;
 public abstract class ProcessInnerScheduler
         extends AbstractScheduler
 {
+    private static final Logger LOG = LoggerFactory.getLogger(ProcessInnerScheduler.class);
+
+    private static final String SCHEDULE_MODE_STATIC = "static";
+
+    private static final String SCHEDULE_MODE_DYNAMIC = "dynamic";
 
     private ExecutorService taskGroupContainerExecutorService;
 
+    private DynamicTaskQueue sharedTaskQueue;
+
     public ProcessInnerScheduler(AbstractContainerCommunicator containerCommunicator)
     {
         super(containerCommunicator);
@@ -45,6 +56,8 @@ public abstract class ProcessInnerScheduler
     @Override
     public void startAllTaskGroup(List<Configuration> configurations)
     {
+        this.sharedTaskQueue = createSharedTaskQueue(configurations);
+
         this.taskGroupContainerExecutorService = Executors
                 .newFixedThreadPool(configurations.size());
 
@@ -77,7 +90,31 @@ public abstract class ProcessInnerScheduler
             Configuration configuration)
     {
         TaskGroupContainer taskGroupContainer = new TaskGroupContainer(configuration);
+        taskGroupContainer.setSharedTaskQueue(this.sharedTaskQueue);
 
-        return new TaskGroupContainerRunner(taskGroupContainer);
+        return new TaskGroupContainerRunner(taskGroupContainer, getTaskGroupStateSignal());
+    }
+
+    /*
+     * 动态调度模式下所有taskGroup共享一个task队列，空闲的channel随时领取下一个task，
+     * 避免某个taskGroup分到的大task拖慢整个作业；静态模式（默认）保持启动前的固定分配
+     */
+    private DynamicTaskQueue createSharedTaskQueue(List<Configuration> configurations)
+    {
+        Configuration firstConfiguration = configurations.get(0);
+        String scheduleMode = firstConfiguration.getString(
+                CoreConstant.ADDAX_JOB_SETTING_SCHEDULE_MODE, SCHEDULE_MODE_STATIC);
+        if (SCHEDULE_MODE_STATIC.equalsIgnoreCase(scheduleMode)) {
+            return null;
+        }
+        if (!SCHEDULE_MODE_DYNAMIC.equalsIgnoreCase(scheduleMode)) {
+            throw AddaxException.asAddaxException(FrameworkErrorCode.CONFIG_ERROR,
+                    String.format("不支持的调度模式 [%s]，仅支持 static 和 dynamic", scheduleMode));
+        }
+        int maxChannelPerResource = firstConfiguration.getInt(
+                CoreConstant.ADDAX_JOB_SETTING_MAX_CHANNEL_PER_RESOURCE, 0);
+        LOG.info("使用动态调度模式，单个资源最大并发数为 [{}]",
+                maxChannelPerResource > 0 ? String.valueOf(maxChannelPerResource) : "不限制");
+        return new DynamicTaskQueue(configurations, maxChannelPerResource);
     }
 }
@@ -25,6 +25,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -37,8 +38,10 @@ public class Communication
     // task给job的信息
     Map<String, List<String>> message;
 
-    // 所有的数值key-value对
+    // 已知的long型counter，按固定下标存储
+    private Counters counters;
 
+    // 其余的数值key-value对，包括double型counter
     private Map<String, Number> counter;
     private Long jobId;
 
@@ -58,30 +61,19 @@ public class Communication
 
     public Communication(Communication communication)
     {
-        for (Map.Entry<String, Number> entry : this.counter.entrySet()) {
-            String key = entry.getKey();
-            Number value = entry.getValue();
-            if (value instanceof Long) {
-                communication.setLongCounter(key, (Long) value);
-            }
-            else if (value instanceof Double) {
-                communication.setDoubleCounter(key, (Double) value);
-            }
-        }
+        this.init();
+        this.counters.addAll(communication.counters);
+        this.counter.putAll(communication.counter);
 
-        communication.setState(this.state, true);
-        communication.setThrowable(this.throwable, true);
-        communication.setTimestamp(this.timestamp);
+        this.setState(communication.state, true);
+        this.setThrowable(communication.throwable, true);
+        this.setTimestamp(communication.timestamp);
 
         /*
          * clone message
          */
-        if (this.message != null) {
-            for (Map.Entry<String, List<String>> entry : this.message.entrySet()) {
-                String key = entry.getKey();
-                List<String> value = new ArrayList<>(entry.getValue());
-                communication.getMessage().put(key, value);
-            }
+        for (Map.Entry<String, List<String>> entry : communication.message.entrySet()) {
+            this.message.put(entry.getKey(), new ArrayList<>(entry.getValue()));
         }
     }
 
@@ -92,6 +84,7 @@ public class Communication
 
     private void init()
     {
+        this.counters = new Counters();
         this.counter = new ConcurrentHashMap<>();
         this.state = State.RUNNING;
         this.throwable = null;
@@ -99,9 +92,26 @@ public class Communication
         this.timestamp = System.currentTimeMillis();
     }
 
+    /**
+     * 返回所有counter的快照，已知counter中只包含非0的值
+     *
+     * @return counter名称与值
+     */
     public Map<String, Number> getCounter()
     {
-        return this.counter;
+        Map<String, Number> snapshot = new HashMap<>(this.counter);
+        long[] values = this.counters.snapshot(new long[Counters.SIZE]);
+        for (int i = 0; i < Counters.SIZE; i++) {
+            if (values[i] != 0) {
+                snapshot.put(Counters.NAMES[i], values[i]);
+            }
+        }
+        return snapshot;
+    }
+
+    public Counters getCounters()
+    {
+        return this.counters;
     }
 
     public synchronized State getState()
@@ -176,16 +186,36 @@ public class Communication
         valueList.add(value);
     }
 
-    public synchronized Long getLongCounter(String key)
+    public Long getLongCounter(String key)
     {
+        int index = Counters.indexOf(key);
+        if (index >= 0) {
+            return this.counters.get(index);
+        }
         Number value = this.counter.get(key);
         return value == null ? 0 : value.longValue();
     }
 
-    public synchronized void setLongCounter(String key, long value)
+    public long getLongCounter(int index)
+    {
+        return this.counters.get(index);
+    }
+
+    public void setLongCounter(String key, long value)
     {
         Validate.isTrue(StringUtils.isNotBlank(key), "设置counter的key不能为空");
-        this.counter.put(key, value);
+        int index = Counters.indexOf(key);
+        if (index >= 0) {
+            this.counters.set(index, value);
+        }
+        else {
+            this.counter.put(key, value);
+        }
+    }
+
+    public void setLongCounter(int index, long value)
+    {
+        this.counters.set(index, value);
     }
 
     public synchronized Double getDoubleCounter(String key)
@@ -201,13 +231,23 @@ public class Communication
         this.counter.put(key, value);
     }
 
-    public synchronized void increaseCounter(String key, long deltaValue)
+    public void increaseCounter(String key, long deltaValue)
     {
         Validate.isTrue(StringUtils.isNotBlank(key), "增加counter的key不能为空");
+        int index = Counters.indexOf(key);
+        if (index >= 0) {
+            this.counters.add(index, deltaValue);
+            return;
+        }
+        synchronized (this) {
+            Number value = this.counter.get(key);
+            this.counter.put(key, (value == null ? 0 : value.longValue()) + deltaValue);
+        }
+    }
 
-        long value = this.getLongCounter(key);
-
-        this.counter.put(key, value + deltaValue);
+    public void increaseCounter(int index, long deltaValue)
+    {
+        this.counters.add(index, deltaValue);
     }
 
     public synchronized Communication mergeFrom(Communication otherComm)
@@ -216,11 +256,14 @@ public class Communication
             return this;
         }
 
+        // 已知counter按下标逐个累加
+        this.counters.addAll(otherComm.counters);
+
         /*
-         * counter的合并，将otherComm的值累加到this中，不存在的则创建
+         * 其余counter的合并，将otherComm的值累加到this中，不存在的则创建
          * 同为long
          */
-        for (Entry<String, Number> entry : otherComm.getCounter().entrySet()) {
+        for (Entry<String, Number> entry : otherComm.counter.entrySet()) {
             String key = entry.getKey();
             Number otherValue = entry.getValue();
             if (otherValue == null) {
@@ -236,7 +279,7 @@ public class Communication
                     value = value.longValue() + otherValue.longValue();
                 }
                 else {
-                    value = value.doubleValue() + value.doubleValue();
+                    value = value.doubleValue() + otherValue.doubleValue();
                 }
             }
 
@@ -54,11 +54,11 @@ public final class CommunicationTool
     public static final String TRANSFORMER_SUCCEED_RECORDS = "totalTransformerSuccessRecords";
     public static final String TRANSFORMER_FAILED_RECORDS = "totalTransformerFailedRecords";
     public static final String TRANSFORMER_FILTER_RECORDS = "totalTransformerFilterRecords";
-    private static final String TOTAL_READ_BYTES = "totalReadBytes";
-    private static final String TOTAL_ERROR_RECORDS = "totalErrorRecords";
-    private static final String TOTAL_ERROR_BYTES = "totalErrorBytes";
-    private static final String WRITE_SUCCEED_RECORDS = "writeSucceedRecords";
-    private static final String WRITE_SUCCEED_BYTES = "writeSucceedBytes";
+    static final String TOTAL_READ_BYTES = "totalReadBytes";
+    static final String TOTAL_ERROR_RECORDS = "totalErrorRecords";
+    static final String TOTAL_ERROR_BYTES = "totalErrorBytes";
+    static final String WRITE_SUCCEED_RECORDS = "writeSucceedRecords";
+    static final String WRITE_SUCCEED_BYTES = "writeSucceedBytes";
     //public static final String TRANSFORMER_NAME_PREFIX = "usedTimeByTransformer_"
 
     private CommunicationTool() {}
@@ -70,12 +70,12 @@ public final class CommunicationTool
 
         long totalReadRecords = getTotalReadRecords(now);
         long totalReadBytes = getTotalReadBytes(now);
-        now.setLongCounter(TOTAL_READ_RECORDS, totalReadRecords);
-        now.setLongCounter(TOTAL_READ_BYTES, totalReadBytes);
-        now.setLongCounter(TOTAL_ERROR_RECORDS, getTotalErrorRecords(now));
-        now.setLongCounter(TOTAL_ERROR_BYTES, getTotalErrorBytes(now));
-        now.setLongCounter(WRITE_SUCCEED_RECORDS, getWriteSucceedRecords(now));
-        now.setLongCounter(WRITE_SUCCEED_BYTES, getWriteSucceedBytes(now));
+        now.setLongCounter(Counters.TOTAL_READ_RECORDS, totalReadRecords);
+        now.setLongCounter(Counters.TOTAL_READ_BYTES, totalReadBytes);
+        now.setLongCounter(Counters.TOTAL_ERROR_RECORDS, getTotalErrorRecords(now));
+        now.setLongCounter(Counters.TOTAL_ERROR_BYTES, getTotalErrorBytes(now));
+        now.setLongCounter(Counters.WRITE_SUCCEED_RECORDS, getWriteSucceedRecords(now));
+        now.setLongCounter(Counters.WRITE_SUCCEED_BYTES, getWriteSucceedBytes(now));
 
         long timeInterval = now.getTimestamp() - old.getTimestamp();
         long sec = timeInterval <= 1000 ? 1 : timeInterval / 1000;
@@ -84,9 +84,9 @@ public final class CommunicationTool
         long recordsSpeed = (totalReadRecords
                 - getTotalReadRecords(old)) / sec;
 
-        now.setLongCounter(BYTE_SPEED, bytesSpeed < 0 ? 0 : bytesSpeed);
-        now.setLongCounter(RECORD_SPEED, recordsSpeed < 0 ? 0 : recordsSpeed);
-        now.setDoubleCounter(PERCENTAGE, now.getLongCounter(STAGE) / (double) totalStage);
+        now.setLongCounter(Counters.BYTE_SPEED, bytesSpeed < 0 ? 0 : bytesSpeed);
+        now.setLongCounter(Counters.RECORD_SPEED, recordsSpeed < 0 ? 0 : recordsSpeed);
+        now.setDoubleCounter(PERCENTAGE, now.getLongCounter(Counters.STAGE) / (double) totalStage);
 
         if (old.getThrowable() != null) {
             now.setThrowable(old.getThrowable());
@@ -98,38 +98,38 @@ public final class CommunicationTool
     public static long getTotalReadRecords(Communication communication)
     {
 
-        return communication.getLongCounter(READ_SUCCEED_RECORDS) +
-                communication.getLongCounter(READ_FAILED_RECORDS);
+        return communication.getLongCounter(Counters.READ_SUCCEED_RECORDS) +
+                communication.getLongCounter(Counters.READ_FAILED_RECORDS);
     }
 
     public static long getTotalReadBytes(Communication communication)
     {
-        return communication.getLongCounter(READ_SUCCEED_BYTES) +
-                communication.getLongCounter(READ_FAILED_BYTES);
+        return communication.getLongCounter(Counters.READ_SUCCEED_BYTES) +
+                communication.getLongCounter(Counters.READ_FAILED_BYTES);
     }
 
     public static long getTotalErrorRecords(Communication communication)
     {
-        return communication.getLongCounter(READ_FAILED_RECORDS) +
-                communication.getLongCounter(WRITE_FAILED_RECORDS);
+        return communication.getLongCounter(Counters.READ_FAILED_RECORDS) +
+                communication.getLongCounter(Counters.WRITE_FAILED_RECORDS);
     }
 
     public static long getTotalErrorBytes(Communication communication)
     {
-        return communication.getLongCounter(READ_FAILED_BYTES) +
-                communication.getLongCounter(WRITE_FAILED_BYTES);
+        return communication.getLongCounter(Counters.READ_FAILED_BYTES) +
+                communication.getLongCounter(Counters.WRITE_FAILED_BYTES);
     }
 
     public static long getWriteSucceedRecords(Communication communication)
     {
-        return communication.getLongCounter(WRITE_RECEIVED_RECORDS) -
-                communication.getLongCounter(WRITE_FAILED_RECORDS);
+        return communication.getLongCounter(Counters.WRITE_RECEIVED_RECORDS) -
+                communication.getLongCounter(Counters.WRITE_FAILED_RECORDS);
     }
 
     public static long getWriteSucceedBytes(Communication communication)
     {
-        return communication.getLongCounter(WRITE_RECEIVED_BYTES) -
-                communication.getLongCounter(WRITE_FAILED_BYTES);
+        return communication.getLongCounter(Counters.WRITE_RECEIVED_BYTES) -
+                communication.getLongCounter(Counters.WRITE_FAILED_BYTES);
     }
 
     public static class Stringify
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.statistics.communication;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link Communication} 中已知 long 型 counter 的定长存储
+ * <p>
+ * 每个已知 counter 对应一个固定下标，读写直接操作 long 槽位，不需要查找哈希表也不产生装箱对象。
+ * 相邻槽位间隔一个缓存行，reader 线程与 writer 线程分别更新各自的 counter 时不会互相干扰。
+ * 未登记的 key 以及 double 型 counter 仍由 {@link Communication} 中的 Map 保存。
+ */
+public final class Counters
+{
+    public static final int STAGE = 0;
+    public static final int READ_SUCCEED_RECORDS = 1;
+    public static final int READ_SUCCEED_BYTES = 2;
+    public static final int READ_FAILED_RECORDS = 3;
+    public static final int READ_FAILED_BYTES = 4;
+    public static final int WRITE_RECEIVED_RECORDS = 5;
+    public static final int WRITE_RECEIVED_BYTES = 6;
+    public static final int WRITE_FAILED_RECORDS = 7;
+    public static final int WRITE_FAILED_BYTES = 8;
+    public static final int WAIT_WRITER_TIME = 9;
+    public static final int WAIT_READER_TIME = 10;
+    public static final int TRANSFORMER_USED_TIME = 11;
+    public static final int TRANSFORMER_SUCCEED_RECORDS = 12;
+    public static final int TRANSFORMER_FAILED_RECORDS = 13;
+    public static final int TRANSFORMER_FILTER_RECORDS = 14;
+    public static final int BYTE_SPEED = 15;
+    public static final int RECORD_SPEED = 16;
+    public static final int TOTAL_READ_RECORDS = 17;
+    public static final int TOTAL_READ_BYTES = 18;
+    public static final int TOTAL_ERROR_RECORDS = 19;
+    public static final int TOTAL_ERROR_BYTES = 20;
+    public static final int WRITE_SUCCEED_RECORDS = 21;
+    public static final int WRITE_SUCCEED_BYTES = 22;
+
+    // 下标与 counter 名称一一对应，名称与 CommunicationTool 中的常量保持一致
+    static final String[] NAMES = {
+            CommunicationTool.STAGE,
+            CommunicationTool.READ_SUCCEED_RECORDS,
+            CommunicationTool.READ_SUCCEED_BYTES,
+            CommunicationTool.READ_FAILED_RECORDS,
+            CommunicationTool.READ_FAILED_BYTES,
+            CommunicationTool.WRITE_RECEIVED_RECORDS,
+            CommunicationTool.WRITE_RECEIVED_BYTES,
+            CommunicationTool.WRITE_FAILED_RECORDS,
+            CommunicationTool.WRITE_FAILED_BYTES,
+            CommunicationTool.WAIT_WRITER_TIME,
+            CommunicationTool.WAIT_READER_TIME,
+            CommunicationTool.TRANSFORMER_USED_TIME,
+            CommunicationTool.TRANSFORMER_SUCCEED_RECORDS,
+            CommunicationTool.TRANSFORMER_FAILED_RECORDS,
+            CommunicationTool.TRANSFORMER_FILTER_RECORDS,
+            CommunicationTool.BYTE_SPEED,
+            CommunicationTool.RECORD_SPEED,
+            CommunicationTool.TOTAL_READ_RECORDS,
+            CommunicationTool.TOTAL_READ_BYTES,
+            CommunicationTool.TOTAL_ERROR_RECORDS,
+            CommunicationTool.TOTAL_ERROR_BYTES,
+            CommunicationTool.WRITE_SUCCEED_RECORDS,
+            CommunicationTool.WRITE_SUCCEED_BYTES
+    };
+
+    public static final int SIZE = NAMES.length;
+
+    private static final Map<String, Integer> INDEX = new HashMap<>();
+
+    // 一个缓存行可以容纳 8 个 long
+    private static final int STRIDE = 8;
+
+    static {
+        for (int i = 0; i < SIZE; i++) {
+            INDEX.put(NAMES[i], i);
+        }
+    }
+
+    // 首尾各留出一个缓存行，避免与数组头或相邻对象共享缓存行
+    private final AtomicLongArray slots = new AtomicLongArray((SIZE + 2) * STRIDE);
+
+    /**
+     * @param key counter 名称
+     * @return 对应的下标，不是已知 counter 时返回 -1
+     */
+    public static int indexOf(String key)
+    {
+        Integer index = INDEX.get(key);
+        return index == null ? -1 : index;
+    }
+
+    private static int offset(int index)
+    {
+        return (index + 1) * STRIDE;
+    }
+
+    public long get(int index)
+    {
+        return slots.get(offset(index));
+    }
+
+    public void set(int index, long value)
+    {
+        slots.set(offset(index), value);
+    }
+
+    public void add(int index, long delta)
+    {
+        slots.getAndAdd(offset(index), delta);
+    }
+
+    /**
+     * 将另一组 counter 逐个累加到当前对象
+     *
+     * @param other 被合并的 counter
+     */
+    public void addAll(Counters other)
+    {
+        for (int i = 0; i < SIZE; i++) {
+            long value = other.get(i);
+            if (value != 0) {
+                add(i, value);
+            }
+        }
+    }
+
+    /**
+     * 将当前值复制到 target，不产生任何装箱对象
+     *
+     * @param target 长度不小于 {@link #SIZE} 的数组
+     * @return target
+     */
+    public long[] snapshot(long[] target)
+    {
+        for (int i = 0; i < SIZE; i++) {
+            target[i] = get(i);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.statistics.metrics;
+
+import com.wgzhao.addax.common.statistics.PerfRecord;
+import com.wgzhao.addax.common.statistics.PerfTrace;
+import com.wgzhao.addax.core.statistics.metrics.MetricsRegistry.Metric;
+import com.wgzhao.addax.core.statistics.metrics.MetricsRegistry.TaskMetrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 以只读属性暴露一组 task 汇总指标的 MBean，每次读取属性时实时计算
+ * <p>
+ * job 级别的 MBean 额外包含各阶段 PerfRecord 的耗时，属性名为 phase_阶段名_count 等，
+ * 仅在 core.container.trace.enable 开启时才有数据。
+ */
+public class MetricsMBean
+        implements DynamicMBean
+{
+    private static final String PHASE_PREFIX = "phase_";
+    private static final String COUNT_SUFFIX = "_count";
+    private static final String TOTAL_SUFFIX = "_nanoseconds_total";
+    private static final String MAX_SUFFIX = "_max_nanoseconds";
+
+    private final Predicate<TaskMetrics> filter;
+
+    private final boolean includePhases;
+
+    public MetricsMBean(Predicate<TaskMetrics> filter, boolean includePhases)
+    {
+        this.filter = filter;
+        this.includePhases = includePhases;
+    }
+
+    @Override
+    public Object getAttribute(String attribute)
+            throws AttributeNotFoundException, MBeanException, ReflectionException
+    {
+        Metric[] metrics = Metric.values();
+        for (int i = 0; i < metrics.length; i++) {
+            if (metrics[i].metricName.equals(attribute)) {
+                return MetricsRegistry.collect(filter)[i];
+            }
+        }
+        if (includePhases && attribute.startsWith(PHASE_PREFIX)) {
+            for (PerfRecord.PHASE phase : PerfRecord.PHASE.values()) {
+                String prefix = PHASE_PREFIX + phase.name();
+                if (!attribute.startsWith(prefix)) {
+                    continue;
+                }
+                String suffix = attribute.substring(prefix.length());
+                PerfTrace.PhaseLatency latency = PerfTrace.getInstance().getPhaseLatencies().get(phase);
+                if (COUNT_SUFFIX.equals(suffix)) {
+                    return latency == null ? 0L : latency.getCount();
+                }
+                if (TOTAL_SUFFIX.equals(suffix)) {
+                    return latency == null ? 0L : latency.getTotalTimeInNs();
+                }
+                if (MAX_SUFFIX.equals(suffix)) {
+                    return latency == null ? 0L : latency.getMaxTimeInNs();
+                }
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute)
+            throws AttributeNotFoundException
+    {
+        throw new AttributeNotFoundException("指标属性是只读的: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes)
+    {
+        AttributeList list = new AttributeList();
+        for (String name : attributes) {
+            try {
+                list.add(new Attribute(name, getAttribute(name)));
+            }
+            catch (Exception ignored) {
+                // 按 DynamicMBean 约定，无法读取的属性不出现在结果中
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes)
+    {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature)
+            throws ReflectionException
+    {
+        throw new ReflectionException(new UnsupportedOperationException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo()
+    {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (Metric metric : Metric.values()) {
+            attributes.add(longAttribute(metric.metricName, metric.help));
+        }
+        if (includePhases) {
+            for (PerfRecord.PHASE phase : PerfRecord.PHASE.values()) {
+                String prefix = PHASE_PREFIX + phase.name();
+                attributes.add(longAttribute(prefix + COUNT_SUFFIX, "Finished records of phase " + phase.name()));
+                attributes.add(longAttribute(prefix + TOTAL_SUFFIX, "Total elapsed time of phase " + phase.name()));
+                attributes.add(longAttribute(prefix + MAX_SUFFIX, "Max elapsed time of phase " + phase.name()));
+            }
+        }
+        return new MBeanInfo(getClass().getName(), "Addax runtime metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+
+    private static MBeanAttributeInfo longAttribute(String name, String description)
+    {
+        return new MBeanAttributeInfo(name, "long", description, true, false, false);
+    }
+}
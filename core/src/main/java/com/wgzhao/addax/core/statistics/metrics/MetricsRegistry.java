@@ -0,0 +1,345 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.statistics.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.statistics.communication.Communication;
+import com.wgzhao.addax.core.statistics.communication.Counters;
+import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * 运行时指标的登记与导出
+ * <p>
+ * taskGroupContainer 在启动 task 时登记 task 的 Communication 与 Channel，
+ * 导出时直接读取这些对象的当前值，按 job、taskGroup、task 三个层次汇总，
+ * 因此可以在作业运行过程中随时判断瓶颈在源端、目的端还是 channel，而不必等待作业结束时的汇总。
+ * 支持 JMX（core.metrics.jmx.enable）和本地 HTTP 端口（core.metrics.http.port）两种方式，均默认关闭。
+ */
+public final class MetricsRegistry
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    static final String JMX_DOMAIN = "com.wgzhao.addax";
+
+    private static final Map<Integer, TaskMetrics> TASKS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = false;
+
+    private static volatile boolean jmxEnabled = false;
+
+    private static long jobId;
+
+    private static HttpServer httpServer;
+
+    private MetricsRegistry() {}
+
+    /**
+     * 按配置启动指标导出，未开启任何导出方式时不做任何事
+     *
+     * @param configuration 作业或 taskGroup 的完整配置
+     */
+    public static synchronized void start(Configuration configuration)
+    {
+        boolean jmx = configuration.getBool(CoreConstant.ADDAX_CORE_METRICS_JMX_ENABLE, false);
+        int port = configuration.getInt(CoreConstant.ADDAX_CORE_METRICS_HTTP_PORT, 0);
+        if (!jmx && port <= 0) {
+            return;
+        }
+        jobId = configuration.getLong(CoreConstant.ADDAX_CORE_CONTAINER_JOB_ID, 0);
+        TASKS.clear();
+        if (jmx) {
+            registerMBean(jobObjectName(), new MetricsMBean(task -> true, true));
+            jmxEnabled = true;
+            LOG.info("Metrics are exported over JMX under domain [{}].", JMX_DOMAIN);
+        }
+        if (port > 0) {
+            String host = configuration.getString(CoreConstant.ADDAX_CORE_METRICS_HTTP_HOST, "127.0.0.1");
+            try {
+                httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+                httpServer.createContext("/metrics", new PrometheusHandler());
+                httpServer.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "metrics-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+                httpServer.start();
+                LOG.info("Metrics are exported at http://{}:{}/metrics .", host, port);
+            }
+            catch (Exception e) {
+                // 指标导出失败不影响作业运行
+                httpServer = null;
+                LOG.warn("无法在 {}:{} 上启动指标 HTTP 服务: {}", host, port, e.getMessage());
+            }
+        }
+        enabled = true;
+    }
+
+    public static synchronized void stop()
+    {
+        if (!enabled) {
+            return;
+        }
+        enabled = false;
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (jmxEnabled) {
+            jmxEnabled = false;
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            try {
+                for (ObjectName name : server.queryNames(new ObjectName(JMX_DOMAIN + ":*"), null)) {
+                    server.unregisterMBean(name);
+                }
+            }
+            catch (Exception e) {
+                LOG.warn("注销指标 MBean 失败: {}", e.getMessage());
+            }
+        }
+        TASKS.clear();
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * 登记一个开始运行的 task，重试时会以新的 Communication 覆盖原来的登记。
+     * 重试前各次执行的累计值会并入新登记的基数，保证 *_total 指标不会回退
+     *
+     * @param taskGroupId taskGroup id
+     * @param taskId task id
+     * @param communication task 的 Communication
+     * @param channel task 使用的 channel
+     */
+    public static void registerTask(int taskGroupId, int taskId, Communication communication, Channel channel)
+    {
+        if (!enabled) {
+            return;
+        }
+        TaskMetrics previous = TASKS.get(taskId);
+        long[] base = new long[Metric.values().length];
+        if (previous != null) {
+            for (Metric metric : Metric.values()) {
+                if (metric.counter) {
+                    base[metric.ordinal()] = metric.read(previous);
+                }
+            }
+        }
+        TASKS.put(taskId, new TaskMetrics(taskGroupId, taskId, communication, channel, base));
+        if (jmxEnabled) {
+            registerMBean(taskGroupObjectName(taskGroupId),
+                    new MetricsMBean(task -> task.taskGroupId == taskGroupId, false));
+            registerMBean(taskObjectName(taskGroupId, taskId),
+                    new MetricsMBean(task -> task.taskId == taskId, false));
+        }
+    }
+
+    /**
+     * task 结束后不再持有 channel，已结束 task 的计数仍计入 job 和 taskGroup 的累计值
+     *
+     * @param taskId task id
+     */
+    public static void finishTask(int taskId)
+    {
+        TaskMetrics task = TASKS.get(taskId);
+        if (task != null) {
+            task.channel = null;
+        }
+    }
+
+    static long getJobId()
+    {
+        return jobId;
+    }
+
+    static Collection<TaskMetrics> getTasks()
+    {
+        return TASKS.values();
+    }
+
+    /**
+     * 汇总满足条件的 task 的所有指标
+     *
+     * @param filter task 过滤条件
+     * @return 按 {@link Metric} 顺序排列的值
+     */
+    static long[] collect(Predicate<TaskMetrics> filter)
+    {
+        Metric[] metrics = Metric.values();
+        long[] values = new long[metrics.length];
+        for (TaskMetrics task : TASKS.values()) {
+            if (!filter.test(task)) {
+                continue;
+            }
+            for (int i = 0; i < metrics.length; i++) {
+                values[i] += metrics[i].read(task);
+            }
+        }
+        return values;
+    }
+
+    static List<Integer> getTaskGroupIds()
+    {
+        List<Integer> ids = new ArrayList<>();
+        for (TaskMetrics task : TASKS.values()) {
+            if (!ids.contains(task.taskGroupId)) {
+                ids.add(task.taskGroupId);
+            }
+        }
+        return ids;
+    }
+
+    private static ObjectName jobObjectName()
+    {
+        return objectName(String.format("%s:type=Job,jobId=%d", JMX_DOMAIN, jobId));
+    }
+
+    private static ObjectName taskGroupObjectName(int taskGroupId)
+    {
+        return objectName(String.format("%s:type=TaskGroup,jobId=%d,taskGroupId=%d", JMX_DOMAIN, jobId, taskGroupId));
+    }
+
+    private static ObjectName taskObjectName(int taskGroupId, int taskId)
+    {
+        return objectName(String.format("%s:type=Task,jobId=%d,taskGroupId=%d,taskId=%d",
+                JMX_DOMAIN, jobId, taskGroupId, taskId));
+    }
+
+    private static ObjectName objectName(String name)
+    {
+        try {
+            return new ObjectName(name);
+        }
+        catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void registerMBean(ObjectName name, MetricsMBean mbean)
+    {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (!server.isRegistered(name)) {
+                server.registerMBean(mbean, name);
+            }
+        }
+        catch (Exception e) {
+            // 并发注册同一个 taskGroup 时可能已被其他线程注册，忽略即可
+            LOG.debug("注册 MBean [{}] 失败: {}", name, e.getMessage());
+        }
+    }
+
+    static final class TaskMetrics
+    {
+        final int taskGroupId;
+
+        final int taskId;
+
+        final Communication communication;
+
+        volatile Channel channel;
+
+        // 失败重试之前各次执行的累计值，按 Metric 的顺序排列
+        final long[] base;
+
+        TaskMetrics(int taskGroupId, int taskId, Communication communication, Channel channel, long[] base)
+        {
+            this.taskGroupId = taskGroupId;
+            this.taskId = taskId;
+            this.communication = communication;
+            this.channel = channel;
+            this.base = base;
+        }
+    }
+
+    /**
+     * 导出的指标，名称同时用作 JMX 属性名和 Prometheus 指标名的后缀
+     */
+    enum Metric
+    {
+        READ_RECORDS("read_records_total", true, "Records read from the source",
+                task -> task.communication.getLongCounter(Counters.READ_SUCCEED_RECORDS)),
+        READ_BYTES("read_bytes_total", true, "Bytes read from the source",
+                task -> task.communication.getLongCounter(Counters.READ_SUCCEED_BYTES)),
+        WRITE_RECORDS("write_records_total", true, "Records written to the sink",
+                task -> task.communication.getLongCounter(Counters.WRITE_RECEIVED_RECORDS)
+                        - task.communication.getLongCounter(Counters.WRITE_FAILED_RECORDS)),
+        WRITE_BYTES("write_bytes_total", true, "Bytes written to the sink",
+                task -> task.communication.getLongCounter(Counters.WRITE_RECEIVED_BYTES)
+                        - task.communication.getLongCounter(Counters.WRITE_FAILED_BYTES)),
+        DIRTY_RECORDS("dirty_records_total", true, "Dirty records on the reader and writer side",
+                task -> task.communication.getLongCounter(Counters.READ_FAILED_RECORDS)
+                        + task.communication.getLongCounter(Counters.WRITE_FAILED_RECORDS)),
+        DIRTY_BYTES("dirty_bytes_total", true, "Dirty bytes on the reader and writer side",
+                task -> task.communication.getLongCounter(Counters.READ_FAILED_BYTES)
+                        + task.communication.getLongCounter(Counters.WRITE_FAILED_BYTES)),
+        WAIT_READER("wait_reader_nanoseconds_total", true, "Time the writer waited for the reader to fill the channel",
+                task -> task.communication.getLongCounter(Counters.WAIT_READER_TIME)),
+        WAIT_WRITER("wait_writer_nanoseconds_total", true, "Time the reader waited for free space in the channel",
+                task -> task.communication.getLongCounter(Counters.WAIT_WRITER_TIME)),
+        CHANNEL_RECORDS("channel_records", false, "Records currently buffered in the channel",
+                task -> {
+                    Channel channel = task.channel;
+                    return channel == null ? 0 : channel.size();
+                }),
+        RUNNING_TASKS("running_tasks", false, "Tasks currently running",
+                task -> task.channel == null ? 0 : 1);
+
+        final String metricName;
+
+        final boolean counter;
+
+        final String help;
+
+        private final ToLongFunction<TaskMetrics> reader;
+
+        Metric(String metricName, boolean counter, String help, ToLongFunction<TaskMetrics> reader)
+        {
+            this.metricName = metricName;
+            this.counter = counter;
+            this.help = help;
+            this.reader = reader;
+        }
+
+        long read(TaskMetrics task)
+        {
+            return task.base[ordinal()] + reader.applyAsLong(task);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.statistics.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.wgzhao.addax.common.statistics.PerfRecord;
+import com.wgzhao.addax.common.statistics.PerfTrace;
+import com.wgzhao.addax.core.statistics.metrics.MetricsRegistry.Metric;
+import com.wgzhao.addax.core.statistics.metrics.MetricsRegistry.TaskMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 以 Prometheus 文本格式输出 job、taskGroup、task 三个层次的指标
+ */
+public class PrometheusHandler
+        implements HttpHandler
+{
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Override
+    public void handle(HttpExchange exchange)
+            throws IOException
+    {
+        byte[] body;
+        int status = 200;
+        if ("GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+            body = render().getBytes(StandardCharsets.UTF_8);
+        }
+        else {
+            status = 405;
+            body = new byte[0];
+        }
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    static String render()
+    {
+        StringBuilder sb = new StringBuilder(4096);
+        String job = String.valueOf(MetricsRegistry.getJobId());
+        Metric[] metrics = Metric.values();
+
+        long[] jobValues = MetricsRegistry.collect(task -> true);
+        List<Integer> taskGroupIds = MetricsRegistry.getTaskGroupIds();
+        List<long[]> taskGroupValues = new ArrayList<>(taskGroupIds.size());
+        for (Integer taskGroupId : taskGroupIds) {
+            taskGroupValues.add(MetricsRegistry.collect(task -> task.taskGroupId == taskGroupId));
+        }
+        List<TaskMetrics> tasks = new ArrayList<>(MetricsRegistry.getTasks());
+
+        for (int i = 0; i < metrics.length; i++) {
+            Metric metric = metrics[i];
+            String type = metric.counter ? "counter" : "gauge";
+
+            String name = "addax_job_" + metric.metricName;
+            header(sb, name, metric.help, type);
+            sample(sb, name, "job=\"" + job + "\"", jobValues[i]);
+
+            name = "addax_task_group_" + metric.metricName;
+            header(sb, name, metric.help, type);
+            for (int j = 0; j < taskGroupIds.size(); j++) {
+                sample(sb, name, "job=\"" + job + "\",task_group=\"" + taskGroupIds.get(j) + "\"",
+                        taskGroupValues.get(j)[i]);
+            }
+
+            name = "addax_task_" + metric.metricName;
+            header(sb, name, metric.help, type);
+            for (TaskMetrics task : tasks) {
+                sample(sb, name, "job=\"" + job + "\",task_group=\"" + task.taskGroupId
+                        + "\",task=\"" + task.taskId + "\"", metric.read(task));
+            }
+        }
+
+        renderPhases(sb, job);
+        return sb.toString();
+    }
+
+    /*
+     * PerfRecord 的各阶段耗时，仅在开启 trace 时才有数据
+     */
+    private static void renderPhases(StringBuilder sb, String job)
+    {
+        Map<PerfRecord.PHASE, PerfTrace.PhaseLatency> latencies = PerfTrace.getInstance().getPhaseLatencies();
+        header(sb, "addax_job_phase_count_total", "Finished perf records per phase", "counter");
+        for (Map.Entry<PerfRecord.PHASE, PerfTrace.PhaseLatency> entry : latencies.entrySet()) {
+            sample(sb, "addax_job_phase_count_total", phaseLabels(job, entry.getKey()), entry.getValue().getCount());
+        }
+        header(sb, "addax_job_phase_nanoseconds_total", "Total elapsed time per phase", "counter");
+        for (Map.Entry<PerfRecord.PHASE, PerfTrace.PhaseLatency> entry : latencies.entrySet()) {
+            sample(sb, "addax_job_phase_nanoseconds_total", phaseLabels(job, entry.getKey()), entry.getValue().getTotalTimeInNs());
+        }
+        header(sb, "addax_job_phase_max_nanoseconds", "Max elapsed time per phase", "gauge");
+        for (Map.Entry<PerfRecord.PHASE, PerfTrace.PhaseLatency> entry : latencies.entrySet()) {
+            sample(sb, "addax_job_phase_max_nanoseconds", phaseLabels(job, entry.getKey()), entry.getValue().getMaxTimeInNs());
+        }
+    }
+
+    private static String phaseLabels(String job, PerfRecord.PHASE phase)
+    {
+        return "job=\"" + job + "\",phase=\"" + phase.name() + "\"";
+    }
+
+    private static void header(StringBuilder sb, String name, String help, String type)
+    {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, long value)
+    {
+        sb.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+}
@@ -29,11 +29,13 @@ import com.wgzhao.addax.common.statistics.PerfTrace;
 import com.wgzhao.addax.common.statistics.VMInfo;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.core.AbstractContainer;
+import com.wgzhao.addax.core.container.util.DynamicTaskQueue;
 import com.wgzhao.addax.core.meta.State;
 import com.wgzhao.addax.core.statistics.communication.Communication;
 import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
 import com.wgzhao.addax.core.statistics.communication.LocalTGCommunicationManager;
 import com.wgzhao.addax.core.statistics.container.communicator.taskgroup.StandaloneTGContainerCommunicator;
+import com.wgzhao.addax.core.statistics.metrics.MetricsRegistry;
 import com.wgzhao.addax.core.statistics.plugin.task.AbstractTaskPluginCollector;
 import com.wgzhao.addax.core.taskgroup.runner.AbstractRunner;
 import com.wgzhao.addax.core.taskgroup.runner.ReaderRunner;
@@ -44,6 +46,7 @@ import com.wgzhao.addax.core.transport.exchanger.BufferedRecordTransformerExchan
 import com.wgzhao.addax.core.transport.transformer.TransformerExecution;
 import com.wgzhao.addax.core.util.ClassUtil;
 import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import com.wgzhao.addax.core.util.StateChangeSignal;
 import com.wgzhao.addax.core.util.TransformerUtil;
 import com.wgzhao.addax.core.util.container.CoreConstant;
 import com.wgzhao.addax.core.util.container.LoadUtil;
@@ -53,11 +56,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 public class TaskGroupContainer
         extends AbstractContainer
@@ -87,6 +92,14 @@ public class TaskGroupContainer
 
     private final TaskMonitor taskMonitor = TaskMonitor.getInstance();
 
+    // task 的 reader、writer 线程结束时发出通知，唤醒调度循环
+    private final StateChangeSignal taskStateSignal = new StateChangeSignal();
+
+    /**
+     * 动态调度模式下作业共享的task队列，静态模式下为null
+     */
+    private DynamicTaskQueue sharedTaskQueue;
+
     public TaskGroupContainer(Configuration configuration)
     {
         super(configuration);
@@ -119,6 +132,11 @@ public class TaskGroupContainer
         return taskGroupId;
     }
 
+    public void setSharedTaskQueue(DynamicTaskQueue sharedTaskQueue)
+    {
+        this.sharedTaskQueue = sharedTaskQueue;
+    }
+
     @Override
     public void start()
     {
@@ -147,8 +165,10 @@ public class TaskGroupContainer
 
             long taskMaxWaitInMsec = this.configuration.getLong(CoreConstant.ADDAX_CORE_CONTAINER_TASK_FAILOVER_MAXWAITINMSEC, 60000);
 
-            List<Configuration> taskConfigs = this.configuration
-                    .getListConfiguration(CoreConstant.ADDAX_JOB_CONTENT);
+            // 动态调度模式下不使用预先分配的task，运行时从共享队列领取
+            List<Configuration> taskConfigs = this.sharedTaskQueue == null
+                    ? this.configuration.getListConfiguration(CoreConstant.ADDAX_JOB_CONTENT)
+                    : new ArrayList<>();
 
             if (LOG.isDebugEnabled()) {
                 LOG.debug("taskGroup[{}]'s task configs[{}]", this.taskGroupId,
@@ -156,8 +176,14 @@ public class TaskGroupContainer
             }
 
             int taskCountInThisTaskGroup = taskConfigs.size();
-            LOG.info("taskGroupId=[{}] start [{}] channels for [{}] tasks.",
-                    this.taskGroupId, channelNumber, taskCountInThisTaskGroup);
+            if (this.sharedTaskQueue == null) {
+                LOG.info("taskGroupId=[{}] start [{}] channels for [{}] tasks.",
+                        this.taskGroupId, channelNumber, taskCountInThisTaskGroup);
+            }
+            else {
+                LOG.info("taskGroupId=[{}] start [{}] channels, tasks are pulled from the shared queue.",
+                        this.taskGroupId, channelNumber);
+            }
 
             this.containerCommunicator.registerCommunication(taskConfigs);
 
@@ -184,6 +210,7 @@ public class TaskGroupContainer
 
                     //上面从runTasks里移除了，因此对应在monitor里移除
                     taskMonitor.removeTask(taskId);
+                    MetricsRegistry.finishTask(taskId);
 
                     //失败，看task是否支持failover，重试次数未超过最大限制
                     if (taskCommunication.getState() == State.FAILED) {
@@ -215,6 +242,9 @@ public class TaskGroupContainer
                                     usedTime * 1000L * 1000L);
                             taskStartTimeMap.remove(taskId);
                             taskConfigMap.remove(taskId);
+                            if (sharedTaskQueue != null) {
+                                sharedTaskQueue.release(taskId);
+                            }
                         }
                     }
                 }
@@ -274,8 +304,30 @@ public class TaskGroupContainer
                             this.taskGroupId, taskId, attemptCount);
                 }
 
+                //3.1 动态调度模式下，空闲的channel从共享队列领取新的task，失败重试的task仍在本taskGroup内优先执行
+                while (sharedTaskQueue != null && runTasks.size() < channelNumber) {
+                    Configuration taskConfig = sharedTaskQueue.poll();
+                    if (taskConfig == null) {
+                        break;
+                    }
+                    Integer taskId = taskConfig.getInt(CoreConstant.TASK_ID);
+                    this.containerCommunicator.registerCommunication(Collections.singletonList(taskConfig));
+                    taskConfigMap.put(taskId, taskConfig);
+                    taskCountInThisTaskGroup++;
+
+                    Configuration taskConfigForRun = taskMaxRetryTimes > 1 ? taskConfig.clone() : taskConfig;
+                    TaskExecutor taskExecutor = new TaskExecutor(taskConfigForRun, 1);
+                    taskStartTimeMap.put(taskId, System.currentTimeMillis());
+                    taskExecutor.doStart();
+                    runTasks.add(taskExecutor);
+                    taskMonitor.registerTask(taskId, this.containerCommunicator.getCommunication(taskId));
+                    LOG.debug("taskGroup[{}] taskId[{}] is pulled from the shared queue and started",
+                            this.taskGroupId, taskId);
+                }
+
                 //4.任务列表为空，executor已结束, 搜集状态为success--->成功
-                if (taskQueue.isEmpty() && isAllTaskDone(runTasks) && containerCommunicator.collectState() == State.SUCCEEDED) {
+                if (taskQueue.isEmpty() && (sharedTaskQueue == null || sharedTaskQueue.isEmpty())
+                        && isAllTaskDone(runTasks) && containerCommunicator.collectState() == State.SUCCEEDED) {
                     // 成功的情况下，也需要汇报一次。否则在任务结束非常快的情况下，采集的信息将会不准确
                     lastTaskGroupContainerCommunication = reportTaskGroupCommunication(
                             lastTaskGroupContainerCommunication, taskCountInThisTaskGroup);
@@ -298,7 +350,10 @@ public class TaskGroupContainer
                     }
                 }
 
-                Thread.sleep(sleepIntervalInMillSec);
+                // 等待task状态变化，最长等待 sleepInterval，且不会错过下一次汇报
+                long waitMillis = Math.min(sleepIntervalInMillSec,
+                        lastReportTimeStamp + reportIntervalInMillSec - System.currentTimeMillis() + 1);
+                taskStateSignal.await(Math.max(1L, waitMillis));
             }
 
             //6.最后还要汇报一次
@@ -429,6 +484,9 @@ public class TaskGroupContainer
 
         private final WriterRunner writerRunner;
 
+        // reader 和 writer 的 run 方法都返回后归零
+        private final CountDownLatch runnerLatch = new CountDownLatch(2);
+
         /**
          * 该处的taskCommunication在多处用到：
          * 1. channel
@@ -460,6 +518,7 @@ public class TaskGroupContainer
             this.channel = ClassUtil.instantiate(channelClazz,
                     Channel.class, configuration);
             this.channel.setCommunication(this.taskCommunication);
+            MetricsRegistry.registerTask(taskGroupId, taskId, this.taskCommunication, this.channel);
 
             /*
              * 获取transformer的参数
@@ -471,7 +530,7 @@ public class TaskGroupContainer
              * 生成writerThread
              */
             writerRunner = (WriterRunner) generateRunner(PluginType.WRITER);
-            this.writerThread = new Thread(writerRunner,
+            this.writerThread = new Thread(notifyOnExit(writerRunner),
                     String.format("%d-%d-%d-writer",
                             jobId, taskGroupId, this.taskId));
             //通过设置thread的contextClassLoader，即可实现同步和主程序不通的加载器
@@ -483,7 +542,7 @@ public class TaskGroupContainer
              * 生成readerThread
              */
             readerRunner = (ReaderRunner) generateRunner(PluginType.READER, transformerInfoExecs);
-            this.readerThread = new Thread(readerRunner,
+            this.readerThread = new Thread(notifyOnExit(readerRunner),
                     String.format("%d-%d-%d-reader",
                             jobId, taskGroupId, this.taskId));
             /*
@@ -516,6 +575,19 @@ public class TaskGroupContainer
             }
         }
 
+        private Runnable notifyOnExit(Runnable runner)
+        {
+            return () -> {
+                try {
+                    runner.run();
+                }
+                finally {
+                    runnerLatch.countDown();
+                    taskStateSignal.signal();
+                }
+            };
+        }
+
         private AbstractRunner generateRunner(PluginType pluginType)
         {
             return generateRunner(pluginType, null);
@@ -585,7 +657,7 @@ public class TaskGroupContainer
         private boolean isTaskFinished()
         {
             // 如果reader 或 writer没有完成工作，那么直接返回工作没有完成
-            if (readerThread.isAlive() || writerThread.isAlive()) {
+            if (runnerLatch.getCount() > 0) {
                 return false;
             }
 
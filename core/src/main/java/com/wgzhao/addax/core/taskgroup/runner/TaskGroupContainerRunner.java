@@ -23,6 +23,7 @@ import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.core.meta.State;
 import com.wgzhao.addax.core.taskgroup.TaskGroupContainer;
 import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import com.wgzhao.addax.core.util.StateChangeSignal;
 
 public class TaskGroupContainerRunner
         implements Runnable
@@ -30,11 +31,14 @@ public class TaskGroupContainerRunner
 
     private final TaskGroupContainer taskGroupContainer;
 
+    private final StateChangeSignal stateSignal;
+
     private State state;
 
-    public TaskGroupContainerRunner(TaskGroupContainer taskGroup)
+    public TaskGroupContainerRunner(TaskGroupContainer taskGroup, StateChangeSignal stateSignal)
     {
         this.taskGroupContainer = taskGroup;
+        this.stateSignal = stateSignal;
         this.state = State.SUCCEEDED;
     }
 
@@ -52,6 +56,12 @@ public class TaskGroupContainerRunner
             throw AddaxException.asAddaxException(
                     FrameworkErrorCode.RUNTIME_ERROR, e);
         }
+        finally {
+            // taskGroup 结束前已经汇报了最终状态，通知调度器立即检查
+            if (stateSignal != null) {
+                stateSignal.signal();
+            }
+        }
     }
 
     public TaskGroupContainer getTaskGroupContainer()
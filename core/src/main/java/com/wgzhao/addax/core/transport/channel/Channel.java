@@ -20,28 +20,40 @@
 package com.wgzhao.addax.core.transport.channel;
 
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.core.statistics.communication.Communication;
-import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
+import com.wgzhao.addax.core.statistics.communication.Counters;
+import com.wgzhao.addax.core.transport.channel.limiter.RateLimiter;
+import com.wgzhao.addax.core.transport.channel.limiter.TokenBucketRateLimiter;
+import com.wgzhao.addax.core.transport.record.ColumnarRecord;
+import com.wgzhao.addax.core.transport.record.RecordPool;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
+import com.wgzhao.addax.core.util.FrameworkErrorCode;
 import com.wgzhao.addax.core.util.container.CoreConstant;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Created by jingxing on 14-8-25.
  * <p>
  * 统计和限速都在这里
+ * <p>
+ * 限速采用令牌桶，每次 push 按批次申请记录数和字节数对应的令牌，
+ * 开启 job.setting.speed.shared 后，作业级别的 byte/record 限速由所有 channel 共享同一个令牌桶
  */
 public abstract class Channel
 {
 
     private static final Logger LOG = LoggerFactory.getLogger(Channel.class);
+    // 作业级别共享的限速器，同一作业的所有 channel 共用，key 为 jobId-类型，作业结束时由调度器移除
+    private static final Map<String, RateLimiter> SHARED_LIMITERS = new ConcurrentHashMap<>();
     private static Boolean isFirstPrint = true;
-    private final Communication lastCommunication = new Communication();
     protected int taskGroupId;
     protected int capacity;
     protected int byteCapacity;
@@ -53,6 +65,13 @@ public abstract class Channel
     protected volatile long waitReaderTime = 0;
     protected volatile long waitWriterTime = 0;
     private Communication currentCommunication;
+    private final RateLimiter byteLimiter;
+    private final RateLimiter recordLimiter;
+    private final RateLimiter jobByteLimiter;
+    private final RateLimiter jobRecordLimiter;
+
+    // reader 端和 writer 端的 exchanger 通过同一个 channel 共享该 task 的记录对象池
+    private final RecordPool recordPool;
 
     public Channel(Configuration configuration)
     {
@@ -82,6 +101,7 @@ public abstract class Channel
         this.taskGroupId = configuration.getInt(
                 CoreConstant.ADDAX_CORE_CONTAINER_TASKGROUP_ID);
         this.capacity = capacity;
+        this.recordPool = new RecordPool(configuration);
         this.byteSpeed = byteSpeed;
         this.recordSpeed = recordSpeed;
         this.flowControlInterval = configuration.getLong(
@@ -90,6 +110,27 @@ public abstract class Channel
         this.byteCapacity = configuration.getInt(
                 CoreConstant.ADDAX_CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE, 8 * 1024 * 1024);
         this.configuration = configuration;
+
+        // flowControlInterval 作为令牌桶的突发窗口，空闲时最多积攒这么长时间的令牌
+        String limiterClass = configuration.getString(
+                CoreConstant.ADDAX_CORE_TRANSPORT_CHANNEL_RATELIMITER_CLASS,
+                TokenBucketRateLimiter.class.getName());
+        this.byteLimiter = byteSpeed > 0 ? newRateLimiter(limiterClass, byteSpeed, flowControlInterval) : null;
+        this.recordLimiter = recordSpeed > 0 ? newRateLimiter(limiterClass, recordSpeed, flowControlInterval) : null;
+
+        if (configuration.getBool(CoreConstant.ADDAX_JOB_SETTING_SPEED_SHARED, false)) {
+            long jobId = configuration.getLong(CoreConstant.ADDAX_CORE_CONTAINER_JOB_ID, 0L);
+            long jobByteSpeed = configuration.getLong(CoreConstant.ADDAX_JOB_SETTING_SPEED_BYTE, 0L);
+            long jobRecordSpeed = configuration.getLong(CoreConstant.ADDAX_JOB_SETTING_SPEED_RECORD, 0L);
+            this.jobByteLimiter = jobByteSpeed <= 0 ? null :
+                    sharedRateLimiter(jobId + "-byte", limiterClass, jobByteSpeed, flowControlInterval);
+            this.jobRecordLimiter = jobRecordSpeed <= 0 ? null :
+                    sharedRateLimiter(jobId + "-record", limiterClass, jobRecordSpeed, flowControlInterval);
+        }
+        else {
+            this.jobByteLimiter = null;
+            this.jobRecordLimiter = null;
+        }
     }
 
     public void close()
@@ -117,17 +158,23 @@ public abstract class Channel
         return this.configuration;
     }
 
+    public RecordPool getRecordPool()
+    {
+        return this.recordPool;
+    }
+
     public void setCommunication(final Communication communication)
     {
         this.currentCommunication = communication;
-        this.lastCommunication.reset();
     }
 
     public void push(Record r)
     {
         Validate.notNull(r, "record不能为空.");
+        long recordSize = this.getRecordCount(r);
+        this.flowControl(recordSize, r.getByteSize());
         this.doPush(r);
-        this.statPush(1L, r.getByteSize());
+        this.statPush(recordSize, r.getByteSize());
     }
 
     public void pushTerminate(TerminateRecord r)
@@ -144,14 +191,17 @@ public abstract class Channel
     {
         Validate.notNull(rs);
         Validate.noNullElements(rs);
+        long byteSize = this.getByteSize(rs);
+        long recordSize = this.getRecordCount(rs);
+        this.flowControl(recordSize, byteSize);
         this.doPushAll(rs);
-        this.statPush(rs.size(), this.getByteSize(rs));
+        this.statPush(recordSize, byteSize);
     }
 
     public Record pull()
     {
         Record record = this.doPull();
-        this.statPull(1L, record.getByteSize());
+        this.statPull(this.getRecordCount(record), record.getByteSize());
         return record;
     }
 
@@ -159,7 +209,7 @@ public abstract class Channel
     {
         Validate.notNull(rs);
         this.doPullAll(rs);
-        this.statPull(rs.size(), this.getByteSize(rs));
+        this.statPull(this.getRecordCount(rs), this.getByteSize(rs));
     }
 
     protected abstract void doPush(Record r);
@@ -185,77 +235,91 @@ public abstract class Channel
         return size;
     }
 
+    /*
+     * 列式批次在 channel 中只占一个槽位，但记录数按批次的行数统计
+     */
+    private long getRecordCount(Record r)
+    {
+        return r instanceof ColumnarRecord ? ((ColumnarRecord) r).getRowCount() : 1L;
+    }
+
+    private long getRecordCount(Collection<Record> rs)
+    {
+        long count = 0;
+        for (Record each : rs) {
+            count += this.getRecordCount(each);
+        }
+        return count;
+    }
+
     private void statPush(long recordSize, long byteSize)
     {
-        currentCommunication.increaseCounter(CommunicationTool.READ_SUCCEED_RECORDS,
+        currentCommunication.increaseCounter(Counters.READ_SUCCEED_RECORDS,
                 recordSize);
-        currentCommunication.increaseCounter(CommunicationTool.READ_SUCCEED_BYTES,
+        currentCommunication.increaseCounter(Counters.READ_SUCCEED_BYTES,
                 byteSize);
         //在读的时候进行统计waitCounter即可，因为写（pull）的时候可能正在阻塞，但读的时候已经能读到这个阻塞的counter数
 
-        currentCommunication.setLongCounter(CommunicationTool.WAIT_READER_TIME, waitReaderTime);
-        currentCommunication.setLongCounter(CommunicationTool.WAIT_WRITER_TIME, waitWriterTime);
+        currentCommunication.setLongCounter(Counters.WAIT_READER_TIME, waitReaderTime);
+        currentCommunication.setLongCounter(Counters.WAIT_WRITER_TIME, waitWriterTime);
+    }
 
-        boolean isChannelByteSpeedLimit = (this.byteSpeed > 0);
-        boolean isChannelRecordSpeedLimit = (this.recordSpeed > 0);
-        if (!isChannelByteSpeedLimit && !isChannelRecordSpeedLimit) {
-            return;
+    /*
+     * 按批次申请令牌，先 channel 级别，再作业级别共享的令牌桶
+     */
+    private void flowControl(long recordSize, long byteSize)
+    {
+        if (byteLimiter != null) {
+            byteLimiter.acquire(byteSize);
         }
+        if (recordLimiter != null) {
+            recordLimiter.acquire(recordSize);
+        }
+        if (jobByteLimiter != null) {
+            jobByteLimiter.acquire(byteSize);
+        }
+        if (jobRecordLimiter != null) {
+            jobRecordLimiter.acquire(recordSize);
+        }
+    }
 
-        long lastTimestamp = lastCommunication.getTimestamp();
-        long nowTimestamp = System.currentTimeMillis();
-        long interval = nowTimestamp - lastTimestamp;
-        if (interval - this.flowControlInterval >= 0) {
-            long byteLimitSleepTime = 0;
-            long recordLimitSleepTime = 0;
-            if (isChannelByteSpeedLimit) {
-                long currentByteSpeed = (CommunicationTool.getTotalReadBytes(currentCommunication) -
-                        CommunicationTool.getTotalReadBytes(lastCommunication)) * 1000 / interval;
-                if (currentByteSpeed > this.byteSpeed) {
-                    // 计算根据byteLimit得到的休眠时间
-                    byteLimitSleepTime = currentByteSpeed * interval / this.byteSpeed
-                            - interval;
-                }
-            }
-
-            if (isChannelRecordSpeedLimit) {
-                long currentRecordSpeed = (CommunicationTool.getTotalReadRecords(currentCommunication) -
-                        CommunicationTool.getTotalReadRecords(lastCommunication)) * 1000 / interval;
-                if (currentRecordSpeed > this.recordSpeed) {
-                    // 计算根据recordLimit得到的休眠时间
-                    recordLimitSleepTime = currentRecordSpeed * interval / this.recordSpeed
-                            - interval;
-                }
-            }
+    /**
+     * 作业结束时移除该作业共享的限速器，同一进程中后续的作业会按自己的配置重新创建
+     *
+     * @param jobId 作业 id
+     */
+    public static void removeSharedRateLimiters(long jobId)
+    {
+        SHARED_LIMITERS.remove(jobId + "-byte");
+        SHARED_LIMITERS.remove(jobId + "-record");
+    }
 
-            // 休眠时间取较大值
-            long sleepTime = Math.max(byteLimitSleepTime, recordLimitSleepTime);
-            if (sleepTime > 0) {
-                try {
-                    Thread.sleep(sleepTime);
-                }
-                catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-            }
+    private static RateLimiter sharedRateLimiter(String key, String className, long permitsPerSecond, long burstMillis)
+    {
+        return SHARED_LIMITERS.computeIfAbsent(key, k -> {
+            LOG.info("Job set shared speed limit [{}] to {} per second.", k, permitsPerSecond);
+            return newRateLimiter(className, permitsPerSecond, burstMillis);
+        });
+    }
 
-            lastCommunication.setLongCounter(CommunicationTool.READ_SUCCEED_BYTES,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_SUCCEED_BYTES));
-            lastCommunication.setLongCounter(CommunicationTool.READ_FAILED_BYTES,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_FAILED_BYTES));
-            lastCommunication.setLongCounter(CommunicationTool.READ_SUCCEED_RECORDS,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_SUCCEED_RECORDS));
-            lastCommunication.setLongCounter(CommunicationTool.READ_FAILED_RECORDS,
-                    currentCommunication.getLongCounter(CommunicationTool.READ_FAILED_RECORDS));
-            lastCommunication.setTimestamp(nowTimestamp);
+    private static RateLimiter newRateLimiter(String className, long permitsPerSecond, long burstMillis)
+    {
+        try {
+            return (RateLimiter) Class.forName(className)
+                    .getConstructor(long.class, long.class)
+                    .newInstance(permitsPerSecond, burstMillis);
+        }
+        catch (Exception e) {
+            throw AddaxException.asAddaxException(FrameworkErrorCode.CONFIG_ERROR,
+                    String.format("无法实例化限速器[%s]", className), e);
         }
     }
 
     private void statPull(long recordSize, long byteSize)
     {
         currentCommunication.increaseCounter(
-                CommunicationTool.WRITE_RECEIVED_RECORDS, recordSize);
+                Counters.WRITE_RECEIVED_RECORDS, recordSize);
         currentCommunication.increaseCounter(
-                CommunicationTool.WRITE_RECEIVED_BYTES, byteSize);
+                Counters.WRITE_RECEIVED_BYTES, byteSize);
     }
 }
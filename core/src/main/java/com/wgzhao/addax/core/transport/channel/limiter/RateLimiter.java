@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel.limiter;
+
+/**
+ * Channel 限速器，按批次申请许可，许可不足时阻塞调用线程直到满足速率要求
+ * <p>
+ * 实现类需要提供 (long permitsPerSecond, long burstMillis) 签名的构造函数，
+ * 并且必须是线程安全的，因为作业级别的限速器会被所有 channel 共享
+ */
+public interface RateLimiter
+{
+    /**
+     * 申请指定数量的许可，必要时阻塞
+     *
+     * @param permits 许可数量，对于字节限速为字节数，对于记录限速为记录条数
+     */
+    void acquire(long permits);
+
+    /**
+     * 每秒允许的许可数
+     *
+     * @return permits per second
+     */
+    long getRate();
+}
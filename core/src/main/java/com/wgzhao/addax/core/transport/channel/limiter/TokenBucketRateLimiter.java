@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel.limiter;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 无锁令牌桶限速器
+ * <p>
+ * 用一个原子变量记录"理论上下一个许可可用的时间点"，每次申请通过 CAS 把它向后推进
+ * permits / rate 秒，若推进后超出当前时间加上突发窗口，则调用线程休眠超出的部分。
+ * 这样速率被平滑地摊到每个批次上，而不是先跑满一个周期再整段休眠。
+ * 空闲时最多积攒 burstMillis 毫秒的许可，多个线程共享同一实例即可实现全局限速。
+ */
+public class TokenBucketRateLimiter
+        implements RateLimiter
+{
+    private final long rate;
+
+    private final double nanosPerPermit;
+
+    private final long burstNanos;
+
+    private final AtomicLong nextFreeNanos;
+
+    public TokenBucketRateLimiter(long permitsPerSecond, long burstMillis)
+    {
+        Validate.isTrue(permitsPerSecond > 0, "限速值必须为正数");
+        this.rate = permitsPerSecond;
+        this.nanosPerPermit = 1_000_000_000.0 / permitsPerSecond;
+        this.burstNanos = Math.max(burstMillis, 0L) * 1_000_000L;
+        this.nextFreeNanos = new AtomicLong(System.nanoTime());
+    }
+
+    @Override
+    public void acquire(long permits)
+    {
+        if (permits <= 0) {
+            return;
+        }
+        long cost = (long) (permits * nanosPerPermit);
+        long now;
+        long next;
+        long prev;
+        do {
+            now = System.nanoTime();
+            prev = nextFreeNanos.get();
+            next = Math.max(prev, now) + cost;
+        }
+        while (!nextFreeNanos.compareAndSet(prev, next));
+
+        long deadline = next - burstNanos;
+        long waitNanos = deadline - now;
+        while (waitNanos > 0) {
+            LockSupport.parkNanos(this, waitNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            waitNanos = deadline - System.nanoTime();
+        }
+    }
+
+    @Override
+    public long getRate()
+    {
+        return rate;
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel.memory;
+
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.exception.CommonErrorCode;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.record.TerminateRecord;
+import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 单生产者/单消费者的无锁环形队列Channel
+ * <p>
+ * 每个task只有一个reader线程写入、一个writer线程读取，因此可以用两个递增的序号代替锁：
+ * 生产者按批次占用槽位后一次性发布序号，消费者按批次取走后一次性归还序号。
+ * 序号之间做了缓存行填充，避免伪共享。等待时先自旋、再让出CPU、最后短暂park，不依赖信号唤醒。
+ * <p>
+ * 与 {@link MemoryChannel} 一样同时受 capacity（记录条数）和 byteCapacity（内存字节数）限制。
+ * <p>
+ * {@link #clear()} 由 task 所在的调度线程调用，不能直接移动任一端的序号，只设置关闭标记：
+ * 生产者看到标记后不再发布，消费者看到标记后在自己的线程内丢弃剩余记录，两端都抛出 SHUT_DOWN_TASK 异常退出。
+ * 通过 core.transport.channel.class 配置为本类即可启用。
+ */
+public class RingBufferChannel
+        extends Channel
+{
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 50_000L;
+
+    private final int bufferSize;
+
+    private final Record[] entries;
+
+    private final int mask;
+
+    // 下一个待写入的位置，即已发布的记录总数，仅由生产者推进
+    private final Sequence producerSequence = new Sequence();
+
+    // 下一个待读取的位置，即已消费的记录总数，仅由消费者推进
+    private final Sequence consumerSequence = new Sequence();
+
+    private final Sequence memoryBytes = new Sequence();
+
+    // 生产者缓存的消费者位置，减少对 consumerSequence 的读取，仅生产者线程访问
+    private long cachedConsumer = 0L;
+
+    // 消费者缓存的生产者位置，仅消费者线程访问
+    private long cachedProducer = 0L;
+
+    // task 被关闭时由其他线程设置，两端在各自的线程中检查
+    private volatile boolean cleared = false;
+
+    public RingBufferChannel(Configuration configuration)
+    {
+        super(configuration);
+        int size = 1;
+        while (size < this.getCapacity()) {
+            size <<= 1;
+        }
+        this.entries = new Record[size];
+        this.mask = size - 1;
+        this.bufferSize = configuration.getInt(CoreConstant.ADDAX_CORE_TRANSPORT_EXCHANGER_BUFFERSIZE, 32);
+    }
+
+    @Override
+    public void close()
+    {
+        super.close();
+        this.doPush(TerminateRecord.get());
+    }
+
+    @Override
+    public void clear()
+    {
+        this.cleared = true;
+    }
+
+    @Override
+    protected void doPush(Record r)
+    {
+        this.doPushAll(Collections.singletonList(r));
+    }
+
+    @Override
+    protected void doPushAll(Collection<Record> rs)
+    {
+        long startTime = System.nanoTime();
+        int bytes = getRecordBytes(rs);
+        int counter = 0;
+        checkProducer();
+        // 通道为空时放行超限的批次，避免单批超过 byteCapacity 时永远阻塞
+        long used = memoryBytes.get();
+        while (used > 0 && used + bytes > this.byteCapacity) {
+            counter = idle(counter);
+            checkProducer();
+            used = memoryBytes.get();
+        }
+        memoryBytes.addAndGet(bytes);
+
+        long next = producerSequence.get();
+        int remaining = rs.size();
+        Iterator<Record> iterator = rs.iterator();
+        while (remaining > 0) {
+            // 尽可能一次占用整个批次，批次大于队列容量时分段发布
+            long wrapPoint = next + Math.min(remaining, entries.length) - entries.length;
+            counter = 0;
+            while (cachedConsumer < wrapPoint) {
+                cachedConsumer = consumerSequence.get();
+                if (cachedConsumer < wrapPoint) {
+                    counter = idle(counter);
+                    checkProducer();
+                }
+            }
+            int claimed = (int) Math.min(remaining, cachedConsumer + entries.length - next);
+            for (int i = 0; i < claimed; i++) {
+                entries[(int) (next + i) & mask] = iterator.next();
+            }
+            next += claimed;
+            remaining -= claimed;
+            producerSequence.setOrdered(next);
+        }
+        waitWriterTime += System.nanoTime() - startTime;
+    }
+
+    @Override
+    protected Record doPull()
+    {
+        long startTime = System.nanoTime();
+        long current = consumerSequence.get();
+        waitAvailable(current);
+        int index = (int) current & mask;
+        Record r = entries[index];
+        entries[index] = null;
+        consumerSequence.setOrdered(current + 1);
+        waitReaderTime += System.nanoTime() - startTime;
+        memoryBytes.addAndGet(-r.getMemorySize());
+        return r;
+    }
+
+    @Override
+    protected void doPullAll(Collection<Record> rs)
+    {
+        assert rs != null;
+        rs.clear();
+        long startTime = System.nanoTime();
+        long current = consumerSequence.get();
+        waitAvailable(current);
+        int n = (int) Math.min(cachedProducer - current, bufferSize);
+        int bytes = 0;
+        for (int i = 0; i < n; i++) {
+            int index = (int) (current + i) & mask;
+            Record r = entries[index];
+            entries[index] = null;
+            bytes += r.getMemorySize();
+            rs.add(r);
+        }
+        consumerSequence.setOrdered(current + n);
+        waitReaderTime += System.nanoTime() - startTime;
+        memoryBytes.addAndGet(-bytes);
+    }
+
+    private void waitAvailable(long current)
+    {
+        int counter = 0;
+        checkConsumer();
+        while (cachedProducer <= current) {
+            cachedProducer = producerSequence.get();
+            if (cachedProducer <= current) {
+                counter = idle(counter);
+                checkConsumer();
+            }
+        }
+    }
+
+    private void checkProducer()
+    {
+        if (cleared) {
+            throw AddaxException.asAddaxException(CommonErrorCode.SHUT_DOWN_TASK, "channel已经被清空");
+        }
+    }
+
+    /*
+     * 在消费者线程内丢弃已经发布的记录，释放占用的内存后退出
+     */
+    private void checkConsumer()
+    {
+        if (!cleared) {
+            return;
+        }
+        long head = consumerSequence.get();
+        long tail = producerSequence.get();
+        long bytes = 0;
+        for (long i = head; i < tail; i++) {
+            int index = (int) i & mask;
+            bytes += entries[index].getMemorySize();
+            entries[index] = null;
+        }
+        cachedProducer = tail;
+        consumerSequence.setOrdered(tail);
+        memoryBytes.addAndGet(-bytes);
+        throw AddaxException.asAddaxException(CommonErrorCode.SHUT_DOWN_TASK, "channel已经被清空");
+    }
+
+    private static int idle(int counter)
+    {
+        if (counter < SPIN_TRIES) {
+            counter++;
+        }
+        else if (counter < SPIN_TRIES + YIELD_TRIES) {
+            counter++;
+            Thread.yield();
+        }
+        else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        if (Thread.interrupted()) {
+            throw AddaxException.asAddaxException(
+                    FrameworkErrorCode.RUNTIME_ERROR, new InterruptedException());
+        }
+        return counter;
+    }
+
+    private int getRecordBytes(Collection<Record> rs)
+    {
+        int bytes = 0;
+        for (Record r : rs) {
+            bytes += r.getMemorySize();
+        }
+        return bytes;
+    }
+
+    @Override
+    public int size()
+    {
+        return (int) (producerSequence.get() - consumerSequence.get());
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return this.size() <= 0;
+    }
+
+    /*
+     * 以下三个类通过继承布局在 value 前后各填充 7 个 long，
+     * 保证生产者序号与消费者序号落在不同的缓存行上
+     */
+    abstract static class LhsPadding
+    {
+        protected long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    abstract static class Value
+            extends LhsPadding
+    {
+        protected volatile long value;
+    }
+
+    static final class Sequence
+            extends Value
+    {
+        private static final AtomicLongFieldUpdater<Value> UPDATER =
+                AtomicLongFieldUpdater.newUpdater(Value.class, "value");
+
+        protected long p9, p10, p11, p12, p13, p14, p15;
+
+        long get()
+        {
+            return value;
+        }
+
+        void setOrdered(long newValue)
+        {
+            UPDATER.lazySet(this, newValue);
+        }
+
+        long addAndGet(long delta)
+        {
+            return UPDATER.addAndGet(this, delta);
+        }
+    }
+}
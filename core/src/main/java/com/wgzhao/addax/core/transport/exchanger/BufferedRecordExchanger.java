@@ -20,6 +20,7 @@
 package com.wgzhao.addax.core.transport.exchanger;
 
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.RecordBatch;
 import com.wgzhao.addax.common.exception.CommonErrorCode;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordReceiver;
@@ -27,8 +28,8 @@ import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.record.ColumnarRecord;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
-import com.wgzhao.addax.core.util.FrameworkErrorCode;
 import com.wgzhao.addax.core.util.container.CoreConstant;
 import org.apache.commons.lang3.Validate;
 
@@ -40,7 +41,6 @@ public class BufferedRecordExchanger
         implements RecordSender, RecordReceiver
 {
 
-    private static Class<? extends Record> recordClass;
     protected final int byteCapacity;
     private final Channel channel;
     private final List<Record> buffer;
@@ -49,8 +49,11 @@ public class BufferedRecordExchanger
     private int bufferSize;
     private int bufferIndex = 0;
     private volatile boolean shutdown = false;
+    private boolean terminated = false;
+    // writer 端正在按行读取的列式批次
+    private RecordBatch currentBatch;
+    private int batchRow = 0;
 
-    @SuppressWarnings("unchecked")
     public BufferedRecordExchanger(Channel channel, TaskPluginCollector pluginCollector)
     {
         assert null != channel;
@@ -67,29 +70,12 @@ public class BufferedRecordExchanger
         //channel的queue默认大小为8M，原来为64M
         this.byteCapacity = configuration.getInt(
                 CoreConstant.ADDAX_CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE, 8 * 1024 * 1024);
-
-        try {
-            BufferedRecordExchanger.recordClass = ((Class<? extends Record>) Class
-                    .forName(configuration.getString(
-                            CoreConstant.ADDAX_CORE_TRANSPORT_RECORD_CLASS,
-                            "com.wgzhao.addax.core.transport.record.DefaultRecord")));
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(
-                    FrameworkErrorCode.CONFIG_ERROR, e);
-        }
     }
 
     @Override
     public Record createRecord()
     {
-        try {
-            return BufferedRecordExchanger.recordClass.newInstance();
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(
-                    FrameworkErrorCode.CONFIG_ERROR, e);
-        }
+        return this.channel.getRecordPool().borrow();
     }
 
     @Override
@@ -107,6 +93,34 @@ public class BufferedRecordExchanger
             return;
         }
 
+        addToBuffer(record);
+    }
+
+    @Override
+    public void sendBatchToWriter(RecordBatch batch)
+    {
+        if (shutdown) {
+            throw AddaxException.asAddaxException(CommonErrorCode.SHUT_DOWN_TASK, "");
+        }
+
+        Validate.notNull(batch, "batch不能为空.");
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        ColumnarRecord record = new ColumnarRecord(batch);
+        if (record.getMemorySize() > this.byteCapacity) {
+            // 整个批次超过 channel 的字节容量时退化为逐行发送，由单条记录的检查处理脏数据
+            RecordSender.super.sendBatchToWriter(batch);
+            return;
+        }
+
+        addToBuffer(record);
+    }
+
+    private void addToBuffer(Record record)
+    {
         boolean isFull = (this.bufferIndex >= this.bufferSize
                 || this.memoryBytes.get() + record.getMemorySize() > this.byteCapacity);
         if (isFull) {
@@ -146,16 +160,101 @@ public class BufferedRecordExchanger
         if (shutdown) {
             throw AddaxException.asAddaxException(CommonErrorCode.SHUT_DOWN_TASK, "");
         }
+        while (!terminated) {
+            if (null != this.currentBatch) {
+                if (this.batchRow < this.currentBatch.getRowCount()) {
+                    return this.currentBatch.getRecord(this.batchRow++);
+                }
+                this.currentBatch = null;
+            }
+
+            boolean isEmpty = (this.bufferIndex >= this.buffer.size());
+            if (isEmpty) {
+                receive();
+            }
+
+            Record record = this.buffer.get(this.bufferIndex++);
+            if (record instanceof TerminateRecord) {
+                terminated = true;
+            }
+            else if (record instanceof ColumnarRecord) {
+                this.currentBatch = ((ColumnarRecord) record).getBatch();
+                this.batchRow = 0;
+            }
+            else {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 列式批次整体返回；行式记录则把本地缓冲中连续的、列数相同的记录组装成一个批次返回，
+     * 不会为了凑满批次而阻塞等待 channel
+     */
+    @Override
+    public RecordBatch getBatchFromReader()
+    {
+        if (shutdown) {
+            throw AddaxException.asAddaxException(CommonErrorCode.SHUT_DOWN_TASK, "");
+        }
+        if (terminated) {
+            return null;
+        }
+
+        if (null != this.currentBatch) {
+            // 剩余部分已经通过 getFromReader 读过一部分，把未读的行拷贝出来
+            RecordBatch batch = null;
+            int rowCount = this.currentBatch.getRowCount();
+            while (this.batchRow < rowCount) {
+                Record row = this.currentBatch.getRecord(this.batchRow++);
+                if (null == batch) {
+                    batch = RecordBatch.createGeneric(row, rowCount - this.batchRow + 1);
+                }
+                batch.addRecord(row);
+            }
+            this.currentBatch = null;
+            if (null != batch) {
+                return batch;
+            }
+        }
+
         boolean isEmpty = (this.bufferIndex >= this.buffer.size());
         if (isEmpty) {
             receive();
         }
 
-        Record record = this.buffer.get(this.bufferIndex++);
-        if (record instanceof TerminateRecord) {
-            record = null;
+        Record first = this.buffer.get(this.bufferIndex);
+        if (first instanceof TerminateRecord) {
+            this.bufferIndex++;
+            terminated = true;
+            return null;
+        }
+        if (first instanceof ColumnarRecord) {
+            this.bufferIndex++;
+            return ((ColumnarRecord) first).getBatch();
+        }
+
+        int end = this.bufferIndex + 1;
+        while (end < this.buffer.size()) {
+            Record record = this.buffer.get(end);
+            if (record instanceof TerminateRecord || record instanceof ColumnarRecord
+                    || record.getColumnNumber() != first.getColumnNumber()) {
+                break;
+            }
+            end++;
+        }
+        RecordBatch batch = RecordBatch.createGeneric(first, end - this.bufferIndex);
+        while (this.bufferIndex < end) {
+            batch.addRecord(this.buffer.get(this.bufferIndex++));
         }
-        return record;
+        return batch;
+    }
+
+    @Override
+    public void recycle(Record record)
+    {
+        this.channel.getRecordPool().recycle(record);
     }
 
     @Override
@@ -164,6 +263,7 @@ public class BufferedRecordExchanger
         shutdown = true;
         try {
             buffer.clear();
+            currentBatch = null;
             channel.clear();
         }
         catch (Throwable t) {
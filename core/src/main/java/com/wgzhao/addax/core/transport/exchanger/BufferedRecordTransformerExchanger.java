@@ -30,7 +30,6 @@ import com.wgzhao.addax.core.statistics.communication.Communication;
 import com.wgzhao.addax.core.transport.channel.Channel;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
 import com.wgzhao.addax.core.transport.transformer.TransformerExecution;
-import com.wgzhao.addax.core.util.FrameworkErrorCode;
 import com.wgzhao.addax.core.util.container.CoreConstant;
 import org.apache.commons.lang3.Validate;
 
@@ -43,7 +42,6 @@ public class BufferedRecordTransformerExchanger
         implements RecordSender, RecordReceiver
 {
 
-    private static Class<? extends Record> RECORD_CLASS;
     protected final int byteCapacity;
     private final Channel channel;
     private final List<Record> buffer;
@@ -52,7 +50,6 @@ public class BufferedRecordTransformerExchanger
     private int bufferIndex = 0;
     private volatile boolean shutdown = false;
 
-    @SuppressWarnings("unchecked")
     public BufferedRecordTransformerExchanger(int taskGroupId, int taskId,
             Channel channel, Communication communication,
             TaskPluginCollector pluginCollector,
@@ -72,29 +69,12 @@ public class BufferedRecordTransformerExchanger
         //channel的queue默认大小为8M，原来为64M
         this.byteCapacity = configuration.getInt(
                 CoreConstant.ADDAX_CORE_TRANSPORT_CHANNEL_CAPACITY_BYTE, 8 * 1024 * 1024);
-
-        try {
-            BufferedRecordTransformerExchanger.RECORD_CLASS = ((Class<? extends Record>) Class
-                    .forName(configuration.getString(
-                            CoreConstant.ADDAX_CORE_TRANSPORT_RECORD_CLASS,
-                            "com.wgzhao.addax.core.transport.record.DefaultRecord")));
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(
-                    FrameworkErrorCode.CONFIG_ERROR, e);
-        }
     }
 
     @Override
     public Record createRecord()
     {
-        try {
-            return BufferedRecordTransformerExchanger.RECORD_CLASS.newInstance();
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(
-                    FrameworkErrorCode.CONFIG_ERROR, e);
-        }
+        return this.channel.getRecordPool().borrow();
     }
 
     @Override
@@ -171,6 +151,12 @@ public class BufferedRecordTransformerExchanger
         return record;
     }
 
+    @Override
+    public void recycle(Record record)
+    {
+        this.channel.getRecordPool().recycle(record);
+    }
+
     @Override
     public void shutdown()
     {
@@ -25,13 +25,10 @@ import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordReceiver;
 import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
-import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.core.statistics.communication.Communication;
 import com.wgzhao.addax.core.transport.channel.Channel;
 import com.wgzhao.addax.core.transport.record.TerminateRecord;
 import com.wgzhao.addax.core.transport.transformer.TransformerExecution;
-import com.wgzhao.addax.core.util.FrameworkErrorCode;
-import com.wgzhao.addax.core.util.container.CoreConstant;
 
 import java.util.List;
 
@@ -40,28 +37,15 @@ public class RecordExchanger
         implements RecordSender, RecordReceiver
 {
 
-    private static Class<? extends Record> RECORD_CLASS;
     private final Channel channel;
     private volatile boolean shutdown = false;
 
-    @SuppressWarnings("unchecked")
     public RecordExchanger(int taskGroupId, int taskId, Channel channel, Communication communication,
             List<TransformerExecution> transformerExecs, TaskPluginCollector pluginCollector)
     {
         super(taskGroupId, taskId, communication, transformerExecs, pluginCollector);
         assert channel != null;
         this.channel = channel;
-        Configuration configuration = channel.getConfiguration();
-        try {
-            RecordExchanger.RECORD_CLASS = (Class<? extends Record>) Class
-                    .forName(configuration.getString(
-                            CoreConstant.ADDAX_CORE_TRANSPORT_RECORD_CLASS,
-                            "com.wgzhao.addax.core.transport.record.DefaultRecord"));
-        }
-        catch (ClassNotFoundException e) {
-            throw AddaxException.asAddaxException(
-                    FrameworkErrorCode.CONFIG_ERROR, e);
-        }
     }
 
     @Override
@@ -77,13 +61,7 @@ public class RecordExchanger
     @Override
     public Record createRecord()
     {
-        try {
-            return RECORD_CLASS.newInstance();
-        }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(
-                    FrameworkErrorCode.CONFIG_ERROR, e);
-        }
+        return this.channel.getRecordPool().borrow();
     }
 
     @Override
@@ -117,6 +95,12 @@ public class RecordExchanger
         doStat();
     }
 
+    @Override
+    public void recycle(Record record)
+    {
+        this.channel.getRecordPool().recycle(record);
+    }
+
     @Override
     public void shutdown()
     {
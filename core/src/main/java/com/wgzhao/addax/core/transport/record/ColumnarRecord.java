@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.record;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.RecordBatch;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.core.util.ClassSize;
+import com.wgzhao.addax.core.util.FrameworkErrorCode;
+
+/**
+ * 把一个列式批次包装成一条 Record 在 channel 中传递，一个批次只占用一个槽位。
+ * channel 的记录数统计和限速按批次的行数计算，内存按批次的原生数组计算
+ */
+public class ColumnarRecord
+        implements Record
+{
+    private final RecordBatch batch;
+
+    private final int byteSize;
+
+    private final int memorySize;
+
+    public ColumnarRecord(RecordBatch batch)
+    {
+        this.batch = batch;
+        this.byteSize = batch.getByteSize();
+        this.memorySize = ClassSize.DEFAULT_RECORD_HEAD + batch.getMemorySize();
+    }
+
+    public RecordBatch getBatch()
+    {
+        return batch;
+    }
+
+    public int getRowCount()
+    {
+        return batch.getRowCount();
+    }
+
+    @Override
+    public void addColumn(Column column)
+    {
+        throw AddaxException.asAddaxException(FrameworkErrorCode.ARGUMENT_ERROR,
+                "列式批次不支持修改列");
+    }
+
+    @Override
+    public void setColumn(int i, Column column)
+    {
+        throw AddaxException.asAddaxException(FrameworkErrorCode.ARGUMENT_ERROR,
+                "列式批次不支持修改列");
+    }
+
+    @Override
+    public Column getColumn(int i)
+    {
+        return null;
+    }
+
+    @Override
+    public int getColumnNumber()
+    {
+        return batch.getColumnNumber();
+    }
+
+    @Override
+    public int getByteSize()
+    {
+        return byteSize;
+    }
+
+    @Override
+    public int getMemorySize()
+    {
+        return memorySize;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("{\"size\":%d,\"rows\":%d}", getColumnNumber(), getRowCount());
+    }
+}
@@ -112,6 +112,16 @@ public class DefaultRecord
         return memorySize;
     }
 
+    /**
+     * 清空所有列，供对象池复用
+     */
+    public void clear()
+    {
+        this.columns.clear();
+        this.byteSize = 0;
+        this.memorySize = ClassSize.DEFAULT_RECORD_HEAD;
+    }
+
     private void decrByteSize(Column column)
     {
         if (null == column) {
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.record;
+
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.util.FrameworkErrorCode;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * 每个 task 一个的 Record 对象池，由 reader 端的 createRecord 取出，writer 端通过
+ * {@link com.wgzhao.addax.common.plugin.RecordReceiver#recycle(Record)} 归还。
+ * <p>
+ * 只有开启 core.transport.exchanger.recycle 且记录类型为 {@link DefaultRecord} 时才会复用，
+ * 否则每次都通过缓存的构造方法句柄创建新对象。池的容量为 channel 容量加上两端的缓冲区大小，
+ * 即同一时刻在途记录数的上限，超出部分直接丢弃交给 GC。
+ */
+public class RecordPool
+{
+    private static final MethodType RECORD_CONSTRUCTOR = MethodType.methodType(Record.class);
+
+    private final MethodHandle constructor;
+
+    private final ArrayBlockingQueue<DefaultRecord> pool;
+
+    public RecordPool(Configuration configuration)
+    {
+        String className = configuration.getString(CoreConstant.ADDAX_CORE_TRANSPORT_RECORD_CLASS,
+                "com.wgzhao.addax.core.transport.record.DefaultRecord");
+        Class<?> recordClass;
+        try {
+            recordClass = Class.forName(className);
+            this.constructor = MethodHandles.publicLookup()
+                    .findConstructor(recordClass, MethodType.methodType(void.class))
+                    .asType(RECORD_CONSTRUCTOR);
+        }
+        catch (Exception e) {
+            throw AddaxException.asAddaxException(FrameworkErrorCode.CONFIG_ERROR, e);
+        }
+
+        boolean recycle = configuration.getBool(CoreConstant.ADDAX_CORE_TRANSPORT_EXCHANGER_RECYCLE, false);
+        if (recycle && DefaultRecord.class.isAssignableFrom(recordClass)) {
+            int bufferSize = configuration.getInt(CoreConstant.ADDAX_CORE_TRANSPORT_EXCHANGER_BUFFERSIZE, 32);
+            int capacity = configuration.getInt(CoreConstant.ADDAX_CORE_TRANSPORT_CHANNEL_CAPACITY, 2048);
+            this.pool = new ArrayBlockingQueue<>(capacity + 2 * bufferSize);
+        }
+        else {
+            this.pool = null;
+        }
+    }
+
+    public boolean isRecycleEnabled()
+    {
+        return this.pool != null;
+    }
+
+    public Record borrow()
+    {
+        if (this.pool != null) {
+            DefaultRecord record = this.pool.poll();
+            if (record != null) {
+                return record;
+            }
+        }
+        try {
+            return (Record) this.constructor.invokeExact();
+        }
+        catch (Throwable e) {
+            throw AddaxException.asAddaxException(FrameworkErrorCode.CONFIG_ERROR, e);
+        }
+    }
+
+    public void recycle(Record record)
+    {
+        if (this.pool != null && record instanceof DefaultRecord) {
+            DefaultRecord defaultRecord = (DefaultRecord) record;
+            defaultRecord.clear();
+            this.pool.offer(defaultRecord);
+        }
+    }
+}
@@ -0,0 +1,511 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.transformer;
+
+import com.wgzhao.addax.common.element.BoolColumn;
+import com.wgzhao.addax.common.element.BytesColumn;
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.DateColumn;
+import com.wgzhao.addax.common.element.DoubleColumn;
+import com.wgzhao.addax.common.element.LongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.StringColumn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * dx_filter 的过滤条件，在 transformer 初始化时解析一次，得到可以直接对 Record 求值的谓词，
+ * 谓词为 true 表示该行需要被过滤。
+ * <p>
+ * 单个条件即原来的 dx_filter(idx, operator, value) 形式，组合条件的语法如下，关键字不区分大小写：
+ * <pre>
+ * expr      := term ( OR term )*
+ * term      := factor ( AND factor )*
+ * factor    := NOT factor | '(' expr ')' | condition
+ * condition := #idx operator literal
+ *            | #idx [NOT] LIKE literal
+ *            | #idx IS [NOT] NULL
+ *            | #idx [NOT] IN '(' literal ( ',' literal )* ')'
+ *            | #idx [NOT] BETWEEN literal AND literal
+ * </pre>
+ * 其中 #idx 为字段编号，literal 可以是单引号/双引号包含的字符串，也可以是不含空白的数值等。
+ * 例如 {@code #1 > 10 and (#2 like 'abc.*' or #3 is null)}
+ */
+public final class FilterExpression
+{
+    private FilterExpression()
+    {
+    }
+
+    /**
+     * 编译单个条件，语义与原来的 dx_filter 完全一致
+     *
+     * @param columnIndex 字段编号
+     * @param operator 运算符
+     * @param value 比较的值或者正则表达式
+     * @return 谓词，true 表示过滤该行
+     */
+    public static Predicate<Record> compile(int columnIndex, String operator, String value)
+    {
+        String op = operator.trim().toLowerCase(Locale.ENGLISH);
+        switch (op) {
+            case "like":
+                return new Like(columnIndex, value);
+            case "not like":
+                return new Like(columnIndex, value).negate();
+            case ">":
+                return new Compare(columnIndex, value, Compare.GT);
+            case ">=":
+                return new Compare(columnIndex, value, Compare.GE);
+            case "<":
+                return new Compare(columnIndex, value, Compare.LT);
+            case "<=":
+                return new Compare(columnIndex, value, Compare.LE);
+            case "=":
+            case "==":
+                return new Compare(columnIndex, value, Compare.EQ);
+            case "!=":
+                return new Compare(columnIndex, value, Compare.NE);
+            default:
+                throw new IllegalArgumentException("dx_filter can't suport code:" + operator);
+        }
+    }
+
+    /**
+     * 编译组合条件
+     *
+     * @param expression 条件表达式
+     * @return 谓词，true 表示过滤该行
+     */
+    public static Predicate<Record> parse(String expression)
+    {
+        return new Parser(expression).parse();
+    }
+
+    /*
+     * 比较运算，按字段的实际类型比较：浮点按 double，整数与日期按 long，字符串、二进制、布尔按字典序。
+     * 比较值在编译时解析，不能解析为数值时推迟到求值时再抛出与原来相同的异常
+     */
+    private static final class Compare
+            implements Predicate<Record>
+    {
+        static final int GT = 0;
+        static final int GE = 1;
+        static final int LT = 2;
+        static final int LE = 3;
+        static final int EQ = 4;
+        static final int NE = 5;
+
+        private final int columnIndex;
+        private final String value;
+        private final int op;
+        private final Long longValue;
+        private final Double doubleValue;
+        private final boolean nullLiteral;
+
+        Compare(int columnIndex, String value, int op)
+        {
+            this.columnIndex = columnIndex;
+            this.value = value;
+            this.op = op;
+            this.longValue = parseLong(value);
+            this.doubleValue = parseDouble(value);
+            this.nullLiteral = "null".equalsIgnoreCase(value);
+        }
+
+        private static Long parseLong(String value)
+        {
+            try {
+                return Long.parseLong(value);
+            }
+            catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static Double parseDouble(String value)
+        {
+            try {
+                return Double.parseDouble(value);
+            }
+            catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public boolean test(Record record)
+        {
+            Column column = record.getColumn(columnIndex);
+            if (column.isNull()) {
+                // 空值视为无穷小/无穷大，不参与大小比较；等值比较只与 "null" 匹配
+                if (op == EQ) {
+                    return nullLiteral;
+                }
+                if (op == NE) {
+                    return !nullLiteral;
+                }
+                return false;
+            }
+
+            int cmp;
+            if (column instanceof DoubleColumn) {
+                double val = doubleValue != null ? doubleValue : Double.parseDouble(value);
+                double ori = column.asDouble();
+                switch (op) {
+                    case GT:
+                        return ori > val;
+                    case GE:
+                        return ori >= val;
+                    case LT:
+                        return ori < val;
+                    case LE:
+                        return ori <= val;
+                    case EQ:
+                        return ori == val;
+                    default:
+                        return ori != val;
+                }
+            }
+            else if (column instanceof LongColumn || column instanceof DateColumn) {
+                long val = longValue != null ? longValue : Long.parseLong(value);
+                cmp = Long.compare(column.asLong(), val);
+            }
+            else if (column instanceof StringColumn
+                    || column instanceof BytesColumn
+                    || column instanceof BoolColumn) {
+                cmp = column.asString().compareTo(value);
+            }
+            else {
+                throw new RuntimeException("dx_filter can't support this columnType:"
+                        + column.getClass().getSimpleName());
+            }
+
+            switch (op) {
+                case GT:
+                    return cmp > 0;
+                case GE:
+                    return cmp >= 0;
+                case LT:
+                    return cmp < 0;
+                case LE:
+                    return cmp <= 0;
+                case EQ:
+                    return cmp == 0;
+                default:
+                    return cmp != 0;
+            }
+        }
+    }
+
+    /*
+     * 正则全匹配，Pattern 只编译一次
+     */
+    private static final class Like
+            implements Predicate<Record>
+    {
+        private final int columnIndex;
+        private final Pattern pattern;
+
+        Like(int columnIndex, String regex)
+        {
+            this.columnIndex = columnIndex;
+            this.pattern = Pattern.compile(regex);
+        }
+
+        @Override
+        public boolean test(Record record)
+        {
+            String value = record.getColumn(columnIndex).asString();
+            return value != null && pattern.matcher(value).matches();
+        }
+    }
+
+    private static final class IsNull
+            implements Predicate<Record>
+    {
+        private final int columnIndex;
+
+        IsNull(int columnIndex)
+        {
+            this.columnIndex = columnIndex;
+        }
+
+        @Override
+        public boolean test(Record record)
+        {
+            Column column = record.getColumn(columnIndex);
+            return column == null || column.isNull();
+        }
+    }
+
+    private static final class In
+            implements Predicate<Record>
+    {
+        private final Compare[] candidates;
+
+        In(int columnIndex, List<String> values)
+        {
+            this.candidates = new Compare[values.size()];
+            for (int i = 0; i < candidates.length; i++) {
+                candidates[i] = new Compare(columnIndex, values.get(i), Compare.EQ);
+            }
+        }
+
+        @Override
+        public boolean test(Record record)
+        {
+            for (Compare candidate : candidates) {
+                if (candidate.test(record)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Parser
+    {
+        private final String expression;
+        private final List<String> tokens;
+        private int pos = 0;
+
+        Parser(String expression)
+        {
+            this.expression = expression;
+            this.tokens = tokenize(expression);
+        }
+
+        Predicate<Record> parse()
+        {
+            if (tokens.isEmpty()) {
+                throw error("empty expression");
+            }
+            Predicate<Record> predicate = parseOr();
+            if (pos < tokens.size()) {
+                throw error("unexpected token '" + tokens.get(pos) + "'");
+            }
+            return predicate;
+        }
+
+        private Predicate<Record> parseOr()
+        {
+            Predicate<Record> left = parseAnd();
+            while (acceptKeyword("or")) {
+                left = left.or(parseAnd());
+            }
+            return left;
+        }
+
+        private Predicate<Record> parseAnd()
+        {
+            Predicate<Record> left = parseNot();
+            while (acceptKeyword("and")) {
+                left = left.and(parseNot());
+            }
+            return left;
+        }
+
+        private Predicate<Record> parseNot()
+        {
+            if (acceptKeyword("not")) {
+                return parseNot().negate();
+            }
+            if (accept("(")) {
+                Predicate<Record> inner = parseOr();
+                expect(")");
+                return inner;
+            }
+            return parseCondition();
+        }
+
+        private Predicate<Record> parseCondition()
+        {
+            String column = next();
+            if (!column.startsWith("#")) {
+                throw error("column reference like #0 expected but got '" + column + "'");
+            }
+            int columnIndex;
+            try {
+                columnIndex = Integer.parseInt(column.substring(1));
+            }
+            catch (NumberFormatException e) {
+                throw error("invalid column reference '" + column + "'");
+            }
+
+            if (acceptKeyword("is")) {
+                boolean not = acceptKeyword("not");
+                expectKeyword("null");
+                Predicate<Record> isNull = new IsNull(columnIndex);
+                return not ? isNull.negate() : isNull;
+            }
+
+            boolean not = acceptKeyword("not");
+            Predicate<Record> predicate;
+            if (acceptKeyword("like")) {
+                predicate = new Like(columnIndex, literal());
+            }
+            else if (acceptKeyword("in")) {
+                expect("(");
+                List<String> values = new ArrayList<>();
+                do {
+                    values.add(literal());
+                }
+                while (accept(","));
+                expect(")");
+                predicate = new In(columnIndex, values);
+            }
+            else if (acceptKeyword("between")) {
+                String lower = literal();
+                expectKeyword("and");
+                String upper = literal();
+                predicate = new Compare(columnIndex, lower, Compare.GE)
+                        .and(new Compare(columnIndex, upper, Compare.LE));
+            }
+            else if (!not) {
+                String operator = next();
+                predicate = compile(columnIndex, operator, literal());
+            }
+            else {
+                throw error("like, in or between expected after not");
+            }
+            return not ? predicate.negate() : predicate;
+        }
+
+        private String literal()
+        {
+            String token = next();
+            if (token.length() >= 2 && (token.charAt(0) == '\'' || token.charAt(0) == '"')) {
+                return token.substring(1, token.length() - 1);
+            }
+            if ("(".equals(token) || ")".equals(token) || ",".equals(token)) {
+                throw error("literal expected but got '" + token + "'");
+            }
+            return token;
+        }
+
+        private String next()
+        {
+            if (pos >= tokens.size()) {
+                throw error("unexpected end of expression");
+            }
+            return tokens.get(pos++);
+        }
+
+        private boolean accept(String token)
+        {
+            if (pos < tokens.size() && tokens.get(pos).equals(token)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean acceptKeyword(String keyword)
+        {
+            if (pos < tokens.size() && tokens.get(pos).equalsIgnoreCase(keyword)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token)
+        {
+            if (!accept(token)) {
+                throw error("'" + token + "' expected");
+            }
+        }
+
+        private void expectKeyword(String keyword)
+        {
+            if (!acceptKeyword(keyword)) {
+                throw error("'" + keyword + "' expected");
+            }
+        }
+
+        private IllegalArgumentException error(String message)
+        {
+            return new IllegalArgumentException(
+                    String.format("invalid dx_filter expression [%s]: %s", expression, message));
+        }
+
+        /*
+         * 拆分为括号、逗号、比较运算符、引号字符串以及其他不含空白的单词，
+         * 引号字符串保留引号，用两个连续的引号表示引号本身
+         */
+        private List<String> tokenize(String text)
+        {
+            List<String> result = new ArrayList<>();
+            int i = 0;
+            int n = text.length();
+            while (i < n) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                }
+                else if (c == '(' || c == ')' || c == ',') {
+                    result.add(String.valueOf(c));
+                    i++;
+                }
+                else if (c == '\'' || c == '"') {
+                    StringBuilder sb = new StringBuilder().append(c);
+                    i++;
+                    while (true) {
+                        if (i >= n) {
+                            throw error("unterminated string literal");
+                        }
+                        char ch = text.charAt(i++);
+                        if (ch == c) {
+                            if (i < n && text.charAt(i) == c) {
+                                sb.append(c);
+                                i++;
+                                continue;
+                            }
+                            break;
+                        }
+                        sb.append(ch);
+                    }
+                    result.add(sb.append(c).toString());
+                }
+                else if (c == '>' || c == '<' || c == '=' || c == '!') {
+                    int start = i++;
+                    if (i < n && text.charAt(i) == '=') {
+                        i++;
+                    }
+                    result.add(text.substring(start, i));
+                }
+                else {
+                    int start = i;
+                    while (i < n && !Character.isWhitespace(text.charAt(i))
+                            && "(),'\"<>=!".indexOf(text.charAt(i)) < 0) {
+                        i++;
+                    }
+                    result.add(text.substring(start, i));
+                }
+            }
+            return result;
+        }
+    }
+}
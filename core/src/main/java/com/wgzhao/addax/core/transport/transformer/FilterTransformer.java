@@ -19,23 +19,25 @@
 
 package com.wgzhao.addax.core.transport.transformer;
 
-import com.wgzhao.addax.common.element.BoolColumn;
-import com.wgzhao.addax.common.element.BytesColumn;
-import com.wgzhao.addax.common.element.Column;
-import com.wgzhao.addax.common.element.DateColumn;
-import com.wgzhao.addax.common.element.DoubleColumn;
-import com.wgzhao.addax.common.element.LongColumn;
 import com.wgzhao.addax.common.element.Record;
-import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.transformer.Transformer;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Arrays;
+import java.util.function.Predicate;
 
 /**
  * no comments.
  * Created by liqiang on 16/3/4.
+ * <p>
+ * 支持两种参数形式：
+ * <ul>
+ * <li>dx_filter(idx, operator, value)：单个字段的过滤条件</li>
+ * <li>dx_filter(expression)：不设置 columnIndex，paras 只有一个组合条件表达式，语法见 {@link FilterExpression}</li>
+ * </ul>
+ * 条件在第一次使用时编译，满足条件的记录被过滤。
+ * 编译结果由每个 task 自己的 {@link TransformerExecution} 持有，见 {@link CompiledFilter}。
  */
 public class FilterTransformer
         extends Transformer
@@ -48,60 +50,17 @@ public class FilterTransformer
     @Override
     public Record evaluate(Record record, Object... paras)
     {
-
-        int columnIndex;
-        String code;
-        String value;
-
-        try {
-            if (paras.length != 3) {
-                throw new RuntimeException("dx_filter paras must be 3");
-            }
-
-            columnIndex = (Integer) paras[0];
-            code = (String) paras[1];
-            value = (String) paras[2];
-
-            if (StringUtils.isEmpty(value)) {
-                throw new RuntimeException("dx_filter para 2 can't be null");
-            }
+        Predicate<Record> predicate;
+        if (paras != null && paras.length == 1 && paras[0] instanceof CompiledFilter) {
+            predicate = ((CompiledFilter) paras[0]).get();
         }
-        catch (Exception e) {
-            throw AddaxException.asAddaxException(TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
-                    "paras:" + Arrays.asList(paras) + " => " + e.getMessage());
+        else {
+            // 没有经过 TransformerExecution 直接调用时，每次都重新编译
+            predicate = compile(paras);
         }
 
-        Column column = record.getColumn(columnIndex);
-
         try {
-
-            if ("like".equalsIgnoreCase(code)) {
-                return doLike(record, value, column);
-            }
-            else if ("not like".equalsIgnoreCase(code)) {
-                return doNotLike(record, value, column);
-            }
-            else if (">".equalsIgnoreCase(code)) {
-                return doGreat(record, value, column, false);
-            }
-            else if ("<".equalsIgnoreCase(code)) {
-                return doLess(record, value, column, false);
-            }
-            else if ("=".equalsIgnoreCase(code) || "==".equalsIgnoreCase(code)) {
-                return doEqual(record, value, column);
-            }
-            else if ("!=".equalsIgnoreCase(code)) {
-                return doNotEqual(record, value, column);
-            }
-            else if (">=".equalsIgnoreCase(code)) {
-                return doGreat(record, value, column, true);
-            }
-            else if ("<=".equalsIgnoreCase(code)) {
-                return doLess(record, value, column, true);
-            }
-            else {
-                throw new RuntimeException("dx_filter can't suport code:" + code);
-            }
+            return predicate.test(record) ? null : record;
         }
         catch (Exception e) {
             throw AddaxException.asAddaxException(
@@ -109,297 +68,67 @@ public class FilterTransformer
         }
     }
 
-    private Record doGreat(Record record, String value, Column column, boolean hasEqual)
+    private static Predicate<Record> compile(Object[] paras)
     {
-
-        //如果字段为空，直接不参与比较。即空也属于无穷小
-        if (column.getRawData() == null) {
-            return record;
-        }
-        if (column instanceof DoubleColumn) {
-            Double ori = column.asDouble();
-            double val = Double.parseDouble(value);
-
-            if (hasEqual) {
-                if (ori >= val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori > val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-        }
-        else if (column instanceof LongColumn || column instanceof DateColumn) {
-            Long ori = column.asLong();
-            long val = Long.parseLong(value);
-
-            if (hasEqual) {
-                if (ori >= val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori > val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-        }
-        else if (column instanceof StringColumn
-                || column instanceof BytesColumn
-                || column instanceof BoolColumn) {
-            String ori = column.asString();
-            if (hasEqual) {
-                if (ori.compareTo(value) >= 0) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori.compareTo(value) > 0) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-        }
-        else {
-            throw new RuntimeException(">=,> can't support this columnType:"
-                    + column.getClass().getSimpleName());
-        }
-    }
-
-    private Record doLess(Record record, String value, Column column, boolean hasEqual)
-    {
-
-        //如果字段为空，直接不参与比较。即空也属于无穷大
-        if (column.getRawData() == null) {
-            return record;
-        }
-
-        if (column instanceof DoubleColumn) {
-            Double ori = column.asDouble();
-            double val = Double.parseDouble(value);
-
-            if (hasEqual) {
-                if (ori <= val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori < val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-        }
-        else if (column instanceof LongColumn || column instanceof DateColumn) {
-            Long ori = column.asLong();
-            long val = Long.parseLong(value);
-
-            if (hasEqual) {
-                if (ori <= val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori < val) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
+        if (paras == null) {
+            throw AddaxException.asAddaxException(TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
+                    "dx_filter paras can't be null");
         }
-        else if (column instanceof StringColumn
-                || column instanceof BytesColumn
-                || column instanceof BoolColumn) {
-            String ori = column.asString();
-            if (hasEqual) {
-                if (ori.compareTo(value) <= 0) {
-                    return null;
-                }
-                else {
-                    return record;
-                }
-            }
-            else {
-                if (ori.compareTo(value) < 0) {
-                    return null;
-                }
-                else {
-                    return record;
+        try {
+            if (paras.length == 1) {
+                String expression = (String) paras[0];
+                if (StringUtils.isBlank(expression)) {
+                    throw new RuntimeException("dx_filter expression can't be null");
                 }
+                return FilterExpression.parse(expression);
             }
-        }
-        else {
-            throw new RuntimeException("<=,< can't support this columnType:"
-                    + column.getClass().getSimpleName());
-        }
-    }
-
-    /**
-     * DateColumn将比较long值，StringColumn，ByteColumn以及BooleanColumn比较其String值
-     * @param record message record
-     * @param value value to compared
-     * @param column the column of record
-     * @return Record
-     */
-    private Record doEqual(Record record, String value, Column column)
-    {
 
-        //如果字段为空，只比较目标字段为"null"，否则null字段均不过滤
-        if (column.getRawData() == null) {
-            if ("null".equalsIgnoreCase(value)) {
-                return null;
-            }
-            else {
-                return record;
+            if (paras.length != 3) {
+                throw new RuntimeException("dx_filter paras must be 3");
             }
-        }
-
-        if (column instanceof DoubleColumn) {
-            Double ori = column.asDouble();
-            double val = Double.parseDouble(value);
 
-            if (ori == val) {
-                return null;
-            }
-            else {
-                return record;
-            }
-        }
-        else if (column instanceof LongColumn || column instanceof DateColumn) {
-            Long ori = column.asLong();
-            long val = Long.parseLong(value);
+            int columnIndex = (Integer) paras[0];
+            String code = (String) paras[1];
+            String value = (String) paras[2];
 
-            if (ori == val) {
-                return null;
-            }
-            else {
-                return record;
-            }
-        }
-        else if (column instanceof StringColumn
-                || column instanceof BytesColumn
-                || column instanceof BoolColumn) {
-            String ori = column.asString();
-            if (ori.compareTo(value) == 0) {
-                return null;
-            }
-            else {
-                return record;
+            if (StringUtils.isEmpty(value)) {
+                throw new RuntimeException("dx_filter para 2 can't be null");
             }
+            return FilterExpression.compile(columnIndex, code, value);
         }
-        else {
-            throw new RuntimeException("== can't support this columnType:"
-                    + column.getClass().getSimpleName());
+        catch (Exception e) {
+            throw AddaxException.asAddaxException(TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
+                    "paras:" + Arrays.asList(paras) + " => " + e.getMessage());
         }
     }
 
     /**
-     * DateColumn将比较long值，StringColumn，ByteColumn以及BooleanColumn比较其String值
-     *
-     * @param record message record
-     * @param value value to compared
-     * @param column the column of record
-     * @return Record
+     * 一个 dx_filter 配置的参数以及编译后的条件，由 {@link TransformerExecution#genFinalParas()}
+     * 作为唯一的参数传入。每个 task 有自己的 TransformerExecution，只在 reader 线程中使用，
+     * 编译结果随 task 一起释放
      */
-    private Record doNotEqual(Record record, String value, Column column)
+    static final class CompiledFilter
     {
+        private final Object[] paras;
+        private Predicate<Record> predicate;
 
-        //如果字段为空，只比较目标字段为"null", 否则null字段均过滤。
-        if (column.getRawData() == null) {
-            if ("null".equalsIgnoreCase(value)) {
-                return record;
-            }
-            else {
-                return null;
-            }
-        }
-
-        if (column instanceof DoubleColumn) {
-            Double ori = column.asDouble();
-            double val = Double.parseDouble(value);
-
-            if (ori != val) {
-                return null;
-            }
-            else {
-                return record;
-            }
+        CompiledFilter(Object[] paras)
+        {
+            this.paras = paras;
         }
-        else if (column instanceof LongColumn || column instanceof DateColumn) {
-            Long ori = column.asLong();
-            long val = Long.parseLong(value);
 
-            if (ori != val) {
-                return null;
+        Predicate<Record> get()
+        {
+            if (predicate == null) {
+                predicate = compile(paras);
             }
-            else {
-                return record;
-            }
-        }
-        else if (column instanceof StringColumn
-                || column instanceof BytesColumn
-                || column instanceof BoolColumn) {
-            String ori = column.asString();
-            if (ori.compareTo(value) != 0) {
-                return null;
-            }
-            else {
-                return record;
-            }
-        }
-        else {
-            throw new RuntimeException("== can't support this columnType:"
-                    + column.getClass().getSimpleName());
-        }
-    }
-
-    private Record doLike(Record record, String value, Column column)
-    {
-        String orivalue = column.asString();
-        if (orivalue != null && orivalue.matches(value)) {
-            return null;
-        }
-        else {
-            return record;
+            return predicate;
         }
-    }
 
-    private Record doNotLike(Record record, String value, Column column)
-    {
-        String orivalue = column.asString();
-        if (orivalue != null && orivalue.matches(value)) {
-            return record;
-        }
-        else {
-            return null;
+        @Override
+        public String toString()
+        {
+            return paras == null ? "null" : Arrays.asList(paras).toString();
         }
     }
 }
@@ -25,9 +25,13 @@ import com.wgzhao.addax.transformer.Transformer;
 import groovy.lang.GroovyClassLoader;
 import org.apache.commons.lang3.StringUtils;
 import org.codehaus.groovy.control.CompilationFailedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * no comments.
@@ -36,7 +40,15 @@ import java.util.List;
 public class GroovyTransformer
         extends Transformer
 {
-    private Transformer groovyTransformer;
+    private static final Logger LOG = LoggerFactory.getLogger(GroovyTransformer.class);
+
+    /*
+     * 进程内共享的已编译规则，key 为生成的完整 groovy 源码（包含 code、extraPackage 以及是否静态编译），
+     * 同一个规则在所有 task 之间只编译一次。规则类没有成员变量，实例可以在多个线程之间共享
+     */
+    private static final Map<String, Transformer> COMPILED_RULES = new ConcurrentHashMap<>();
+
+    private volatile CompiledRule compiledRule;
 
     public GroovyTransformer()
     {
@@ -46,34 +58,35 @@ public class GroovyTransformer
     @Override
     public Record evaluate(Record record, Object... paras)
     {
-
-        if (groovyTransformer == null) {
-            //全局唯一
-            if (paras.length < 1 || paras.length > 2) {
+        CompiledRule rule = this.compiledRule;
+        if (rule == null || !rule.matches(paras)) {
+            if (paras.length < 1 || paras.length > 3) {
                 throw AddaxException.asAddaxException(
                         TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
-                        "dx_groovy paras must be 1 or 2 . now paras is: " + Arrays.asList(paras));
-            }
-            synchronized (this) {
-
-                if (groovyTransformer == null) {
-                    String code = (String) paras[0];
-                    @SuppressWarnings("unchecked") List<String> extraPackage = paras.length == 2 ?
-                            (List<String>) paras[1] : null;
-                    initGroovyTransformer(code, extraPackage);
-                }
+                        "dx_groovy paras must be 1 to 3 . now paras is: " + Arrays.asList(paras));
             }
+            rule = new CompiledRule(paras, getCompiledRule(paras));
+            this.compiledRule = rule;
         }
 
-        return this.groovyTransformer.evaluate(record);
+        return rule.transformer.evaluate(record);
     }
 
-    private void initGroovyTransformer(String code, List<String> extraPackage)
+    @SuppressWarnings("unchecked")
+    private static Transformer getCompiledRule(Object[] paras)
     {
-        GroovyClassLoader loader = new GroovyClassLoader(GroovyTransformer.class.getClassLoader());
-        String groovyRule = getGroovyRule(code, extraPackage);
+        String code = (String) paras[0];
+        List<String> extraPackage = paras.length >= 2 ? (List<String>) paras[1] : null;
+        boolean compileStatic = paras.length == 3 && Boolean.TRUE.equals(paras[2]);
+        String groovyRule = getGroovyRule(code, extraPackage, compileStatic);
+        return COMPILED_RULES.computeIfAbsent(groovyRule, GroovyTransformer::compile);
+    }
 
-        Class groovyClass;
+    private static Transformer compile(String groovyRule)
+    {
+        long start = System.currentTimeMillis();
+        GroovyClassLoader loader = new GroovyClassLoader(GroovyTransformer.class.getClassLoader());
+        Class<?> groovyClass;
         try {
             groovyClass = loader.parseClass(groovyRule);
         }
@@ -82,41 +95,76 @@ public class GroovyTransformer
                     TransformerErrorCode.TRANSFORMER_GROOVY_INIT_EXCEPTION, cfe);
         }
 
+        Object t;
         try {
-            Object t = groovyClass.newInstance();
-            if (!(t instanceof Transformer)) {
-                throw AddaxException.asAddaxException(
-                        TransformerErrorCode.TRANSFORMER_GROOVY_INIT_EXCEPTION,
-                        "datax bug! contact askdatax");
-            }
-            this.groovyTransformer = (Transformer) t;
+            t = groovyClass.getDeclaredConstructor().newInstance();
         }
         catch (Throwable ex) {
             throw AddaxException.asAddaxException(
                     TransformerErrorCode.TRANSFORMER_GROOVY_INIT_EXCEPTION, ex);
         }
+        if (!(t instanceof Transformer)) {
+            throw AddaxException.asAddaxException(
+                    TransformerErrorCode.TRANSFORMER_GROOVY_INIT_EXCEPTION,
+                    "the groovy rule does not extend Transformer");
+        }
+        LOG.info("Compiled groovy transformer rule in {} ms.", System.currentTimeMillis() - start);
+        return (Transformer) t;
     }
 
-    private String getGroovyRule(String expression, List<String> extraPackagesStrList)
+    private static String getGroovyRule(String expression, List<String> extraPackagesStrList, boolean compileStatic)
     {
         StringBuilder sb = new StringBuilder();
         if (extraPackagesStrList != null) {
             for (String extraPackagesStr : extraPackagesStrList) {
                 if (StringUtils.isNotEmpty(extraPackagesStr)) {
-                    sb.append(extraPackagesStr);
+                    sb.append(extraPackagesStr).append('\n');
                 }
             }
         }
-        sb.append("import static com.wgzhao.addax.core.transport.transformer.GroovyTransformerStaticUtil.*;");
-        sb.append("import com.wgzhao.addax.common.element.*;");
-        sb.append("import com.wgzhao.addax.common.exception.DataXException;");
-        sb.append("import com.wgzhao.addax.transformer.Transformer;");
-        sb.append("import java.util.*;");
-        sb.append("public class RULE extends Transformer").append("{");
-        sb.append("public Record evaluate(Record record, Object... paras) {");
+        sb.append("import static com.wgzhao.addax.core.transport.transformer.GroovyTransformerStaticUtil.*;\n");
+        sb.append("import com.wgzhao.addax.common.element.*;\n");
+        sb.append("import com.wgzhao.addax.common.exception.AddaxException;\n");
+        sb.append("import com.wgzhao.addax.transformer.Transformer;\n");
+        sb.append("import java.util.*;\n");
+        if (compileStatic) {
+            // 静态编译后规则中的方法调用不再走 groovy 的动态分派，但代码必须能通过类型检查
+            sb.append("@groovy.transform.CompileStatic\n");
+        }
+        sb.append("public class RULE extends Transformer {\n");
+        sb.append("public Record evaluate(Record record, Object... paras) {\n");
         sb.append(expression);
-        sb.append("}}");
+        sb.append("\n}}");
 
         return sb.toString();
     }
+
+    /*
+     * 记录当前参数对应的已编译规则，同一个 TransformerExecution 每次传入的是同一组参数对象，
+     * 按引用比较即可跳过每行的源码拼接和缓存查找
+     */
+    private static final class CompiledRule
+    {
+        private final Object[] paras;
+        private final Transformer transformer;
+
+        CompiledRule(Object[] paras, Transformer transformer)
+        {
+            this.paras = paras.clone();
+            this.transformer = transformer;
+        }
+
+        boolean matches(Object[] other)
+        {
+            if (other.length != paras.length) {
+                return false;
+            }
+            for (int i = 0; i < paras.length; i++) {
+                if (other[i] != paras[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
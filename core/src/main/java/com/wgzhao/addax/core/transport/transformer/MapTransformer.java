@@ -66,7 +66,7 @@ public class MapTransformer
             code = (String) paras[1];
             value = (String) paras[2];
             column = record.getColumn(columnIndex);
-            if (column.getRawData() == null) {
+            if (column.isNull()) {
                 return record;
             }
 
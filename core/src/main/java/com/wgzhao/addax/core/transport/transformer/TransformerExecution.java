@@ -53,9 +53,10 @@ public class TransformerExecution
          * groovy不支持传参
          */
         if ("dx_groovy".equals(transformerInfo.getTransformer().getTransformerName())) {
-            finalParas = new Object[2];
+            finalParas = new Object[3];
             finalParas[0] = transformerExecutionParas.getCode();
             finalParas[1] = transformerExecutionParas.getExtraPackage();
+            finalParas[2] = transformerExecutionParas.getCompileStatic();
             return;
         }
         /*
@@ -81,6 +82,13 @@ public class TransformerExecution
                 finalParas = null;
             }
         }
+
+        /*
+         * dx_filter 的条件在本实例中编译并保存，同一个 task 只编译一次
+         */
+        if ("dx_filter".equals(transformerInfo.getTransformer().getTransformerName())) {
+            finalParas = new Object[] {new FilterTransformer.CompiledFilter(finalParas)};
+        }
     }
 
     public Object[] getFinalParas()
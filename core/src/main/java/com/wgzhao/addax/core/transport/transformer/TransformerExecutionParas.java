@@ -38,6 +38,7 @@ public class TransformerExecutionParas
     private Map<String, Object> tContext;
     private String code;
     private List<String> extraPackage;
+    private Boolean compileStatic;
 
     public Integer getColumnIndex()
     {
@@ -88,4 +89,14 @@ public class TransformerExecutionParas
     {
         this.extraPackage = extraPackage;
     }
+
+    public Boolean getCompileStatic()
+    {
+        return compileStatic;
+    }
+
+    public void setCompileStatic(Boolean compileStatic)
+    {
+        this.compileStatic = compileStatic;
+    }
 }
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 状态变化通知
+ * <p>
+ * task 或 taskGroup 结束（成功、失败、被杀）时调用 {@link #signal()}，等待方通过 {@link #await(long)}
+ * 被立即唤醒，而不必等满整个轮询间隔。通知在被消费前会一直保留，因此等待开始之前发生的变化也不会丢失。
+ */
+public class StateChangeSignal
+{
+    private final Object lock = new Object();
+
+    private boolean changed = false;
+
+    public void signal()
+    {
+        synchronized (lock) {
+            changed = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * 等待状态变化，最多等待 timeoutMillis 毫秒
+     *
+     * @param timeoutMillis 最长等待时间
+     * @return 等待期间发生了状态变化返回 true，超时返回 false
+     * @throws InterruptedException 等待被中断
+     */
+    public boolean await(long timeoutMillis)
+            throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (lock) {
+            while (!changed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            changed = false;
+            return true;
+        }
+    }
+}
@@ -94,7 +94,8 @@ public class TransformerUtil
             if (!"dx_groovy".equals(functionName) && !"dx_fackGroovy".equals(functionName)) {
                 Integer columnIndex = configuration.getInt(CoreConstant.TRANSFORMER_PARAMETER_COLUMNINDEX);
 
-                if (columnIndex == null) {
+                // dx_filter 不设置 columnIndex 时，paras 为组合条件表达式
+                if (columnIndex == null && !"dx_filter".equals(functionName)) {
                     throw AddaxException.asAddaxException(TransformerErrorCode.TRANSFORMER_ILLEGAL_PARAMETER,
                             "columnIndex must be set by UDF:name=" + functionName);
                 }
@@ -120,6 +121,8 @@ public class TransformerUtil
                 if (extraPackage != null && !extraPackage.isEmpty()) {
                     transformerExecutionParas.setExtraPackage(extraPackage);
                 }
+                transformerExecutionParas.setCompileStatic(
+                        configuration.getBool(CoreConstant.TRANSFORMER_PARAMETER_COMPILESTATIC, false));
             }
             transformerExecutionParas.settContext(
                     configuration.getMap(CoreConstant.TRANSFORMER_PARAMETER_CONTEXT)
@@ -76,14 +76,24 @@ public class CoreConstant
 
     public static final String ADDAX_CORE_TRANSPORT_CHANNEL_FLOWCONTROLINTERVAL = "core.transport.channel.flowControlInterval";
 
+    public static final String ADDAX_CORE_TRANSPORT_CHANNEL_RATELIMITER_CLASS = "core.transport.channel.rateLimiter.class";
+
     public static final String ADDAX_CORE_TRANSPORT_EXCHANGER_BUFFERSIZE = "core.transport.exchanger.bufferSize";
 
+    public static final String ADDAX_CORE_TRANSPORT_EXCHANGER_RECYCLE = "core.transport.exchanger.recycle";
+
     public static final String ADDAX_CORE_TRANSPORT_RECORD_CLASS = "core.transport.record.class";
 
     public static final String ADDAX_CORE_STATISTICS_COLLECTOR_PLUGIN_TASKCLASS = "core.statistics.collector.plugin.taskClass";
 
     public static final String ADDAX_CORE_STATISTICS_COLLECTOR_PLUGIN_MAXDIRTYNUM = "core.statistics.collector.plugin.maxDirtyNumber";
 
+    public static final String ADDAX_CORE_METRICS_JMX_ENABLE = "core.metrics.jmx.enable";
+
+    public static final String ADDAX_CORE_METRICS_HTTP_HOST = "core.metrics.http.host";
+
+    public static final String ADDAX_CORE_METRICS_HTTP_PORT = "core.metrics.http.port";
+
     public static final String ADDAX_JOB_CONTENT_READER_NAME = "job.content[0].reader.name";
 
     public static final String ADDAX_JOB_CONTENT_READER_PARAMETER = "job.content[0].reader.parameter";
@@ -106,6 +116,8 @@ public class CoreConstant
 
     public static final String ADDAX_JOB_SETTING_SPEED_CHANNEL = "job.setting.speed.channel";
 
+    public static final String ADDAX_JOB_SETTING_SPEED_SHARED = "job.setting.speed.shared";
+
     public static final String ADDAX_JOB_SETTING_ERRORLIMIT = "job.setting.errorLimit";
 
     public static final String ADDAX_JOB_SETTING_ERRORLIMIT_RECORD = "job.setting.errorLimit.record";
@@ -114,6 +126,10 @@ public class CoreConstant
 
     public static final String ADDAX_JOB_SETTING_DRYRUN = "job.setting.dryRun";
 
+    public static final String ADDAX_JOB_SETTING_SCHEDULE_MODE = "job.setting.scheduleMode";
+
+    public static final String ADDAX_JOB_SETTING_MAX_CHANNEL_PER_RESOURCE = "job.setting.maxChannelPerResource";
+
     public static final String ADDAX_JOB_PREHANDLER_PLUGINTYPE = "job.preHandler.pluginType";
 
     public static final String ADDAX_JOB_PREHANDLER_PLUGINNAME = "job.preHandler.pluginName";
@@ -143,6 +159,7 @@ public class CoreConstant
     public static final String TRANSFORMER_PARAMETER_CONTEXT = "parameter.context";
     public static final String TRANSFORMER_PARAMETER_CODE = "parameter.code";
     public static final String TRANSFORMER_PARAMETER_EXTRAPACKAGE = "parameter.extraPackage";
+    public static final String TRANSFORMER_PARAMETER_COMPILESTATIC = "parameter.compileStatic";
 
     public static final String TASK_ID = "taskId";
 
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.wgzhao.addax.core.statistics.metrics;
+
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.statistics.communication.Communication;
+import com.wgzhao.addax.core.statistics.communication.Counters;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestMetricsRegistry
+{
+    @BeforeEach
+    public void setUp()
+    {
+        Configuration configuration = Configuration.newDefault();
+        configuration.set(CoreConstant.ADDAX_CORE_CONTAINER_JOB_ID, 2001L);
+        configuration.set(CoreConstant.ADDAX_CORE_METRICS_JMX_ENABLE, true);
+        MetricsRegistry.start(configuration);
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        MetricsRegistry.stop();
+    }
+
+    private static Communication communication(long readRecords, long waitReader)
+    {
+        Communication communication = new Communication();
+        communication.setLongCounter(Counters.READ_SUCCEED_RECORDS, readRecords);
+        communication.setLongCounter(Counters.WAIT_READER_TIME, waitReader);
+        return communication;
+    }
+
+    private static long value(MetricsRegistry.Metric metric)
+    {
+        return MetricsRegistry.collect(task -> true)[metric.ordinal()];
+    }
+
+    @Test
+    public void testCountersSurviveFailover()
+    {
+        MetricsRegistry.registerTask(0, 1, communication(100, 5), null);
+        MetricsRegistry.registerTask(0, 2, communication(10, 1), null);
+        MetricsRegistry.finishTask(1);
+        // 失败重试时 taskGroupContainer 为 task 换上新的 Communication，累计值不能回退
+        MetricsRegistry.registerTask(0, 1, communication(0, 0), null);
+        assertEquals(110, value(MetricsRegistry.Metric.READ_RECORDS));
+        assertEquals(6, value(MetricsRegistry.Metric.WAIT_READER));
+
+        MetricsRegistry.finishTask(1);
+        MetricsRegistry.registerTask(0, 1, communication(30, 2), null);
+        assertEquals(140, value(MetricsRegistry.Metric.READ_RECORDS));
+        assertEquals(8, value(MetricsRegistry.Metric.WAIT_READER));
+    }
+
+    @Test
+    public void testGaugesFollowCurrentAttempt()
+    {
+        MetricsRegistry.registerTask(0, 1, communication(100, 0), null);
+        MetricsRegistry.registerTask(0, 1, communication(0, 0), null);
+        assertEquals(0, value(MetricsRegistry.Metric.RUNNING_TASKS));
+        assertEquals(0, value(MetricsRegistry.Metric.CHANNEL_RECORDS));
+    }
+}
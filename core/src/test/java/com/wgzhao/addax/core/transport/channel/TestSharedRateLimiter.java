@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.wgzhao.addax.core.transport.channel;
+
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.transport.channel.limiter.RateLimiter;
+import com.wgzhao.addax.core.transport.channel.memory.MemoryChannel;
+import com.wgzhao.addax.core.util.container.CoreConstant;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestSharedRateLimiter
+{
+    private static Configuration configuration(long jobId, long byteSpeed)
+    {
+        Configuration configuration = Configuration.newDefault();
+        configuration.set(CoreConstant.ADDAX_CORE_CONTAINER_TASKGROUP_ID, 0);
+        configuration.set(CoreConstant.ADDAX_CORE_CONTAINER_JOB_ID, jobId);
+        configuration.set("core.transport.channel.capacity", 8);
+        configuration.set("core.transport.channel.speed.byte", -1);
+        configuration.set("core.transport.channel.speed.record", -1);
+        configuration.set("core.transport.exchanger.bufferSize", 4);
+        configuration.set(CoreConstant.ADDAX_CORE_TRANSPORT_CHANNEL_RATELIMITER_CLASS, CountingRateLimiter.class.getName());
+        configuration.set(CoreConstant.ADDAX_JOB_SETTING_SPEED_SHARED, true);
+        configuration.set(CoreConstant.ADDAX_JOB_SETTING_SPEED_BYTE, byteSpeed);
+        return configuration;
+    }
+
+    @Test
+    public void testLimiterIsSharedUntilJobEnds()
+    {
+        CountingRateLimiter.CREATED.clear();
+        new MemoryChannel(configuration(1001L, 1000L));
+        new MemoryChannel(configuration(1001L, 1000L));
+        // 同一作业的 channel 共用一个限速器
+        assertEquals(1, CountingRateLimiter.CREATED.size());
+
+        new MemoryChannel(configuration(1002L, 2000L));
+        assertEquals(2, CountingRateLimiter.CREATED.size());
+
+        Channel.removeSharedRateLimiters(1001L);
+        Channel.removeSharedRateLimiters(1002L);
+
+        // 作业结束后，使用相同 jobId 的新作业按自己的配置重新创建限速器
+        new MemoryChannel(configuration(1001L, 3000L));
+        assertEquals(3, CountingRateLimiter.CREATED.size());
+        assertEquals(3000L, CountingRateLimiter.CREATED.get(2).getRate());
+        Channel.removeSharedRateLimiters(1001L);
+    }
+
+    public static class CountingRateLimiter
+            implements RateLimiter
+    {
+        static final List<CountingRateLimiter> CREATED = new ArrayList<>();
+
+        private final long permitsPerSecond;
+
+        public CountingRateLimiter(long permitsPerSecond, long burstMillis)
+        {
+            this.permitsPerSecond = permitsPerSecond;
+            CREATED.add(this);
+        }
+
+        @Override
+        public void acquire(long permits)
+        {
+            //
+        }
+
+        @Override
+        public long getRate()
+        {
+            return permitsPerSecond;
+        }
+    }
+}
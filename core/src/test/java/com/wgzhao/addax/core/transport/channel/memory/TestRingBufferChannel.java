@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.channel.memory;
+
+import com.wgzhao.addax.common.element.LongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.exception.CommonErrorCode;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.statistics.communication.Communication;
+import com.wgzhao.addax.core.transport.record.DefaultRecord;
+import com.wgzhao.addax.core.transport.record.TerminateRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestRingBufferChannel
+{
+    private static RingBufferChannel channel(int capacity, int byteCapacity, int bufferSize)
+    {
+        Configuration configuration = Configuration.newDefault();
+        configuration.set("core.container.taskGroup.id", 0);
+        configuration.set("core.transport.channel.capacity", capacity);
+        configuration.set("core.transport.channel.byteCapacity", byteCapacity);
+        configuration.set("core.transport.channel.speed.byte", -1);
+        configuration.set("core.transport.channel.speed.record", -1);
+        configuration.set("core.transport.exchanger.bufferSize", bufferSize);
+        RingBufferChannel channel = new RingBufferChannel(configuration);
+        channel.setCommunication(new Communication());
+        return channel;
+    }
+
+    private static Record record(long value)
+    {
+        Record record = new DefaultRecord();
+        record.addColumn(new LongColumn(value));
+        return record;
+    }
+
+    private static List<Record> records(long from, int count)
+    {
+        List<Record> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            records.add(record(from + i));
+        }
+        return records;
+    }
+
+    private static Thread start(Runnable runnable, AtomicReference<Throwable> error)
+    {
+        Thread thread = new Thread(() -> {
+            try {
+                runnable.run();
+            }
+            catch (Throwable t) {
+                error.set(t);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public void testWrapAround()
+    {
+        RingBufferChannel channel = channel(4, Integer.MAX_VALUE, 3);
+        List<Record> pulled = new ArrayList<>();
+        long expected = 0;
+        for (int round = 0; round < 10; round++) {
+            channel.pushAll(records(round * 3L, 3));
+            channel.pullAll(pulled);
+            assertEquals(3, pulled.size());
+            for (Record record : pulled) {
+                assertEquals(expected++, (long) record.getColumn(0).asLong());
+            }
+        }
+        assertTrue(channel.isEmpty());
+    }
+
+    @Test
+    public void testBatchLargerThanCapacity()
+            throws InterruptedException
+    {
+        RingBufferChannel channel = channel(4, Integer.MAX_VALUE, 3);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        // 批次大于队列长度时分段发布，需要消费者同时取走
+        Thread producer = start(() -> channel.pushAll(records(0, 10)), error);
+        for (long i = 0; i < 10; i++) {
+            assertEquals(i, (long) channel.pull().getColumn(0).asLong());
+        }
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertNull(error.get());
+    }
+
+    @Test
+    public void testByteCapacityBlocksProducer()
+            throws InterruptedException
+    {
+        int recordBytes = record(0).getMemorySize();
+        RingBufferChannel channel = channel(16, recordBytes * 2, 3);
+        channel.push(record(0));
+        channel.push(record(1));
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread producer = start(() -> channel.push(record(2)), error);
+        producer.join(200);
+        assertTrue(producer.isAlive());
+        assertEquals(2, channel.size());
+
+        assertEquals(0L, (long) channel.pull().getColumn(0).asLong());
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertNull(error.get());
+        assertEquals(1L, (long) channel.pull().getColumn(0).asLong());
+        assertEquals(2L, (long) channel.pull().getColumn(0).asLong());
+    }
+
+    @Test
+    public void testTerminate()
+    {
+        RingBufferChannel channel = channel(4, Integer.MAX_VALUE, 3);
+        channel.push(record(0));
+        channel.close();
+        assertEquals(0L, (long) channel.pull().getColumn(0).asLong());
+        assertSame(TerminateRecord.get(), channel.pull());
+    }
+
+    @Test
+    public void testClearReleasesBothSides()
+            throws InterruptedException
+    {
+        RingBufferChannel channel = channel(2, Integer.MAX_VALUE, 3);
+        channel.pushAll(records(0, 2));
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread producer = start(() -> channel.push(record(2)), error);
+        producer.join(200);
+        assertTrue(producer.isAlive());
+
+        // 由第三个线程调用，只设置标记，生产者自己退出
+        channel.clear();
+        producer.join(5000);
+        assertFalse(producer.isAlive());
+        assertTrue(error.get() instanceof AddaxException);
+        assertEquals(CommonErrorCode.SHUT_DOWN_TASK, ((AddaxException) error.get()).getErrorCode());
+        assertEquals(2, channel.size());
+
+        // 消费者在自己的线程内丢弃剩余记录
+        AddaxException e = assertThrows(AddaxException.class, channel::pull);
+        assertEquals(CommonErrorCode.SHUT_DOWN_TASK, e.getErrorCode());
+        assertTrue(channel.isEmpty());
+        assertThrows(AddaxException.class, () -> channel.push(record(3)));
+    }
+}
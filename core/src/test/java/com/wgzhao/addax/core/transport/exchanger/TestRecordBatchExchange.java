@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.exchanger;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.LongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.RecordBatch;
+import com.wgzhao.addax.common.element.StringColumn;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.statistics.communication.Communication;
+import com.wgzhao.addax.core.statistics.communication.CommunicationTool;
+import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.channel.memory.MemoryChannel;
+import com.wgzhao.addax.core.transport.record.DefaultRecord;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TestRecordBatchExchange
+{
+    private final Communication communication = new Communication();
+
+    private Channel channel()
+    {
+        Configuration configuration = Configuration.newDefault();
+        configuration.set("core.container.taskGroup.id", 0);
+        configuration.set("core.transport.channel.capacity", 8);
+        configuration.set("core.transport.channel.speed.byte", -1);
+        configuration.set("core.transport.channel.speed.record", -1);
+        configuration.set("core.transport.exchanger.bufferSize", 4);
+        Channel channel = new MemoryChannel(configuration);
+        channel.setCommunication(communication);
+        return channel;
+    }
+
+    private static RecordBatch batch(int rows)
+    {
+        RecordBatch batch = RecordBatch.create(new Column.Type[] {Column.Type.LONG, Column.Type.STRING}, rows);
+        for (int i = 0; i < rows; i++) {
+            Record record = new DefaultRecord();
+            record.addColumn(new LongColumn(i));
+            record.addColumn(new StringColumn("row" + i));
+            batch.addRecord(record);
+        }
+        return batch;
+    }
+
+    @Test
+    public void testBatchRowsAreWritable()
+    {
+        Channel channel = channel();
+        BufferedRecordExchanger reader = new BufferedRecordExchanger(channel, null);
+        BufferedRecordExchanger writer = new BufferedRecordExchanger(channel, null);
+        RecordBatch batch = batch(3);
+        reader.sendBatchToWriter(batch);
+        reader.terminate();
+
+        Record first = writer.getFromReader();
+        assertEquals(0L, (long) first.getColumn(0).asLong());
+        first.setColumn(1, new StringColumn("changed"));
+        first.addColumn(new LongColumn(100L));
+        assertEquals("changed", first.getColumn(1).asString());
+        assertEquals(3, first.getColumnNumber());
+        assertEquals(100L, (long) first.getColumn(2).asLong());
+        // 修改行视图不影响批次中的数据
+        assertEquals("row0", batch.getColumn(0, 1).asString());
+
+        Record second = writer.getFromReader();
+        second.setColumn(3, new StringColumn("tail"));
+        assertEquals(4, second.getColumnNumber());
+        assertNull(second.getColumn(2));
+        assertEquals("row1", second.getColumn(1).asString());
+
+        assertEquals("row2", writer.getFromReader().getColumn(1).asString());
+        assertNull(writer.getFromReader());
+        // 批次在 channel 中只占一个槽位，但按行数统计
+        assertEquals(3L, (long) communication.getLongCounter(CommunicationTool.READ_SUCCEED_RECORDS));
+    }
+
+    @Test
+    public void testBatchIsPassedAsIs()
+    {
+        Channel channel = channel();
+        BufferedRecordExchanger reader = new BufferedRecordExchanger(channel, null);
+        BufferedRecordExchanger writer = new BufferedRecordExchanger(channel, null);
+        RecordBatch batch = batch(2);
+        reader.sendBatchToWriter(batch);
+        reader.terminate();
+
+        assertSame(batch, writer.getBatchFromReader());
+        assertNull(writer.getBatchFromReader());
+    }
+
+    @Test
+    public void testRowRecordsAreGroupedIntoBatch()
+    {
+        Channel channel = channel();
+        BufferedRecordExchanger reader = new BufferedRecordExchanger(channel, null);
+        BufferedRecordExchanger writer = new BufferedRecordExchanger(channel, null);
+        for (int i = 0; i < 3; i++) {
+            Record record = reader.createRecord();
+            record.addColumn(new LongColumn(i));
+            reader.sendToWriter(record);
+        }
+        reader.terminate();
+
+        RecordBatch batch = writer.getBatchFromReader();
+        assertEquals(3, batch.getRowCount());
+        assertEquals(2L, (long) batch.getRecord(2).getColumn(0).asLong());
+        assertNull(writer.getBatchFromReader());
+    }
+}
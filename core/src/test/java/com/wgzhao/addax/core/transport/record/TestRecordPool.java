@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.record;
+
+import com.wgzhao.addax.common.element.LongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.StringColumn;
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.core.statistics.communication.Communication;
+import com.wgzhao.addax.core.transport.channel.Channel;
+import com.wgzhao.addax.core.transport.channel.memory.MemoryChannel;
+import com.wgzhao.addax.core.transport.exchanger.BufferedRecordExchanger;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestRecordPool
+{
+    private static Configuration conf(boolean recycle, int capacity, int bufferSize)
+    {
+        Configuration configuration = Configuration.newDefault();
+        configuration.set("core.container.taskGroup.id", 0);
+        configuration.set("core.transport.channel.capacity", capacity);
+        configuration.set("core.transport.channel.speed.byte", -1);
+        configuration.set("core.transport.channel.speed.record", -1);
+        configuration.set("core.transport.exchanger.bufferSize", bufferSize);
+        configuration.set("core.transport.exchanger.recycle", recycle);
+        return configuration;
+    }
+
+    @Test
+    public void testRecycleDisabledByDefault()
+    {
+        RecordPool pool = new RecordPool(conf(false, 4, 2));
+        assertFalse(pool.isRecycleEnabled());
+        Record record = pool.borrow();
+        pool.recycle(record);
+        assertNotSame(record, pool.borrow());
+    }
+
+    @Test
+    public void testRecycledRecordIsClearedAndReused()
+    {
+        RecordPool pool = new RecordPool(conf(true, 4, 2));
+        assertTrue(pool.isRecycleEnabled());
+        Record record = pool.borrow();
+        record.addColumn(new StringColumn("abc"));
+        record.addColumn(new LongColumn(1L));
+        int emptyMemorySize = new DefaultRecord().getMemorySize();
+
+        pool.recycle(record);
+        Record reused = pool.borrow();
+        assertSame(record, reused);
+        assertEquals(0, reused.getColumnNumber());
+        assertEquals(0, reused.getByteSize());
+        assertEquals(emptyMemorySize, reused.getMemorySize());
+        assertNull(reused.getColumn(0));
+    }
+
+    @Test
+    public void testPoolIsBoundedByRecordsInFlight()
+    {
+        // 容量为 channel 容量加上两端缓冲区：1 + 2 * 1 = 3
+        RecordPool pool = new RecordPool(conf(true, 1, 1));
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(pool.borrow());
+        }
+        for (Record record : records) {
+            pool.recycle(record);
+        }
+        for (int i = 0; i < 3; i++) {
+            assertTrue(records.contains(pool.borrow()));
+        }
+        assertFalse(records.contains(pool.borrow()));
+    }
+
+    @Test
+    public void testRecordsReturnThroughExchanger()
+    {
+        Channel channel = new MemoryChannel(conf(true, 8, 2));
+        channel.setCommunication(new Communication());
+        BufferedRecordExchanger reader = new BufferedRecordExchanger(channel, null);
+        BufferedRecordExchanger writer = new BufferedRecordExchanger(channel, null);
+
+        Record sent = reader.createRecord();
+        sent.addColumn(new LongColumn(42L));
+        reader.sendToWriter(sent);
+        reader.flush();
+
+        Record received = writer.getFromReader();
+        assertSame(sent, received);
+        assertEquals(42L, (long) received.getColumn(0).asLong());
+        writer.recycle(received);
+
+        Record next = reader.createRecord();
+        assertSame(sent, next);
+        assertEquals(0, next.getColumnNumber());
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.core.transport.transformer;
+
+import com.wgzhao.addax.common.element.DoubleColumn;
+import com.wgzhao.addax.common.element.LongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.StringColumn;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.core.transport.record.DefaultRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFilterExpression
+{
+    private static Record record(Long id, String name, Double score)
+    {
+        Record record = new DefaultRecord();
+        record.addColumn(new LongColumn(id));
+        record.addColumn(new StringColumn(name));
+        record.addColumn(new DoubleColumn(score));
+        return record;
+    }
+
+    private static boolean matches(String expression, Record record)
+    {
+        return FilterExpression.parse(expression).test(record);
+    }
+
+    @Test
+    public void testSingleCondition()
+    {
+        Record record = record(5L, "abc", 1.5);
+        assertTrue(FilterExpression.compile(0, ">", "3").test(record));
+        assertFalse(FilterExpression.compile(0, "<=", "3").test(record));
+        assertTrue(FilterExpression.compile(1, "like", "a.*").test(record));
+        assertFalse(FilterExpression.compile(1, "not like", "a.*").test(record));
+        assertTrue(FilterExpression.compile(2, "==", "1.5").test(record));
+        assertTrue(FilterExpression.compile(1, "!=", "abd").test(record));
+    }
+
+    @Test
+    public void testAndBindsTighterThanOr()
+    {
+        // a or (b and c)
+        String expression = "#0 = 1 or #0 = 2 and #1 = 'x'";
+        assertTrue(matches(expression, record(1L, "y", 0.0)));
+        assertFalse(matches(expression, record(2L, "y", 0.0)));
+        assertTrue(matches(expression, record(2L, "x", 0.0)));
+    }
+
+    @Test
+    public void testParenthesesOverridePrecedence()
+    {
+        String expression = "(#0 = 1 or #0 = 2) and #1 = 'x'";
+        assertFalse(matches(expression, record(1L, "y", 0.0)));
+        assertTrue(matches(expression, record(1L, "x", 0.0)));
+        assertTrue(matches(expression, record(2L, "x", 0.0)));
+        assertFalse(matches(expression, record(3L, "x", 0.0)));
+    }
+
+    @Test
+    public void testNotAppliesToNextFactor()
+    {
+        // (not a) and b
+        String expression = "not #0 = 1 and #1 = 'x'";
+        assertTrue(matches(expression, record(2L, "x", 0.0)));
+        assertFalse(matches(expression, record(1L, "x", 0.0)));
+        assertFalse(matches(expression, record(2L, "y", 0.0)));
+        assertTrue(matches("not (#0 = 1 or #0 = 2)", record(3L, "x", 0.0)));
+        assertFalse(matches("not (#0 = 1 or #0 = 2)", record(2L, "x", 0.0)));
+    }
+
+    @Test
+    public void testKeywordsAreCaseInsensitive()
+    {
+        assertTrue(matches("#0 > 3 AND #1 Like 'a.*' Or #2 IS NULL", record(5L, "abc", 1.0)));
+        assertTrue(matches("#2 is not null", record(5L, "abc", 1.0)));
+        assertTrue(matches("#2 IS NULL", record(5L, "abc", null)));
+    }
+
+    @Test
+    public void testQuoting()
+    {
+        // 两个连续的引号表示引号本身，引号内的关键字、括号、逗号和运算符都是普通字符
+        assertTrue(matches("#1 = 'it''s'", record(1L, "it's", 0.0)));
+        assertTrue(matches("#1 = \"say \"\"hi\"\"\"", record(1L, "say \"hi\"", 0.0)));
+        assertTrue(matches("#1 = 'a or b'", record(1L, "a or b", 0.0)));
+        assertTrue(matches("#1 in ('x,y', '(z)')", record(1L, "(z)", 0.0)));
+        assertTrue(matches("#1 = '>= 1'", record(1L, ">= 1", 0.0)));
+        assertTrue(matches("#1 = \"it's\"", record(1L, "it's", 0.0)));
+        assertFalse(matches("#1 = 'and'", record(1L, "or", 0.0)));
+    }
+
+    @Test
+    public void testInBetweenAndNull()
+    {
+        assertTrue(matches("#0 in (1, 2, 3)", record(2L, "x", 0.0)));
+        assertFalse(matches("#0 not in (1, 2, 3)", record(2L, "x", 0.0)));
+        assertTrue(matches("#2 between 1.5 and 2.5", record(1L, "x", 2.5)));
+        assertFalse(matches("#2 not between 1.5 and 2.5", record(1L, "x", 2.0)));
+        assertTrue(matches("#1 is null", record(1L, null, 0.0)));
+        // 空值不参与大小比较
+        assertFalse(matches("#0 > 1", record(null, "x", 0.0)));
+        assertTrue(matches("#0 = null", record(null, "x", 0.0)));
+    }
+
+    @Test
+    public void testInvalidExpressions()
+    {
+        String[] invalid = {
+                "",
+                "#1 = 'abc",
+                "(#0 = 1",
+                "#0 = 1)",
+                "#0 = 1 #1 = 2",
+                "0 = 1",
+                "#a = 1",
+                "#0 not = 1",
+                "#0 in (1, 2",
+                "#0 between 1",
+                "#0 = 1 and",
+                "#0 ~ 1",
+        };
+        for (String expression : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> FilterExpression.parse(expression), expression);
+        }
+    }
+
+    @Test
+    public void testCompiledOncePerExecution()
+    {
+        TransformerInfo info = new TransformerInfo();
+        info.setTransformer(new ComplexTransformerProxy(new FilterTransformer()));
+
+        TransformerExecutionParas first = new TransformerExecutionParas();
+        first.setParas(new String[] {"#0 > 3"});
+        TransformerExecution firstExecution = new TransformerExecution(info, first);
+        firstExecution.genFinalParas();
+
+        TransformerExecutionParas second = new TransformerExecutionParas();
+        second.setColumnIndex(0);
+        second.setParas(new String[] {"<", "3"});
+        TransformerExecution secondExecution = new TransformerExecution(info, second);
+        secondExecution.genFinalParas();
+
+        Object[] paras = firstExecution.getFinalParas();
+        FilterTransformer.CompiledFilter compiled = (FilterTransformer.CompiledFilter) paras[0];
+        Predicate<Record> predicate = compiled.get();
+        assertSame(predicate, compiled.get());
+
+        // 同一个 transformer 实例，不同 task 的条件互不影响
+        Record big = record(5L, "x", 0.0);
+        Record small = record(1L, "x", 0.0);
+        assertNull(info.getTransformer().evaluate(big, null, paras));
+        assertSame(small, info.getTransformer().evaluate(small, null, paras));
+        assertSame(big, info.getTransformer().evaluate(big, null, secondExecution.getFinalParas()));
+        assertNull(info.getTransformer().evaluate(small, null, secondExecution.getFinalParas()));
+        assertSame(predicate, compiled.get());
+    }
+
+    @Test
+    public void testIllegalParasFailOnEvaluate()
+    {
+        TransformerInfo info = new TransformerInfo();
+        info.setTransformer(new ComplexTransformerProxy(new FilterTransformer()));
+        TransformerExecutionParas paras = new TransformerExecutionParas();
+        paras.setParas(new String[] {"#0 >"});
+        TransformerExecution execution = new TransformerExecution(info, paras);
+        execution.genFinalParas();
+
+        assertThrows(AddaxException.class,
+                () -> info.getTransformer().evaluate(record(1L, "x", 0.0), null, execution.getFinalParas()));
+    }
+}
@@ -22,6 +22,8 @@ package com.wgzhao.addax.plugin.rdbms.reader;
 import com.wgzhao.addax.plugin.rdbms.util.DataBaseType;
 import com.wgzhao.addax.common.element.BoolColumn;
 import com.wgzhao.addax.common.element.BytesColumn;
+import com.wgzhao.addax.common.element.CompactDoubleColumn;
+import com.wgzhao.addax.common.element.CompactLongColumn;
 import com.wgzhao.addax.common.element.DateColumn;
 import com.wgzhao.addax.common.element.DoubleColumn;
 import com.wgzhao.addax.common.element.LongColumn;
@@ -38,6 +40,7 @@ import com.wgzhao.addax.plugin.rdbms.reader.util.OriginalConfPretreatmentUtil;
 import com.wgzhao.addax.plugin.rdbms.reader.util.PreCheckTask;
 import com.wgzhao.addax.plugin.rdbms.reader.util.ReaderSplitUtil;
 import com.wgzhao.addax.plugin.rdbms.reader.util.SingleTableSplitUtil;
+import com.wgzhao.addax.plugin.rdbms.util.ConnectionPoolConfig;
 import com.wgzhao.addax.plugin.rdbms.util.DBUtil;
 import com.wgzhao.addax.plugin.rdbms.util.DBUtilErrorCode;
 import com.wgzhao.addax.plugin.rdbms.util.RdbmsException;
@@ -64,8 +67,11 @@ public class CommonRdbmsReader
     {
         private static final Logger LOG = LoggerFactory.getLogger(Job.class);
 
+        private final DataBaseType dataBaseType;
+
         public Job(DataBaseType dataBaseType)
         {
+            this.dataBaseType = dataBaseType;
             OriginalConfPretreatmentUtil.dataBaseType = dataBaseType;
             SingleTableSplitUtil.dataBaseType = dataBaseType;
             GetPrimaryKeyUtil.dataBaseType = dataBaseType;
@@ -146,7 +152,7 @@ public class CommonRdbmsReader
 
         public void destroy(Configuration originalConfig)
         {
-            // do nothing
+            DBUtil.closeConnectionPools(this.dataBaseType);
         }
     }
 
@@ -164,6 +170,7 @@ public class CommonRdbmsReader
         private String password;
         private String jdbcUrl;
         private String mandatoryEncoding;
+        private ConnectionPoolConfig poolConfig;
 
         // 作为日志显示信息时，需要附带的通用信息。比如信息所对应的数据库连接等信息，针对哪个表做的操作
         private String basicMsg;
@@ -185,6 +192,7 @@ public class CommonRdbmsReader
 
             /* for database connection */
 
+            this.poolConfig = ConnectionPoolConfig.from(readerSliceConfig);
             this.username = readerSliceConfig.getString(Key.USERNAME);
             this.password = readerSliceConfig.getString(Key.PASSWORD);
             this.jdbcUrl = readerSliceConfig.getString(Key.JDBC_URL);
@@ -206,7 +214,7 @@ public class CommonRdbmsReader
             PerfRecord queryPerfRecord = new PerfRecord(taskGroupId, taskId, PerfRecord.PHASE.SQL_QUERY);
             queryPerfRecord.start();
 
-            Connection conn = DBUtil.getConnection(this.dataBaseType, jdbcUrl, username, password);
+            Connection conn = DBUtil.getConnection(this.dataBaseType, jdbcUrl, username, password, poolConfig);
 
             // session config .etc related
             DBUtil.dealWithSessionConfig(conn, readerSliceConfig, this.dataBaseType, basicMsg);
@@ -297,8 +305,13 @@ public class CommonRdbmsReader
                         case Types.SMALLINT:
                         case Types.TINYINT:
                         case Types.INTEGER:
+                            long longValue = rs.getLong(i);
+                            record.addColumn(rs.wasNull() ? new LongColumn() : new CompactLongColumn(longValue));
+                            break;
+
                         case Types.BIGINT:
-                            record.addColumn(new LongColumn(rs.getString(i)));
+                            // unsigned bigint 可能超出 long 的范围，由 valueOf 决定是否退回 BigInteger
+                            record.addColumn(CompactLongColumn.valueOf(rs.getString(i)));
                             break;
 
                         case Types.NUMERIC:
@@ -315,7 +328,8 @@ public class CommonRdbmsReader
                                 record.addColumn(new DoubleColumn(rs.getString(i).substring(1).replace(",", "")));
                             }
                             else {
-                                record.addColumn(new DoubleColumn(rs.getString(i)));
+                                double doubleValue = rs.getDouble(i);
+                                record.addColumn(rs.wasNull() ? new DoubleColumn() : new CompactDoubleColumn(doubleValue));
                             }
                             break;
 
@@ -326,7 +340,7 @@ public class CommonRdbmsReader
                         // for mysql bug, see http://bugs.mysql.com/bug.php?id=35115
                         case Types.DATE:
                             if ("year".equalsIgnoreCase(metaData.getColumnTypeName(i))) {
-                                record.addColumn(new LongColumn(rs.getInt(i)));
+                                record.addColumn(new CompactLongColumn(rs.getInt(i)));
                             }
                             else {
                                 record.addColumn(new DateColumn(rs.getDate(i)));
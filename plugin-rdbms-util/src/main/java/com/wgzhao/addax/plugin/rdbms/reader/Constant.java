@@ -30,6 +30,8 @@ public final class Constant
     public static final String CONN_MARK = "connection";
     public static final String TABLE_NUMBER_MARK = "tableNumber";
     public static final String IS_TABLE_MODE = "isTableMode";
+    public static final String SPLIT_MODE_RANGE = "range";
+    public static final String SPLIT_MODE_SAMPLE = "sample";
     public static final String FETCH_SIZE = "fetchSize";
     public static final String QUERY_SQL_TEMPLATE_WITHOUT_WHERE = "select %s from %s ";
     public static final String QUERY_SQL_TEMPLATE = "select %s from %s where (%s)";
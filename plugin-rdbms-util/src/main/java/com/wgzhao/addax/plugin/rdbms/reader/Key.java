@@ -39,7 +39,8 @@ public final class Key
     public static final String WHERE = "where";
     public static final String HINT = "hint";
     public static final String SPLIT_PK = "splitPk";
-//    public static final String SPLIT_MODE = "splitMode"
+    // 切分方式，range 按主键值域等宽切分（默认），sample 按采样得到的分布等行数切分
+    public static final String SPLIT_MODE = "splitMode";
     public static final String SAMPLE_PERCENTAGE = "samplePercentage";
     public static final String QUERY_SQL = "querySql";
     public static final String SPLIT_PK_SQL = "splitPkSql";
@@ -50,6 +51,8 @@ public final class Key
 //    public static final String DBNAME = "dbName"
     public static final String DRYRUN = "dryRun";
     public static final String AUTO_PK = "autoPk";
+    // 连接池配置，包括 maxSize, maxIdle, validationQuery, validationTimeout, idleTimeout
+    public static final String CONNECTION_POOL = "connectionPool";
 
     private Key() {}
 }
\ No newline at end of file
@@ -50,6 +50,9 @@ public class SingleTableSplitUtil
 {
     private static final Logger LOG = LoggerFactory.getLogger(SingleTableSplitUtil.class);
 
+    // 按采样切分时默认的采样比例(百分比)
+    private static final double DEFAULT_SAMPLE_PERCENTAGE = 1.0;
+
     public static DataBaseType dataBaseType;
 
     private SingleTableSplitUtil()
@@ -92,7 +95,15 @@ public class SingleTableSplitUtil
                 rangeList = splitStringPk(configuration, table, where, minMaxPK.getLeft().toString(), minMaxPK.getRight().toString(), adviceNum, splitPkName);
             }
             else if (isLongType) {
-                rangeList = RdbmsRangeSplitWrap.splitAndWrap(new BigInteger(minMaxPK.getLeft().toString()), new BigInteger(minMaxPK.getRight().toString()), adviceNum, splitPkName);
+                BigInteger minVal = new BigInteger(minMaxPK.getLeft().toString());
+                BigInteger maxVal = new BigInteger(minMaxPK.getRight().toString());
+                String splitMode = configuration.getString(Key.SPLIT_MODE, Constant.SPLIT_MODE_RANGE);
+                if (Constant.SPLIT_MODE_SAMPLE.equalsIgnoreCase(splitMode)) {
+                    rangeList = splitLongPkBySample(configuration, table, where, minVal, maxVal, adviceNum, splitPkName);
+                }
+                else {
+                    rangeList = RdbmsRangeSplitWrap.splitAndWrap(minVal, maxVal, adviceNum, splitPkName);
+                }
             }
             else {
                 throw AddaxException.asAddaxException(DBUtilErrorCode.ILLEGAL_SPLIT_PK,
@@ -440,6 +451,103 @@ public class SingleTableSplitUtil
         return rangeSql;
     }
 
+    /**
+     * 按采样得到的主键分布切分整数主键，使每个分片的记录数大致相等。
+     * 在采样数据上用 NTILE 窗口函数分桶，取每个桶的最大值作为切分点，因此只返回 splitNum 行。
+     * 数据库不支持窗口函数或者采样结果不足以切分时，退回到按值域等宽切分
+     *
+     * @param configuration configuration
+     * @param table the table which be queried
+     * @param where where clause
+     * @param minVal minimal value
+     * @param maxVal maximal value
+     * @param splitNum expected split number
+     * @param pkName the column which splitted by
+     * @return list of string
+     */
+    private static List<String> splitLongPkBySample(Configuration configuration, String table, String where,
+            BigInteger minVal, BigInteger maxVal, int splitNum, String pkName)
+    {
+        if (splitNum < 2 || minVal.compareTo(maxVal) >= 0) {
+            return RdbmsRangeSplitWrap.splitAndWrap(minVal, maxVal, splitNum, pkName);
+        }
+        double percentage = configuration.getDouble(Key.SAMPLE_PERCENTAGE, DEFAULT_SAMPLE_PERCENTAGE);
+        String splitSql = genSampleSplitSql(pkName, table, where, percentage, splitNum);
+
+        int fetchSize = configuration.getInt(Constant.FETCH_SIZE, 32);
+        String jdbcURL = configuration.getString(Key.JDBC_URL);
+        String username = configuration.getString(Key.USERNAME);
+        String password = configuration.getString(Key.PASSWORD);
+        LOG.info("split pk [sql={}] is running... ", splitSql);
+        List<BigInteger> points = new ArrayList<>(splitNum + 1);
+        points.add(minVal);
+        Connection conn = null;
+        ResultSet rs = null;
+        try {
+            conn = DBUtil.getConnection(dataBaseType, jdbcURL, username, password);
+            rs = DBUtil.query(conn, splitSql, fetchSize);
+            while (DBUtil.asyncResultSetNext(rs)) {
+                String val = rs.getString(1);
+                if (val == null) {
+                    continue;
+                }
+                BigInteger point = new BigInteger(val);
+                // 桶边界需要严格递增并落在 (min, max) 之内，重复值较多时相邻的桶会合并
+                if (point.compareTo(points.get(points.size() - 1)) > 0 && point.compareTo(maxVal) < 0) {
+                    points.add(point);
+                }
+            }
+        }
+        catch (Exception e) {
+            LOG.warn("按采样切分主键失败，将按值域等宽切分. sql=[{}], 原因: {}", splitSql, e.getMessage());
+            return RdbmsRangeSplitWrap.splitAndWrap(minVal, maxVal, splitNum, pkName);
+        }
+        finally {
+            DBUtil.closeDBResources(rs, null, conn);
+        }
+        if (points.size() < 2) {
+            LOG.warn("采样数据不足以切分主键，将按值域等宽切分. sql=[{}]", splitSql);
+            return RdbmsRangeSplitWrap.splitAndWrap(minVal, maxVal, splitNum, pkName);
+        }
+        points.add(maxVal);
+        return RdbmsRangeSplitWrap.wrapRange(points.toArray(new BigInteger[0]), pkName);
+    }
+
+    /**
+     * 生成在采样数据上计算等行数切分点的 SQL，按数据库类型选择采样方式，
+     * 不支持采样或者采样比例不小于 100 时扫描全部满足条件的记录
+     *
+     * @param splitPK the column which splitted by
+     * @param table table name
+     * @param where where clause
+     * @param percentage sample percentage
+     * @param splitNum expected split number
+     * @return the sql
+     */
+    public static String genSampleSplitSql(String splitPK, String table, String where, double percentage, int splitNum)
+    {
+        String tableSample = "";
+        String rowSample = "";
+        if (percentage > 0 && percentage < 100) {
+            if (dataBaseType == DataBaseType.MySql) {
+                rowSample = String.format(" AND RAND() < %s", percentage / 100);
+            }
+            else if (dataBaseType == DataBaseType.PostgreSQL) {
+                tableSample = String.format(" TABLESAMPLE SYSTEM (%s)", percentage);
+            }
+            else if (dataBaseType == DataBaseType.SQLServer) {
+                tableSample = String.format(" TABLESAMPLE (%s PERCENT)", percentage);
+            }
+        }
+        String whereSql = String.format("(%s IS NOT NULL)", splitPK);
+        if (StringUtils.isNotBlank(where)) {
+            whereSql = String.format("%s AND (%s)", whereSql, where);
+        }
+        String innerSql = String.format("SELECT %1$s AS addax_pk, NTILE(%2$d) OVER (ORDER BY %1$s) AS addax_tile FROM %3$s%4$s WHERE %5$s%6$s",
+                splitPK, splitNum, table, tableSample, whereSql, rowSample);
+        return String.format("SELECT MAX(addax_pk) FROM (%s) addax_t GROUP BY addax_tile ORDER BY MAX(addax_pk)", innerSql);
+    }
+
     /**
      * common String split method
      *
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.rdbms.util;
+
+import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.plugin.rdbms.reader.Key;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 插件配置中 connectionPool 对应的连接池参数，创建后不可修改
+ * <pre>
+ * "connectionPool": {
+ *     "maxSize": 32,
+ *     "maxIdle": 8,
+ *     "validationQuery": "select 1",
+ *     "validationTimeout": 5,
+ *     "idleTimeout": 300
+ * }
+ * </pre>
+ * 参数不同的配置使用不同的连接池。配置了 session 时连接会带有会话状态，不能交给其他借用者，此时不使用连接池
+ */
+public final class ConnectionPoolConfig
+{
+    public static final ConnectionPoolConfig DEFAULT = new ConnectionPoolConfig(true, -1, 8, null, 5, 300);
+
+    // 每次新建物理连接，close 时直接关闭
+    public static final ConnectionPoolConfig UNPOOLED = new ConnectionPoolConfig(false, -1, 0, null, 5, 300);
+
+    private final boolean pooled;
+    // 连接池的最大连接数，小于等于 0 表示不限制
+    private final int maxSize;
+    private final int maxIdle;
+    // 为空时使用 JDBC4 的 Connection.isValid 校验
+    private final String validationQuery;
+    private final int validationTimeout;
+    // 连接空闲超过该时间(秒)后被回收
+    private final long idleTimeout;
+
+    private ConnectionPoolConfig(boolean pooled, int maxSize, int maxIdle, String validationQuery,
+            int validationTimeout, long idleTimeout)
+    {
+        this.pooled = pooled;
+        this.maxSize = maxSize;
+        this.maxIdle = maxIdle;
+        this.validationQuery = validationQuery;
+        this.validationTimeout = validationTimeout;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * 从 reader 或 writer 的配置中读取连接池参数
+     *
+     * @param config 插件配置
+     * @return 连接池参数
+     */
+    public static ConnectionPoolConfig from(Configuration config)
+    {
+        List<String> session = config.getList(Key.SESSION, new ArrayList<>(), String.class);
+        if (session != null && !session.isEmpty()) {
+            return UNPOOLED;
+        }
+        Configuration poolConf = config.getConfiguration(Key.CONNECTION_POOL);
+        if (poolConf == null) {
+            return DEFAULT;
+        }
+        return new ConnectionPoolConfig(true,
+                poolConf.getInt("maxSize", DEFAULT.maxSize),
+                poolConf.getInt("maxIdle", DEFAULT.maxIdle),
+                poolConf.getString("validationQuery", DEFAULT.validationQuery),
+                poolConf.getInt("validationTimeout", DEFAULT.validationTimeout),
+                poolConf.getLong("idleTimeout", DEFAULT.idleTimeout));
+    }
+
+    public boolean isPooled()
+    {
+        return pooled;
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    void apply(BasicDataSource bds)
+    {
+        bds.setMinIdle(0);
+        bds.setMaxIdle(maxIdle);
+        bds.setMaxTotal(maxSize > 0 ? maxSize : -1);
+        if (!pooled) {
+            return;
+        }
+        bds.setMaxOpenPreparedStatements(200);
+        // 借出时校验，避免拿到空闲期间被服务端断开的连接
+        bds.setTestOnBorrow(true);
+        if (StringUtils.isNotBlank(validationQuery)) {
+            bds.setValidationQuery(validationQuery);
+        }
+        bds.setValidationQueryTimeout(validationTimeout);
+        bds.setTimeBetweenEvictionRunsMillis(TimeUnit.SECONDS.toMillis(Math.max(1, idleTimeout / 5)));
+        bds.setMinEvictableIdleTimeMillis(TimeUnit.SECONDS.toMillis(idleTimeout));
+        // 归还时回滚未提交的事务并恢复自动提交，避免影响下一个借用者
+        bds.setRollbackOnReturn(true);
+        bds.setAutoCommitOnReturn(true);
+    }
+
+    @Override
+    public String toString()
+    {
+        return pooled + "," + maxSize + "," + maxIdle + "," + validationQuery + "," + validationTimeout + "," + idleTimeout;
+    }
+}
@@ -41,6 +41,8 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -54,9 +56,39 @@ public final class DBUtil {
             .setDaemon(true)
             .build()));
 
+    /*
+     * 进程内共享的连接池，key 为数据库类型、url、用户名、密码、超时设置以及连接池参数，
+     * 同一个数据源的所有 task、切分查询以及 pre/post sql 都从这里借用连接，close 时归还。
+     * job 结束时由 reader/writer 的 Job.destroy 关闭
+     */
+    private static final Map<String, BasicDataSource> DATA_SOURCES = new ConcurrentHashMap<>();
+
     private DBUtil() {
     }
 
+    /**
+     * 关闭指定数据库类型的所有连接池，由 reader/writer 的 Job.destroy 调用，此时所有 task 都已经结束
+     *
+     * @param dataBaseType 数据库类型
+     */
+    public static void closeConnectionPools(DataBaseType dataBaseType) {
+        String prefix = dataBaseType + "\u0001";
+        for (String key : DATA_SOURCES.keySet()) {
+            if (!key.startsWith(prefix)) {
+                continue;
+            }
+            BasicDataSource bds = DATA_SOURCES.remove(key);
+            if (bds == null) {
+                continue;
+            }
+            try {
+                bds.close();
+            } catch (SQLException e) {
+                LOG.warn("Failed to close connection pool for jdbcUrl:[{}]: {}", bds.getUrl(), e.getMessage());
+            }
+        }
+    }
+
     public static String chooseJdbcUrl(DataBaseType dataBaseType, List<String> jdbcUrls, String username, String password, List<String> preSql) {
         if (null == jdbcUrls || jdbcUrls.isEmpty()) {
             throw AddaxException.asAddaxException(
@@ -208,7 +240,7 @@ public final class DBUtil {
      * <p>
      * if connecting failed, try to connect for MAX_TRY_TIMES times
      * <p>
-     * NOTE: In DataX, we don't need connection pool in fact
+     * NOTE: connections are borrowed from a shared pool, close them to give them back
      *
      * @param dataBaseType database type.
      * @param jdbcUrl      java jdbc url.
@@ -224,10 +256,31 @@ public final class DBUtil {
 
     public static Connection getConnection(DataBaseType dataBaseType,
                                            String jdbcUrl, String username, String password, String socketTimeout) {
+        return getConnection(dataBaseType, jdbcUrl, username, password, socketTimeout, ConnectionPoolConfig.DEFAULT);
+    }
+
+    /**
+     * 按插件配置的连接池参数获取连接，参数不同的配置使用不同的连接池
+     *
+     * @param dataBaseType database type.
+     * @param jdbcUrl      java jdbc url.
+     * @param username     User for login.
+     * @param password     Password to use when connecting to server.
+     * @param poolConfig   connection pool settings, see {@link ConnectionPoolConfig#from}
+     * @return Connection class {@link Connection}
+     */
+    public static Connection getConnection(DataBaseType dataBaseType,
+                                           String jdbcUrl, String username, String password, ConnectionPoolConfig poolConfig) {
+        return getConnection(dataBaseType, jdbcUrl, username, password,
+                String.valueOf(Constant.SOCKET_TIMEOUT_INSECOND * 1000), poolConfig);
+    }
+
+    private static Connection getConnection(DataBaseType dataBaseType, String jdbcUrl, String username,
+                                            String password, String socketTimeout, ConnectionPoolConfig poolConfig) {
 
         try {
             return RetryUtil.executeWithRetry(() -> DBUtil.connect(dataBaseType, jdbcUrl, username,
-                    password, socketTimeout), 3, 1000L, true);
+                    password, socketTimeout, poolConfig), 3, 1000L, true);
         } catch (Exception e) {
             throw AddaxException.asAddaxException(
                     DBUtilErrorCode.CONN_DB_ERROR,
@@ -240,7 +293,7 @@ public final class DBUtil {
      * <p>
      * if connecting failed, try to connect for MAX_TRY_TIMES times
      * <p>
-     * NOTE: In DataX, we don't need connection pool in fact
+     * NOTE: connections are borrowed from a shared pool, close them to give them back
      *
      * @param dataBaseType The database's type
      * @param jdbcUrl      jdbc url
@@ -257,16 +310,36 @@ public final class DBUtil {
     public static Connection getConnectionWithoutRetry(DataBaseType dataBaseType,
                                                        String jdbcUrl, String username, String password, String socketTimeout) {
         return DBUtil.connect(dataBaseType, jdbcUrl, username,
-                password, socketTimeout);
+                password, socketTimeout, ConnectionPoolConfig.DEFAULT);
     }
 
-    private static synchronized Connection connect(DataBaseType dataBaseType,
-                                                   String url, String user, String pass) {
-        return connect(dataBaseType, url, user, pass, String.valueOf(Constant.SOCKET_TIMEOUT_INSECOND * 1000));
+    private static Connection connect(DataBaseType dataBaseType,
+                                      String url, String user, String pass) {
+        return connect(dataBaseType, url, user, pass, String.valueOf(Constant.SOCKET_TIMEOUT_INSECOND * 1000),
+                ConnectionPoolConfig.DEFAULT);
     }
 
-    private static synchronized Connection connect(DataBaseType dataBaseType,
-                                                   String url, String user, String pass, String socketTimeout) {
+    private static Connection connect(DataBaseType dataBaseType, String url, String user, String pass,
+                                      String socketTimeout, ConnectionPoolConfig poolConfig) {
+        BasicDataSource bds;
+        if (poolConfig.isPooled()) {
+            String key = dataBaseType + "\u0001" + url + "\u0001" + user + "\u0001" + pass + "\u0001" + socketTimeout
+                    + "\u0001" + poolConfig;
+            bds = DATA_SOURCES.computeIfAbsent(key,
+                    k -> createDataSource(dataBaseType, url, user, pass, socketTimeout, poolConfig));
+        } else {
+            // 不保留空闲连接，close 时直接关闭物理连接
+            bds = createDataSource(dataBaseType, url, user, pass, socketTimeout, poolConfig);
+        }
+        try {
+            return bds.getConnection();
+        } catch (Exception e) {
+            throw RdbmsException.asConnException(dataBaseType, e, user, null);
+        }
+    }
+
+    private static BasicDataSource createDataSource(DataBaseType dataBaseType, String url, String user,
+                                                    String pass, String socketTimeout, ConnectionPoolConfig poolConfig) {
         BasicDataSource bds = new BasicDataSource();
         bds.setUrl(url);
         bds.setUsername(user);
@@ -280,20 +353,16 @@ public final class DBUtil {
         }
         if (url.contains("inceptor2")) {
             LOG.warn("inteptor2 must be process specially");
-            url = url.replace("inceptor2", "hive2");
-            bds.setUrl(url);
+            bds.setUrl(url.replace("inceptor2", "hive2"));
             bds.setDriverClassName("org.apache.hive.jdbc.HiveDriver");
         } else {
             bds.setDriverClassName(dataBaseType.getDriverClassName());
         }
-        try {
-            bds.setMinIdle(2);
-            bds.setMaxIdle(5);
-            bds.setMaxOpenPreparedStatements(200);
-            return bds.getConnection();
-        } catch (Exception e) {
-            throw RdbmsException.asConnException(dataBaseType, e, user, null);
+        poolConfig.apply(bds);
+        if (poolConfig.isPooled()) {
+            LOG.info("Create connection pool for jdbcUrl:[{}], user:[{}], maxSize:[{}]", url, user, poolConfig.getMaxSize());
         }
+        return bds;
     }
 
 
@@ -28,6 +28,7 @@ import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordReceiver;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
 import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.plugin.rdbms.util.ConnectionPoolConfig;
 import com.wgzhao.addax.plugin.rdbms.util.DBUtil;
 import com.wgzhao.addax.plugin.rdbms.util.DBUtilErrorCode;
 import com.wgzhao.addax.plugin.rdbms.util.RdbmsException;
@@ -43,7 +44,9 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class CommonRdbmsWriter
 {
@@ -196,7 +199,7 @@ public class CommonRdbmsWriter
 
         public void destroy(Configuration originalConfig)
         {
-            //
+            DBUtil.closeConnectionPools(this.dataBaseType);
         }
     }
 
@@ -223,7 +226,13 @@ public class CommonRdbmsWriter
         protected String writeRecordSql;
         protected String writeMode;
         protected boolean emptyAsNull;
+        protected boolean bisectRetry;
         protected Triple<List<String>, List<Integer>, List<String>> resultSetMetaData;
+        // Oracle merge 模式下，语句中第 i 个参数对应 record 的第 mergeColumnIndexes[i] 列，其他模式为 null
+        protected int[] mergeColumnIndexes;
+        // 整个写入过程复用同一个 PreparedStatement
+        protected PreparedStatement writeStatement;
+        protected ConnectionPoolConfig poolConfig;
 
         public Task(DataBaseType dataBaseType)
         {
@@ -232,6 +241,7 @@ public class CommonRdbmsWriter
 
         public void init(Configuration writerSliceConfig)
         {
+            this.poolConfig = ConnectionPoolConfig.from(writerSliceConfig);
             this.username = writerSliceConfig.getString(Key.USERNAME);
             this.password = writerSliceConfig.getString(Key.PASSWORD);
             this.jdbcUrl = writerSliceConfig.getString(Key.JDBC_URL);
@@ -248,9 +258,14 @@ public class CommonRdbmsWriter
 
             writeMode = writerSliceConfig.getString(Key.WRITE_MODE, "INSERT");
             emptyAsNull = writerSliceConfig.getBool(Key.EMPTY_AS_NULL, true);
+            bisectRetry = writerSliceConfig.getBool(Key.BISECT_RETRY, true);
             insertOrReplaceTemplate = writerSliceConfig.getString(Constant.INSERT_OR_REPLACE_TEMPLATE_MARK);
             this.writeRecordSql = String.format(insertOrReplaceTemplate, this.table);
 
+            if (this.dataBaseType == DataBaseType.Oracle && !"insert".equalsIgnoreCase(this.writeMode)) {
+                this.mergeColumnIndexes = calcMergeColumnIndexes(this.columns, this.writeMode);
+            }
+
             basicMessage = String.format("jdbcUrl:[%s], table:[%s]",
                     this.jdbcUrl, this.table);
         }
@@ -258,7 +273,7 @@ public class CommonRdbmsWriter
         public void prepare(Configuration writerSliceConfig)
         {
             Connection connection = DBUtil.getConnection(this.dataBaseType,
-                    this.jdbcUrl, username, password);
+                    this.jdbcUrl, username, password, poolConfig);
 
             DBUtil.dealWithSessionConfig(connection, writerSliceConfig,
                     this.dataBaseType, basicMessage);
@@ -279,32 +294,15 @@ public class CommonRdbmsWriter
             this.taskPluginCollector = taskPluginCollector;
             List<String> mergeColumns = new ArrayList<>();
 
-            if (this.dataBaseType == DataBaseType.Oracle
-                    && !"insert".equalsIgnoreCase(this.writeMode)) {
+            if (this.mergeColumnIndexes != null) {
                 LOG.info("write oracle using {} mode", this.writeMode);
-                List<String> columnsOne = new ArrayList<>();
-                List<String> columnsTwo = new ArrayList<>();
-                String merge = this.writeMode;
-                String[] sArray = WriterUtil.getStrings(merge);
-                for (String s : this.columns) {
-                    if (Arrays.asList(sArray).contains(s)) {
-                        columnsOne.add(s);
-                    }
-                }
-                for (String s : this.columns) {
-                    if (!Arrays.asList(sArray).contains(s)) {
-                        columnsTwo.add(s);
-                    }
-                }
-                int i = 0;
-                for (String column : columnsOne) {
-                    mergeColumns.add(i++, column);
-                }
-                for (String column : columnsTwo) {
-                    mergeColumns.add(i++, column);
+                for (int index : this.mergeColumnIndexes) {
+                    mergeColumns.add(this.columns.get(index));
                 }
             }
-            mergeColumns.addAll(this.columns);
+            else {
+                mergeColumns.addAll(this.columns);
+            }
 
             // 用于写入数据的时候的类型根据目的表字段类型转换
             this.resultSetMetaData = DBUtil.getColumnMetaData(connection,
@@ -333,13 +331,13 @@ public class CommonRdbmsWriter
 
                     if (writeBuffer.size() >= batchSize || bufferBytes >= batchByteSize) {
                         doBatchInsert(connection, writeBuffer);
-                        writeBuffer.clear();
+                        recycle(recordReceiver, writeBuffer);
                         bufferBytes = 0;
                     }
                 }
                 if (!writeBuffer.isEmpty()) {
                     doBatchInsert(connection, writeBuffer);
-                    writeBuffer.clear();
+                    recycle(recordReceiver, writeBuffer);
                 }
             }
             catch (Exception e) {
@@ -348,8 +346,58 @@ public class CommonRdbmsWriter
             }
             finally {
                 writeBuffer.clear();
-                DBUtil.closeDBResources(null, null, connection);
+                DBUtil.closeDBResources(null, this.writeStatement, connection);
+                this.writeStatement = null;
+            }
+        }
+
+        /*
+         * doBatchInsert 返回时该批次已经提交或者作为脏数据收集完毕，不再引用这些记录，
+         * 可以归还给框架复用，然后清空缓冲区
+         */
+        private static void recycle(RecordReceiver recordReceiver, List<Record> writeBuffer)
+        {
+            for (Record record : writeBuffer) {
+                recordReceiver.recycle(record);
+            }
+            writeBuffer.clear();
+        }
+
+        /*
+         * merge 语句的参数依次为：on 条件中的列、其余的列、全部的列（均按 column 配置的顺序），
+         * 这里计算每个参数对应 record 中的列下标，避免每条记录都重新排列
+         */
+        private static int[] calcMergeColumnIndexes(List<String> columns, String merge)
+        {
+            Set<String> onColumns = new HashSet<>(Arrays.asList(WriterUtil.getStrings(merge)));
+            int[] indexes = new int[columns.size() * 2];
+            int i = 0;
+            for (int j = 0; j < columns.size(); j++) {
+                if (onColumns.contains(columns.get(j))) {
+                    indexes[i++] = j;
+                }
+            }
+            for (int j = 0; j < columns.size(); j++) {
+                if (!onColumns.contains(columns.get(j))) {
+                    indexes[i++] = j;
+                }
+            }
+            for (int j = 0; j < columns.size(); j++) {
+                indexes[i++] = j;
+            }
+            return indexes;
+        }
+
+        /*
+         * 第一次写入时准备语句，之后的批次直接复用
+         */
+        protected PreparedStatement getWriteStatement(Connection connection)
+                throws SQLException
+        {
+            if (this.writeStatement == null) {
+                this.writeStatement = connection.prepareStatement(this.writeRecordSql);
             }
+            return this.writeStatement;
         }
 
         public void startWrite(RecordReceiver recordReceiver,
@@ -357,7 +405,7 @@ public class CommonRdbmsWriter
                 TaskPluginCollector taskPluginCollector)
         {
             Connection connection = DBUtil.getConnection(this.dataBaseType,
-                    this.jdbcUrl, username, password);
+                    this.jdbcUrl, username, password, poolConfig);
             DBUtil.dealWithSessionConfig(connection, writerSliceConfig,
                     this.dataBaseType, basicMessage);
             startWriteWithConnection(recordReceiver, taskPluginCollector, connection);
@@ -374,7 +422,7 @@ public class CommonRdbmsWriter
             }
 
             Connection connection = DBUtil.getConnection(this.dataBaseType,
-                    this.jdbcUrl, username, password);
+                    this.jdbcUrl, username, password, poolConfig);
 
             LOG.info("Begin to execute postSqls:[{}]. context info:{}.",
                     StringUtils.join(this.postSqls, ";"), basicMessage);
@@ -392,67 +440,93 @@ public class CommonRdbmsWriter
         {
             PreparedStatement preparedStatement = null;
             try {
-                connection.setAutoCommit(false);
-                preparedStatement = connection
-                        .prepareStatement(this.writeRecordSql);
-                if (this.dataBaseType == DataBaseType.Oracle &&
-                        !"insert".equalsIgnoreCase(this.writeMode)) {
-                    String merge = this.writeMode;
-                    String[] sArray = WriterUtil.getStrings(merge);
-                    for (Record record : buffer) {
-                        List<Column> recordOne = new ArrayList<>();
-                        for (int j = 0; j < this.columns.size(); j++) {
-                            if (Arrays.asList(sArray).contains(this.columns.get(j))) {
-                                recordOne.add(record.getColumn(j));
-                            }
-                        }
-                        for (int j = 0; j < this.columns.size(); j++) {
-                            if (!Arrays.asList(sArray).contains(this.columns.get(j))) {
-                                recordOne.add(record.getColumn(j));
-                            }
-                        }
-                        for (int j = 0; j < this.columns.size(); j++) {
-                            recordOne.add(record.getColumn(j));
-                        }
-                        for (int j = 0; j < recordOne.size(); j++) {
-                            record.setColumn(j, recordOne.get(j));
-                        }
-                        preparedStatement = fillPreparedStatement(
-                                preparedStatement, record);
-                        preparedStatement.addBatch();
-                    }
+                if (connection.getAutoCommit()) {
+                    connection.setAutoCommit(false);
                 }
-                else {
-                    for (Record record : buffer) {
-                        preparedStatement = fillPreparedStatement(
-                                preparedStatement, record);
-                        preparedStatement.addBatch();
-                    }
+                preparedStatement = getWriteStatement(connection);
+                for (Record record : buffer) {
+                    preparedStatement = fillPreparedStatement(
+                            preparedStatement, record);
+                    preparedStatement.addBatch();
                 }
                 preparedStatement.executeBatch();
                 connection.commit();
             }
             catch (SQLException e) {
-                LOG.warn("回滚此次写入, 采用每次写入一行方式提交. 因为: {}", e.getMessage());
+                LOG.warn("回滚此次写入, 采用{}方式提交. 因为: {}", this.bisectRetry ? "二分重试" : "每次写入一行", e.getMessage());
                 connection.rollback();
-                doOneInsert(connection, buffer);
+                if (preparedStatement != null) {
+                    preparedStatement.clearBatch();
+                }
+                if (this.bisectRetry) {
+                    doBisectInsert(connection, buffer);
+                }
+                else {
+                    doOneInsert(connection, buffer);
+                }
             }
             catch (Exception e) {
                 throw AddaxException.asAddaxException(
                         DBUtilErrorCode.WRITE_DATA_ERROR, e);
             }
-            finally {
-                DBUtil.closeDBResources(preparedStatement, null);
+        }
+
+        /**
+         * 批量写入失败后，把批次一分为二分别重试，成功的部分直接提交，失败的部分继续拆分，
+         * 直到批次足够小时再逐条写入，只有真正出错的记录进入脏数据
+         *
+         * @param connection 数据库连接
+         * @param buffer 写入失败的记录
+         * @throws SQLException 回滚失败
+         */
+        protected void doBisectInsert(Connection connection, List<Record> buffer)
+                throws SQLException
+        {
+            if (buffer.size() <= Constant.BISECT_MIN_BATCH_SIZE) {
+                doOneInsert(connection, buffer);
+                return;
+            }
+            int mid = buffer.size() / 2;
+            List<Record> left = buffer.subList(0, mid);
+            List<Record> right = buffer.subList(mid, buffer.size());
+            if (!tryBatchInsert(connection, left)) {
+                doBisectInsert(connection, left);
+            }
+            if (!tryBatchInsert(connection, right)) {
+                doBisectInsert(connection, right);
+            }
+        }
+
+        private boolean tryBatchInsert(Connection connection, List<Record> buffer)
+                throws SQLException
+        {
+            PreparedStatement preparedStatement = getWriteStatement(connection);
+            try {
+                if (connection.getAutoCommit()) {
+                    connection.setAutoCommit(false);
+                }
+                for (Record record : buffer) {
+                    preparedStatement = fillPreparedStatement(preparedStatement, record);
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+                connection.commit();
+                return true;
+            }
+            catch (SQLException e) {
+                LOG.debug("批量写入 {} 条记录失败，继续拆分重试. 因为: {}", buffer.size(), e.getMessage());
+                connection.rollback();
+                preparedStatement.clearBatch();
+                return false;
             }
         }
 
         protected void doOneInsert(Connection connection, List<Record> buffer)
         {
-            PreparedStatement preparedStatement = null;
+            PreparedStatement preparedStatement;
             try {
                 connection.setAutoCommit(true);
-                preparedStatement = connection
-                        .prepareStatement(this.writeRecordSql);
+                preparedStatement = getWriteStatement(connection);
 
                 for (Record record : buffer) {
                     try {
@@ -475,15 +549,20 @@ public class CommonRdbmsWriter
                 throw AddaxException.asAddaxException(
                         DBUtilErrorCode.WRITE_DATA_ERROR, e);
             }
-            finally {
-                DBUtil.closeDBResources(preparedStatement, null);
-            }
         }
 
         // 直接使用了两个类变量：columnNumber,resultSetMetaData
         protected PreparedStatement fillPreparedStatement(PreparedStatement preparedStatement, Record record)
                 throws SQLException
         {
+            if (this.mergeColumnIndexes != null) {
+                for (int i = 0; i < this.mergeColumnIndexes.length; i++) {
+                    int columnSqltype = this.resultSetMetaData.getMiddle().get(i);
+                    preparedStatement = fillPreparedStatementColumnType(preparedStatement, i + 1,
+                            columnSqltype, record.getColumn(this.mergeColumnIndexes[i]));
+                }
+                return preparedStatement;
+            }
             for (int i = 0; i < record.getColumnNumber(); i++) {
                 int columnSqltype = this.resultSetMetaData.getMiddle().get(i);
                 preparedStatement = fillPreparedStatementColumnType(preparedStatement, i+1,
@@ -495,7 +574,7 @@ public class CommonRdbmsWriter
         protected PreparedStatement fillPreparedStatementColumnType(PreparedStatement preparedStatement, int columnIndex, int columnSqltype, Column column)
                 throws SQLException
         {
-            if (column == null || column.getRawData() == null) {
+            if (column == null || column.isNull()) {
                 preparedStatement.setObject(columnIndex, null);
                 return preparedStatement;
             }
@@ -28,6 +28,9 @@ public final class Constant
 
     public static final int DEFAULT_BATCH_BYTE_SIZE = 32 * 1024 * 1024;
 
+    // 二分重试时，不超过该条数的批次直接逐条写入
+    public static final int BISECT_MIN_BATCH_SIZE = 8;
+
     public static final String TABLE_NAME_PLACEHOLDER = "@table";
 
     public static final String CONN_MARK = "connection";
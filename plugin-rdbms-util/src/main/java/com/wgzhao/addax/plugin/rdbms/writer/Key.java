@@ -54,5 +54,11 @@ public final class Key
     // 允许自定义驱动类名
     public static final String JDBC_DRIVER = "driver";
 
+    // 批量写入失败时是否二分重试定位出错的记录，默认为 true，为 false 时整批逐条重试
+    public static final String BISECT_RETRY = "bisectRetry";
+
+    // 连接池配置，包括 maxSize, maxIdle, validationQuery, validationTimeout, idleTimeout
+    public static final String CONNECTION_POOL = "connectionPool";
+
     private Key() {}
 }
\ No newline at end of file
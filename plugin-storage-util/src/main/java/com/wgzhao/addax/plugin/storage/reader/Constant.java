@@ -31,5 +31,8 @@ public class Constant
 
     public static final Integer DEFAULT_BUFFER_SIZE = 8192;
 
+    // 按字节区间切分文件时每个分片的最小字节数
+    public static final long MIN_SPLIT_SIZE = 64L * 1024 * 1024;
+
     private Constant() {}
 }
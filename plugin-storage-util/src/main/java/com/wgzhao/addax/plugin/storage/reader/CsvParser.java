@@ -0,0 +1,317 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.storage.reader;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 基于字符数组的 CSV 解析器，一次扫描完成分隔符与引号的处理。
+ * <p>
+ * 与 CsvReader 的默认配置保持一致：双引号作为文本限定符，引号内连续两个双引号表示一个双引号，
+ * 引号内允许出现分隔符与换行；未加引号的字段去掉首尾的空格和制表符；换行符支持 \n, \r, \r\n；跳过空行。
+ * <p>
+ * 每条记录的字段内容保存在同一个字符数组中，通过 {@link #getStart(int)}, {@link #getEnd(int)} 访问，
+ * 只有需要时才创建字符串。
+ */
+public class CsvParser
+{
+    private static final char QUOTE = '"';
+
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+
+    private final char delimiter;
+
+    private final char[] buffer;
+
+    private int bufferPos = 0;
+
+    private int bufferLen = 0;
+
+    private boolean eof = false;
+
+    // 当前记录所有字段的内容
+    private char[] chars = new char[1024];
+
+    private int length = 0;
+
+    private int[] starts = new int[16];
+
+    private int[] ends = new int[16];
+
+    private int fieldCount = 0;
+
+    public CsvParser(Reader reader, char delimiter)
+    {
+        this(reader, delimiter, DEFAULT_BUFFER_SIZE);
+    }
+
+    public CsvParser(Reader reader, char delimiter, int bufferSize)
+    {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.buffer = new char[Math.max(bufferSize, 1024)];
+    }
+
+    /**
+     * 读取下一条记录
+     *
+     * @return false 表示已经读到末尾
+     * @throws IOException 读取失败
+     */
+    public boolean next()
+            throws IOException
+    {
+        fieldCount = 0;
+        length = 0;
+        int c = read();
+        // 跳过空行
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == -1) {
+            return false;
+        }
+        while (true) {
+            int start = length;
+            while ((c == ' ' || c == '\t') && c != delimiter) {
+                c = read();
+            }
+            if (c == QUOTE) {
+                c = readQuoted();
+            }
+            else {
+                c = readUnquoted(c);
+                while (length > start && isTrimmable(chars[length - 1])) {
+                    length--;
+                }
+            }
+            addField(start, length);
+            if (c == delimiter) {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                skipLineFeed();
+            }
+            return true;
+        }
+    }
+
+    private boolean isTrimmable(char c)
+    {
+        return (c == ' ' || c == '\t') && c != delimiter;
+    }
+
+    /*
+     * 读取引号内的内容，返回字段结束位置的字符（分隔符、换行符或 -1）
+     */
+    private int readQuoted()
+            throws IOException
+    {
+        int c;
+        while (true) {
+            c = read();
+            if (c == -1) {
+                return c;
+            }
+            if (c == QUOTE) {
+                c = read();
+                if (c != QUOTE) {
+                    break;
+                }
+            }
+            append((char) c);
+        }
+        // 结束引号之后到分隔符之间的内容，忽略空白，其余字符原样保留
+        while (c != delimiter && c != '\n' && c != '\r' && c != -1) {
+            if (c != ' ' && c != '\t') {
+                append((char) c);
+            }
+            c = read();
+        }
+        return c;
+    }
+
+    private int readUnquoted(int first)
+            throws IOException
+    {
+        int c = first;
+        while (c != delimiter && c != '\n' && c != '\r' && c != -1) {
+            append((char) c);
+            // 直接在缓冲区中找到字段结束位置，整段复制
+            int p = bufferPos;
+            char[] b = buffer;
+            int limit = bufferLen;
+            while (p < limit) {
+                char ch = b[p];
+                if (ch == delimiter || ch == '\n' || ch == '\r') {
+                    break;
+                }
+                p++;
+            }
+            append(b, bufferPos, p - bufferPos);
+            bufferPos = p;
+            c = read();
+        }
+        return c;
+    }
+
+    private void skipLineFeed()
+            throws IOException
+    {
+        if (bufferPos >= bufferLen && !fill()) {
+            return;
+        }
+        if (buffer[bufferPos] == '\n') {
+            bufferPos++;
+        }
+    }
+
+    private int read()
+            throws IOException
+    {
+        if (bufferPos >= bufferLen && !fill()) {
+            return -1;
+        }
+        return buffer[bufferPos++];
+    }
+
+    private boolean fill()
+            throws IOException
+    {
+        if (eof) {
+            return false;
+        }
+        int n = reader.read(buffer, 0, buffer.length);
+        if (n <= 0) {
+            eof = true;
+            bufferPos = 0;
+            bufferLen = 0;
+            return false;
+        }
+        bufferPos = 0;
+        bufferLen = n;
+        return true;
+    }
+
+    private void append(char c)
+    {
+        if (length == chars.length) {
+            grow(length + 1);
+        }
+        chars[length++] = c;
+    }
+
+    private void append(char[] src, int offset, int len)
+    {
+        if (len <= 0) {
+            return;
+        }
+        if (length + len > chars.length) {
+            grow(length + len);
+        }
+        System.arraycopy(src, offset, chars, length, len);
+        length += len;
+    }
+
+    private void grow(int minCapacity)
+    {
+        char[] newChars = new char[Math.max(chars.length << 1, minCapacity)];
+        System.arraycopy(chars, 0, newChars, 0, length);
+        chars = newChars;
+    }
+
+    private void addField(int start, int end)
+    {
+        if (fieldCount == starts.length) {
+            int[] newStarts = new int[fieldCount << 1];
+            int[] newEnds = new int[fieldCount << 1];
+            System.arraycopy(starts, 0, newStarts, 0, fieldCount);
+            System.arraycopy(ends, 0, newEnds, 0, fieldCount);
+            starts = newStarts;
+            ends = newEnds;
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    public int getFieldCount()
+    {
+        return fieldCount;
+    }
+
+    /**
+     * @return 当前记录字段内容所在的字符数组，只在下一次调用 {@link #next()} 之前有效
+     */
+    public char[] getChars()
+    {
+        return chars;
+    }
+
+    public int getStart(int index)
+    {
+        return starts[index];
+    }
+
+    public int getEnd(int index)
+    {
+        return ends[index];
+    }
+
+    public String getString(int index)
+    {
+        return new String(chars, starts[index], ends[index] - starts[index]);
+    }
+
+    /**
+     * 判断字段内容是否与给定字符串相同，不创建字符串
+     *
+     * @param index 字段序号
+     * @param value 要比较的字符串
+     * @return true if equals
+     */
+    public boolean contentEquals(int index, String value)
+    {
+        int start = starts[index];
+        int len = ends[index] - start;
+        if (value == null || value.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (chars[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String[] getValues()
+    {
+        String[] values = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            values[i] = getString(i);
+        }
+        return values;
+    }
+}
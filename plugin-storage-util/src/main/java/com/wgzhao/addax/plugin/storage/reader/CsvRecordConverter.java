@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.storage.reader;
+
+import com.wgzhao.addax.common.element.BoolColumn;
+import com.wgzhao.addax.common.element.BytesColumn;
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.CompactDoubleColumn;
+import com.wgzhao.addax.common.element.CompactLongColumn;
+import com.wgzhao.addax.common.element.DateColumn;
+import com.wgzhao.addax.common.element.DoubleColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.StringColumn;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.plugin.RecordSender;
+import com.wgzhao.addax.common.plugin.TaskPluginCollector;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 把 {@link CsvParser} 解析出的记录转换为 {@link Record}。
+ * <p>
+ * 列类型在构造时解析一次，每列对应一个预先确定的转换方式，逐行转换时只访问需要的字段；
+ * 整数直接从字符数组解析并以 {@link CompactLongColumn} 保存；小数只有在文本已经是 {@link CompactDoubleColumn}
+ * 输出的规范形式（如 3.25，而不是 12.10、+5、1）时才这样处理，保证 asString 与原始文本相同，
+ * 其余数值退回 LongColumn、DoubleColumn。
+ * 除 txtfilereader 使用的 bool、bytes 类型外，转换结果与 {@link StorageReaderUtil#transportOneRecord} 一致
+ */
+public class CsvRecordConverter
+{
+    private static final Logger LOG = LoggerFactory.getLogger(CsvRecordConverter.class);
+
+    private static final String ERROR_TEMPLATE = "类型转换错误, 无法将[%s] 转换为[%s]";
+
+    // long 最多 19 位，18 位以内的数字不会溢出
+    private static final int MAX_FAST_LONG_DIGITS = 18;
+
+    // 不超过 15 位有效数字的小数可以在 double 中精确往返
+    private static final int MAX_FAST_DOUBLE_DIGITS = 15;
+
+    // Double.toString 在这个区间内不使用科学计数法
+    private static final double MIN_PLAIN_DOUBLE = 1e-3;
+    private static final double MAX_PLAIN_DOUBLE = 1e7;
+
+    // 10 的 0 到 22 次方都可以用 double 精确表示
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+    };
+
+    private final Converter[] converters;
+
+    private final String nullFormat;
+
+    public CsvRecordConverter(List<ColumnEntry> columnConfigs, String nullFormat)
+    {
+        this.nullFormat = nullFormat;
+        if (null == columnConfigs || columnConfigs.isEmpty()) {
+            this.converters = null;
+            return;
+        }
+        this.converters = new Converter[columnConfigs.size()];
+        for (int i = 0; i < converters.length; i++) {
+            converters[i] = new Converter(columnConfigs.get(i), nullFormat);
+        }
+    }
+
+    public Record transport(RecordSender recordSender, CsvParser parser, TaskPluginCollector taskPluginCollector)
+    {
+        Record record = recordSender.createRecord();
+        // 创建都为String类型column的record
+        if (null == converters) {
+            for (int i = 0, n = parser.getFieldCount(); i < n; i++) {
+                // it's all ok if nullFormat is null
+                if (parser.contentEquals(i, nullFormat)) {
+                    record.addColumn(new StringColumn(null));
+                }
+                else {
+                    record.addColumn(new StringColumn(parser.getString(i)));
+                }
+            }
+            recordSender.sendToWriter(record);
+            return record;
+        }
+        try {
+            for (Converter converter : converters) {
+                record.addColumn(converter.convert(parser));
+            }
+            recordSender.sendToWriter(record);
+        }
+        catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            taskPluginCollector.collectDirtyRecord(record, e.getMessage());
+        }
+        catch (AddaxException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            // 每一种转换失败都是脏数据处理,包括数字格式 & 日期格式
+            taskPluginCollector.collectDirtyRecord(record, e.getMessage());
+        }
+        return record;
+    }
+
+    private enum Type
+    {
+        STRING, LONG, BOOLEAN, BOOL, DOUBLE, DATE, BYTES,
+    }
+
+    private static final class Converter
+    {
+        private final ColumnEntry columnEntry;
+
+        private final Type type;
+
+        private final int index;
+
+        // 常量列的值，已经处理过 nullFormat
+        private final String constValue;
+
+        private final String nullFormat;
+
+        Converter(ColumnEntry columnEntry, String nullFormat)
+        {
+            Integer columnIndex = columnEntry.getIndex();
+            String columnConst = columnEntry.getValue();
+            if (null == columnIndex && null == columnConst) {
+                throw AddaxException.asAddaxException(StorageReaderErrorCode.NO_INDEX_VALUE,
+                        "由于您配置了type, 则至少需要配置 index 或 value");
+            }
+            if (null != columnIndex && null != columnConst) {
+                throw AddaxException.asAddaxException(StorageReaderErrorCode.MIXED_INDEX_VALUE,
+                        "您混合配置了index, value, 每一列同时仅能选择其中一种");
+            }
+            try {
+                this.type = Type.valueOf(columnEntry.getType().toUpperCase(Locale.ENGLISH));
+            }
+            catch (Exception e) {
+                String errorMessage = String.format("您配置的列类型暂不支持 : [%s]", columnEntry.getType());
+                LOG.error(errorMessage);
+                throw AddaxException.asAddaxException(StorageReaderErrorCode.NOT_SUPPORT_TYPE, errorMessage);
+            }
+            this.columnEntry = columnEntry;
+            this.nullFormat = nullFormat;
+            this.index = null == columnIndex ? -1 : columnIndex;
+            this.constValue = null == columnConst || columnConst.equals(nullFormat) ? null : columnConst;
+        }
+
+        Column convert(CsvParser parser)
+        {
+            if (index < 0) {
+                return convert(constValue);
+            }
+            if (index >= parser.getFieldCount()) {
+                String message = String.format("您尝试读取的列越界,源文件该行有 [%s] 列,您尝试读取第 [%s] 列, 数据详情[%s]",
+                        parser.getFieldCount(), index + 1, StringUtils.join(parser.getValues(), ","));
+                LOG.warn(message);
+                throw new IndexOutOfBoundsException(message);
+            }
+            // it's all ok if nullFormat is null
+            if (parser.contentEquals(index, nullFormat)) {
+                return convert((String) null);
+            }
+            if (type == Type.LONG) {
+                Long value = parseLong(parser.getChars(), parser.getStart(index), parser.getEnd(index));
+                if (value != null) {
+                    return new CompactLongColumn(value);
+                }
+            }
+            else if (type == Type.DOUBLE) {
+                Double value = parseDouble(parser.getChars(), parser.getStart(index), parser.getEnd(index));
+                if (value != null) {
+                    return new CompactDoubleColumn(value);
+                }
+            }
+            return convert(parser.getString(index));
+        }
+
+        private Column convert(String columnValue)
+        {
+            switch (type) {
+                case STRING:
+                    return new StringColumn(columnValue);
+                case LONG:
+                    try {
+                        return CompactLongColumn.valueOf(columnValue);
+                    }
+                    catch (Exception e) {
+                        throw new IllegalArgumentException(String.format(ERROR_TEMPLATE, columnValue, "LONG"));
+                    }
+                case DOUBLE:
+                    try {
+                        return new DoubleColumn(columnValue);
+                    }
+                    catch (Exception e) {
+                        throw new IllegalArgumentException(String.format(ERROR_TEMPLATE, columnValue, "DOUBLE"));
+                    }
+                case BOOLEAN:
+                case BOOL:
+                    try {
+                        return new BoolColumn(columnValue);
+                    }
+                    catch (Exception e) {
+                        throw new IllegalArgumentException(String.format(ERROR_TEMPLATE, columnValue, "BOOLEAN"));
+                    }
+                case BYTES:
+                    return new BytesColumn(null == columnValue ? new byte[0] : columnValue.getBytes(StandardCharsets.UTF_8));
+                default:
+                    return convertDate(columnValue);
+            }
+        }
+
+        private Column convertDate(String columnValue)
+        {
+            try {
+                if (columnValue == null) {
+                    return new DateColumn((Date) null);
+                }
+                if (StringUtils.isNotBlank(columnEntry.getFormat())) {
+                    // 用户自己配置的格式转换, 脏数据行为出现变化
+                    return new DateColumn(columnEntry.getDateFormat().parse(columnValue));
+                }
+                // 框架尝试转换
+                return new DateColumn(new StringColumn(columnValue).asDate());
+            }
+            catch (Exception e) {
+                throw new IllegalArgumentException(String.format(ERROR_TEMPLATE, columnValue, "DATE"));
+            }
+        }
+
+        /*
+         * 只处理可选符号加不超过 18 位数字的常见情况，其余格式（小数、科学计数法、超长数字等）返回 null，
+         * 由 LongColumn(String) 处理
+         */
+        private static Long parseLong(char[] chars, int start, int end)
+        {
+            int i = start;
+            boolean negative = false;
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                negative = chars[i] == '-';
+                i++;
+            }
+            int digits = end - i;
+            if (digits <= 0 || digits > MAX_FAST_LONG_DIGITS) {
+                return null;
+            }
+            long value = 0;
+            for (; i < end; i++) {
+                int d = chars[i] - '0';
+                if (d < 0 || d > 9) {
+                    return null;
+                }
+                value = value * 10 + d;
+            }
+            return negative ? -value : value;
+        }
+
+        /*
+         * 只处理规范形式的小数：可选的负号、没有多余前导零的整数部分、小数点以及末位不为零的小数部分（或者单个 0），
+         * 有效数字不超过 15 位，绝对值为 0 或者在 [0.001, 10000000) 内。
+         * 此时尾数和 10 的幂都能用 double 精确表示，一次除法即得到正确舍入的结果，与 Double.parseDouble 相同，
+         * 并且 Double.toString 输出的正是原始文本，CompactDoubleColumn 的 asString 不会改变数据；
+         * 其余格式（12.10、+5、1、科学计数法、NaN、超长小数等）返回 null，由 DoubleColumn(String) 保留原始文本
+         */
+        private static Double parseDouble(char[] chars, int start, int end)
+        {
+            int i = start;
+            boolean negative = false;
+            if (i < end && chars[i] == '-') {
+                negative = true;
+                i++;
+            }
+            long mantissa = 0;
+            // 整数部分的位数、有效数字的个数以及小数位数，scale 为 -1 表示还没有遇到小数点
+            int intDigits = 0;
+            int significant = 0;
+            int scale = -1;
+            int intStart = i;
+            for (; i < end; i++) {
+                char c = chars[i];
+                if (c == '.') {
+                    if (scale >= 0) {
+                        return null;
+                    }
+                    scale = 0;
+                    continue;
+                }
+                int d = c - '0';
+                if (d < 0 || d > 9) {
+                    return null;
+                }
+                if (mantissa != 0 || d != 0) {
+                    significant++;
+                }
+                if (significant > MAX_FAST_DOUBLE_DIGITS) {
+                    return null;
+                }
+                mantissa = mantissa * 10 + d;
+                if (scale >= 0) {
+                    scale++;
+                }
+                else {
+                    intDigits++;
+                }
+            }
+            if (intDigits == 0 || scale <= 0 || scale >= POWERS_OF_TEN.length
+                    || (intDigits > 1 && chars[intStart] == '0')
+                    || (scale > 1 && chars[end - 1] == '0')) {
+                return null;
+            }
+            double value = (double) mantissa / POWERS_OF_TEN[scale];
+            if (mantissa == 0 ? negative : (value < MIN_PLAIN_DOUBLE || value >= MAX_PLAIN_DOUBLE)) {
+                return null;
+            }
+            return negative ? -value : value;
+        }
+    }
+}
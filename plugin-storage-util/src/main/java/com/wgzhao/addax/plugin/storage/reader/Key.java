@@ -48,5 +48,12 @@ public class Key
 
     public static final String CSV_READER_CONFIG = "csvReaderConfig";
 
+    // 是否把单个未压缩的文本文件按字节区间切分给多个 task 并行读取
+    public static final String SPLIT_FILE = "splitFile";
+
+    public static final String SPLIT_START = "splitStart";
+
+    public static final String SPLIT_END = "splitEnd";
+
     private Key() {}
 }
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.storage.reader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 只读取文件中 [start, end) 字节区间所属行的输入流，用于单个大文件的并行读取。
+ * <p>
+ * 一行属于起始字节落在该区间内的分片：start 大于 0 时先跳到 start - 1，丢弃到下一个换行符为止的内容，
+ * 读到 end 之后继续读完跨越 end 的那一行再结束。相邻分片因此既不重复也不遗漏。
+ * 要求编码中的换行符是单字节 '\n'，且字段内容中不包含换行符。
+ */
+public class LineRangeInputStream
+        extends InputStream
+{
+    private final InputStream in;
+
+    private final long end;
+
+    // 下一个待读取字节在文件中的位置
+    private long pos;
+
+    private boolean atLineStart = true;
+
+    private boolean finished = false;
+
+    public LineRangeInputStream(InputStream in, long start, long end)
+            throws IOException
+    {
+        this.in = in;
+        this.end = end;
+        if (start > 0) {
+            skipFully(start - 1);
+            this.pos = start - 1;
+            int b;
+            while ((b = in.read()) != -1) {
+                pos++;
+                if (b == '\n') {
+                    break;
+                }
+            }
+            if (b == -1) {
+                finished = true;
+            }
+        }
+    }
+
+    private void skipFully(long n)
+            throws IOException
+    {
+        long remaining = n;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                // skip 返回 0 时无法区分是否到达文件末尾，读一个字节确认
+                if (in.read() == -1) {
+                    throw new EOFException("split offset " + n + " is beyond the end of the stream");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        if (finished || (atLineStart && pos >= end)) {
+            finished = true;
+            return -1;
+        }
+        int b = in.read();
+        if (b == -1) {
+            finished = true;
+            return -1;
+        }
+        pos++;
+        atLineStart = b == '\n';
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+            throws IOException
+    {
+        if (len == 0) {
+            return 0;
+        }
+        if (finished || (atLineStart && pos >= end)) {
+            finished = true;
+            return -1;
+        }
+        if (pos < end) {
+            // 区间内的字节可以整块返回
+            int n = in.read(b, off, (int) Math.min(len, end - pos));
+            if (n == -1) {
+                finished = true;
+                return -1;
+            }
+            pos += n;
+            atLineStart = n > 0 && b[off + n - 1] == '\n';
+            return n;
+        }
+        // 已越过 end，只返回跨越 end 那一行的剩余部分
+        int n = in.read(b, off, len);
+        if (n == -1) {
+            finished = true;
+            return -1;
+        }
+        for (int i = 0; i < n; i++) {
+            if (b[off + i] == '\n') {
+                pos += i + 1;
+                finished = true;
+                return i + 1;
+            }
+        }
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        in.close();
+    }
+}
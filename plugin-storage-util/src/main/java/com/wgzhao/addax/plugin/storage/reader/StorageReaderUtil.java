@@ -59,9 +59,12 @@ import java.io.UnsupportedEncodingException;
 import java.nio.charset.UnsupportedCharsetException;
 import java.text.DateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public class StorageReaderUtil
 {
@@ -173,13 +176,13 @@ public class StorageReaderUtil
                 }
                 else if ("gzip".equalsIgnoreCase(compress)) {
                     CompressorInputStream compressorInputStream = new GzipCompressorInputStream(
-                            inputStream);
+                            inputStream, true);
                     reader = new BufferedReader(new InputStreamReader(
                             compressorInputStream, encoding), bufferSize);
                 }
                 else if ("bzip2".equalsIgnoreCase(compress)) {
                     CompressorInputStream compressorInputStream = new BZip2CompressorInputStream(
-                            inputStream);
+                            inputStream, true);
                     reader = new BufferedReader(new InputStreamReader(
                             compressorInputStream, encoding), bufferSize);
                 }
@@ -326,6 +329,15 @@ public class StorageReaderUtil
                 LOG.info("Header line {} has been skiped.",
                         fetchLine);
             }
+            if (null == csvReaderConfigMap || csvReaderConfigMap.isEmpty()) {
+                // 没有自定义 csvReaderConfig 时使用基于字符数组的解析器，列的转换方式只解析一次
+                CsvParser csvParser = new CsvParser(reader, fieldDelimiter);
+                CsvRecordConverter converter = new CsvRecordConverter(column, nullFormat);
+                while (csvParser.next()) {
+                    converter.transport(recordSender, csvParser, taskPluginCollector);
+                }
+                return;
+            }
             csvReader = new CsvReader(reader);
             csvReader.setDelimiter(fieldDelimiter);
 
@@ -354,13 +366,18 @@ public class StorageReaderUtil
                     StorageReaderErrorCode.READ_FILE_IO_ERROR,
                     String.format("读取文件错误 : [%s]", context), ioe);
         }
+        catch (AddaxException e) {
+            throw e;
+        }
         catch (Exception e) {
             throw AddaxException.asAddaxException(
                     StorageReaderErrorCode.RUNTIME_EXCEPTION,
                     String.format("运行时异常 : %s", e.getMessage()), e);
         }
         finally {
-            csvReader.close();
+            if (csvReader != null) {
+                csvReader.close();
+            }
             IOUtils.closeQuietly(reader, null);
         }
     }
@@ -710,6 +727,100 @@ public class StorageReaderUtil
         }
     }
 
+    /**
+     * 判断是否可以把单个文件按字节区间切分读取：需要开启 splitFile，文件未压缩，
+     * 并且编码中的换行符是单字节的 '\n'（排除 UTF-16 等编码）
+     *
+     * @param readerConfiguration 配置项
+     * @return true if files could be split by byte range
+     */
+    public static boolean isSplittable(Configuration readerConfiguration)
+    {
+        if (!readerConfiguration.getBool(Key.SPLIT_FILE, false)) {
+            return false;
+        }
+        if (StringUtils.isNotBlank(readerConfiguration.getString(Key.COMPRESS, null))) {
+            LOG.warn("压缩文件不支持按字节区间切分, 忽略 {} 配置", Key.SPLIT_FILE);
+            return false;
+        }
+        String encoding = readerConfiguration.getString(Key.ENCODING, Constant.DEFAULT_ENCODING);
+        byte[] lineDelimiter = "\n".getBytes(Charsets.toCharset(encoding));
+        if (lineDelimiter.length != 1 || lineDelimiter[0] != '\n') {
+            LOG.warn("编码 [{}] 的换行符不是单字节, 不支持按字节区间切分, 忽略 {} 配置", encoding, Key.SPLIT_FILE);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 按字节区间切分文件，使切分后的分片数接近 adviceNumber。
+     * 每个可切分的文件按 max(总大小 / adviceNumber, MIN_SPLIT_SIZE) 切成若干区间，每个区间一个分片，
+     * 区间写入 splitStart, splitEnd；不可切分的文件每个文件一个分片。
+     * 只有第一个区间保留 skipHeader，其余区间不存在表头
+     *
+     * @param originConfig 原始配置
+     * @param sourceFilesKey 分片配置中保存文件列表的配置项
+     * @param fileLengths 待读取的文件以及文件的字节数
+     * @param splittable 判断文件是否可以切分，比如压缩文件不能切分
+     * @param adviceNumber 建议的分片数
+     * @return list of configuration
+     */
+    public static List<Configuration> splitByRange(Configuration originConfig, String sourceFilesKey,
+            Map<String, Long> fileLengths, Predicate<String> splittable, int adviceNumber)
+    {
+        long totalLength = 0;
+        for (long length : fileLengths.values()) {
+            totalLength += length;
+        }
+        long splitSize = Math.max(Constant.MIN_SPLIT_SIZE, (totalLength + adviceNumber - 1) / Math.max(adviceNumber, 1));
+
+        List<Configuration> readerSplitConfigs = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : fileLengths.entrySet()) {
+            String file = entry.getKey();
+            long length = entry.getValue();
+            if (length <= splitSize || !splittable.test(file)) {
+                Configuration splitedConfig = originConfig.clone();
+                splitedConfig.set(sourceFilesKey, Collections.singletonList(file));
+                readerSplitConfigs.add(splitedConfig);
+                continue;
+            }
+            int splitNumber = (int) ((length + splitSize - 1) / splitSize);
+            LOG.info("文件 [{}] 大小为 {} 字节, 按字节区间切分为 {} 个分片", file, length, splitNumber);
+            for (int i = 0; i < splitNumber; i++) {
+                long start = i * splitSize;
+                long end = Math.min(length, start + splitSize);
+                Configuration splitedConfig = originConfig.clone();
+                splitedConfig.set(sourceFilesKey, Collections.singletonList(file));
+                splitedConfig.set(Key.SPLIT_START, start);
+                splitedConfig.set(Key.SPLIT_END, end);
+                if (start > 0) {
+                    splitedConfig.set(Key.SKIP_HEADER, false);
+                }
+                readerSplitConfigs.add(splitedConfig);
+            }
+        }
+        return readerSplitConfigs;
+    }
+
+    /**
+     * 如果分片配置中包含字节区间，把输入流包装为只读取该区间内各行的输入流
+     *
+     * @param inputStream 从文件开头读取的输入流
+     * @param readerSliceConfig 分片配置
+     * @return input stream
+     * @throws IOException 定位到区间起始位置失败
+     */
+    public static InputStream rangeInputStream(InputStream inputStream, Configuration readerSliceConfig)
+            throws IOException
+    {
+        Long start = readerSliceConfig.getLong(Key.SPLIT_START);
+        Long end = readerSliceConfig.getLong(Key.SPLIT_END);
+        if (start == null || end == null) {
+            return inputStream;
+        }
+        return new LineRangeInputStream(inputStream, start, end);
+    }
+
     /**
      * 获取正则表达式目录的父目录
      *
@@ -35,6 +35,9 @@ public class Constant
     //每个分块10MB，最大10000个分块
     public static final Long MAX_FILE_SIZE = 1024 * 1024 * 10 * 10000L;
 
+    // 并行压缩时每个分块的未压缩大小
+    public static final int DEFAULT_COMPRESS_BLOCK_SIZE = 1024 * 1024;
+
 //    public static final String DEFAULT_SUFFIX = ""
 
     private Constant() {}
@@ -36,6 +36,12 @@ public class Key
     // not must, default no compress
     public static final String COMPRESS = "compress";
 
+    // not must, default 1, threads used to compress blocks in parallel
+    public static final String COMPRESS_THREADS = "compressThreads";
+
+    // not must, default 1MB, uncompressed size of each parallel compressed block
+    public static final String COMPRESS_BLOCK_SIZE = "compressBlockSize";
+
     // not must, not default \N
     public static final String NULL_FORMAT = "nullFormat";
 
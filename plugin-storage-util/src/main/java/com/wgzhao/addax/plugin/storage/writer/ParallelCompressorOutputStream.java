@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.storage.writer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多线程分块压缩输出流
+ * <p>
+ * 写入的数据按固定大小切成块，每块在线程池中独立压缩成一个完整的压缩流
+ * （gzip member、bzip2 stream、lz4 frame 或 zstd frame），再按提交顺序写到下游。
+ * 这些格式都允许多个压缩流首尾相接，常见的解压工具会依次解压并拼接输出，
+ * 因此结果与单线程压缩的内容一致，只是压缩率略低。
+ * <p>
+ * 排队中的块数不超过线程数的两倍，内存占用约为 2 * threads * blockSize。
+ * <p>
+ * 任何一块压缩或写出失败后，流进入失败状态：之后的写入和刷新直接抛出该异常，
+ * 关闭时只释放线程池和下游流，不再写出其余的块，避免产生缺少数据块却看似完整的文件。
+ */
+public class ParallelCompressorOutputStream
+        extends OutputStream
+{
+    private final OutputStream out;
+    private final String compress;
+    private final int blockSize;
+    private final int maxPending;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private byte[] buffer;
+    private int count = 0;
+    private boolean written = false;
+    private boolean closed = false;
+    private IOException failure;
+
+    public ParallelCompressorOutputStream(OutputStream out, String compress, int threads, int blockSize)
+    {
+        this.out = out;
+        this.compress = compress;
+        this.blockSize = blockSize;
+        this.maxPending = threads * 2;
+        this.buffer = new byte[blockSize];
+        AtomicInteger seq = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "compress-" + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public void write(int b)
+            throws IOException
+    {
+        ensureOpen();
+        buffer[count++] = (byte) b;
+        if (count == blockSize) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len)
+            throws IOException
+    {
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+            if (count == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * 仅刷新已经压缩完成的块，未满的块留到后续写满或关闭时再压缩，避免产生大量很小的压缩流
+     */
+    @Override
+    public void flush()
+            throws IOException
+    {
+        ensureOpen();
+        while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+            writeCompressed(pending.pollFirst());
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (failure != null) {
+                return;
+            }
+            // 空文件也输出一个空的压缩流，保证结果是合法的压缩文件
+            if (count > 0 || !written) {
+                submitBlock();
+            }
+            while (!pending.isEmpty()) {
+                writeCompressed(pending.pollFirst());
+            }
+            out.flush();
+        }
+        finally {
+            for (Future<byte[]> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+            executor.shutdownNow();
+            out.close();
+        }
+    }
+
+    private void ensureOpen()
+            throws IOException
+    {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void submitBlock()
+            throws IOException
+    {
+        final byte[] block = buffer;
+        final int length = count;
+        pending.addLast(executor.submit(() -> compressBlock(block, length)));
+        written = true;
+        buffer = new byte[blockSize];
+        count = 0;
+        while (pending.size() >= maxPending) {
+            writeCompressed(pending.pollFirst());
+        }
+    }
+
+    private byte[] compressBlock(byte[] block, int length)
+            throws IOException
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(Math.max(length / 2, 64));
+        try (OutputStream cos = StorageWriterUtil.newCompressorStream(compress, bos)) {
+            cos.write(block, 0, length);
+        }
+        return bos.toByteArray();
+    }
+
+    private void writeCompressed(Future<byte[]> future)
+            throws IOException
+    {
+        try {
+            out.write(future.get());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw fail(new InterruptedIOException("等待压缩线程时被中断"));
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw fail((IOException) cause);
+            }
+            throw fail(new IOException("压缩数据块失败", cause));
+        }
+        catch (IOException e) {
+            throw fail(e);
+        }
+    }
+
+    private IOException fail(IOException e)
+    {
+        failure = e;
+        return e;
+    }
+}
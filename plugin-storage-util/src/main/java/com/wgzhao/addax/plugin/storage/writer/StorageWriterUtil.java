@@ -27,9 +27,10 @@ import com.wgzhao.addax.common.plugin.RecordReceiver;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
 import com.wgzhao.addax.common.util.Configuration;
 import com.google.common.collect.Sets;
-import org.apache.commons.compress.compressors.CompressorOutputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
 import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
 import org.apache.commons.io.Charsets;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -108,7 +109,7 @@ public class StorageWriterUtil
             writerConfiguration.set(Key.COMPRESS, null);
         }
         else {
-            Set<String> supportedCompress = Sets.newHashSet("gzip", "bzip2");
+            Set<String> supportedCompress = Sets.newHashSet("gzip", "bzip2", "lz4", "zstd");
             if (!supportedCompress.contains(compress.toLowerCase().trim())) {
                 String message = String.format(
                         "仅支持 [%s] 文件压缩格式 , 不支持您配置的文件压缩格式: [%s]",
@@ -117,6 +118,14 @@ public class StorageWriterUtil
                         StorageWriterErrorCode.ILLEGAL_VALUE,
                         String.format(message, compress));
             }
+            writerConfiguration.set(Key.COMPRESS, compress.toLowerCase().trim());
+        }
+
+        int compressThreads = writerConfiguration.getInt(Key.COMPRESS_THREADS, 1);
+        if (compressThreads < 1) {
+            throw AddaxException.asAddaxException(
+                    StorageWriterErrorCode.ILLEGAL_VALUE,
+                    String.format("compressThreads 必须大于0, 您配置的值为: [%d]", compressThreads));
         }
 
         // fieldDelimiter check
@@ -226,26 +235,19 @@ public class StorageWriterUtil
                         outputStream, encoding));
             }
             else {
-                if ("gzip".equalsIgnoreCase(compress)) {
-                    CompressorOutputStream compressorOutputStream = new GzipCompressorOutputStream(
-                            outputStream);
-                    writer = new BufferedWriter(new OutputStreamWriter(
-                            compressorOutputStream, encoding));
-                }
-                else if ("bzip2".equalsIgnoreCase(compress)) {
-                    CompressorOutputStream compressorOutputStream = new BZip2CompressorOutputStream(
-                            outputStream);
-                    writer = new BufferedWriter(new OutputStreamWriter(
-                            compressorOutputStream, encoding));
+                int compressThreads = config.getInt(Key.COMPRESS_THREADS, 1);
+                OutputStream compressorOutputStream;
+                if (compressThreads > 1) {
+                    int blockSize = config.getInt(Key.COMPRESS_BLOCK_SIZE, Constant.DEFAULT_COMPRESS_BLOCK_SIZE);
+                    LOG.info("使用 {} 个线程并行压缩, 分块大小为 {} 字节", compressThreads, blockSize);
+                    compressorOutputStream = new ParallelCompressorOutputStream(
+                            outputStream, compress, compressThreads, blockSize);
                 }
                 else {
-                    throw AddaxException
-                            .asAddaxException(
-                                    StorageWriterErrorCode.ILLEGAL_VALUE,
-                                    String.format(
-                                            "仅支持 gzip, bzip2 文件压缩格式 , 不支持您配置的文件压缩格式: [%s]",
-                                            compress));
+                    compressorOutputStream = newCompressorStream(compress, outputStream);
                 }
+                writer = new BufferedWriter(new OutputStreamWriter(
+                        compressorOutputStream, encoding));
             }
             StorageWriterUtil.doWriteToStream(lineReceiver, writer,
                     context, config, taskPluginCollector);
@@ -271,6 +273,33 @@ public class StorageWriterUtil
         }
     }
 
+    /**
+     * 根据压缩格式包装输出流，关闭返回的流时会写入压缩尾部并关闭下游
+     *
+     * @param compress 压缩格式，gzip, bzip2, lz4, zstd 之一
+     * @param outputStream 下游输出流
+     * @return 压缩输出流
+     * @throws IOException 写入压缩头失败
+     */
+    public static OutputStream newCompressorStream(String compress, OutputStream outputStream)
+            throws IOException
+    {
+        switch (compress.toLowerCase()) {
+            case "gzip":
+                return new GzipCompressorOutputStream(outputStream);
+            case "bzip2":
+                return new BZip2CompressorOutputStream(outputStream);
+            case "lz4":
+                return new FramedLZ4CompressorOutputStream(outputStream);
+            case "zstd":
+                return new ZstdCompressorOutputStream(outputStream);
+            default:
+                throw AddaxException.asAddaxException(
+                        StorageWriterErrorCode.ILLEGAL_VALUE,
+                        String.format("仅支持 gzip, bzip2, lz4, zstd 文件压缩格式 , 不支持您配置的文件压缩格式: [%s]", compress));
+        }
+    }
+
     private static void doWriteToStream(RecordReceiver lineReceiver,
             BufferedWriter writer, String contex, Configuration config,
             TaskPluginCollector taskPluginCollector)
@@ -318,6 +347,8 @@ public class StorageWriterUtil
             StorageWriterUtil.transportOneRecord(record,
                     nullFormat, dateParse, taskPluginCollector,
                     unstructuredWriter);
+            // 记录已经转换为文本写出，归还给框架复用
+            lineReceiver.recycle(record);
         }
 
         // warn:由调用方控制流的关闭
@@ -342,7 +373,7 @@ public class StorageWriterUtil
                 Column column;
                 for (int i = 0; i < recordLength; i++) {
                     column = record.getColumn(i);
-                    if (null != column.getRawData()) {
+                    if (!column.isNull()) {
                         boolean isDateColumn = column instanceof DateColumn;
                         if (!isDateColumn) {
                             splitedRows.add(column.asString());
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.wgzhao.addax.plugin.storage.reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCsvParser
+{
+    private static List<String[]> parse(String content, char delimiter)
+            throws IOException
+    {
+        CsvParser parser = new CsvParser(new StringReader(content), delimiter);
+        List<String[]> rows = new ArrayList<>();
+        while (parser.next()) {
+            rows.add(parser.getValues());
+        }
+        return rows;
+    }
+
+    private static List<String[]> parse(String content)
+            throws IOException
+    {
+        return parse(content, ',');
+    }
+
+    @Test
+    public void testPlainFields()
+            throws IOException
+    {
+        List<String[]> rows = parse("1,abc,2.5\n2,,x\n3,y,\n");
+        assertEquals(3, rows.size());
+        assertArrayEquals(new String[] {"1", "abc", "2.5"}, rows.get(0));
+        assertArrayEquals(new String[] {"2", "", "x"}, rows.get(1));
+        assertArrayEquals(new String[] {"3", "y", ""}, rows.get(2));
+    }
+
+    @Test
+    public void testUnquotedFieldsAreTrimmed()
+            throws IOException
+    {
+        List<String[]> rows = parse("  a \t, b ,c  \n");
+        assertArrayEquals(new String[] {"a", "b", "c"}, rows.get(0));
+        // 分隔符本身是制表符时不能被当作空白去掉
+        rows = parse("a\t\tb\n", '\t');
+        assertArrayEquals(new String[] {"a", "", "b"}, rows.get(0));
+    }
+
+    @Test
+    public void testQuotedFields()
+            throws IOException
+    {
+        List<String[]> rows = parse("\"a,b\",\" c \",\"\"\n");
+        assertArrayEquals(new String[] {"a,b", " c ", ""}, rows.get(0));
+        // 结束引号与分隔符之间的空白被忽略
+        rows = parse("  \"x\"  ,y\n");
+        assertArrayEquals(new String[] {"x", "y"}, rows.get(0));
+    }
+
+    @Test
+    public void testEscapedQuotes()
+            throws IOException
+    {
+        List<String[]> rows = parse("\"say \"\"hi\"\"\",\"\"\"\"\n\"it's\",\"a\"\"\"\n");
+        assertEquals(2, rows.size());
+        assertArrayEquals(new String[] {"say \"hi\"", "\""}, rows.get(0));
+        assertArrayEquals(new String[] {"it's", "a\""}, rows.get(1));
+    }
+
+    @Test
+    public void testEmbeddedNewlines()
+            throws IOException
+    {
+        List<String[]> rows = parse("1,\"line1\nline2\",x\n2,\"a\r\nb\",y\n3,\"c\rd\",z\n");
+        assertEquals(3, rows.size());
+        assertArrayEquals(new String[] {"1", "line1\nline2", "x"}, rows.get(0));
+        assertArrayEquals(new String[] {"2", "a\r\nb", "y"}, rows.get(1));
+        assertArrayEquals(new String[] {"3", "c\rd", "z"}, rows.get(2));
+    }
+
+    @Test
+    public void testLineSeparators()
+            throws IOException
+    {
+        // \r\n, \r, \n 都可以作为行分隔符，最后一行可以没有换行符，空行被跳过
+        List<String[]> rows = parse("a,b\r\nc,d\re,f\n\r\n\ng,\"h\"\r\ni,j");
+        assertEquals(5, rows.size());
+        assertArrayEquals(new String[] {"a", "b"}, rows.get(0));
+        assertArrayEquals(new String[] {"c", "d"}, rows.get(1));
+        assertArrayEquals(new String[] {"e", "f"}, rows.get(2));
+        assertArrayEquals(new String[] {"g", "h"}, rows.get(3));
+        assertArrayEquals(new String[] {"i", "j"}, rows.get(4));
+    }
+
+    @Test
+    public void testCrLfAcrossBufferBoundary()
+            throws IOException
+    {
+        // 让 \r 落在第一次读取的末尾，\n 落在下一次读取的开头
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < 1023) {
+            sb.append('x');
+        }
+        sb.append("\r\ny,z\r\n");
+        CsvParser parser = new CsvParser(new StringReader(sb.toString()), ',', 1024);
+        assertTrue(parser.next());
+        assertEquals(1, parser.getFieldCount());
+        assertEquals(1023, parser.getString(0).length());
+        assertTrue(parser.next());
+        assertArrayEquals(new String[] {"y", "z"}, parser.getValues());
+        assertFalse(parser.next());
+    }
+
+    @Test
+    public void testLongRecordsSpanBuffers()
+            throws IOException
+    {
+        StringBuilder sb = new StringBuilder();
+        List<String[]> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String text = "row" + i + "\"," + i;
+            sb.append(i).append(",\"").append(text.replace("\"", "\"\"")).append("\",").append(i * 2).append("\r\n");
+            expected.add(new String[] {String.valueOf(i), text, String.valueOf(i * 2)});
+        }
+        CsvParser parser = new CsvParser(new StringReader(sb.toString()), ',', 1024);
+        for (String[] row : expected) {
+            assertTrue(parser.next());
+            assertArrayEquals(row, parser.getValues());
+        }
+        assertFalse(parser.next());
+    }
+
+    @Test
+    public void testFieldAccessWithoutString()
+            throws IOException
+    {
+        CsvParser parser = new CsvParser(new StringReader("\\N,abc\n"), ',');
+        assertTrue(parser.next());
+        assertTrue(parser.contentEquals(0, "\\N"));
+        assertFalse(parser.contentEquals(1, "ab"));
+        assertFalse(parser.contentEquals(1, null));
+        assertEquals("abc", new String(parser.getChars(), parser.getStart(1), parser.getEnd(1) - parser.getStart(1)));
+    }
+}
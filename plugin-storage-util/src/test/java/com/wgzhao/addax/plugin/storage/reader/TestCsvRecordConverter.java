@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.wgzhao.addax.plugin.storage.reader;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.CompactDoubleColumn;
+import com.wgzhao.addax.common.element.CompactLongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.plugin.RecordSender;
+import com.wgzhao.addax.common.plugin.TaskPluginCollector;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestCsvRecordConverter
+{
+    private final List<Record> sent = new ArrayList<>();
+
+    private final List<Record> dirty = new ArrayList<>();
+
+    private final RecordSender sender = new RecordSender()
+    {
+        @Override
+        public Record createRecord()
+        {
+            return new SimpleRecord();
+        }
+
+        @Override
+        public void sendToWriter(Record record)
+        {
+            sent.add(record);
+        }
+
+        @Override
+        public void flush()
+        {
+            //
+        }
+
+        @Override
+        public void terminate()
+        {
+            //
+        }
+
+        @Override
+        public void shutdown()
+        {
+            //
+        }
+    };
+
+    private final TaskPluginCollector collector = new TaskPluginCollector()
+    {
+        @Override
+        public void collectDirtyRecord(Record dirtyRecord, Throwable t, String errorMessage)
+        {
+            dirty.add(dirtyRecord);
+        }
+
+        @Override
+        public void collectMessage(String key, String value)
+        {
+            //
+        }
+    };
+
+    private static ColumnEntry column(int index, String type)
+    {
+        ColumnEntry entry = new ColumnEntry();
+        entry.setIndex(index);
+        entry.setType(type);
+        return entry;
+    }
+
+    private void convert(List<ColumnEntry> columns, String content)
+            throws IOException
+    {
+        CsvParser parser = new CsvParser(new StringReader(content), ',');
+        CsvRecordConverter converter = new CsvRecordConverter(columns, "\\N");
+        while (parser.next()) {
+            converter.transport(sender, parser, collector);
+        }
+    }
+
+    @Test
+    public void testNumbersUseCompactColumns()
+            throws IOException
+    {
+        convert(Arrays.asList(column(0, "long"), column(1, "double")),
+                "42,3.25\n-7,-0.001\n12345678901234567890,1.23456789012345678\n1e3,1E2\n");
+        assertEquals(4, sent.size());
+        assertTrue(dirty.isEmpty());
+
+        Column first = sent.get(0).getColumn(0);
+        assertTrue(first instanceof CompactLongColumn);
+        assertEquals(42L, (long) first.asLong());
+        assertFalse(first.isNull());
+        assertTrue(sent.get(0).getColumn(1) instanceof CompactDoubleColumn);
+        assertEquals(3.25, sent.get(0).getColumn(1).asDouble(), 0.0);
+
+        assertEquals(-7L, (long) sent.get(1).getColumn(0).asLong());
+        assertEquals(-0.001, sent.get(1).getColumn(1).asDouble(), 0.0);
+        assertEquals("-0.001", sent.get(1).getColumn(1).asString());
+
+        // 超出 long 范围或超过 15 位有效数字时保留原始精度
+        assertFalse(sent.get(2).getColumn(0) instanceof CompactLongColumn);
+        assertEquals("12345678901234567890", sent.get(2).getColumn(0).asString());
+        assertFalse(sent.get(2).getColumn(1) instanceof CompactDoubleColumn);
+        assertEquals("1.23456789012345678", sent.get(2).getColumn(1).asString());
+
+        // 科学计数法走字符串转换
+        assertEquals(1000L, (long) sent.get(3).getColumn(0).asLong());
+        assertEquals(100.0, sent.get(3).getColumn(1).asDouble(), 0.0);
+    }
+
+    @Test
+    public void testFastDoubleMatchesParseDouble()
+            throws IOException
+    {
+        String[] values = {"0.1", "0.3", "123456789.012345", "-999999999999999", ".5", "7.", "0000.000001"};
+        StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            sb.append(value).append('\n');
+        }
+        convert(Arrays.asList(column(0, "double")), sb.toString());
+        assertEquals(values.length, sent.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.parseDouble(values[i]), sent.get(i).getColumn(0).asDouble(), 0.0, values[i]);
+        }
+    }
+
+    @Test
+    public void testDoubleTextIsPreserved()
+            throws IOException
+    {
+        // 非规范形式的小数不能改变文本，只有规范形式使用 CompactDoubleColumn
+        String[] values = {"12.10", "1", "+5", ".5", "7.", "-0.0", "007.5", "10000000.0", "0.0001", "1.0", "0.0", "9999999.99"};
+        StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            sb.append(value).append('\n');
+        }
+        convert(Arrays.asList(column(0, "double")), sb.toString());
+        assertEquals(values.length, sent.size());
+        for (int i = 0; i < values.length; i++) {
+            Column column = sent.get(i).getColumn(0);
+            assertEquals(values[i], column.asString());
+            assertEquals(values[i], column.getRawData());
+            assertEquals(Double.parseDouble(values[i]), column.asDouble(), 0.0, values[i]);
+        }
+        assertFalse(sent.get(0).getColumn(0) instanceof CompactDoubleColumn);
+        assertTrue(sent.get(9).getColumn(0) instanceof CompactDoubleColumn);
+        assertTrue(sent.get(11).getColumn(0) instanceof CompactDoubleColumn);
+    }
+
+    @Test
+    public void testNullFormatAndDirtyRecords()
+            throws IOException
+    {
+        convert(Arrays.asList(column(0, "long"), column(1, "double")), "\\N,\\N\nabc,1\n1,1.2.3\n1,-\n");
+        assertEquals(1, sent.size());
+        assertNull(sent.get(0).getColumn(0).getRawData());
+        assertNull(sent.get(0).getColumn(1).getRawData());
+        assertTrue(sent.get(0).getColumn(0).isNull());
+        assertTrue(sent.get(0).getColumn(1).isNull());
+        assertEquals(3, dirty.size());
+    }
+
+    @Test
+    public void testBoolAndBytes()
+            throws IOException
+    {
+        convert(Arrays.asList(column(0, "bool"), column(1, "boolean"), column(2, "bytes")), "true,false,abc\nfalse,true,\\N\n");
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(0).getColumn(0).asBoolean());
+        assertFalse(sent.get(0).getColumn(1).asBoolean());
+        assertArrayEquals("abc".getBytes(StandardCharsets.UTF_8), sent.get(0).getColumn(2).asBytes());
+        assertArrayEquals(new byte[0], sent.get(1).getColumn(2).asBytes());
+    }
+
+    private static final class SimpleRecord
+            implements Record
+    {
+        private final List<Column> columns = new ArrayList<>();
+
+        @Override
+        public void addColumn(Column column)
+        {
+            columns.add(column);
+        }
+
+        @Override
+        public void setColumn(int i, Column column)
+        {
+            columns.set(i, column);
+        }
+
+        @Override
+        public Column getColumn(int i)
+        {
+            return i < columns.size() ? columns.get(i) : null;
+        }
+
+        @Override
+        public int getColumnNumber()
+        {
+            return columns.size();
+        }
+
+        @Override
+        public int getByteSize()
+        {
+            return 0;
+        }
+
+        @Override
+        public int getMemorySize()
+        {
+            return 0;
+        }
+    }
+}
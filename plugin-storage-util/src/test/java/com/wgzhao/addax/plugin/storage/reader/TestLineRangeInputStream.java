@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.wgzhao.addax.plugin.storage.reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestLineRangeInputStream
+{
+    private static final String CONTENT = "a,1\nbb,22\n\nccc,333\r\ndddd,4444\r\ne\nlast-line-without-newline";
+
+    private static String read(String content, long start, long end, int bufferSize)
+            throws IOException
+    {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        try (InputStream in = new LineRangeInputStream(new ByteArrayInputStream(bytes), start, end)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (bufferSize == 0) {
+                int b;
+                while ((b = in.read()) != -1) {
+                    out.write(b);
+                }
+            }
+            else {
+                byte[] buffer = new byte[bufferSize];
+                int n;
+                while ((n = in.read(buffer, 0, buffer.length)) != -1) {
+                    out.write(buffer, 0, n);
+                }
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testWholeRange()
+            throws IOException
+    {
+        assertEquals(CONTENT, read(CONTENT, 0, CONTENT.length(), 0));
+        assertEquals(CONTENT, read(CONTENT, 0, CONTENT.length(), 7));
+    }
+
+    @Test
+    public void testPartialFirstLineBelongsToPreviousRange()
+            throws IOException
+    {
+        // 区间从 "bb,22" 的中间开始，这一行属于前一个区间
+        assertEquals("\nccc,333\r\n", read(CONTENT, 6, 12, 0));
+        // 前一个区间读完跨越 end 的整行
+        assertEquals("a,1\nbb,22\n", read(CONTENT, 0, 6, 0));
+        assertEquals("a,1\nbb,22\n", read(CONTENT, 0, 6, 3));
+    }
+
+    @Test
+    public void testRangeStartingOnLineBoundary()
+            throws IOException
+    {
+        // start 恰好是一行的开头（前一个字节是换行符），该行属于本区间
+        assertEquals("bb,22\n", read(CONTENT, 4, 5, 0));
+        assertEquals("a,1\n", read(CONTENT, 0, 4, 0));
+        // start 指向换行符本身，以该换行符结束的行属于前一个区间
+        assertEquals("\n", read(CONTENT, 9, 11, 0));
+        assertEquals("\nccc,333\r\n", read(CONTENT, 9, 12, 0));
+        assertEquals("a,1\nbb,22\n", read(CONTENT, 0, 9, 0));
+    }
+
+    @Test
+    public void testCrLf()
+            throws IOException
+    {
+        int crlf = CONTENT.indexOf("\r\n");
+        // 从 \r 开始的区间：\r\n 属于 "ccc,333" 这一行，本区间从下一行开始
+        assertEquals("dddd,4444\r\n", read(CONTENT, crlf, crlf + 3, 0));
+        // 从 \n 开始的区间同样如此
+        assertEquals("dddd,4444\r\n", read(CONTENT, crlf + 1, crlf + 3, 5));
+        // 区间内没有任何一行的起始字节
+        assertEquals("", read(CONTENT, crlf, crlf + 2, 0));
+        // 以 \r 为止的区间读完整个 \r\n
+        assertEquals("ccc,333\r\n", read(CONTENT, crlf - 7, crlf, 0));
+    }
+
+    @Test
+    public void testReadPastEnd()
+            throws IOException
+    {
+        int length = CONTENT.length();
+        // 最后一行没有换行符，读到文件末尾为止
+        assertEquals("last-line-without-newline", read(CONTENT, length - 25, length + 100, 0));
+        assertEquals("", read(CONTENT, length - 3, length, 4));
+        assertEquals("", read(CONTENT, length, length + 10, 0));
+        assertEquals("", read("abc\n", 4, 10, 0));
+        assertThrows(EOFException.class, () -> read(CONTENT, length + 10, length + 20, 0));
+    }
+
+    @Test
+    public void testEmptyRange()
+            throws IOException
+    {
+        assertEquals("", read(CONTENT, 0, 0, 0));
+        assertEquals("", read(CONTENT, 5, 5, 0));
+    }
+
+    @Test
+    public void testAdjacentRangesCoverEveryLineOnce()
+            throws IOException
+    {
+        int length = CONTENT.length();
+        for (int bufferSize : new int[] {0, 1, 3, 64}) {
+            for (int splitSize = 1; splitSize <= length; splitSize++) {
+                StringBuilder sb = new StringBuilder();
+                for (int start = 0; start < length; start += splitSize) {
+                    sb.append(read(CONTENT, start, Math.min(length, start + splitSize), bufferSize));
+                }
+                assertEquals(CONTENT, sb.toString(), "split size " + splitSize + ", buffer size " + bufferSize);
+            }
+        }
+    }
+}
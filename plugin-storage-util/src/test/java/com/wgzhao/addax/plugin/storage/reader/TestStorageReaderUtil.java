@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.wgzhao.addax.plugin.storage.reader;
+
+import com.wgzhao.addax.common.util.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestStorageReaderUtil
+{
+    private static final String SOURCE_FILES = "sourceFiles";
+
+    private static final long MB = 1024L * 1024;
+
+    private static Configuration originConfig()
+    {
+        Configuration configuration = Configuration.newDefault();
+        configuration.set(Key.SKIP_HEADER, true);
+        return configuration;
+    }
+
+    @Test
+    public void testSmallFilesAreNotSplit()
+    {
+        Map<String, Long> fileLengths = new LinkedHashMap<>();
+        fileLengths.put("/a.csv", 10 * MB);
+        fileLengths.put("/b.csv", 20 * MB);
+        List<Configuration> splits = StorageReaderUtil.splitByRange(originConfig(), SOURCE_FILES, fileLengths, file -> true, 8);
+        assertEquals(2, splits.size());
+        for (Configuration split : splits) {
+            assertEquals(1, split.getList(SOURCE_FILES, String.class).size());
+            assertNull(split.getLong(Key.SPLIT_START));
+            assertTrue(split.getBool(Key.SKIP_HEADER));
+        }
+    }
+
+    @Test
+    public void testRangesCoverLargeFileWithoutGaps()
+    {
+        long length = 1000 * MB + 12345;
+        Map<String, Long> fileLengths = new LinkedHashMap<>();
+        fileLengths.put("/big.csv", length);
+        List<Configuration> splits = StorageReaderUtil.splitByRange(originConfig(), SOURCE_FILES, fileLengths, file -> true, 4);
+        assertEquals(4, splits.size());
+        long expectedStart = 0;
+        for (Configuration split : splits) {
+            assertEquals("/big.csv", split.getList(SOURCE_FILES, String.class).get(0));
+            long start = split.getLong(Key.SPLIT_START);
+            long end = split.getLong(Key.SPLIT_END);
+            assertEquals(expectedStart, start);
+            assertTrue(end > start);
+            // 只有第一个区间包含表头
+            assertEquals(start == 0, split.getBool(Key.SKIP_HEADER));
+            expectedStart = end;
+        }
+        assertEquals(length, expectedStart);
+    }
+
+    @Test
+    public void testMinimumSplitSize()
+    {
+        // 总大小除以 adviceNumber 小于最小分片大小时，按最小分片大小切分
+        long length = 3 * Constant.MIN_SPLIT_SIZE - 1;
+        Map<String, Long> fileLengths = new LinkedHashMap<>();
+        fileLengths.put("/big.csv", length);
+        List<Configuration> splits = StorageReaderUtil.splitByRange(originConfig(), SOURCE_FILES, fileLengths, file -> true, 100);
+        assertEquals(3, splits.size());
+        assertEquals(Constant.MIN_SPLIT_SIZE, (long) splits.get(0).getLong(Key.SPLIT_END));
+        assertEquals(length, (long) splits.get(2).getLong(Key.SPLIT_END));
+    }
+
+    @Test
+    public void testUnsplittableFilesStayWhole()
+    {
+        Map<String, Long> fileLengths = new LinkedHashMap<>();
+        fileLengths.put("/big.csv.gz", 1000 * MB);
+        fileLengths.put("/big.csv", 1000 * MB);
+        List<Configuration> splits = StorageReaderUtil.splitByRange(originConfig(), SOURCE_FILES, fileLengths,
+                file -> !file.endsWith(".gz"), 4);
+        assertEquals("/big.csv.gz", splits.get(0).getList(SOURCE_FILES, String.class).get(0));
+        assertNull(splits.get(0).getLong(Key.SPLIT_START));
+        assertTrue(splits.size() > 2);
+        for (Configuration split : splits.subList(1, splits.size())) {
+            assertEquals("/big.csv", split.getList(SOURCE_FILES, String.class).get(0));
+            assertFalse(null == split.getLong(Key.SPLIT_START));
+        }
+    }
+}
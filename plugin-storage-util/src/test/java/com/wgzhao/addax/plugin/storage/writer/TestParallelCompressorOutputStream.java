@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.wgzhao.addax.plugin.storage.writer;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestParallelCompressorOutputStream
+{
+    private static byte[] sample(int length)
+    {
+        // 可压缩的文本夹杂随机字节，保证每块的压缩结果不同
+        Random random = new Random(length);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = i % 7 == 0 ? (byte) random.nextInt(256) : (byte) ('a' + i % 26);
+        }
+        return data;
+    }
+
+    private static byte[] compress(String compress, int threads, int blockSize, byte[] data, int chunk)
+            throws IOException
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (OutputStream out = new ParallelCompressorOutputStream(bos, compress, threads, blockSize)) {
+            for (int off = 0; off < data.length; off += chunk) {
+                int len = Math.min(chunk, data.length - off);
+                if (len == 1) {
+                    out.write(data[off]);
+                }
+                else {
+                    out.write(data, off, len);
+                }
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static byte[] decompress(String compress, byte[] data)
+            throws IOException
+    {
+        // 使用标准的解压流，依次解压首尾相接的多个压缩流
+        try (InputStream in = "gzip".equals(compress)
+                ? new GZIPInputStream(new ByteArrayInputStream(data))
+                : new BZip2CompressorInputStream(new ByteArrayInputStream(data), true)) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                bos.write(buffer, 0, n);
+            }
+            return bos.toByteArray();
+        }
+    }
+
+    @Test
+    public void testRoundTrip()
+            throws IOException
+    {
+        int blockSize = 4096;
+        // 覆盖空输入、不足一块、恰好整块以及最后一块不满的情况
+        int[] lengths = {0, 1, blockSize - 1, blockSize, 3 * blockSize, 10 * blockSize + 123};
+        for (String compress : new String[] {"gzip", "bzip2"}) {
+            for (int threads : new int[] {1, 2, 4}) {
+                for (int length : lengths) {
+                    byte[] data = sample(length);
+                    for (int chunk : new int[] {1, 1000, 3 * blockSize + 7}) {
+                        byte[] compressed = compress(compress, threads, blockSize, data, chunk);
+                        String message = compress + ", threads " + threads + ", length " + length + ", chunk " + chunk;
+                        assertTrue(compressed.length > 0, message);
+                        assertArrayEquals(data, decompress(compress, compressed), message);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFlushWritesOnlyCompletedBlocks()
+            throws IOException, InterruptedException
+    {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ParallelCompressorOutputStream out = new ParallelCompressorOutputStream(bos, "gzip", 2, 1024);
+        byte[] data = sample(2048 + 100);
+        out.write(data);
+        // 等待两个整块压缩完成，每次刷新只输出完整的压缩流
+        byte[] expected = Arrays.copyOf(data, 2048);
+        byte[] flushed = new byte[0];
+        for (int i = 0; i < 500 && flushed.length < expected.length; i++) {
+            out.flush();
+            if (bos.size() > 0) {
+                flushed = decompress("gzip", bos.toByteArray());
+            }
+            Thread.sleep(10);
+        }
+        // 不满的最后一块在关闭前不会输出
+        assertArrayEquals(expected, flushed);
+
+        out.close();
+        assertArrayEquals(data, decompress("gzip", bos.toByteArray()));
+        // 重复关闭没有影响
+        out.close();
+        assertThrows(IOException.class, () -> out.write(1));
+        assertThrows(IOException.class, () -> out.write(data, 0, 10));
+        assertThrows(IOException.class, out::flush);
+    }
+
+    @Test
+    public void testCloseClosesDownstream()
+            throws IOException
+    {
+        CloseTrackingStream downstream = new CloseTrackingStream(Long.MAX_VALUE);
+        new ParallelCompressorOutputStream(downstream, "gzip", 2, 1024).close();
+        assertTrue(downstream.closed);
+        // 空输入也是一个合法的压缩文件
+        assertEquals(0, decompress("gzip", downstream.toByteArray()).length);
+    }
+
+    @Test
+    public void testDownstreamFailure()
+            throws IOException
+    {
+        CloseTrackingStream downstream = new CloseTrackingStream(100);
+        ParallelCompressorOutputStream out = new ParallelCompressorOutputStream(downstream, "gzip", 2, 1024);
+        byte[] data = sample(64 * 1024);
+        IOException e = assertThrows(IOException.class, () -> out.write(data));
+        assertEquals("disk full", e.getMessage());
+        // 失败之后的写入直接抛出同一个异常
+        assertSame(e, assertThrows(IOException.class, () -> out.write(data, 0, 10)));
+        int size = downstream.size();
+        // 关闭时不再写出其余的块，但仍然关闭下游
+        out.close();
+        assertEquals(size, downstream.size());
+        assertTrue(downstream.closed);
+    }
+
+    @Test
+    public void testCompressionFailure()
+            throws IOException
+    {
+        CloseTrackingStream downstream = new CloseTrackingStream(Long.MAX_VALUE);
+        ParallelCompressorOutputStream out = new ParallelCompressorOutputStream(downstream, "snappy", 2, 1024);
+        out.write(sample(100));
+        IOException e = assertThrows(IOException.class, out::close);
+        assertEquals("压缩数据块失败", e.getMessage());
+        assertEquals(0, downstream.size());
+        assertTrue(downstream.closed);
+    }
+
+    private static final class CloseTrackingStream
+            extends OutputStream
+    {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // 超过该字节数后写入失败，模拟磁盘写满
+        private final long limit;
+
+        private boolean closed = false;
+
+        CloseTrackingStream(long limit)
+        {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b)
+                throws IOException
+        {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+                throws IOException
+        {
+            if (bytes.size() + len > limit) {
+                throw new IOException("disk full");
+            }
+            bytes.write(b, off, len);
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+
+        int size()
+        {
+            return bytes.size();
+        }
+
+        byte[] toByteArray()
+        {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.storage.writer;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.LongColumn;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.StringColumn;
+import com.wgzhao.addax.common.plugin.RecordReceiver;
+import com.wgzhao.addax.common.util.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TestStorageWriterUtil
+{
+    @Test
+    public void testRecordsAreRecycledOnlyAfterBeingWritten()
+    {
+        List<Record> records = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SimpleRecord record = new SimpleRecord();
+            record.addColumn(new LongColumn(i));
+            record.addColumn(new StringColumn("row" + i));
+            records.add(record);
+        }
+        List<Record> recycled = new ArrayList<>();
+        Iterator<Record> iterator = records.iterator();
+        RecordReceiver receiver = new RecordReceiver()
+        {
+            @Override
+            public Record getFromReader()
+            {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public void recycle(Record record)
+            {
+                // 模拟对象池复用：归还后立即清空，如果之后还被使用，输出就会出错
+                ((SimpleRecord) record).columns.clear();
+                recycled.add(record);
+            }
+
+            @Override
+            public void shutdown()
+            {
+                //
+            }
+        };
+
+        Configuration config = Configuration.newDefault();
+        config.set(Key.FIELD_DELIMITER, ",");
+        config.set(Key.FILE_FORMAT, Constant.FILE_FORMAT_TEXT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StorageWriterUtil.writeToStream(receiver, out, config, "test", null);
+
+        assertEquals(3, recycled.size());
+        for (int i = 0; i < 3; i++) {
+            assertSame(records.get(i), recycled.get(i));
+        }
+        assertEquals("0,row0\n1,row1\n2,row2\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static final class SimpleRecord
+            implements Record
+    {
+        private final List<Column> columns = new ArrayList<>();
+
+        @Override
+        public void addColumn(Column column)
+        {
+            columns.add(column);
+        }
+
+        @Override
+        public void setColumn(int i, Column column)
+        {
+            columns.set(i, column);
+        }
+
+        @Override
+        public Column getColumn(int i)
+        {
+            return i < columns.size() ? columns.get(i) : null;
+        }
+
+        @Override
+        public int getColumnNumber()
+        {
+            return columns.size();
+        }
+
+        @Override
+        public int getByteSize()
+        {
+            return 0;
+        }
+
+        @Override
+        public int getMemorySize()
+        {
+            return 0;
+        }
+    }
+}
@@ -134,6 +134,63 @@ public class ESClient
         return jestClient.execute(searchBuilder.build());
     }
 
+    /**
+     * 在索引上打开一个 point in time，返回其 id，需要 Elasticsearch 7.10 及以上版本
+     *
+     * @param index 索引名
+     * @param keepAlive 保持时间，比如 3m
+     * @param headers http请求头
+     * @return point in time id
+     * @throws Exception 请求失败
+     */
+    public String openPointInTime(String index, String keepAlive, Map<String, Object> headers)
+            throws Exception
+    {
+        GenericAction action = new GenericAction.Builder("POST", index + "/_pit")
+                .setParameter("keep_alive", keepAlive)
+                .setHeader(headers)
+                .build();
+        JestResult rst = execute(action);
+        if (!rst.isSucceeded()) {
+            throw new IOException(String.format("open point in time on index[%s] failed, code:%s, msg:%s",
+                    index, rst.getResponseCode(), rst.getErrorMessage()));
+        }
+        return rst.getJsonObject().get("id").getAsString();
+    }
+
+    public void closePointInTime(String pitId)
+    {
+        JsonObject body = new JsonObject();
+        body.addProperty("id", pitId);
+        GenericAction action = new GenericAction.Builder("DELETE", "_pit")
+                .payload(body.toString())
+                .build();
+        try {
+            execute(action);
+        }
+        catch (Exception e) {
+            log.error(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 不指定索引执行查询，用于携带 point in time 的 search_after 翻页
+     *
+     * @param body 查询请求体
+     * @param headers http请求头
+     * @return 查询结果
+     * @throws Exception 请求失败
+     */
+    public JestResult searchWithoutIndex(String body, Map<String, Object> headers)
+            throws Exception
+    {
+        GenericAction action = new GenericAction.Builder("POST", "_search")
+                .payload(body)
+                .setHeader(headers)
+                .build();
+        return execute(action);
+    }
+
     public JestResult scroll(String scrollId, String scroll)
             throws Exception
     {
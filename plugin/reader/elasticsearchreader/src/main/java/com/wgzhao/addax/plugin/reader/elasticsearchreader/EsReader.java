@@ -22,7 +22,10 @@ package com.wgzhao.addax.plugin.reader.elasticsearchreader;
 import com.alibaba.fastjson.JSON;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.wgzhao.addax.common.element.BoolColumn;
 import com.wgzhao.addax.common.element.BytesColumn;
 import com.wgzhao.addax.common.element.Column;
@@ -70,6 +73,8 @@ public class EsReader
     {
         private static final Logger log = LoggerFactory.getLogger(Job.class);
         private Configuration conf = null;
+        private ESClient esClient = null;
+        private String pitId = null;
 
         @Override
         public void prepare()
@@ -108,29 +113,84 @@ public class EsReader
             this.conf = getPluginJobConf();
         }
 
+        /*
+         * 每个 search 按 slice 再切分为多个 task，slice 数默认为 adviceNumber / search 个数。
+         * scroll 模式下只有配置了 scroll 时才能切分，pit 模式下所有 task 共用 job 打开的同一个 point in time
+         */
         @Override
         public List<Configuration> split(int adviceNumber)
         {
             List<Configuration> configurations = new ArrayList<>();
             List<Object> search = conf.getList(Key.SEARCH_KEY, Object.class);
+            boolean pitMode = Key.SEARCH_MODE_PIT.equals(Key.getSearchMode(conf));
+            int slices = Key.getSlices(conf);
+            if (slices <= 0) {
+                slices = Math.max(1, adviceNumber / Math.max(1, search.size()));
+            }
+            if (!pitMode && StringUtils.isBlank(Key.getScroll(conf))) {
+                slices = 1;
+            }
+            if (pitMode) {
+                pitId = openPointInTime();
+            }
             for (Object query : search) {
-                Configuration clone = conf.clone();
-                clone.set(Key.SEARCH_KEY, query);
-                configurations.add(clone);
+                Configuration queryConf = Configuration.from(JSON.toJSONString(query));
+                int n = queryConf.get("slice") == null ? slices : 1;
+                for (int i = 0; i < n; i++) {
+                    Configuration clone = conf.clone();
+                    Configuration sliceConf = queryConf.clone();
+                    if (n > 1) {
+                        sliceConf.set("slice.id", i);
+                        sliceConf.set("slice.max", n);
+                    }
+                    clone.set(Key.SEARCH_KEY, sliceConf.getInternal());
+                    if (pitMode) {
+                        clone.set(Key.PIT_ID, pitId);
+                    }
+                    configurations.add(clone);
+                }
             }
+            log.info("split {} search(es) into {} task(s) with {} mode", search.size(), configurations.size(),
+                    pitMode ? Key.SEARCH_MODE_PIT : Key.SEARCH_MODE_SCROLL);
             return configurations;
         }
 
+        private String openPointInTime()
+        {
+            esClient = new ESClient();
+            esClient.createClient(Key.getEndpoint(conf),
+                    Key.getAccessID(conf),
+                    Key.getAccessKey(conf),
+                    false,
+                    Key.getTimeout(conf),
+                    Key.isCompression(conf),
+                    false);
+            try {
+                String id = esClient.openPointInTime(Key.getIndexName(conf), Key.getKeepAlive(conf), Key.getHeaders(conf));
+                log.info("opened point in time on index [{}]", Key.getIndexName(conf));
+                return id;
+            }
+            catch (Exception e) {
+                throw AddaxException.asAddaxException(ESReaderErrorCode.ES_SEARCH_ERROR, e);
+            }
+        }
+
         @Override
         public void post()
         {
-            //
+            if (pitId != null) {
+                esClient.closePointInTime(pitId);
+                pitId = null;
+            }
         }
 
         @Override
         public void destroy()
         {
             log.info("============elasticsearch reader job destroy=================");
+            if (esClient != null) {
+                esClient.closeJestClient();
+            }
         }
     }
 
@@ -150,6 +210,8 @@ public class EsReader
         private String scroll;
         private List<String> column;
         private String filter;
+        private String pitId;
+        private String keepAlive;
 
         @Override
         public void prepare()
@@ -177,6 +239,8 @@ public class EsReader
             this.scroll = Key.getScroll(conf);
             this.filter = Key.getFilter(conf);
             this.column = Key.getColumn(conf);
+            this.pitId = conf.getString(Key.PIT_ID);
+            this.keepAlive = Key.getKeepAlive(conf);
             if (column == null || column.isEmpty()) {
                 throw AddaxException.asAddaxException(ESReaderErrorCode.COLUMN_CANT_BE_EMPTY, "column必须配置");
             }
@@ -190,6 +254,10 @@ public class EsReader
         public void startRead(RecordSender recordSender)
         {
             PerfTrace.getInstance().addTaskDetails(getTaskId(), index);
+            if (pitId != null) {
+                this.searchAfter(recordSender);
+                return;
+            }
             //search
             PerfRecord queryPerfRecord = new PerfRecord(getTaskGroupId(), getTaskId(), PerfRecord.PHASE.SQL_QUERY);
             queryPerfRecord.start();
@@ -242,6 +310,63 @@ public class EsReader
             }
         }
 
+        /*
+         * 使用 point in time + search_after 翻页，不需要在服务端维持 scroll 上下文。
+         * 未指定 sort 时按 _shard_doc 排序，这是遍历 point in time 最高效的顺序
+         */
+        private void searchAfter(RecordSender recordSender)
+        {
+            PerfRecord queryPerfRecord = new PerfRecord(getTaskGroupId(), getTaskId(), PerfRecord.PHASE.SQL_QUERY);
+            PerfRecord allResultPerfRecord = new PerfRecord(getTaskGroupId(), getTaskId(), PerfRecord.PHASE.RESULT_NEXT_ALL);
+            JsonObject body = new JsonParser().parse(query).getAsJsonObject();
+            if (!body.has("sort")) {
+                JsonObject shardDoc = new JsonObject();
+                shardDoc.addProperty("_shard_doc", "asc");
+                JsonArray sort = new JsonArray();
+                sort.add(shardDoc);
+                body.add("sort", sort);
+            }
+            String currentPitId = pitId;
+            try {
+                while (true) {
+                    JsonObject pit = new JsonObject();
+                    pit.addProperty("id", currentPitId);
+                    pit.addProperty("keep_alive", keepAlive);
+                    body.add("pit", pit);
+                    queryPerfRecord.start();
+                    JestResult result = esClient.searchWithoutIndex(body.toString(), headers);
+                    queryPerfRecord.end();
+                    if (!result.isSucceeded()) {
+                        throw AddaxException.asAddaxException(ESReaderErrorCode.ES_SEARCH_ERROR,
+                                String.format("search_after error,code:%s,msg:%s", result.getResponseCode(), result.getErrorMessage()));
+                    }
+                    JsonObject json = result.getJsonObject();
+                    if (json.has("pit_id")) {
+                        currentPitId = json.get("pit_id").getAsString();
+                    }
+                    JsonArray hits = json.getAsJsonObject("hits").getAsJsonArray("hits");
+                    if (hits == null || hits.size() == 0) {
+                        break;
+                    }
+                    allResultPerfRecord.start();
+                    for (JsonElement hit : hits) {
+                        JsonElement source = hit.getAsJsonObject().get("_source");
+                        if (source != null) {
+                            this.transportOneRecord(recordSender, gson.fromJson(source, Map.class));
+                        }
+                    }
+                    allResultPerfRecord.end();
+                    body.add("search_after", hits.get(hits.size() - 1).getAsJsonObject().get("sort"));
+                }
+            }
+            catch (AddaxException dxe) {
+                throw dxe;
+            }
+            catch (Exception e) {
+                throw AddaxException.asAddaxException(ESReaderErrorCode.ES_SEARCH_ERROR, e);
+            }
+        }
+
         private SearchResult parseSearchResult(JestResult jestResult)
         {
             if (jestResult == null) {
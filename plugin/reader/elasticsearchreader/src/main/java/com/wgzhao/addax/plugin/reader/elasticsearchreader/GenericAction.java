@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.reader.elasticsearchreader;
+
+import io.searchbox.action.AbstractAction;
+import io.searchbox.action.GenericResultAbstractAction;
+import io.searchbox.client.config.ElasticsearchVersion;
+
+/**
+ * Jest 没有提供的接口（比如 point in time）通过该类直接指定请求方法、路径和请求体
+ */
+public class GenericAction
+        extends GenericResultAbstractAction
+{
+    private final String method;
+    private final String uri;
+
+    protected GenericAction(Builder builder)
+    {
+        super(builder);
+        this.method = builder.method;
+        this.uri = builder.uri;
+        this.payload = builder.payload;
+    }
+
+    @Override
+    public String getRestMethodName()
+    {
+        return method;
+    }
+
+    @Override
+    protected String buildURI(ElasticsearchVersion elasticsearchVersion)
+    {
+        return uri;
+    }
+
+    public static class Builder
+            extends AbstractAction.Builder<GenericAction, Builder>
+    {
+        private final String method;
+        private final String uri;
+        private Object payload;
+
+        public Builder(String method, String uri)
+        {
+            this.method = method;
+            this.uri = uri;
+        }
+
+        public Builder payload(Object payload)
+        {
+            this.payload = payload;
+            return this;
+        }
+
+        @Override
+        public GenericAction build()
+        {
+            return new GenericAction(this);
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package com.wgzhao.addax.plugin.reader.elasticsearchreader;
 
+import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.util.Configuration;
 import io.searchbox.params.SearchType;
 import org.apache.commons.lang3.StringUtils;
@@ -34,6 +35,11 @@ public final class Key
     // ----------------------------------------
 
     public static final String SEARCH_KEY = "search";
+    // job 打开的 point in time id，由 split 写入每个 task 的配置
+    public static final String PIT_ID = "pitId";
+
+    public static final String SEARCH_MODE_SCROLL = "scroll";
+    public static final String SEARCH_MODE_PIT = "pit";
 
     private Key() {}
 
@@ -122,6 +128,30 @@ public final class Key
         return conf.getString("scroll");
     }
 
+    public static String getSearchMode(Configuration conf)
+    {
+        String searchMode = conf.getString("searchMode", SEARCH_MODE_SCROLL).toLowerCase();
+        if (!SEARCH_MODE_SCROLL.equals(searchMode) && !SEARCH_MODE_PIT.equals(searchMode)) {
+            throw AddaxException.asAddaxException(ESReaderErrorCode.BAD_CONFIG_VALUE,
+                    String.format("searchMode 仅支持 scroll 和 pit, 不支持您配置的 [%s]", searchMode));
+        }
+        return searchMode;
+    }
+
+    /*
+     * 每个 search 切分的 slice 数，0 表示根据 channel 数自动确定
+     */
+    public static int getSlices(Configuration conf)
+    {
+        return conf.getInt("slices", 0);
+    }
+
+    public static String getKeepAlive(Configuration conf)
+    {
+        String scroll = getScroll(conf);
+        return StringUtils.isBlank(scroll) ? "3m" : scroll;
+    }
+
     public static List<String> getColumn(Configuration conf)
     {
         return conf.getList("column", String.class);
@@ -35,6 +35,7 @@ public class Constant
     public static final String SEQ = "SEQ";
     public static final String RC = "RC";
     public static final String PARQUET = "PARQUET";
+    public static final int DEFAULT_BATCH_SIZE = 1024;
     protected static final List<String> SUPPORT_FILE_TYPE = Arrays.asList(Constant.CSV, Constant.ORC, Constant.RC, Constant.SEQ, Constant.TEXT, Constant.PARQUET);
     private Constant() {}
 }
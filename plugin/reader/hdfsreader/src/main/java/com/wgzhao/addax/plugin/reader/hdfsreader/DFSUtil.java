@@ -28,6 +28,7 @@ import com.wgzhao.addax.common.element.DateColumn;
 import com.wgzhao.addax.common.element.DoubleColumn;
 import com.wgzhao.addax.common.element.LongColumn;
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.RecordBatch;
 import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordSender;
@@ -65,11 +66,19 @@ import org.apache.hadoop.mapred.FileSplit;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.hadoop.util.ReflectionUtils;
+import org.apache.orc.StripeInformation;
 import org.apache.orc.TypeDescription;
 import org.apache.parquet.avro.AvroParquetReader;
+import org.apache.parquet.avro.AvroReadSupport;
+import org.apache.parquet.avro.AvroSchemaConverter;
 import org.apache.parquet.example.data.Group;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.hadoop.ParquetFileReader;
 import org.apache.parquet.hadoop.ParquetReader;
 import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -77,9 +86,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
@@ -87,6 +98,8 @@ import java.util.Set;
 
 import static com.wgzhao.addax.plugin.storage.reader.Key.COLUMN;
 import static com.wgzhao.addax.plugin.storage.reader.Key.NULL_FORMAT;
+import static com.wgzhao.addax.plugin.storage.reader.Key.SPLIT_END;
+import static com.wgzhao.addax.plugin.storage.reader.Key.SPLIT_START;
 
 /**
  * Created by mingya.wmy on 2015/8/12.
@@ -276,6 +289,19 @@ public class DFSUtil
         }
     }
 
+    public long getFileLength(String filepath)
+    {
+        Path path = new Path(filepath);
+        try {
+            FileSystem fs = FileSystem.get(hadoopConf);
+            return fs.getFileStatus(path).getLen();
+        }
+        catch (IOException e) {
+            String message = String.format("获取文件 : [%s] 的大小时出错,请确认文件：[%s]存在且配置的用户有权限读取", filepath, filepath);
+            throw AddaxException.asAddaxException(HdfsReaderErrorCode.READ_FILE_ERROR, message, e);
+        }
+    }
+
     public void sequenceFileStartRead(String sourceSequenceFilePath, Configuration readerSliceConfig,
             RecordSender recordSender, TaskPluginCollector taskPluginCollector)
     {
@@ -366,16 +392,45 @@ public class DFSUtil
                 for (int i = 0; i < schema.getChildren().size(); i++) {
                     ColumnEntry columnEntry = new ColumnEntry();
                     columnEntry.setIndex(i);
-                    columnEntry.setType(schema.getChildren().get(i).getCategory().getName());
+                    columnEntry.setType(getOrcColumnType(schema.getChildren().get(i)));
                     column.add(columnEntry);
                 }
             }
 
-            VectorizedRowBatch rowBatch = schema.createRowBatch(1024);
-            org.apache.orc.RecordReader rowIterator = reader.rows(reader.options().schema(schema));
+            String filter = readerSliceConfig.getString(Key.FILTER);
+            PushdownFilter pushdownFilter = StringUtils.isNotBlank(filter) ? PushdownFilter.parse(filter) : null;
+            org.apache.orc.Reader.Options options = reader.options().schema(schema);
+            boolean[] include = getOrcInclude(schema, column,
+                    pushdownFilter == null ? Collections.emptySet() : pushdownFilter.getColumns());
+            if (include != null) {
+                options.include(include);
+            }
+            Long splitStart = readerSliceConfig.getLong(SPLIT_START);
+            Long splitEnd = readerSliceConfig.getLong(SPLIT_END);
+            if (splitStart != null && splitEnd != null) {
+                // 只读取起始位置落在区间内的 stripe
+                LOG.info("read stripes of [{}] in range [{}, {})", sourceOrcFilePath, splitStart, splitEnd);
+                options.range(splitStart, splitEnd - splitStart);
+            }
+            PushdownFilter.OrcRowFilter rowFilter = null;
+            if (pushdownFilter != null) {
+                options.searchArgument(pushdownFilter.toSearchArgument(schema),
+                        schema.getFieldNames().toArray(new String[0]));
+                rowFilter = pushdownFilter.toOrcRowFilter(schema);
+            }
+
+            OrcColumnReader[] columnReaders = createOrcColumnReaders(column, nullFormat);
+            int batchSize = readerSliceConfig.getInt(Key.BATCH_SIZE, Constant.DEFAULT_BATCH_SIZE);
+            VectorizedRowBatch rowBatch = schema.createRowBatch(batchSize);
+            org.apache.orc.RecordReader rowIterator = reader.rows(options);
             while (rowIterator.nextBatch(rowBatch)) {
-                transportOrcRecord(rowBatch, column, recordSender, taskPluginCollector, nullFormat);
+                int[] selected = rowFilter == null ? null : rowFilter.select(rowBatch);
+                transportOrcRecord(rowBatch, selected, column, columnReaders, recordSender, taskPluginCollector);
             }
+            rowIterator.close();
+        }
+        catch (AddaxException e) {
+            throw e;
         }
         catch (Exception e) {
             String message = String.format("从orcfile文件路径[%s]中读取数据发生异常，请联系系统管理员。"
@@ -385,70 +440,273 @@ public class DFSUtil
         }
     }
 
-    private void transportOrcRecord(VectorizedRowBatch rowBatch, List<ColumnEntry> columns, RecordSender recordSender, TaskPluginCollector taskPluginCollector, String nullFormat)
+    /*
+     * 只读取配置中用到的字段以及过滤条件中的字段，数组下标为 ORC 的类型 id，0 为根节点。
+     * 读取所有字段或者 index 越界时返回 null，保持原有的读取方式
+     */
+    private boolean[] getOrcInclude(TypeDescription schema, List<ColumnEntry> columns, Set<String> filterColumns)
     {
-        Record record;
-        for (int row = 0; row < rowBatch.size; row++) {
-            record = recordSender.createRecord();
-            try {
-                for (ColumnEntry column : columns) {
-
-                    Column columnGenerated;
-                    if (column.getValue() != null) {
-                        if (!"null".equals(column.getValue())) {
-                            columnGenerated = new StringColumn(column.getValue());
-                        }
-                        else {
-                            columnGenerated = null;
-                        }
-                        record.addColumn(columnGenerated);
-                        continue;
-                    }
-                    int i = column.getIndex();
-                    String columnType = column.getType().toUpperCase();
-                    ColumnVector col = rowBatch.cols[i];
-                    Type type = Type.valueOf(columnType);
-                    if (col.isNull[row]) {
-                        record.addColumn(null);
-                        continue;
-                    }
-                    switch (type) {
-                        case INT:
-                        case LONG:
-                        case DATE:
-                        case BOOLEAN:
-                            columnGenerated = new LongColumn(((LongColumnVector) col).vector[row]);
-                            break;
-                        case DOUBLE:
-                            columnGenerated = new DoubleColumn(((DoubleColumnVector) col).vector[row]);
-                            break;
-                        case DECIMAL:
-                            columnGenerated = new DoubleColumn(((DecimalColumnVector) col).vector[row].doubleValue());
-                            break;
-                        case BINARY:
-                            BytesColumnVector b = (BytesColumnVector) col;
-                            byte[] val = Arrays.copyOfRange(b.vector[row], b.start[row], b.start[row] + b.length[row]);
-                            columnGenerated = new BytesColumn(val);
-                            break;
-                        case TIMESTAMP:
-                            columnGenerated = new DateColumn(((TimestampColumnVector) col).getTime(row));
-                            break;
-                        default:
-                            // type is string or other
-                            String v = ((BytesColumnVector) col).toString(row);
-                            columnGenerated = v.equals(nullFormat) ? null : new StringColumn(v);
-                            break;
+        List<TypeDescription> children = schema.getChildren();
+        boolean[] used = new boolean[children.size()];
+        for (ColumnEntry column : columns) {
+            Integer index = column.getIndex();
+            if (index == null) {
+                continue;
+            }
+            if (index < 0 || index >= children.size()) {
+                return null;
+            }
+            used[index] = true;
+        }
+        for (String name : filterColumns) {
+            int index = schema.getFieldNames().indexOf(name);
+            if (index >= 0) {
+                used[index] = true;
+            }
+        }
+        boolean[] include = new boolean[schema.getMaximumId() + 1];
+        include[0] = true;
+        int count = 0;
+        for (int i = 0; i < children.size(); i++) {
+            if (!used[i]) {
+                continue;
+            }
+            TypeDescription child = children.get(i);
+            for (int id = child.getId(); id <= child.getMaximumId(); id++) {
+                include[id] = true;
+            }
+            count++;
+        }
+        return count < children.size() ? include : null;
+    }
+
+    /*
+     * 按列把一个 ORC 批次转换为 RecordBatch 整体发送给 writer：整数、浮点列直接复制原生数组，
+     * 其余列通过打开文件时确定的转换方式逐个转换。批次中出现无法转换的行时退化为逐行发送，
+     * 并把这些行作为脏数据收集。selected 为满足过滤条件的行号，为 null 时发送所有行
+     */
+    private void transportOrcRecord(VectorizedRowBatch rowBatch, int[] selected, List<ColumnEntry> columns,
+            OrcColumnReader[] columnReaders, RecordSender recordSender, TaskPluginCollector taskPluginCollector)
+    {
+        int size = selected == null ? rowBatch.size : selected.length;
+        if (size == 0) {
+            return;
+        }
+        Column.Type[] types = new Column.Type[columnReaders.length];
+        for (int i = 0; i < columnReaders.length; i++) {
+            Integer index = columns.get(i).getIndex();
+            types[i] = getBatchColumnType(columns.get(i), index == null ? null : rowBatch.cols[index]);
+        }
+        RecordBatch batch = RecordBatch.create(types, size);
+        boolean[] dirty = null;
+        String[] messages = null;
+        for (int i = 0; i < columnReaders.length; i++) {
+            Integer index = columns.get(i).getIndex();
+            ColumnVector vector = index == null ? null : rowBatch.cols[index];
+            com.wgzhao.addax.common.element.ColumnVector target = batch.getVector(i);
+            if (copyOrcVector(vector, target, selected, size)) {
+                continue;
+            }
+            OrcColumnReader columnReader = columnReaders[i];
+            for (int row = 0; row < size; row++) {
+                if (dirty != null && dirty[row]) {
+                    continue;
+                }
+                try {
+                    target.setColumn(row, columnReader.read(vector, selected == null ? row : selected[row]));
+                }
+                catch (Exception e) {
+                    if (dirty == null) {
+                        dirty = new boolean[size];
+                        messages = new String[size];
                     }
-                    record.addColumn(columnGenerated);
+                    dirty[row] = true;
+                    messages[row] = e.getMessage();
                 }
+            }
+        }
+        batch.setRowCount(size);
+        if (dirty == null) {
+            recordSender.sendBatchToWriter(batch);
+            return;
+        }
+        for (int row = 0; row < size; row++) {
+            Record record = recordSender.createRecord();
+            for (int i = 0; i < columnReaders.length; i++) {
+                record.addColumn(batch.getColumn(row, i));
+            }
+            if (dirty[row]) {
+                taskPluginCollector.collectDirtyRecord(record, messages[row]);
+            }
+            else {
                 recordSender.sendToWriter(record);
             }
-            catch (Exception e) {
-                if (e instanceof AddaxException) {
-                    throw (AddaxException) e;
+        }
+    }
+
+    /*
+     * 整数、浮点、字符串列使用原生数组保存，其余类型以及常量列直接保存转换后的 Column，
+     * 保证与逐行读取时的数据一致
+     */
+    private static Column.Type getBatchColumnType(ColumnEntry column, ColumnVector vector)
+    {
+        if (column.getValue() != null || vector == null) {
+            return Column.Type.JAVA_OBJECT;
+        }
+        String type = column.getType().toUpperCase();
+        if (("INT".equals(type) || "LONG".equals(type)) && vector instanceof LongColumnVector) {
+            return Column.Type.LONG;
+        }
+        if ("DOUBLE".equals(type) && vector instanceof DoubleColumnVector) {
+            return Column.Type.DOUBLE;
+        }
+        if ("STRING".equals(type) && vector instanceof BytesColumnVector) {
+            return Column.Type.STRING;
+        }
+        return Column.Type.JAVA_OBJECT;
+    }
+
+    /*
+     * 整数和浮点列直接复制 ORC 的原生数组，无法直接复制时返回 false。
+     * selected 不为 null 时只复制其中的行
+     */
+    private static boolean copyOrcVector(ColumnVector source, com.wgzhao.addax.common.element.ColumnVector target,
+            int[] selected, int size)
+    {
+        if (target instanceof com.wgzhao.addax.common.element.LongColumnVector) {
+            com.wgzhao.addax.common.element.LongColumnVector longs = (com.wgzhao.addax.common.element.LongColumnVector) target;
+            long[] values = ((LongColumnVector) source).vector;
+            if (selected == null && source.noNulls && !source.isRepeating) {
+                System.arraycopy(values, 0, longs.getVector(), 0, size);
+                return true;
+            }
+            for (int row = 0; row < size; row++) {
+                int idx = source.isRepeating ? 0 : (selected == null ? row : selected[row]);
+                if (!source.noNulls && source.isNull[idx]) {
+                    longs.setNull(row);
                 }
-                taskPluginCollector.collectDirtyRecord(record, e.getMessage());
+                else {
+                    longs.setLong(row, values[idx]);
+                }
+            }
+            return true;
+        }
+        if (target instanceof com.wgzhao.addax.common.element.DoubleColumnVector) {
+            com.wgzhao.addax.common.element.DoubleColumnVector doubles = (com.wgzhao.addax.common.element.DoubleColumnVector) target;
+            double[] values = ((DoubleColumnVector) source).vector;
+            if (selected == null && source.noNulls && !source.isRepeating) {
+                System.arraycopy(values, 0, doubles.getVector(), 0, size);
+                return true;
+            }
+            for (int row = 0; row < size; row++) {
+                int idx = source.isRepeating ? 0 : (selected == null ? row : selected[row]);
+                if (!source.noNulls && source.isNull[idx]) {
+                    doubles.setNull(row);
+                }
+                else {
+                    doubles.setDouble(row, values[idx]);
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private OrcColumnReader[] createOrcColumnReaders(List<ColumnEntry> columns, String nullFormat)
+    {
+        OrcColumnReader[] readers = new OrcColumnReader[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            ColumnEntry column = columns.get(i);
+            if (column.getValue() != null) {
+                String value = column.getValue();
+                readers[i] = "null".equals(value) ? (vector, row) -> null : (vector, row) -> new StringColumn(value);
+                continue;
+            }
+            Type type;
+            try {
+                type = Type.valueOf(column.getType().toUpperCase());
+            }
+            catch (IllegalArgumentException e) {
+                throw AddaxException.asAddaxException(StorageReaderErrorCode.NOT_SUPPORT_TYPE,
+                        String.format("您配置的列类型暂不支持 : [%s]", column.getType()));
+            }
+            OrcColumnReader reader;
+            switch (type) {
+                case INT:
+                case LONG:
+                case DATE:
+                case BOOLEAN:
+                    reader = (vector, row) -> new LongColumn(((LongColumnVector) vector).vector[row]);
+                    break;
+                case DOUBLE:
+                    reader = (vector, row) -> new DoubleColumn(((DoubleColumnVector) vector).vector[row]);
+                    break;
+                case DECIMAL:
+                    reader = (vector, row) -> new DoubleColumn(((DecimalColumnVector) vector).vector[row].doubleValue());
+                    break;
+                case BINARY:
+                    reader = (vector, row) -> {
+                        BytesColumnVector b = (BytesColumnVector) vector;
+                        return new BytesColumn(Arrays.copyOfRange(b.vector[row], b.start[row], b.start[row] + b.length[row]));
+                    };
+                    break;
+                case TIMESTAMP:
+                    reader = (vector, row) -> new DateColumn(((TimestampColumnVector) vector).getTime(row));
+                    break;
+                default:
+                    // type is string or other
+                    reader = (vector, row) -> {
+                        BytesColumnVector b = (BytesColumnVector) vector;
+                        String v = new String(b.vector[row], b.start[row], b.length[row], StandardCharsets.UTF_8);
+                        return v.equals(nullFormat) ? null : new StringColumn(v);
+                    };
+                    break;
             }
+            readers[i] = nullSafe(reader);
+        }
+        return readers;
+    }
+
+    /*
+     * 处理重复值和空值，被包装的 reader 只需要处理非空的值
+     */
+    private static OrcColumnReader nullSafe(OrcColumnReader reader)
+    {
+        return (vector, row) -> {
+            int idx = vector.isRepeating ? 0 : row;
+            if (!vector.noNulls && vector.isNull[idx]) {
+                return null;
+            }
+            return reader.read(vector, idx);
+        };
+    }
+
+    /*
+     * 未配置 column 时根据 orc 字段类型推断读取类型
+     */
+    private static String getOrcColumnType(TypeDescription type)
+    {
+        switch (type.getCategory()) {
+            case BOOLEAN:
+                return "boolean";
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return "long";
+            case FLOAT:
+            case DOUBLE:
+                return "double";
+            case DECIMAL:
+                return "decimal";
+            case DATE:
+                return "date";
+            case TIMESTAMP:
+                return "timestamp";
+            case BINARY:
+                return "binary";
+            default:
+                return "string";
         }
     }
 
@@ -463,15 +721,45 @@ public class DFSUtil
         // 判断是否读取所有列
 
         JobConf conf = new JobConf(hadoopConf);
+        String filter = readerSliceConfig.getString(Key.FILTER);
+        FilterCompat.Filter recordFilter = FilterCompat.NOOP;
+        if (!isReadAllColumns || StringUtils.isNotBlank(filter)) {
+            ParquetMetadata footer = readParquetFooter(parquetFilePath, conf);
+            PushdownFilter pushdownFilter = StringUtils.isNotBlank(filter) ? PushdownFilter.parse(filter) : null;
+            if (!isReadAllColumns) {
+                // 只请求用到的字段，列配置中的 index 相应地改为在裁剪后 schema 中的位置。
+                // 过滤条件中的字段也要读取，否则 parquet 会把它们当作 null 处理，过滤掉所有行
+                Schema projection = buildParquetProjection(getParquetAvroSchema(footer, conf), column,
+                        pushdownFilter == null ? Collections.emptySet() : pushdownFilter.getColumns());
+                if (projection != null) {
+                    AvroReadSupport.setRequestedProjection(conf, projection);
+                }
+            }
+            if (pushdownFilter != null) {
+                recordFilter = FilterCompat.get(pushdownFilter.toFilterPredicate(footer.getFileMetaData().getSchema()));
+            }
+        }
 
         GenericData decimalSupport = new GenericData();
         decimalSupport.addLogicalTypeConversion(new Conversions.DecimalConversion());
-        try (ParquetReader<GenericData.Record> reader = AvroParquetReader
+        ParquetReader.Builder<GenericData.Record> builder = AvroParquetReader
                 .<GenericData.Record>builder(parquetFilePath)
                 .withDataModel(decimalSupport)
                 .withConf(conf)
-                .build()) {
+                .withFilter(recordFilter);
+        Long splitStart = readerSliceConfig.getLong(SPLIT_START);
+        Long splitEnd = readerSliceConfig.getLong(SPLIT_END);
+        if (splitStart != null && splitEnd != null) {
+            // 只读取中点落在区间内的 row group
+            LOG.info("read row groups of [{}] in range [{}, {})", sourceParquestFilePath, splitStart, splitEnd);
+            builder.withFileRange(splitStart, splitEnd);
+        }
+        try (ParquetReader<GenericData.Record> reader = builder.build()) {
             GenericData.Record gRecord = reader.read();
+            if (gRecord == null) {
+                LOG.info("parquet 文件 [{}] 中没有需要读取的记录", sourceParquestFilePath);
+                return;
+            }
             Schema schema = gRecord.getSchema();
 
             if (null == column || column.isEmpty()) {
@@ -511,6 +799,102 @@ public class DFSUtil
         }
     }
 
+    /**
+     * 获取 orc 文件的 stripe 或 parquet 文件的 row group 所在的字节区间，用于按块切分文件
+     *
+     * @param filePath 文件路径
+     * @param fileType 文件类型，ORC 或 PARQUET
+     * @return 每个元素为 {起始偏移, 长度}，按偏移升序
+     */
+    public List<long[]> getFileBlocks(String filePath, String fileType)
+    {
+        Path path = new Path(filePath);
+        List<long[]> blocks = new ArrayList<>();
+        if (Constant.ORC.equalsIgnoreCase(fileType)) {
+            try (Reader reader = OrcFile.createReader(path, OrcFile.readerOptions(hadoopConf))) {
+                for (StripeInformation stripe : reader.getStripes()) {
+                    blocks.add(new long[] {stripe.getOffset(), stripe.getLength()});
+                }
+            }
+            catch (IOException e) {
+                throw AddaxException.asAddaxException(HdfsReaderErrorCode.READ_FILE_ERROR,
+                        String.format("读取orc文件[%s]的stripe信息失败", filePath), e);
+            }
+        }
+        else {
+            for (BlockMetaData block : readParquetFooter(path, hadoopConf).getBlocks()) {
+                blocks.add(new long[] {block.getStartingPos(), block.getCompressedSize()});
+            }
+        }
+        return blocks;
+    }
+
+    private ParquetMetadata readParquetFooter(Path path, org.apache.hadoop.conf.Configuration conf)
+    {
+        try (ParquetFileReader fileReader = ParquetFileReader.open(HadoopInputFile.fromPath(path, conf))) {
+            return fileReader.getFooter();
+        }
+        catch (IOException e) {
+            throw AddaxException.asAddaxException(HdfsReaderErrorCode.READ_FILE_ERROR,
+                    String.format("读取parquet文件[%s]的元数据失败", path), e);
+        }
+    }
+
+    private Schema getParquetAvroSchema(ParquetMetadata footer, org.apache.hadoop.conf.Configuration conf)
+    {
+        String avroSchema = footer.getFileMetaData().getKeyValueMetaData().get("parquet.avro.schema");
+        if (avroSchema != null) {
+            return new Schema.Parser().parse(avroSchema);
+        }
+        return new AvroSchemaConverter(conf).convert(footer.getFileMetaData().getSchema());
+    }
+
+    /*
+     * 按列配置中的 index 裁剪 schema，字段保持文件中的顺序，并把 index 改写为裁剪后的位置。
+     * extraFields 为只用于过滤、不输出的字段，保留在 schema 中，但不会出现在列配置里。
+     * 所有字段都会被读取或者 index 越界时返回 null，不做裁剪
+     */
+    static Schema buildParquetProjection(Schema fileSchema, List<ColumnEntry> columns, Set<String> extraFields)
+    {
+        List<Schema.Field> fields = fileSchema.getFields();
+        boolean[] used = new boolean[fields.size()];
+        for (ColumnEntry column : columns) {
+            Integer index = column.getIndex();
+            if (index == null) {
+                continue;
+            }
+            if (index < 0 || index >= fields.size()) {
+                return null;
+            }
+            used[index] = true;
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            if (extraFields.contains(fields.get(i).name())) {
+                used[i] = true;
+            }
+        }
+        int[] position = new int[fields.size()];
+        List<Schema.Field> projected = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            if (used[i]) {
+                Schema.Field f = fields.get(i);
+                position[i] = projected.size();
+                projected.add(new Schema.Field(f.name(), f.schema(), f.doc(), f.defaultVal()));
+            }
+        }
+        if (projected.size() == fields.size()) {
+            return null;
+        }
+        for (ColumnEntry column : columns) {
+            if (column.getIndex() != null) {
+                column.setIndex(position[column.getIndex()]);
+            }
+        }
+        Schema projection = Schema.createRecord(fileSchema.getName(), fileSchema.getDoc(), fileSchema.getNamespace(), false);
+        projection.setFields(projected);
+        return projection;
+    }
+
     /*
      * create a transport record for Parquet file
      *
@@ -644,8 +1028,7 @@ public class DFSUtil
     private TypeDescription getOrcSchema(String filePath)
     {
         Path path = new Path(filePath);
-        try {
-            Reader reader = OrcFile.createReader(path, OrcFile.readerOptions(hadoopConf));
+        try (Reader reader = OrcFile.createReader(path, OrcFile.readerOptions(hadoopConf))) {
 //            return reader.getTypes().get(0).getSubtypesCount()
             return reader.getSchema();
         }
@@ -856,6 +1239,11 @@ public class DFSUtil
         return false;
     }
 
+    private interface OrcColumnReader
+    {
+        Column read(ColumnVector vector, int row);
+    }
+
     private enum Type
     {
         INT, STRING, LONG, BOOLEAN, DOUBLE, DATE, BINARY, TIMESTAMP, DECIMAL,
@@ -25,18 +25,26 @@ import com.wgzhao.addax.common.spi.Reader;
 import com.wgzhao.addax.common.util.Configuration;
 import com.wgzhao.addax.plugin.storage.reader.StorageReaderUtil;
 import org.apache.commons.io.Charsets;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.wgzhao.addax.plugin.storage.reader.Key.COLUMN;
 import static com.wgzhao.addax.plugin.storage.reader.Key.ENCODING;
 import static com.wgzhao.addax.plugin.storage.reader.Key.INDEX;
+import static com.wgzhao.addax.plugin.storage.reader.Key.SPLIT_END;
+import static com.wgzhao.addax.plugin.storage.reader.Key.SPLIT_FILE;
+import static com.wgzhao.addax.plugin.storage.reader.Key.SPLIT_START;
 import static com.wgzhao.addax.plugin.storage.reader.Key.TYPE;
 import static com.wgzhao.addax.plugin.storage.reader.Key.VALUE;
 
@@ -140,6 +148,17 @@ public class HdfsReader
                 StorageReaderUtil.validateCompress(this.readerOriginConfig);
                 StorageReaderUtil.validateCsvReaderConfig(this.readerOriginConfig);
             }
+
+            String filter = this.readerOriginConfig.getString(Key.FILTER);
+            if (StringUtils.isNotBlank(filter)) {
+                if (this.specifiedFileType.equals(Constant.ORC) || this.specifiedFileType.equals(Constant.PARQUET)) {
+                    // 提前校验语法，字段名和类型在读取文件时再检查
+                    PushdownFilter.parse(filter);
+                }
+                else {
+                    LOG.warn("filter 仅对 orc 和 parquet 文件有效, 当前文件类型 [{}] 将忽略该配置", this.specifiedFileType);
+                }
+            }
         }
 
         private void validateColumns()
@@ -207,6 +226,27 @@ public class HdfsReader
                         String.format("未能找到待读取的文件,请确认您的配置项path: %s", this.readerOriginConfig.getString(Key.PATH)));
             }
 
+            // 文本文件可以按字节区间切分，单个大文件也能由多个 task 并行读取
+            if ((this.specifiedFileType.equals(Constant.TEXT) || this.specifiedFileType.equals(Constant.CSV))
+                    && StorageReaderUtil.isSplittable(this.readerOriginConfig)) {
+                Map<String, Long> fileLengths = new LinkedHashMap<>();
+                for (String file : this.sourceFiles) {
+                    fileLengths.put(file, dfsUtil.getFileLength(file));
+                }
+                readerSplitConfigs = StorageReaderUtil.splitByRange(this.readerOriginConfig, Constant.SOURCE_FILES,
+                        fileLengths, file -> true, adviceNumber);
+                LOG.info("split() ok and end, split number is [{}]", readerSplitConfigs.size());
+                return readerSplitConfigs;
+            }
+
+            // orc, parquet 文件按 stripe / row group 切分，多个 task 可以并行读取同一个大文件
+            if ((this.specifiedFileType.equals(Constant.ORC) || this.specifiedFileType.equals(Constant.PARQUET))
+                    && this.readerOriginConfig.getBool(SPLIT_FILE, false)) {
+                readerSplitConfigs = this.splitByBlocks(adviceNumber);
+                LOG.info("split() ok and end, split number is [{}]", readerSplitConfigs.size());
+                return readerSplitConfigs;
+            }
+
             List<List<String>> splitedSourceFiles = this.splitSourceFiles(new ArrayList<>(this.sourceFiles), splitNumber);
             for (List<String> files : splitedSourceFiles) {
                 Configuration splitedConfig = this.readerOriginConfig.clone();
@@ -217,6 +257,74 @@ public class HdfsReader
             return readerSplitConfigs;
         }
 
+        /*
+         * 读取各文件 footer 中的 stripe / row group 位置，分片的目标大小为 总大小/adviceNumber。
+         * 不超过目标大小的文件不切分，相邻的小文件依次合并到同一个分片中，直到分片达到目标大小；
+         * 更大的文件把相邻的块合并成字节区间，区间的起止位置总是与块对齐
+         */
+        private List<Configuration> splitByBlocks(int adviceNumber)
+        {
+            Map<String, List<long[]>> fileBlocks = new LinkedHashMap<>();
+            long totalLength = 0;
+            for (String file : this.sourceFiles) {
+                List<long[]> blocks = dfsUtil.getFileBlocks(file, this.specifiedFileType);
+                for (long[] block : blocks) {
+                    totalLength += block[1];
+                }
+                fileBlocks.put(file, blocks);
+            }
+            long splitSize = Math.max(1L, (totalLength + adviceNumber - 1) / Math.max(adviceNumber, 1));
+
+            List<Configuration> readerSplitConfigs = new ArrayList<>();
+            List<String> packedFiles = new ArrayList<>();
+            long packedSize = 0;
+            for (Map.Entry<String, List<long[]>> entry : fileBlocks.entrySet()) {
+                String file = entry.getKey();
+                List<long[]> blocks = entry.getValue();
+                long fileSize = 0;
+                for (long[] block : blocks) {
+                    fileSize += block[1];
+                }
+                if (blocks.size() <= 1 || fileSize <= splitSize) {
+                    packedFiles.add(file);
+                    packedSize += fileSize;
+                    if (packedSize >= splitSize) {
+                        readerSplitConfigs.add(this.filesSplitConfig(packedFiles));
+                        packedFiles = new ArrayList<>();
+                        packedSize = 0;
+                    }
+                    continue;
+                }
+                int before = readerSplitConfigs.size();
+                long start = blocks.get(0)[0];
+                long size = 0;
+                for (int i = 0; i < blocks.size(); i++) {
+                    long[] block = blocks.get(i);
+                    size += block[1];
+                    if (size >= splitSize || i == blocks.size() - 1) {
+                        Configuration splitedConfig = this.filesSplitConfig(Collections.singletonList(file));
+                        splitedConfig.set(SPLIT_START, start);
+                        splitedConfig.set(SPLIT_END, block[0] + block[1]);
+                        readerSplitConfigs.add(splitedConfig);
+                        start = block[0] + block[1];
+                        size = 0;
+                    }
+                }
+                LOG.info("文件 [{}] 共 {} 个块, 切分为 {} 个分片", file, blocks.size(), readerSplitConfigs.size() - before);
+            }
+            if (!packedFiles.isEmpty()) {
+                readerSplitConfigs.add(this.filesSplitConfig(packedFiles));
+            }
+            return readerSplitConfigs;
+        }
+
+        private Configuration filesSplitConfig(List<String> files)
+        {
+            Configuration splitedConfig = this.readerOriginConfig.clone();
+            splitedConfig.set(Constant.SOURCE_FILES, files);
+            return splitedConfig;
+        }
+
         private <T> List<List<T>> splitSourceFiles(List<T> sourceList, int adviceNumber)
         {
             List<List<T>> splitedList = new ArrayList<>();
@@ -284,6 +392,13 @@ public class HdfsReader
                         || specifiedFileType.equalsIgnoreCase(Constant.CSV)) {
 
                     InputStream inputStream = dfsUtil.getInputStream(sourceFile);
+                    try {
+                        inputStream = StorageReaderUtil.rangeInputStream(inputStream, this.taskConfig);
+                    }
+                    catch (IOException e) {
+                        throw AddaxException.asAddaxException(HdfsReaderErrorCode.READ_FILE_ERROR,
+                                String.format("定位文件 : [%s] 的读取区间时出错", sourceFile), e);
+                    }
                     StorageReaderUtil.readFromStream(inputStream, sourceFile, this.taskConfig,
                             recordSender, this.getTaskPluginCollector());
                 }
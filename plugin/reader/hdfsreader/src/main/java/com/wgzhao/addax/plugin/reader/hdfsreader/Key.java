@@ -32,6 +32,10 @@ public final class Key
     public static final String HAVE_KERBEROS = "haveKerberos";
     public static final String KERBEROS_KEYTAB_FILE_PATH = "kerberosKeytabFilePath";
     public static final String KERBEROS_PRINCIPAL = "kerberosPrincipal";
+    // 读取 orc/parquet 文件时下推的过滤条件
+    public static final String FILTER = "filter";
+    // 读取 orc 文件时每个批次的行数
+    public static final String BATCH_SIZE = "batchSize";
 
     private Key() {}
 }
@@ -0,0 +1,533 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.reader.hdfsreader;
+
+import com.wgzhao.addax.common.exception.AddaxException;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DecimalColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.io.sarg.PredicateLeaf;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgumentFactory;
+import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
+import org.apache.orc.TypeDescription;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 读取 ORC/Parquet 文件时下推的过滤条件
+ * <p>
+ * 支持若干个用 and 连接的简单比较，例如：
+ * <pre>
+ *  id &gt;= 100 and status = 'done' and remark is not null
+ * </pre>
+ * 比较符支持 =, !=, &lt;&gt;, &lt;, &lt;=, &gt;, &gt;=, is null, is not null，字符串常量用单引号括起来。
+ * 条件会转换成 ORC 的 SearchArgument 或者 Parquet 的 FilterPredicate，
+ * 由文件格式根据 stripe / row group 的统计信息跳过不可能满足条件的数据块。
+ * 两种格式都会再逐行判断，只输出满足条件的行；与 SQL 一致，值为 null 的行不满足任何比较，包括 !=。
+ */
+public class PushdownFilter
+{
+    private static final Pattern COMPARE_PATTERN = Pattern.compile(
+            "^\\s*([A-Za-z_][\\w]*)\\s*(>=|<=|!=|<>|=|>|<)\\s*(.+?)\\s*$");
+    private static final Pattern NULL_PATTERN = Pattern.compile(
+            "^\\s*([A-Za-z_][\\w]*)\\s+is\\s+(not\\s+)?null\\s*$", Pattern.CASE_INSENSITIVE);
+
+    private final List<Condition> conditions;
+
+    private PushdownFilter(List<Condition> conditions)
+    {
+        this.conditions = conditions;
+    }
+
+    public static PushdownFilter parse(String expression)
+    {
+        List<Condition> conditions = new ArrayList<>();
+        for (String term : splitByAnd(expression)) {
+            Matcher m = NULL_PATTERN.matcher(term);
+            if (m.matches()) {
+                conditions.add(new Condition(m.group(1), m.group(2) == null ? Op.IS_NULL : Op.IS_NOT_NULL, null));
+                continue;
+            }
+            m = COMPARE_PATTERN.matcher(term);
+            if (!m.matches()) {
+                throw AddaxException.asAddaxException(HdfsReaderErrorCode.CONFIG_INVALID_EXCEPTION,
+                        String.format("无法解析过滤条件 [%s], 仅支持用 and 连接的 列名 比较符 常量 形式", term));
+            }
+            conditions.add(new Condition(m.group(1), Op.of(m.group(2)), unquote(m.group(3))));
+        }
+        return new PushdownFilter(conditions);
+    }
+
+    /**
+     * 过滤条件中用到的字段名，读取时需要包含这些字段
+     *
+     * @return 字段名，按出现的顺序去重
+     */
+    public Set<String> getColumns()
+    {
+        Set<String> columns = new LinkedHashSet<>();
+        for (Condition condition : conditions) {
+            columns.add(condition.column);
+        }
+        return columns;
+    }
+
+    /*
+     * 按 and 切分，忽略单引号内的内容
+     */
+    private static List<String> splitByAnd(String expression)
+    {
+        List<String> terms = new ArrayList<>();
+        String lower = expression.toLowerCase();
+        boolean quoted = false;
+        int start = 0;
+        for (int i = 0; i < expression.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            else if (!quoted && Character.isWhitespace(c) && lower.startsWith("and", i + 1)
+                    && i + 4 < expression.length() && Character.isWhitespace(expression.charAt(i + 4))) {
+                terms.add(expression.substring(start, i));
+                start = i + 4;
+                i += 3;
+            }
+        }
+        terms.add(expression.substring(start));
+        return terms;
+    }
+
+    private static String unquote(String literal)
+    {
+        if (literal.length() >= 2 && literal.startsWith("'") && literal.endsWith("'")) {
+            return literal.substring(1, literal.length() - 1).replace("''", "'");
+        }
+        return literal;
+    }
+
+    public SearchArgument toSearchArgument(TypeDescription schema)
+    {
+        SearchArgument.Builder builder = SearchArgumentFactory.newBuilder().startAnd();
+        for (Condition condition : conditions) {
+            int idx = schema.getFieldNames().indexOf(condition.column);
+            if (idx < 0) {
+                throw unknownColumn(condition.column);
+            }
+            TypeDescription type = schema.getChildren().get(idx);
+            PredicateLeaf.Type leafType = orcLeafType(type);
+            Object literal = condition.literal == null ? null : orcLiteral(type, condition.literal);
+            String col = condition.column;
+            switch (condition.op) {
+                case EQ:
+                    builder.equals(col, leafType, literal);
+                    break;
+                case NE:
+                    builder.startNot().equals(col, leafType, literal).end();
+                    break;
+                case LT:
+                    builder.lessThan(col, leafType, literal);
+                    break;
+                case LE:
+                    builder.lessThanEquals(col, leafType, literal);
+                    break;
+                case GT:
+                    builder.startNot().lessThanEquals(col, leafType, literal).end();
+                    break;
+                case GE:
+                    builder.startNot().lessThan(col, leafType, literal).end();
+                    break;
+                case IS_NULL:
+                    builder.isNull(col, leafType);
+                    break;
+                default:
+                    builder.startNot().isNull(col, leafType).end();
+                    break;
+            }
+        }
+        return builder.end().build();
+    }
+
+    private static PredicateLeaf.Type orcLeafType(TypeDescription type)
+    {
+        switch (type.getCategory()) {
+            case BOOLEAN:
+                return PredicateLeaf.Type.BOOLEAN;
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return PredicateLeaf.Type.LONG;
+            case FLOAT:
+            case DOUBLE:
+                return PredicateLeaf.Type.FLOAT;
+            case STRING:
+            case CHAR:
+            case VARCHAR:
+                return PredicateLeaf.Type.STRING;
+            case DATE:
+                return PredicateLeaf.Type.DATE;
+            case TIMESTAMP:
+                return PredicateLeaf.Type.TIMESTAMP;
+            case DECIMAL:
+                return PredicateLeaf.Type.DECIMAL;
+            default:
+                throw AddaxException.asAddaxException(HdfsReaderErrorCode.CONFIG_INVALID_EXCEPTION,
+                        String.format("过滤条件不支持 [%s] 类型的字段", type));
+        }
+    }
+
+    private static Object orcLiteral(TypeDescription type, String literal)
+    {
+        switch (orcLeafType(type)) {
+            case BOOLEAN:
+                return Boolean.valueOf(literal);
+            case LONG:
+                return Long.valueOf(literal);
+            case FLOAT:
+                return Double.valueOf(literal);
+            case DATE:
+                return java.sql.Date.valueOf(literal);
+            case TIMESTAMP:
+                return Timestamp.valueOf(literal);
+            case DECIMAL:
+                return new HiveDecimalWritable(literal);
+            default:
+                return literal;
+        }
+    }
+
+    /**
+     * 生成逐行判断的 ORC 过滤器。SearchArgument 只能跳过 stripe 和 row group，
+     * 块内不满足条件的行仍然会被读出，需要再逐行判断一次
+     *
+     * @param schema ORC 文件的 schema
+     * @return 按行过滤的过滤器
+     */
+    public OrcRowFilter toOrcRowFilter(TypeDescription schema)
+    {
+        int[] fields = new int[conditions.size()];
+        OrcComparator[] comparators = new OrcComparator[conditions.size()];
+        for (int i = 0; i < conditions.size(); i++) {
+            Condition condition = conditions.get(i);
+            int idx = schema.getFieldNames().indexOf(condition.column);
+            if (idx < 0) {
+                throw unknownColumn(condition.column);
+            }
+            fields[i] = idx;
+            if (condition.literal != null) {
+                comparators[i] = orcComparator(schema.getChildren().get(idx), condition.literal);
+            }
+        }
+        return new OrcRowFilter(conditions.toArray(new Condition[0]), fields, comparators);
+    }
+
+    /*
+     * 比较 ORC 向量中某一行（非 null）的值与常量，返回值的含义与 Comparable.compareTo 相同
+     */
+    private static OrcComparator orcComparator(TypeDescription type, String literal)
+    {
+        Object value = orcLiteral(type, literal);
+        switch (type.getCategory()) {
+            case BOOLEAN: {
+                long expected = (Boolean) value ? 1L : 0L;
+                return (vector, row) -> Long.compare(((LongColumnVector) vector).vector[row], expected);
+            }
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG: {
+                long expected = (Long) value;
+                return (vector, row) -> Long.compare(((LongColumnVector) vector).vector[row], expected);
+            }
+            case FLOAT:
+            case DOUBLE: {
+                double expected = (Double) value;
+                return (vector, row) -> Double.compare(((DoubleColumnVector) vector).vector[row], expected);
+            }
+            case DATE: {
+                // DATE 列中保存的是距 1970-01-01 的天数
+                long expected = LocalDate.parse(literal).toEpochDay();
+                return (vector, row) -> Long.compare(((LongColumnVector) vector).vector[row], expected);
+            }
+            case TIMESTAMP: {
+                Timestamp expected = (Timestamp) value;
+                return (vector, row) -> ((TimestampColumnVector) vector).asScratchTimestamp(row).compareTo(expected);
+            }
+            case DECIMAL: {
+                HiveDecimalWritable expected = (HiveDecimalWritable) value;
+                return (vector, row) -> ((DecimalColumnVector) vector).vector[row].compareTo(expected);
+            }
+            default: {
+                // 字符串按 UTF-8 字节无符号比较，与 ORC 统计信息的顺序一致，也不需要为每一行创建 String
+                byte[] expected = literal.getBytes(StandardCharsets.UTF_8);
+                return (vector, row) -> {
+                    BytesColumnVector bytes = (BytesColumnVector) vector;
+                    return compareBytes(bytes.vector[row], bytes.start[row], bytes.length[row], expected);
+                };
+            }
+        }
+    }
+
+    private static int compareBytes(byte[] value, int start, int length, byte[] expected)
+    {
+        int len = Math.min(length, expected.length);
+        for (int i = 0; i < len; i++) {
+            int cmp = (value[start + i] & 0xff) - (expected[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - expected.length;
+    }
+
+    public FilterPredicate toFilterPredicate(MessageType schema)
+    {
+        FilterPredicate predicate = null;
+        for (Condition condition : conditions) {
+            if (!schema.containsField(condition.column)) {
+                throw unknownColumn(condition.column);
+            }
+            FilterPredicate leaf = parquetLeaf(schema.getType(condition.column).asPrimitiveType(), condition);
+            predicate = predicate == null ? leaf : FilterApi.and(predicate, leaf);
+        }
+        return predicate;
+    }
+
+    private static FilterPredicate parquetLeaf(PrimitiveType type, Condition condition)
+    {
+        String name = condition.column;
+        String literal = condition.literal;
+        OriginalType originalType = type.getOriginalType();
+        switch (type.getPrimitiveTypeName()) {
+            case INT32:
+                Integer intValue = null;
+                if (literal != null) {
+                    intValue = originalType == OriginalType.DATE && literal.contains("-")
+                            ? (int) LocalDate.parse(literal).toEpochDay() : Integer.valueOf(literal);
+                }
+                return compare(FilterApi.intColumn(name), condition.op, intValue);
+            case INT64:
+                Long longValue = null;
+                if (literal != null) {
+                    longValue = originalType == OriginalType.TIMESTAMP_MILLIS && literal.contains("-")
+                            ? Timestamp.valueOf(literal).getTime() : Long.valueOf(literal);
+                }
+                return compare(FilterApi.longColumn(name), condition.op, longValue);
+            case FLOAT:
+                return compare(FilterApi.floatColumn(name), condition.op, literal == null ? null : Float.valueOf(literal));
+            case DOUBLE:
+                return compare(FilterApi.doubleColumn(name), condition.op, literal == null ? null : Double.valueOf(literal));
+            case BINARY:
+                return compare(FilterApi.binaryColumn(name), condition.op, literal == null ? null : Binary.fromString(literal));
+            case BOOLEAN:
+                Operators.BooleanColumn boolColumn = FilterApi.booleanColumn(name);
+                Boolean boolValue = literal == null ? null : Boolean.valueOf(literal);
+                if (condition.op == Op.EQ || condition.op == Op.IS_NULL) {
+                    return FilterApi.eq(boolColumn, boolValue);
+                }
+                if (condition.op == Op.NE) {
+                    return FilterApi.and(FilterApi.notEq(boolColumn, boolValue), FilterApi.notEq(boolColumn, null));
+                }
+                if (condition.op == Op.IS_NOT_NULL) {
+                    return FilterApi.notEq(boolColumn, null);
+                }
+                // fall through
+            default:
+                throw AddaxException.asAddaxException(HdfsReaderErrorCode.CONFIG_INVALID_EXCEPTION,
+                        String.format("过滤条件 [%s %s] 不支持 [%s] 类型的字段", name, condition.op, type));
+        }
+    }
+
+    private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt> FilterPredicate compare(
+            C column, Op op, T value)
+    {
+        switch (op) {
+            case EQ:
+            case IS_NULL:
+                return FilterApi.eq(column, value);
+            case NE:
+                // Parquet 的 notEq 会保留 null，按 SQL 的语义需要再排除 null
+                return FilterApi.and(FilterApi.notEq(column, value), FilterApi.notEq(column, null));
+            case IS_NOT_NULL:
+                return FilterApi.notEq(column, value);
+            case LT:
+                return FilterApi.lt(column, value);
+            case LE:
+                return FilterApi.ltEq(column, value);
+            case GT:
+                return FilterApi.gt(column, value);
+            default:
+                return FilterApi.gtEq(column, value);
+        }
+    }
+
+    private static AddaxException unknownColumn(String column)
+    {
+        return AddaxException.asAddaxException(HdfsReaderErrorCode.CONFIG_INVALID_EXCEPTION,
+                String.format("过滤条件中的字段 [%s] 在文件中不存在", column));
+    }
+
+    /**
+     * 对 ORC 的 VectorizedRowBatch 逐行计算过滤条件
+     */
+    public static class OrcRowFilter
+    {
+        private final Condition[] conditions;
+        private final int[] fields;
+        private final OrcComparator[] comparators;
+
+        private OrcRowFilter(Condition[] conditions, int[] fields, OrcComparator[] comparators)
+        {
+            this.conditions = conditions;
+            this.fields = fields;
+            this.comparators = comparators;
+        }
+
+        /**
+         * 计算批次中满足条件的行
+         *
+         * @param batch ORC 读出的批次，过滤条件用到的字段必须已经读取
+         * @return 满足条件的行号，按升序排列；所有行都满足条件时返回 null
+         */
+        public int[] select(VectorizedRowBatch batch)
+        {
+            int[] selected = null;
+            int count = 0;
+            for (int row = 0; row < batch.size; row++) {
+                boolean matched = matches(batch, row);
+                if (selected == null) {
+                    if (matched) {
+                        continue;
+                    }
+                    selected = new int[batch.size];
+                    for (int i = 0; i < row; i++) {
+                        selected[i] = i;
+                    }
+                    count = row;
+                }
+                else if (matched) {
+                    selected[count++] = row;
+                }
+            }
+            return selected == null ? null : Arrays.copyOf(selected, count);
+        }
+
+        private boolean matches(VectorizedRowBatch batch, int row)
+        {
+            for (int i = 0; i < conditions.length; i++) {
+                ColumnVector vector = batch.cols[fields[i]];
+                int idx = vector.isRepeating ? 0 : row;
+                boolean isNull = !vector.noNulls && vector.isNull[idx];
+                Op op = conditions[i].op;
+                if (op == Op.IS_NULL || op == Op.IS_NOT_NULL) {
+                    if (isNull != (op == Op.IS_NULL)) {
+                        return false;
+                    }
+                }
+                else if (isNull || !op.test(comparators[i].compare(vector, idx))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private interface OrcComparator
+    {
+        int compare(ColumnVector vector, int row);
+    }
+
+    private enum Op
+    {
+        EQ, NE, LT, LE, GT, GE, IS_NULL, IS_NOT_NULL;
+
+        boolean test(int cmp)
+        {
+            switch (this) {
+                case EQ:
+                    return cmp == 0;
+                case NE:
+                    return cmp != 0;
+                case LT:
+                    return cmp < 0;
+                case LE:
+                    return cmp <= 0;
+                case GT:
+                    return cmp > 0;
+                default:
+                    return cmp >= 0;
+            }
+        }
+
+        static Op of(String symbol)
+        {
+            switch (symbol) {
+                case "=":
+                    return EQ;
+                case "!=":
+                case "<>":
+                    return NE;
+                case "<":
+                    return LT;
+                case "<=":
+                    return LE;
+                case ">":
+                    return GT;
+                default:
+                    return GE;
+            }
+        }
+    }
+
+    private static class Condition
+    {
+        private final String column;
+        private final Op op;
+        private final String literal;
+
+        Condition(String column, Op op, String literal)
+        {
+            this.column = column;
+            this.op = op;
+            this.literal = literal;
+        }
+    }
+}
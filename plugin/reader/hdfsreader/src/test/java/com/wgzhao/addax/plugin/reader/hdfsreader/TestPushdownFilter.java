@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package com.wgzhao.addax.plugin.reader.hdfsreader;
+
+import com.wgzhao.addax.plugin.storage.reader.ColumnEntry;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.orc.TypeDescription;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPushdownFilter
+{
+    private static final TypeDescription ORC_SCHEMA = TypeDescription.fromString("struct<id:bigint,dt:string>");
+
+    /*
+     * 依次写入 id 与 dt，dt 为 null 时表示该行为 null
+     */
+    private static VectorizedRowBatch orcBatch(String... dates)
+    {
+        VectorizedRowBatch batch = ORC_SCHEMA.createRowBatch();
+        LongColumnVector ids = (LongColumnVector) batch.cols[0];
+        BytesColumnVector dts = (BytesColumnVector) batch.cols[1];
+        for (int row = 0; row < dates.length; row++) {
+            ids.vector[row] = row;
+            if (dates[row] == null) {
+                dts.noNulls = false;
+                dts.isNull[row] = true;
+            }
+            else {
+                dts.setVal(row, dates[row].getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        batch.size = dates.length;
+        return batch;
+    }
+
+    private static List<ColumnEntry> columns(int... indexes)
+    {
+        List<ColumnEntry> columns = new ArrayList<>();
+        for (int index : indexes) {
+            ColumnEntry column = new ColumnEntry();
+            column.setIndex(index);
+            column.setType("string");
+            columns.add(column);
+        }
+        return columns;
+    }
+
+    @Test
+    public void testParquetProjectionKeepsFilterColumns()
+    {
+        Schema fileSchema = SchemaBuilder.record("t").fields()
+                .requiredLong("id").requiredString("name").requiredString("dt").requiredString("remark")
+                .endRecord();
+        List<ColumnEntry> columns = columns(0, 1);
+        Schema projection = DFSUtil.buildParquetProjection(fileSchema, columns,
+                PushdownFilter.parse("dt = '2024-01-01'").getColumns());
+        // 过滤字段 dt 没有出现在列配置中，也要保留在裁剪后的 schema 里
+        assertEquals(3, projection.getFields().size());
+        assertEquals("dt", projection.getFields().get(2).name());
+        assertEquals(0, columns.get(0).getIndex());
+        assertEquals(1, columns.get(1).getIndex());
+    }
+
+    @Test
+    public void testParquetProjectionWithoutFilter()
+    {
+        Schema fileSchema = SchemaBuilder.record("t").fields()
+                .requiredLong("id").requiredString("name").requiredString("dt")
+                .endRecord();
+        List<ColumnEntry> columns = columns(2);
+        Schema projection = DFSUtil.buildParquetProjection(fileSchema, columns, Collections.emptySet());
+        assertEquals(1, projection.getFields().size());
+        assertEquals(0, columns.get(0).getIndex());
+    }
+
+    @Test
+    public void testParquetNotEqualExcludesNull()
+    {
+        MessageType schema = MessageTypeParser.parseMessageType("message t { optional binary dt (UTF8); }");
+        FilterPredicate predicate = PushdownFilter.parse("dt != '2024-01-01'").toFilterPredicate(schema);
+        assertTrue(predicate instanceof Operators.And);
+        assertTrue(predicate.toString().contains("noteq(dt, null)"));
+    }
+
+    @Test
+    public void testOrcRowFilterOnUnreadColumn()
+    {
+        PushdownFilter filter = PushdownFilter.parse("dt = '2024-01-01'");
+        VectorizedRowBatch batch = orcBatch("2024-01-01", "2024-01-02", null, "2024-01-01");
+        assertArrayEquals(new int[] {0, 3}, filter.toOrcRowFilter(ORC_SCHEMA).select(batch));
+    }
+
+    @Test
+    public void testOrcNotEqualExcludesNull()
+    {
+        PushdownFilter filter = PushdownFilter.parse("dt <> '2024-01-01'");
+        VectorizedRowBatch batch = orcBatch("2024-01-01", "2024-01-02", null);
+        assertArrayEquals(new int[] {1}, filter.toOrcRowFilter(ORC_SCHEMA).select(batch));
+    }
+
+    @Test
+    public void testOrcNullConditions()
+    {
+        VectorizedRowBatch batch = orcBatch("2024-01-01", null, "2024-01-03");
+        assertArrayEquals(new int[] {1}, PushdownFilter.parse("dt is null").toOrcRowFilter(ORC_SCHEMA).select(batch));
+        assertArrayEquals(new int[] {0, 2},
+                PushdownFilter.parse("dt is not null and id >= 0").toOrcRowFilter(ORC_SCHEMA).select(batch));
+    }
+
+    @Test
+    public void testOrcAllRowsMatched()
+    {
+        VectorizedRowBatch batch = orcBatch("2024-01-01", "2024-01-02");
+        assertNull(PushdownFilter.parse("dt >= '2024-01-01' and id < 2").toOrcRowFilter(ORC_SCHEMA).select(batch));
+        assertArrayEquals(new int[0], PushdownFilter.parse("dt > '2024-01-02'").toOrcRowFilter(ORC_SCHEMA).select(batch));
+    }
+}
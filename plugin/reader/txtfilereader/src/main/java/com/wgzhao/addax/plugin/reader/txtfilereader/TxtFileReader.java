@@ -34,6 +34,9 @@ import com.wgzhao.addax.common.plugin.RecordSender;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
 import com.wgzhao.addax.common.spi.Reader;
 import com.wgzhao.addax.common.util.Configuration;
+import com.wgzhao.addax.plugin.storage.reader.CsvParser;
+import com.wgzhao.addax.plugin.storage.reader.CsvRecordConverter;
+import com.wgzhao.addax.plugin.storage.reader.StorageReaderUtil;
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.compress.compressors.CompressorException;
 import org.apache.commons.compress.compressors.CompressorInputStream;
@@ -62,6 +65,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -241,6 +245,18 @@ public class TxtFileReader
                                         this.originConfig.getString(Key.PATH)));
             }
 
+            // 未压缩的文件可以按字节区间切分，单个大文件也能由多个 task 并行读取
+            if (StorageReaderUtil.isSplittable(this.originConfig)) {
+                Map<String, Long> fileLengths = new LinkedHashMap<>();
+                for (String file : this.sourceFiles) {
+                    fileLengths.put(file, new File(file).length());
+                }
+                readerSplitConfigs = StorageReaderUtil.splitByRange(this.originConfig, Constant.SOURCE_FILES,
+                        fileLengths, this::isUncompressed, adviceNumber);
+                LOG.debug("split() ok and end...");
+                return readerSplitConfigs;
+            }
+
             List<List<String>> splitedSourceFiles = this.splitSourceFiles(
                     this.sourceFiles, splitNumber);
             for (List<String> files : splitedSourceFiles) {
@@ -252,6 +268,16 @@ public class TxtFileReader
             return readerSplitConfigs;
         }
 
+        private boolean isUncompressed(String file)
+        {
+            try {
+                return FileHelper.getCompressType(file) == null;
+            }
+            catch (IOException e) {
+                return false;
+            }
+        }
+
         // validate the path, path must be a absolute path
         private List<String> buildSourceTargets()
         {
@@ -403,6 +429,7 @@ public class TxtFileReader
         private Character fieldDelimiter;
         private boolean skipHeader;
         private String nullFormat;
+        private CsvRecordConverter converter;
 
         @Override
         public void init()
@@ -430,6 +457,9 @@ public class TxtFileReader
             this.skipHeader = readerSliceConfig.getBool(Key.SKIP_HEADER, Constant.DEFAULT_SKIP_HEADER);
             // warn: no default value '\N'
             this.nullFormat = readerSliceConfig.getString(Key.NULL_FORMAT, Constant.DEFAULT_NULL_FORMAT);
+            // 列的转换方式只解析一次，供基于字符数组的解析器使用
+            this.converter = new CsvRecordConverter(
+                    null == column ? null : StorageReaderUtil.getListColumnEntry(readerSliceConfig, Key.COLUMN), nullFormat);
         }
 
         @Override
@@ -475,11 +505,12 @@ public class TxtFileReader
                         }
                         else {
                             BufferedInputStream bis = new BufferedInputStream(inputStream);
-                            CompressorInputStream input = new CompressorStreamFactory().createCompressorInputStream(bis);
+                            CompressorInputStream input = new CompressorStreamFactory(true).createCompressorInputStream(bis);
                             reader = new BufferedReader(new InputStreamReader(input, encoding), bufferSize);
                         }
                     }
                     else {
+                        inputStream = StorageReaderUtil.rangeInputStream(inputStream, readerSliceConfig);
                         reader = new BufferedReader(new InputStreamReader(inputStream, encoding), bufferSize);
                     }
                     doReadFromStream(reader, fileName, readerSliceConfig, recordSender, getTaskPluginCollector());
@@ -509,6 +540,15 @@ public class TxtFileReader
                     LOG.info("Header line {} has been skiped.",
                             fetchLine);
                 }
+                Map<String, Object> csvReaderConfigMap = readerSliceConfig.getMap(Key.CSV_READER_CONFIG);
+                if (null == csvReaderConfigMap || csvReaderConfigMap.isEmpty()) {
+                    // 没有自定义 csvReaderConfig 时使用基于字符数组的解析器
+                    CsvParser csvParser = new CsvParser(reader, fieldDelimiter);
+                    while (csvParser.next()) {
+                        converter.transport(recordSender, csvParser, taskPluginCollector);
+                    }
+                    return;
+                }
                 csvReader = new CsvReader(reader);
                 csvReader.setDelimiter(fieldDelimiter);
 
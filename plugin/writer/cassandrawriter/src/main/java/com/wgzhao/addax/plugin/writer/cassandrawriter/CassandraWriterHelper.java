@@ -260,7 +260,7 @@ public class CassandraWriterHelper
     public static void setupColumn(BoundStatement ps, int pos, DataType sqlType, Column col)
             throws Exception
     {
-        if (col.getRawData() != null) {
+        if (!col.isNull()) {
             switch (sqlType.getName()) {
                 case ASCII:
                 case TEXT:
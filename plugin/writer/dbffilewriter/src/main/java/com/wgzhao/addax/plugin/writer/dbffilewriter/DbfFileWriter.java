@@ -400,7 +400,7 @@ public class DbfFileWriter
                     Column column;
                     for (int i = 0; i < columns.size(); i++) {
                         column = record.getColumn(i);
-                        if (null != column.getRawData()) {
+                        if (!column.isNull()) {
                             String colData = column.getRawData().toString();
                             switch (columns.get(i).getString(Key.TYPE)) {
                                 case "numeric":
@@ -107,7 +107,7 @@ public class DorisWriterTask
             }
             StringBuilder oneRow = new StringBuilder();
             for (int i = 0; i < len; i++) {
-                if (record.getColumn(i).getRawData() != null) {
+                if (!record.getColumn(i).isNull()) {
                     oneRow.append(record.getColumn(i).asString());
                 }
                 if (i < len - 1) {
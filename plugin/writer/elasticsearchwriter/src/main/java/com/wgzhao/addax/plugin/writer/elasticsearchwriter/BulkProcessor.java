@@ -0,0 +1,494 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.writer.elasticsearchwriter;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.plugin.TaskPluginCollector;
+import io.searchbox.client.JestResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 并发发送 bulk 请求
+ * <p>
+ * 记录直接序列化为 NDJSON 写入可复用的 {@link BulkBuffer}，填满后提交给后台线程发送，
+ * 同时最多有 concurrency 个请求在执行，超过时写线程等待最早提交的请求完成，以此形成反压。
+ * 请求部分失败时只重新提交失败的条目：解析错误（400）作为脏数据，其余错误（429、5xx等）按 trySize 重试。
+ * 脏数据和写入计数都在写线程中处理。
+ */
+public class BulkProcessor
+{
+    private static final Logger LOG = LoggerFactory.getLogger(BulkProcessor.class);
+    private static final long MAX_BACKOFF_MILLIS = 60000L;
+
+    private final ESClient esClient;
+    private final String index;
+    private final String type;
+    private final int concurrency;
+    private final int trySize;
+    private final boolean ignoreParseError;
+    private final boolean ignoreWriteError;
+    private final TaskPluginCollector collector;
+    private final ExecutorService executor;
+    private final Deque<Future<BulkOutcome>> pending = new ArrayDeque<>();
+    private final Deque<BulkBuffer> freeBuffers = new ArrayDeque<>();
+
+    private long total = 0;
+
+    public BulkProcessor(ESClient esClient, String index, String type, int concurrency, int trySize,
+            boolean ignoreParseError, boolean ignoreWriteError, TaskPluginCollector collector)
+    {
+        this.esClient = esClient;
+        this.index = index;
+        this.type = type;
+        this.concurrency = concurrency;
+        this.trySize = trySize;
+        this.ignoreParseError = ignoreParseError;
+        this.ignoreWriteError = ignoreWriteError;
+        this.collector = collector;
+        AtomicInteger threadIndex = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "es-bulk-" + threadIndex.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 获取一个空闲的缓冲区，在途请求已满时等待最早的请求完成
+     *
+     * @return 空的缓冲区
+     */
+    public BulkBuffer acquire()
+    {
+        while (pending.size() >= concurrency) {
+            complete(pending.pollFirst());
+        }
+        BulkBuffer buffer = freeBuffers.pollFirst();
+        return buffer == null ? new BulkBuffer() : buffer;
+    }
+
+    public void submit(BulkBuffer buffer)
+    {
+        if (buffer.size() == 0) {
+            freeBuffers.addLast(buffer);
+            return;
+        }
+        pending.addLast(executor.submit(() -> send(buffer)));
+    }
+
+    /**
+     * 等待所有请求完成
+     *
+     * @return 成功写入的条数
+     */
+    public long flush()
+    {
+        while (!pending.isEmpty()) {
+            complete(pending.pollFirst());
+        }
+        return total;
+    }
+
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+
+    private void complete(Future<BulkOutcome> future)
+    {
+        BulkOutcome outcome;
+        try {
+            outcome = future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw AddaxException.asAddaxException(ESWriterErrorCode.ES_INDEX_INSERT, e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AddaxException) {
+                throw (AddaxException) cause;
+            }
+            throw AddaxException.asAddaxException(ESWriterErrorCode.ES_INDEX_INSERT, cause);
+        }
+        for (int i = 0; i < outcome.dirtyRecords.size(); i++) {
+            collector.collectDirtyRecord(outcome.dirtyRecords.get(i), outcome.dirtyMessages.get(i));
+        }
+        total += outcome.success;
+        outcome.buffer.reset();
+        freeBuffers.addLast(outcome.buffer);
+    }
+
+    /*
+     * 在后台线程中执行，发送 buffer 中的所有条目，失败的条目组成新的请求体重试
+     */
+    private BulkOutcome send(BulkBuffer buffer)
+            throws InterruptedException
+    {
+        BulkOutcome outcome = new BulkOutcome(buffer);
+        BulkBuffer current = buffer;
+        int attempt = 0;
+        while (true) {
+            List<Integer> retries = new ArrayList<>();
+            String error = null;
+            JestResult result = null;
+            try {
+                result = esClient.execute(new RawBulkAction.Builder(index, type, current.toUtf8String()).build());
+            }
+            catch (Exception e) {
+                error = e.toString();
+            }
+            if (result != null && result.getJsonObject() != null && result.getJsonObject().has("items")) {
+                JsonArray items = result.getJsonObject().getAsJsonArray("items");
+                for (int i = 0; i < items.size(); i++) {
+                    JsonObject item = firstValue(items.get(i).getAsJsonObject());
+                    int status = item.has("status") ? item.get("status").getAsInt() : 600;
+                    if (status >= 200 && status < 300) {
+                        outcome.success++;
+                    }
+                    else if (status == 400) {
+                        // 400 BAD_REQUEST 数据本身有问题，重试无意义，如果用户选择不忽略解析错误,则抛异常,默认为忽略
+                        if (!ignoreParseError) {
+                            throw AddaxException.asAddaxException(ESWriterErrorCode.ES_INDEX_INSERT,
+                                    String.format("status:[%d], error: %s, config not ignoreParseError so throw this error", status, item.get("error")));
+                        }
+                        outcome.dirtyRecords.add(current.getRecord(i));
+                        outcome.dirtyMessages.add(String.format("status:[%d], error: %s", status, item.get("error")));
+                    }
+                    else {
+                        retries.add(i);
+                        error = String.format("status:[%d], error: %s", status, item.get("error"));
+                    }
+                }
+            }
+            else {
+                // 整个请求失败，全部重试
+                if (result != null) {
+                    error = String.format("response code: [%d] error :[%s]", result.getResponseCode(), result.getErrorMessage());
+                }
+                for (int i = 0; i < current.size(); i++) {
+                    retries.add(i);
+                }
+            }
+            if (retries.isEmpty()) {
+                return outcome;
+            }
+            attempt++;
+            if (attempt >= trySize) {
+                if (ignoreWriteError) {
+                    LOG.warn("重试[{}]次后仍有{}条数据写入失败，忽略该错误，继续写入! 最后一次错误: {}", trySize, retries.size(), error);
+                    return outcome;
+                }
+                throw AddaxException.asAddaxException(ESWriterErrorCode.ES_INDEX_INSERT,
+                        String.format("重试[%d]次后仍有%d条数据写入失败, 最后一次错误: %s", trySize, retries.size(), error));
+            }
+            long backoff = Math.min(MAX_BACKOFF_MILLIS, 1000L << Math.min(attempt - 1, 16));
+            LOG.warn("{}条数据写入失败, {}毫秒后第{}次重试, 错误: {}", retries.size(), backoff, attempt, error);
+            Thread.sleep(backoff);
+            current = current.subset(retries);
+        }
+    }
+
+    private static JsonObject firstValue(JsonObject item)
+    {
+        for (Map.Entry<String, JsonElement> entry : item.entrySet()) {
+            return entry.getValue().getAsJsonObject();
+        }
+        return new JsonObject();
+    }
+
+    private static class BulkOutcome
+    {
+        private final BulkBuffer buffer;
+        private final List<Record> dirtyRecords = new ArrayList<>();
+        private final List<String> dirtyMessages = new ArrayList<>();
+        private long success = 0;
+
+        BulkOutcome(BulkBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * bulk 请求体缓冲区，按 UTF-8 直接写入 NDJSON，并记录每个条目的起始位置以便只重发失败的条目
+     */
+    public static class BulkBuffer
+    {
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        private byte[] buf = new byte[64 * 1024];
+        private int count = 0;
+        private int[] itemStarts = new int[64];
+        private final List<Record> records = new ArrayList<>();
+        private int itemStart = -1;
+        private boolean firstField;
+
+        public int size()
+        {
+            return records.size();
+        }
+
+        public int bytes()
+        {
+            return count;
+        }
+
+        Record getRecord(int i)
+        {
+            return records.get(i);
+        }
+
+        void reset()
+        {
+            count = 0;
+            records.clear();
+            itemStart = -1;
+        }
+
+        /**
+         * 开始一个条目，写入 action 行和文档的起始括号
+         *
+         * @param id 文档 id，为 null 时由 Elasticsearch 生成
+         */
+        public void startItem(String id)
+        {
+            itemStart = count;
+            if (id == null) {
+                writeAscii("{\"index\":{}}\n");
+            }
+            else {
+                writeAscii("{\"index\":{\"_id\":");
+                writeString(id);
+                writeAscii("}}\n");
+            }
+            write('{');
+            firstField = true;
+        }
+
+        public void endItem(Record record)
+        {
+            writeAscii("}\n");
+            if (records.size() == itemStarts.length) {
+                itemStarts = Arrays.copyOf(itemStarts, itemStarts.length * 2);
+            }
+            itemStarts[records.size()] = itemStart;
+            records.add(record);
+            itemStart = -1;
+        }
+
+        /**
+         * 丢弃正在写入的条目
+         */
+        public void abortItem()
+        {
+            if (itemStart >= 0) {
+                count = itemStart;
+                itemStart = -1;
+            }
+        }
+
+        public void field(String name)
+        {
+            if (!firstField) {
+                write(',');
+            }
+            firstField = false;
+            writeString(name);
+            write(':');
+        }
+
+        public void writeNull()
+        {
+            writeAscii("null");
+        }
+
+        public void writeBoolean(boolean value)
+        {
+            writeAscii(value ? "true" : "false");
+        }
+
+        public void writeNumber(Number value)
+        {
+            if (value instanceof Double && (((Double) value).isNaN() || ((Double) value).isInfinite())) {
+                throw new IllegalArgumentException(value + " is not a valid JSON number");
+            }
+            writeAscii(value.toString());
+        }
+
+        /*
+         * 写入已经是合法 JSON 的片段
+         */
+        public void writeRaw(String json)
+        {
+            writeUtf8(json, false);
+        }
+
+        public void writeString(String value)
+        {
+            write('"');
+            writeUtf8(value, true);
+            write('"');
+        }
+
+        public void startArray()
+        {
+            write('[');
+        }
+
+        public void arraySeparator()
+        {
+            write(',');
+        }
+
+        public void endArray()
+        {
+            write(']');
+        }
+
+        String toUtf8String()
+        {
+            return new String(buf, 0, count, StandardCharsets.UTF_8);
+        }
+
+        BulkBuffer subset(List<Integer> items)
+        {
+            BulkBuffer sub = new BulkBuffer();
+            for (int i : items) {
+                int start = itemStarts[i];
+                int end = i + 1 < records.size() ? itemStarts[i + 1] : count;
+                sub.ensureCapacity(end - start);
+                System.arraycopy(buf, start, sub.buf, sub.count, end - start);
+                if (sub.records.size() == sub.itemStarts.length) {
+                    sub.itemStarts = Arrays.copyOf(sub.itemStarts, sub.itemStarts.length * 2);
+                }
+                sub.itemStarts[sub.records.size()] = sub.count;
+                sub.count += end - start;
+                sub.records.add(records.get(i));
+            }
+            return sub;
+        }
+
+        private void writeAscii(String s)
+        {
+            ensureCapacity(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                buf[count++] = (byte) s.charAt(i);
+            }
+        }
+
+        private void write(char c)
+        {
+            ensureCapacity(1);
+            buf[count++] = (byte) c;
+        }
+
+        private void writeUtf8(String s, boolean escape)
+        {
+            // 一个 char 最多占 6 个字节（\\u00XX）
+            ensureCapacity(s.length() * 6);
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    if (escape && (c < 0x20 || c == '"' || c == '\\')) {
+                        escapeAscii(c);
+                    }
+                    else {
+                        buf[count++] = (byte) c;
+                    }
+                }
+                else if (c < 0x800) {
+                    buf[count++] = (byte) (0xc0 | (c >> 6));
+                    buf[count++] = (byte) (0x80 | (c & 0x3f));
+                }
+                else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    buf[count++] = (byte) (0xf0 | (cp >> 18));
+                    buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    buf[count++] = (byte) (0x80 | (cp & 0x3f));
+                }
+                else if (Character.isSurrogate(c)) {
+                    // 不成对的代理字符
+                    buf[count++] = '?';
+                }
+                else {
+                    buf[count++] = (byte) (0xe0 | (c >> 12));
+                    buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    buf[count++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+        }
+
+        private void escapeAscii(char c)
+        {
+            buf[count++] = '\\';
+            switch (c) {
+                case '"':
+                    buf[count++] = '"';
+                    break;
+                case '\\':
+                    buf[count++] = '\\';
+                    break;
+                case '\n':
+                    buf[count++] = 'n';
+                    break;
+                case '\r':
+                    buf[count++] = 'r';
+                    break;
+                case '\t':
+                    buf[count++] = 't';
+                    break;
+                default:
+                    buf[count++] = 'u';
+                    buf[count++] = '0';
+                    buf[count++] = '0';
+                    buf[count++] = HEX[c >> 4];
+                    buf[count++] = HEX[c & 0xf];
+                    break;
+            }
+        }
+
+        private void ensureCapacity(int extra)
+        {
+            if (count + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + extra));
+            }
+        }
+    }
+}
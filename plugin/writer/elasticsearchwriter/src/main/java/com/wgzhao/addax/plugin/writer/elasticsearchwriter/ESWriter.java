@@ -21,18 +21,14 @@ package com.wgzhao.addax.plugin.writer.elasticsearchwriter;
 
 import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.StringColumn;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordReceiver;
 import com.wgzhao.addax.common.spi.Writer;
 import com.wgzhao.addax.common.util.Configuration;
-import com.wgzhao.addax.common.util.RetryUtil;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
 import com.alibaba.fastjson.TypeReference;
-import io.searchbox.client.JestResult;
-import io.searchbox.core.Bulk;
-import io.searchbox.core.BulkResult;
-import io.searchbox.core.Index;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
@@ -42,10 +38,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
 
 public class ESWriter
         extends Writer
@@ -257,6 +253,7 @@ public class ESWriter
 
         private int trySize;
         private int batchSize;
+        private int concurrentRequests;
         private String index;
         private String type;
         private String splitter;
@@ -270,6 +267,7 @@ public class ESWriter
 
             trySize = Key.getTrySize(conf);
             batchSize = Key.getBatchSize(conf);
+            concurrentRequests = Key.getConcurrentRequests(conf);
             splitter = Key.getSplitter(conf);
             columnList = JSON.parseObject(this.conf.getString(WRITE_COLUMNS), new TypeReference<List<ESColumn>>()
             {
@@ -299,20 +297,24 @@ public class ESWriter
         @Override
         public void startWrite(RecordReceiver recordReceiver)
         {
-            List<Record> writerBuffer = new ArrayList<>(this.batchSize);
-            Record record;
-            long total = 0;
-            while ((record = recordReceiver.getFromReader()) != null) {
-                writerBuffer.add(record);
-                if (writerBuffer.size() >= this.batchSize) {
-                    total += doBatchInsert(writerBuffer);
-                    writerBuffer.clear();
+            BulkProcessor processor = new BulkProcessor(esClient, index, type, concurrentRequests, trySize,
+                    Key.isIgnoreParseError(conf), Key.isIgnoreWriteError(conf), getTaskPluginCollector());
+            long total;
+            try {
+                BulkProcessor.BulkBuffer buffer = processor.acquire();
+                Record record;
+                while ((record = recordReceiver.getFromReader()) != null) {
+                    writeRecord(record, buffer);
+                    if (buffer.size() >= this.batchSize) {
+                        processor.submit(buffer);
+                        buffer = processor.acquire();
+                    }
                 }
+                processor.submit(buffer);
+                total = processor.flush();
             }
-
-            if (!writerBuffer.isEmpty()) {
-                total += doBatchInsert(writerBuffer);
-                writerBuffer.clear();
+            finally {
+                processor.close();
             }
 
             String msg = String.format("task end, write size :%d", total);
@@ -343,156 +345,117 @@ public class ESWriter
             }
         }
 
-        private long doBatchInsert(final List<Record> writerBuffer)
+        /*
+         * 把一条记录直接序列化为 bulk 请求中的一个条目，不再构造中间的 Map 和 Index 对象
+         */
+        private void writeRecord(Record record, BulkProcessor.BulkBuffer buffer)
         {
-            Map<String, Object> data = null;
-            final Bulk.Builder bulkaction = new Bulk.Builder().defaultIndex(this.index).defaultType(this.type);
-            for (Record record : writerBuffer) {
-                data = new HashMap<>();
-                String id = null;
+            String id = null;
+            for (int i = 0; i < record.getColumnNumber(); i++) {
+                if (typeList.get(i) == ESFieldType.ID) {
+                    id = id == null ? record.getColumn(i).asString() : id + record.getColumn(i).asString();
+                }
+            }
+            buffer.startItem(id);
+            try {
                 for (int i = 0; i < record.getColumnNumber(); i++) {
-                    Column column = record.getColumn(i);
-                    String columnName = columnList.get(i).getName();
                     ESFieldType columnType = typeList.get(i);
-                    //如果是数组类型，那它传入的必是字符串类型
-                    if (columnList.get(i).isArray() != null && columnList.get(i).isArray()) {
-                        String[] dataList = column.asString().split(splitter);
-                        if (!columnType.equals(ESFieldType.DATE)) {
-                            data.put(columnName, dataList);
-                        }
-                        else {
-                            for (int pos = 0; pos < dataList.length; pos++) {
-                                dataList[pos] = getDateStr(columnList.get(i), column);
-                            }
-                            data.put(columnName, dataList);
-                        }
-                    }
-                    else {
-                        switch (columnType) {
-                            case ID:
-                                if (id != null) {
-                                    id += record.getColumn(i).asString();
-                                }
-                                else {
-                                    id = record.getColumn(i).asString();
-                                }
-                                break;
-                            case DATE:
-                                try {
-                                    String dateStr = getDateStr(columnList.get(i), column);
-                                    data.put(columnName, dateStr);
-                                }
-                                catch (Exception e) {
-                                    getTaskPluginCollector().collectDirtyRecord(record, String.format("时间类型解析失败 [%s:%s] exception: %s", columnName, column.toString(), e.toString()));
-                                }
-                                break;
-                            case KEYWORD:
-                            case STRING:
-                            case TEXT:
-                            case IP:
-                            case GEO_POINT:
-                                data.put(columnName, column.asString());
-                                break;
-                            case BOOLEAN:
-                                data.put(columnName, column.asBoolean());
-                                break;
-                            case BYTE:
-                            case BINARY:
-                                data.put(columnName, column.asBytes());
-                                break;
-                            case LONG:
-                                data.put(columnName, column.asLong());
-                                break;
-                            case INTEGER:
-                                data.put(columnName, column.asBigInteger());
-                                break;
-                            case SHORT:
-                                data.put(columnName, column.asBigInteger());
-                                break;
-                            case FLOAT:
-                            case DOUBLE:
-                                data.put(columnName, column.asDouble());
-                                break;
-                            case NESTED:
-                            case OBJECT:
-                            case FLATTENED:
-                            case GEO_SHAPE:
-                                data.put(columnName, JSON.parse(column.asString()));
-                                break;
-                            default:
-                                getTaskPluginCollector().collectDirtyRecord(record, "类型错误:不支持的类型:" + columnType + " " + columnName);
-                        }
+                    if (columnType == ESFieldType.ID) {
+                        continue;
                     }
+                    writeColumn(record, i, buffer);
                 }
-
-                if (id == null) {
-                    //id = UUID.randomUUID().toString()
-                    bulkaction.addAction(new Index.Builder(data).build());
-                }
-                else {
-                    bulkaction.addAction(new Index.Builder(data).id(id).build());
-                }
             }
+            catch (Exception e) {
+                buffer.abortItem();
+                getTaskPluginCollector().collectDirtyRecord(record, e.toString());
+                return;
+            }
+            buffer.endItem(record);
+        }
 
-            try {
-                return RetryUtil.executeWithRetry(new Callable<Integer>()
-                {
-                    @Override
-                    public Integer call()
-                            throws Exception
-                    {
-                        JestResult jestResult = esClient.bulkInsert(bulkaction, 1);
-                        if (jestResult.isSucceeded()) {
-                            return writerBuffer.size();
-                        }
-
-                        String msg = String.format("response code: [%d] error :[%s]", jestResult.getResponseCode(), jestResult.getErrorMessage());
-                        log.warn(msg);
-                        if (esClient.isBulkResult(jestResult)) {
-                            BulkResult brst = (BulkResult) jestResult;
-                            List<BulkResult.BulkResultItem> failedItems = brst.getFailedItems();
-                            for (BulkResult.BulkResultItem item : failedItems) {
-                                if (item.status != 400) {
-                                    // 400 BAD_REQUEST  如果非数据异常,请求异常,则不允许忽略
-                                    throw AddaxException.asAddaxException(ESWriterErrorCode.ES_INDEX_INSERT, String.format("status:[%d], error: %s", item.status, item.error));
-                                }
-                                else {
-                                    // 如果用户选择不忽略解析错误,则抛异常,默认为忽略
-                                    if (!Key.isIgnoreParseError(conf)) {
-                                        throw AddaxException.asAddaxException(ESWriterErrorCode.ES_INDEX_INSERT, String.format("status:[%d], error: %s, config not ignoreParseError so throw this error", item.status, item.error));
-                                    }
-                                }
-                            }
-
-                            List<BulkResult.BulkResultItem> items = brst.getItems();
-                            for (int idx = 0; idx < items.size(); ++idx) {
-                                BulkResult.BulkResultItem item = items.get(idx);
-                                if (item.error != null && !"".equals(item.error)) {
-                                    getTaskPluginCollector().collectDirtyRecord(writerBuffer.get(idx), String.format("status:[%d], error: %s", item.status, item.error));
-                                }
-                            }
-                            return writerBuffer.size() - brst.getFailedItems().size();
-                        }
-                        else {
-                            Integer status = esClient.getStatus(jestResult);
-                            if (status == 429) {
-                                //TOO_MANY_REQUESTS
-                                log.warn("server response too many requests, so auto reduce speed");
-                            }
-                            throw AddaxException.asAddaxException(ESWriterErrorCode.ES_INDEX_INSERT, jestResult.getErrorMessage());
-                        }
-                    }
-                }, trySize, 60000L, true);
+        private void writeColumn(Record record, int i, BulkProcessor.BulkBuffer buffer)
+        {
+            Column column = record.getColumn(i);
+            ESColumn esColumn = columnList.get(i);
+            String columnName = esColumn.getName();
+            ESFieldType columnType = typeList.get(i);
+            if (column.isNull()) {
+                // 与原先通过 Gson 序列化的行为一致，空值字段不写入
+                return;
             }
-            catch (Exception e) {
-                if (Key.isIgnoreWriteError(this.conf)) {
-                    log.warn(String.format("重试[%d]次写入失败，忽略该错误，继续写入!", trySize));
-                }
-                else {
-                    throw AddaxException.asAddaxException(ESWriterErrorCode.ES_INDEX_INSERT, e);
+            //如果是数组类型，那它传入的必是字符串类型
+            if (esColumn.isArray() != null && esColumn.isArray()) {
+                buffer.field(columnName);
+                String[] dataList = column.asString().split(splitter);
+                buffer.startArray();
+                for (int pos = 0; pos < dataList.length; pos++) {
+                    if (pos > 0) {
+                        buffer.arraySeparator();
+                    }
+                    if (columnType == ESFieldType.DATE) {
+                        buffer.writeString(getDateStr(esColumn, new StringColumn(dataList[pos])));
+                    }
+                    else {
+                        buffer.writeString(dataList[pos]);
+                    }
                 }
+                buffer.endArray();
+                return;
+            }
+            switch (columnType) {
+                case DATE:
+                    String dateStr;
+                    try {
+                        dateStr = getDateStr(esColumn, column);
+                    }
+                    catch (Exception e) {
+                        // 时间解析失败时该字段不写入，记录仍然写入
+                        getTaskPluginCollector().collectDirtyRecord(record, String.format("时间类型解析失败 [%s:%s] exception: %s", columnName, column.toString(), e.toString()));
+                        return;
+                    }
+                    buffer.field(columnName);
+                    buffer.writeString(dateStr);
+                    break;
+                case KEYWORD:
+                case STRING:
+                case TEXT:
+                case IP:
+                case GEO_POINT:
+                    buffer.field(columnName);
+                    buffer.writeString(column.asString());
+                    break;
+                case BOOLEAN:
+                    buffer.field(columnName);
+                    buffer.writeBoolean(column.asBoolean());
+                    break;
+                case BINARY:
+                    buffer.field(columnName);
+                    buffer.writeString(Base64.getEncoder().encodeToString(column.asBytes()));
+                    break;
+                case BYTE:
+                case SHORT:
+                case INTEGER:
+                case LONG:
+                    buffer.field(columnName);
+                    buffer.writeNumber(column.asBigInteger());
+                    break;
+                case FLOAT:
+                case DOUBLE:
+                    buffer.field(columnName);
+                    buffer.writeNumber(column.asDouble());
+                    break;
+                case NESTED:
+                case OBJECT:
+                case FLATTENED:
+                case GEO_SHAPE:
+                    buffer.field(columnName);
+                    buffer.writeRaw(JSON.toJSONString(JSON.parse(column.asString())));
+                    break;
+                default:
+                    // 不支持的类型不写入该字段，记录仍然写入
+                    getTaskPluginCollector().collectDirtyRecord(record, "类型错误:不支持的类型:" + columnType + " " + columnName);
             }
-            return 0;
         }
 
         @Override
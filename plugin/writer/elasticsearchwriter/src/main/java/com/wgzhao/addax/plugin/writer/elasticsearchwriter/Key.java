@@ -19,6 +19,7 @@
 
 package com.wgzhao.addax.plugin.writer.elasticsearchwriter;
 
+import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.util.Configuration;
 import org.apache.commons.lang3.StringUtils;
 
@@ -74,6 +75,16 @@ public final class Key
         return conf.getInt("batchSize", 1000);
     }
 
+    public static int getConcurrentRequests(Configuration conf)
+    {
+        int concurrentRequests = conf.getInt("concurrentRequests", 1);
+        if (concurrentRequests < 1) {
+            throw AddaxException.asAddaxException(ESWriterErrorCode.BAD_CONFIG_VALUE,
+                    String.format("concurrentRequests 必须大于 0, 您配置的是 [%d]", concurrentRequests));
+        }
+        return concurrentRequests;
+    }
+
     public static int getTrySize(Configuration conf)
     {
         return conf.getInt("trySize", 30);
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.writer.elasticsearchwriter;
+
+import io.searchbox.action.AbstractAction;
+import io.searchbox.action.GenericResultAbstractAction;
+import io.searchbox.client.config.ElasticsearchVersion;
+
+/**
+ * 直接发送已经序列化好的 bulk 请求体，不经过 Jest 的 Bulk/Index 对象和 Gson 序列化
+ */
+public class RawBulkAction
+        extends GenericResultAbstractAction
+{
+    protected RawBulkAction(Builder builder)
+    {
+        super(builder);
+        this.indexName = builder.index;
+        this.typeName = builder.type;
+        this.payload = builder.body;
+    }
+
+    @Override
+    public String getRestMethodName()
+    {
+        return "POST";
+    }
+
+    @Override
+    protected String buildURI(ElasticsearchVersion elasticsearchVersion)
+    {
+        return super.buildURI(elasticsearchVersion) + "/_bulk";
+    }
+
+    public static class Builder
+            extends AbstractAction.Builder<RawBulkAction, Builder>
+    {
+        private final String index;
+        private final String type;
+        private final String body;
+
+        public Builder(String index, String type, String body)
+        {
+            this.index = index;
+            this.type = type;
+            this.body = body;
+        }
+
+        @Override
+        public RawBulkAction build()
+        {
+            return new RawBulkAction(this);
+        }
+    }
+}
@@ -269,7 +269,7 @@ public class HbaseSQLWriterTask
     private void setupColumn(int pos, int sqlType, Column col)
             throws SQLException
     {
-        if (col.getRawData() != null) {
+        if (!col.isNull()) {
             switch (sqlType) {
                 case Types.CHAR:
                 case Types.VARCHAR:
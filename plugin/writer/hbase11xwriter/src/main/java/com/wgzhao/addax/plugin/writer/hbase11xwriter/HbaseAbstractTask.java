@@ -110,7 +110,7 @@ public abstract class HbaseAbstractTask
     public byte[] getColumnByte(ColumnType columnType, Column column)
     {
         byte[] bytes;
-        if (column.getRawData() != null) {
+        if (!column.isNull()) {
             switch (columnType) {
                 case INT:
                     bytes = Bytes.toBytes(column.asLong().intValue());
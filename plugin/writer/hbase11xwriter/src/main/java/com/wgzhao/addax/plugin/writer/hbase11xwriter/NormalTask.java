@@ -125,7 +125,7 @@ public class NormalTask
             if (index >= record.getColumnNumber()) {
                 throw AddaxException.asAddaxException(Hbase11xWriterErrorCode.CONSTRUCT_VERSION_ERROR, String.format("您的versionColumn配置项中中index值超出范围,根据reader端配置,index的值小于%s,而您配置的值为%s，请检查并修改.", record.getColumnNumber(), index));
             }
-            if (record.getColumn(index).getRawData() == null) {
+            if (record.getColumn(index).isNull()) {
                 throw AddaxException.asAddaxException(Hbase11xWriterErrorCode.CONSTRUCT_VERSION_ERROR, "您指定的版本为空!");
             }
             SimpleDateFormat dfSenconds = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
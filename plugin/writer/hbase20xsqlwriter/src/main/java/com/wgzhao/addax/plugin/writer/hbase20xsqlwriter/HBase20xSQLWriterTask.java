@@ -298,7 +298,7 @@ public class HBase20xSQLWriterTask
     private void setupColumn(int pos, int sqlType, Column col)
             throws SQLException
     {
-        if (col.getRawData() != null) {
+        if (!col.isNull()) {
             switch (sqlType) {
                 case Types.CHAR:
                 case Types.VARCHAR:
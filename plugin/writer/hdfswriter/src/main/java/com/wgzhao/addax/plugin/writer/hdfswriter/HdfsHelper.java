@@ -24,21 +24,22 @@ import com.alibaba.fastjson.JSONObject;
 import com.google.common.collect.Lists;
 import com.wgzhao.addax.common.element.Column;
 import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.element.RecordBatch;
 import com.wgzhao.addax.common.exception.AddaxException;
 import com.wgzhao.addax.common.plugin.RecordReceiver;
 import com.wgzhao.addax.common.plugin.TaskPluginCollector;
 import com.wgzhao.addax.common.util.Configuration;
-import org.apache.avro.Conversions;
-import org.apache.avro.LogicalTypes;
-import org.apache.avro.Schema;
-import org.apache.avro.generic.GenericData;
-import org.apache.avro.generic.GenericRecord;
-import org.apache.avro.generic.GenericRecordBuilder;
+import com.wgzhao.addax.plugin.storage.writer.Constant;
+import com.wgzhao.addax.plugin.storage.writer.ParallelCompressorOutputStream;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.MutablePair;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.FilterFileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
 import org.apache.hadoop.hive.common.type.HiveDecimal;
 import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
@@ -48,21 +49,16 @@ import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.TimestampColumnVector;
 import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
 import org.apache.hadoop.hive.serde2.io.HiveDecimalWritable;
-import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.Text;
 import org.apache.hadoop.io.compress.CompressionCodec;
-import org.apache.hadoop.mapred.FileOutputFormat;
 import org.apache.hadoop.mapred.JobConf;
-import org.apache.hadoop.mapred.JobContext;
-import org.apache.hadoop.mapred.RecordWriter;
-import org.apache.hadoop.mapred.Reporter;
-import org.apache.hadoop.mapred.TextOutputFormat;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.hadoop.util.Progressable;
+import org.apache.hadoop.util.ReflectionUtils;
 import org.apache.orc.CompressionKind;
 import org.apache.orc.OrcFile;
 import org.apache.orc.TypeDescription;
 import org.apache.orc.Writer;
-import org.apache.parquet.avro.AvroParquetWriter;
 import org.apache.parquet.column.ParquetProperties;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
@@ -70,13 +66,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -95,8 +90,11 @@ public class HdfsHelper
     private boolean haveKerberos = false;
     private String kerberosKeytabFilePath;
     private String kerberosPrincipal;
-    private static final int DECIMAL_DEFAULT_PRECISION = 38;
-    private static final int DECIMAL_DEFAULT_SCALE = 10;
+    static final int DECIMAL_DEFAULT_PRECISION = 38;
+    static final int DECIMAL_DEFAULT_SCALE = 10;
+    // 单个文件的滚动阈值，0 表示不限制
+    private long maxFileSize = 0L;
+    private long maxRowsPerFile = 0L;
 
     public static MutablePair<Text, Boolean> transportOneRecord(
             Record record, char fieldDelimiter, List<Configuration> columnsConfiguration, TaskPluginCollector taskPluginCollector)
@@ -124,7 +122,7 @@ public class HdfsHelper
             Column column;
             for (int i = 0; i < recordLength; i++) {
                 column = record.getColumn(i);
-                if (null != column.getRawData()) {
+                if (!column.isNull()) {
                     String rowData = column.getRawData().toString();
                     SupportHiveDataType columnType = SupportHiveDataType.valueOf(
                             columnsConfiguration.get(i).getString(Key.TYPE).toUpperCase());
@@ -201,79 +199,6 @@ public class HdfsHelper
         return transportResult;
     }
 
-    public static GenericRecord transportParRecord(
-            Record record, List<Configuration> columnsConfiguration,
-            TaskPluginCollector taskPluginCollector, GenericRecordBuilder builder)
-    {
-
-        int recordLength = record.getColumnNumber();
-        if (0 != recordLength) {
-            Column column;
-            for (int i = 0; i < recordLength; i++) {
-                column = record.getColumn(i);
-                String colname = columnsConfiguration.get(i).getString(Key.NAME);
-                String typename = columnsConfiguration.get(i).getString(Key.TYPE).toUpperCase();
-                if (column.getRawData() == null) {
-                    builder.set(colname, null);
-                }
-                else {
-                    String rowData = column.getRawData().toString();
-                    SupportHiveDataType columnType = SupportHiveDataType.valueOf(typename);
-                    //根据writer端类型配置做类型转换
-                    try {
-                        switch (columnType) {
-                            case INT:
-                            case INTEGER:
-                                builder.set(colname, Integer.valueOf(rowData));
-                                break;
-                            case LONG:
-                                builder.set(colname, column.asLong());
-                                break;
-                            case FLOAT:
-                                builder.set(colname, Float.valueOf(rowData));
-                                break;
-                            case DOUBLE:
-                                builder.set(colname, column.asDouble());
-                                break;
-                            case STRING:
-                                builder.set(colname, column.asString());
-                                break;
-                            case DECIMAL:
-                                builder.set(colname, new BigDecimal(column.asString()).setScale(columnsConfiguration.get(i).getInt(Key.SCALE), BigDecimal.ROUND_HALF_UP));
-                                break;
-                            case BOOLEAN:
-                                builder.set(colname, column.asBoolean());
-                                break;
-                            case BINARY:
-                                builder.set(colname, column.asBytes());
-                                break;
-                            case TIMESTAMP:
-                                builder.set(colname, column.asLong() / 1000);
-                                break;
-                            default:
-                                throw AddaxException
-                                        .asAddaxException(
-                                                HdfsWriterErrorCode.ILLEGAL_VALUE,
-                                                String.format(
-                                                        "您的配置文件中的列配置信息有误. 因为DataX 不支持数据库写入这种字段类型. 字段名:[%s], 字段类型:[%s]. 请修改表中该字段的类型或者不同步该字段.",
-                                                        columnsConfiguration.get(i).getString(Key.NAME),
-                                                        columnsConfiguration.get(i).getString(Key.TYPE)));
-                        }
-                    }
-                    catch (Exception e) {
-                        // warn: 此处认为脏数据
-                        String message = String.format(
-                                "字段类型转换错误：目标字段为[%s]类型，实际字段值为[%s].",
-                                columnsConfiguration.get(i).getString(Key.TYPE), column.getRawData());
-                        taskPluginCollector.collectDirtyRecord(record, message);
-                        break;
-                    }
-                }
-            }
-        }
-        return builder.build();
-    }
-
     public void getFileSystem(String defaultFS, Configuration taskConfig)
     {
         hadoopConf = new org.apache.hadoop.conf.Configuration();
@@ -453,9 +378,12 @@ public class HdfsHelper
         }
         else {
             try {
-                for (Iterator<String> it1 = tmpFiles.iterator(), it2 = endFiles.iterator(); it1.hasNext() && it2.hasNext(); ) {
-                    String srcFile = it1.next();
-                    String dstFile = it2.next();
+                List<String> srcFiles = new ArrayList<>();
+                List<String> dstFiles = new ArrayList<>();
+                expandRollingFiles(tmpFiles, endFiles, srcFiles, dstFiles);
+                for (int i = 0; i < srcFiles.size(); i++) {
+                    String srcFile = srcFiles.get(i);
+                    String dstFile = dstFiles.get(i);
                     Path srcFilePah = new Path(srcFile);
                     Path dstFilePah = new Path(dstFile);
                     if (tmpFilesParent == null) {
@@ -485,6 +413,75 @@ public class HdfsHelper
         }
     }
 
+    /*
+     * 开启滚动写入后，每个 task 除了 split 时分配的文件外，还会写出若干按 getRollingFileName 命名的后续文件，
+     * 这里列出临时目录，把这些文件与对应的目标文件名一并加入重命名列表
+     */
+    private void expandRollingFiles(Set<String> tmpFiles, Set<String> endFiles, List<String> srcFiles, List<String> dstFiles)
+    {
+        Set<String> existNames = new HashSet<>();
+        if (!tmpFiles.isEmpty()) {
+            String tmpDir = new Path(tmpFiles.iterator().next()).getParent().toString();
+            if (isPathexists(tmpDir)) {
+                for (Path p : hdfsDirList(tmpDir)) {
+                    existNames.add(p.getName());
+                }
+            }
+        }
+        for (Iterator<String> it1 = tmpFiles.iterator(), it2 = endFiles.iterator(); it1.hasNext() && it2.hasNext(); ) {
+            String srcFile = it1.next();
+            String dstFile = it2.next();
+            srcFiles.add(srcFile);
+            dstFiles.add(dstFile);
+            for (int i = 1; ; i++) {
+                String rollingFile = getRollingFileName(srcFile, i);
+                if (!existNames.contains(new Path(rollingFile).getName())) {
+                    break;
+                }
+                srcFiles.add(rollingFile);
+                dstFiles.add(getRollingFileName(dstFile, i));
+            }
+        }
+    }
+
+    /**
+     * 滚动写入时第 index 个文件的文件名，第 0 个即为原文件名，
+     * 其余文件在 split 生成的随机串后追加序号，保留压缩后缀，例如
+     * <pre>
+     *  prefix__uuid.gz -&gt; prefix__uuid_1.gz
+     * </pre>
+     *
+     * @param fileName split 时分配的文件全路径
+     * @param index 文件序号
+     * @return 文件全路径
+     */
+    public static String getRollingFileName(String fileName, int index)
+    {
+        if (index == 0) {
+            return fileName;
+        }
+        int sep = fileName.lastIndexOf("__");
+        int dot = fileName.indexOf('.', Math.max(sep, fileName.lastIndexOf('/') + 1));
+        if (dot < 0) {
+            return fileName + "_" + index;
+        }
+        return fileName.substring(0, dot) + "_" + index + fileName.substring(dot);
+    }
+
+    private void setRollingPolicy(Configuration config)
+    {
+        this.maxFileSize = config.getLong(Key.MAX_FILE_SIZE, 0L) * 1024 * 1024;
+        this.maxRowsPerFile = config.getLong(Key.MAX_ROWS_PER_FILE, 0L);
+        if (this.maxFileSize > 0 || this.maxRowsPerFile > 0) {
+            LOG.info("启用文件滚动写入, maxFileSize: {} 字节, maxRowsPerFile: {}", this.maxFileSize, this.maxRowsPerFile);
+        }
+    }
+
+    private boolean needRoll(long rows, long bytes)
+    {
+        return (maxRowsPerFile > 0 && rows >= maxRowsPerFile) || (maxFileSize > 0 && bytes >= maxFileSize);
+    }
+
     //关闭FileSystem
     public void closeFileSystem()
     {
@@ -504,38 +501,69 @@ public class HdfsHelper
         char fieldDelimiter = config.getChar(Key.FIELD_DELIMITER);
         List<Configuration> columns = config.getListConfiguration(Key.COLUMN);
         String compress = config.getString(Key.COMPRESS, "NONE").toUpperCase().trim();
+        setRollingPolicy(config);
 
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyyMMddHHmm");
-        String attempt = "attempt_" + dateFormat.format(new Date()) + "_0001_m_000000_0";
-        Path outputPath = new Path(fileName);
-        conf.set(JobContext.TASK_ATTEMPT_ID, attempt);
-        FileOutputFormat.setOutputPath(conf, outputPath);
-        FileOutputFormat.setWorkOutputPath(conf, outputPath);
-        if (!"NONE".equals(compress)) {
-            Class<? extends CompressionCodec> codecClass = getCompressCodec(compress);
-            if (null != codecClass) {
-                FileOutputFormat.setOutputCompressorClass(conf, codecClass);
-            }
-        }
+        int fileIndex = 0;
+        String currentFile = fileName;
+        OutputStream out = null;
         try {
-            RecordWriter<NullWritable, Text> writer = new TextOutputFormat<NullWritable, Text>().getRecordWriter(fileSystem, conf, outputPath.toString(), Reporter.NULL);
+            CompressionCodec codec = null;
+            if (!"NONE".equals(compress)) {
+                codec = ReflectionUtils.newInstance(getCompressCodec(compress), conf);
+            }
+            FSDataOutputStream fsOut = fileSystem.create(new Path(currentFile), false);
+            out = wrapTextStream(fsOut, codec, compress, config);
+            long rows = 0;
             Record record;
             while ((record = lineReceiver.getFromReader()) != null) {
                 MutablePair<Text, Boolean> transportResult = transportOneRecord(record, fieldDelimiter, columns, taskPluginCollector);
-                if (Boolean.FALSE.equals(transportResult.getRight())) {
-                    writer.write(NullWritable.get(), transportResult.getLeft());
+                if (Boolean.TRUE.equals(transportResult.getRight())) {
+                    continue;
+                }
+                if (out == null) {
+                    // 切换后的文件在有数据时才创建，避免产生空文件
+                    currentFile = getRollingFileName(fileName, ++fileIndex);
+                    fsOut = fileSystem.create(new Path(currentFile), false);
+                    out = wrapTextStream(fsOut, codec, compress, config);
+                    rows = 0;
                 }
+                Text line = transportResult.getLeft();
+                out.write(line.getBytes(), 0, line.getLength());
+                out.write('\n');
+                rows++;
+                if (needRoll(rows, fsOut.getPos())) {
+                    LOG.info("文件[{}]已写入{}行, 切换到下一个文件", currentFile, rows);
+                    out.close();
+                    out = null;
+                }
+            }
+            if (out != null) {
+                out.close();
             }
-            writer.close(Reporter.NULL);
         }
         catch (Exception e) {
-            LOG.error("写文件文件[{}]时发生IO异常,请检查您的网络是否正常！", fileName);
+            LOG.error("写文件文件[{}]时发生IO异常,请检查您的网络是否正常！", currentFile);
+            IOUtils.closeQuietly(out);
             Path path = new Path(fileName);
             deleteDir(path.getParent());
             throw AddaxException.asAddaxException(HdfsWriterErrorCode.Write_FILE_IO_ERROR, e);
         }
     }
 
+    private OutputStream wrapTextStream(FSDataOutputStream fsOut, CompressionCodec codec, String compress, Configuration config)
+            throws IOException
+    {
+        if (codec == null) {
+            return fsOut;
+        }
+        int compressThreads = config.getInt(Key.COMPRESS_THREADS, 1);
+        if (compressThreads > 1 && ("GZIP".equals(compress) || "BZIP2".equals(compress))) {
+            return new ParallelCompressorOutputStream(fsOut, compress.toLowerCase(), compressThreads,
+                    config.getInt(Key.COMPRESS_BLOCK_SIZE, Constant.DEFAULT_COMPRESS_BLOCK_SIZE));
+        }
+        return codec.createOutputStream(fsOut);
+    }
+
     // compress 已经转为大写
     public Class<? extends CompressionCodec> getCompressCodec(String compress)
     {
@@ -570,24 +598,12 @@ public class HdfsHelper
 
     /*
      * 写Parquetfile类型文件
-     * 一个parquet文件的schema类似如下：
-     * {
-     *    "type":	"record",
-     *    "name":	"testFile",
-     *    "doc":	"test records",
-     *    "fields":
-     *      [{
-     *        "name":	"id",
-     *        "type":	["null", "int"]
-     *
-     *      },
-     *      {
-     *        "name":	"empName",
-     *        "type":	"string"
-     *      }
-     *    ]
-     *  }
-     * "null" 表示该字段允许为空
+     * 通过 RecordWriteSupport 直接把 Record 中的字段写入 parquet，不再经过 Avro GenericRecord 中转，
+     * 字段类型与 parquet 类型的对应关系如下：
+     * int/integer/tinyint/smallint -> INT32, long/bigint -> INT64, float -> FLOAT, double -> DOUBLE,
+     * boolean -> BOOLEAN, string/varchar/char -> BINARY(UTF8), binary -> BINARY, date -> INT32(DATE),
+     * timestamp -> INT64(TIMESTAMP_MILLIS), decimal -> FIXED_LEN_BYTE_ARRAY(16)(DECIMAL)
+     * 所有字段均允许为空
      */
     public void parquetFileStartWrite(RecordReceiver lineReceiver, Configuration config, String fileName,
             TaskPluginCollector taskPluginCollector)
@@ -598,101 +614,93 @@ public class HdfsHelper
         if ("NONE".equals(compress)) {
             compress = "UNCOMPRESSED";
         }
-        // construct parquet schema
-        Schema schema = generateParquetSchema(columns);
 
-        Path path = new Path(fileName);
         LOG.info("write parquet file {}", fileName);
         CompressionCodecName codecName = CompressionCodecName.fromConf(compress);
+        int rowGroupSize = config.getInt(Key.ROW_GROUP_SIZE, ParquetWriter.DEFAULT_BLOCK_SIZE);
+        int pageSize = config.getInt(Key.PAGE_SIZE, ParquetWriter.DEFAULT_PAGE_SIZE);
 
-        GenericData decimalSupport = new GenericData();
-        decimalSupport.addLogicalTypeConversion(new Conversions.DecimalConversion());
-
-        try (ParquetWriter<GenericRecord> writer = AvroParquetWriter
-                .<GenericRecord>builder(path)
-                .withRowGroupSize(ParquetWriter.DEFAULT_BLOCK_SIZE)
-                .withPageSize(ParquetWriter.DEFAULT_PAGE_SIZE)
-                .withSchema(schema)
-                .withConf(hadoopConf)
-                .withCompressionCodec(codecName)
-                .withValidation(false)
-                .withDictionaryEncoding(false)
-                .withDataModel(decimalSupport)
-                .withWriterVersion(ParquetProperties.WriterVersion.PARQUET_1_0)
-                .build()) {
-
+        setRollingPolicy(config);
+        int fileIndex = 0;
+        String currentFile = fileName;
+        ParquetWriter<Record> writer = null;
+        try {
+            writer = createParquetWriter(new Path(currentFile), columns, codecName, rowGroupSize, pageSize);
+            long rows = 0;
             Record record;
             while ((record = lineReceiver.getFromReader()) != null) {
-                GenericRecordBuilder builder = new GenericRecordBuilder(schema);
-                GenericRecord transportResult = transportParRecord(record, columns, taskPluginCollector, builder);
-                writer.write(transportResult);
+                if (writer == null) {
+                    currentFile = getRollingFileName(fileName, ++fileIndex);
+                    writer = createParquetWriter(new Path(currentFile), columns, codecName, rowGroupSize, pageSize);
+                    rows = 0;
+                }
+                try {
+                    writer.write(record);
+                }
+                catch (RuntimeException e) {
+                    // warn: 此处认为脏数据，转换失败的行不会写入文件
+                    taskPluginCollector.collectDirtyRecord(record, e, String.format("字段类型转换错误：%s", e.getMessage()));
+                    continue;
+                }
+                rows++;
+                if (needRoll(rows, writer.getDataSize())) {
+                    LOG.info("文件[{}]已写入{}行, 切换到下一个文件", currentFile, rows);
+                    writer.close();
+                    writer = null;
+                }
+            }
+            if (writer != null) {
+                writer.close();
             }
         }
         catch (Exception e) {
-            LOG.error("写文件文件[{}]时发生IO异常,请检查您的网络是否正常！", fileName);
-            deleteDir(path.getParent());
+            LOG.error("写文件文件[{}]时发生IO异常,请检查您的网络是否正常！", currentFile);
+            IOUtils.closeQuietly(writer);
+            deleteDir(new Path(fileName).getParent());
             throw AddaxException.asAddaxException(HdfsWriterErrorCode.Write_FILE_IO_ERROR, e);
         }
     }
 
-    private Schema generateParquetSchema(List<Configuration> columns)
+    private ParquetWriter<Record> createParquetWriter(Path path, List<Configuration> columns, CompressionCodecName codecName,
+            int rowGroupSize, int pageSize)
+            throws IOException
     {
-        List<Schema.Field> fields = new ArrayList<>();
-        String fieldName;
-        String type;
-        List<Schema> unionList = new ArrayList<>(2);
-        for (Configuration column : columns) {
-            unionList.clear();
-            fieldName = column.getString(Key.NAME);
-            type = column.getString(Key.TYPE).trim().toUpperCase();
-            unionList.add(Schema.create(Schema.Type.NULL));
-            switch (type) {
-                case "DECIMAL":
-                    Schema dec = LogicalTypes.decimal(column.getInt(Key.PRECISION, DECIMAL_DEFAULT_PRECISION), column.getInt(Key.SCALE, DECIMAL_DEFAULT_SCALE))
-                            .addToSchema(Schema.createFixed(fieldName, null, null, 16));
-                    unionList.add(dec);
-                    break;
-                case "DATE":
-                    Schema date = LogicalTypes.date().addToSchema(Schema.create(Schema.Type.INT));
-                    unionList.add(date);
-                    break;
-                case "TIMESTAMP":
-                    Schema ts = LogicalTypes.timestampMillis().addToSchema(Schema.create(Schema.Type.LONG));
-                    unionList.add(ts);
-                    break;
-                case "UUID":
-                    Schema uuid = LogicalTypes.uuid().addToSchema(Schema.create(Schema.Type.STRING));
-                    unionList.add(uuid);
-                    break;
-                case "BINARY":
-                    unionList.add(Schema.create(Schema.Type.BYTES));
-                    break;
-                default:
-                    // primi
-                    unionList.add(Schema.create(Schema.Type.valueOf(type)));
-                    break;
-            }
-            fields.add(new Schema.Field(fieldName, Schema.createUnion(unionList), null, (Object) null));
-        }
-        Schema schema = Schema.createRecord("datax", null, "parquet", false);
-        schema.setFields(fields);
-        return schema;
+        return RecordWriteSupport.builder(path, columns)
+                .withRowGroupSize(rowGroupSize)
+                .withPageSize(pageSize)
+                .withConf(hadoopConf)
+                .withCompressionCodec(codecName)
+                .withValidation(false)
+                .withDictionaryEncoding(false)
+                .withWriterVersion(ParquetProperties.WriterVersion.PARQUET_1_0)
+                .build();
     }
 
-    private void setRow(VectorizedRowBatch batch, int row, Record record, List<Configuration> columns, TaskPluginCollector taskPluginCollector)
+    /*
+     * 解析每一列对应的 hive 类型，只在打开文件时执行一次
+     */
+    private static SupportHiveDataType[] getColumnTypes(List<Configuration> columns)
     {
+        SupportHiveDataType[] columnTypes = new SupportHiveDataType[columns.size()];
         for (int i = 0; i < columns.size(); i++) {
-            Configuration eachColumnConf = columns.get(i);
-            String type = eachColumnConf.getString(Key.TYPE).trim().toUpperCase();
-            SupportHiveDataType columnType;
-            ColumnVector col = batch.cols[i];
+            String type = columns.get(i).getString(Key.TYPE).trim().toUpperCase();
             if (type.startsWith("DECIMAL")) {
-                columnType = SupportHiveDataType.DECIMAL;
+                columnTypes[i] = SupportHiveDataType.DECIMAL;
             }
             else {
-                columnType = SupportHiveDataType.valueOf(type);
+                columnTypes[i] = SupportHiveDataType.valueOf(type);
             }
-            if (record.getColumn(i) == null || record.getColumn(i).getRawData() == null) {
+        }
+        return columnTypes;
+    }
+
+    private void setRow(VectorizedRowBatch batch, int row, Record record, List<Configuration> columns,
+            SupportHiveDataType[] columnTypes, int[] scales, TaskPluginCollector taskPluginCollector)
+    {
+        for (int i = 0; i < columnTypes.length; i++) {
+            SupportHiveDataType columnType = columnTypes[i];
+            ColumnVector col = batch.cols[i];
+            if (record.getColumn(i) == null || record.getColumn(i).isNull()) {
                 col.isNull[row] = true;
                 col.noNulls = false;
                 continue;
@@ -714,11 +722,16 @@ public class HdfsHelper
                         break;
                     case DECIMAL:
                         HiveDecimalWritable hdw = new HiveDecimalWritable();
-                        hdw.set(HiveDecimal.create(record.getColumn(i).asBigDecimal()).setScale(eachColumnConf.getInt(Key.SCALE), HiveDecimal.ROUND_HALF_UP));
+                        hdw.set(HiveDecimal.create(record.getColumn(i).asBigDecimal()).setScale(scales[i], HiveDecimal.ROUND_HALF_UP));
                         ((DecimalColumnVector) col).set(row, hdw);
                         break;
                     case TIMESTAMP:
-                        ((TimestampColumnVector) col).set(row, java.sql.Timestamp.valueOf(record.getColumn(i).asString()));
+                        if (record.getColumn(i).getType() == Column.Type.DATE) {
+                            ((TimestampColumnVector) col).set(row, new java.sql.Timestamp(record.getColumn(i).asLong()));
+                        }
+                        else {
+                            ((TimestampColumnVector) col).set(row, java.sql.Timestamp.valueOf(record.getColumn(i).asString()));
+                        }
                         break;
                     case STRING:
                     case VARCHAR:
@@ -736,15 +749,15 @@ public class HdfsHelper
                                         HdfsWriterErrorCode.ILLEGAL_VALUE,
                                         String.format(
                                                 "您的配置文件中的列配置信息有误. 因为DataX 不支持数据库写入这种字段类型. 字段名:[%s], 字段类型:[%s]. 请修改表中该字段的类型或者不同步该字段.",
-                                                eachColumnConf.getString(Key.NAME),
-                                                eachColumnConf.getString(Key.TYPE)));
+                                                columns.get(i).getString(Key.NAME),
+                                                columns.get(i).getString(Key.TYPE)));
                 }
             }
             catch (Exception e) {
                 taskPluginCollector.collectDirtyRecord(record, e.getMessage());
                 throw AddaxException.asAddaxException(HdfsWriterErrorCode.ILLEGAL_VALUE,
                         String.format("设置Orc数据行失败，源列类型: %s, 目的原始类型:%s, 目的列Hive类型: %s, 字段名称: %s, 源值: %s, 错误根源：\n %s",
-                                record.getColumn(i).getType(), columnType, eachColumnConf.getString(Key.TYPE), eachColumnConf.getString(Key.NAME),
+                                record.getColumn(i).getType(), columnType, columns.get(i).getString(Key.TYPE), columns.get(i).getString(Key.NAME),
                                 record.getColumn(i).getRawData(), e));
             }
         }
@@ -769,27 +782,60 @@ public class HdfsHelper
             }
         }
         TypeDescription schema = TypeDescription.fromString("struct<" + joiner + ">");
-        try (Writer writer = OrcFile.createWriter(new Path(fileName),
-                OrcFile.writerOptions(conf)
-                        .setSchema(schema)
-                        .compress(CompressionKind.valueOf(compress)))) {
-            Record record;
+        SupportHiveDataType[] columnTypes = getColumnTypes(columns);
+        int[] scales = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            scales[i] = columns.get(i).getInt(Key.SCALE, DECIMAL_DEFAULT_SCALE);
+        }
+        setRollingPolicy(config);
+        // ORC 按 stripe 落盘，通过记录输出流的位置得到已写入的字节数
+        PositionTrackingFileSystem trackingFs = new PositionTrackingFileSystem(fileSystem);
+        int fileIndex = 0;
+        String currentFile = fileName;
+        OrcFile.WriterOptions options = OrcFile.writerOptions(conf)
+                .fileSystem(trackingFs)
+                .setSchema(schema)
+                .compress(CompressionKind.valueOf(compress));
+        Writer writer = null;
+        try {
+            writer = OrcFile.createWriter(new Path(currentFile), options);
+            long rows = 0;
+            RecordBatch recordBatch;
             VectorizedRowBatch batch = schema.createRowBatch(1024);
-            while ((record = lineReceiver.getFromReader()) != null) {
-                int row = batch.size++;
-                setRow(batch, row, record, columns, taskPluginCollector);
-                if (batch.size == batch.getMaxSize()) {
+            // 按批次读取，reader 发送的列式批次不需要在 channel 中拆成逐行的记录
+            while ((recordBatch = lineReceiver.getBatchFromReader()) != null) {
+                for (int i = 0; i < recordBatch.getRowCount(); i++) {
+                    if (writer == null) {
+                        currentFile = getRollingFileName(fileName, ++fileIndex);
+                        writer = OrcFile.createWriter(new Path(currentFile), options);
+                        rows = 0;
+                    }
+                    int row = batch.size++;
+                    setRow(batch, row, recordBatch.getRecord(i), columns, columnTypes, scales, taskPluginCollector);
+                    rows++;
+                    if (batch.size == batch.getMaxSize() || needRoll(rows, 0)) {
+                        writer.addRowBatch(batch);
+                        batch.reset();
+                        if (needRoll(rows, trackingFs.getPos())) {
+                            LOG.info("文件[{}]已写入{}行, 切换到下一个文件", currentFile, rows);
+                            writer.close();
+                            writer = null;
+                        }
+                    }
+                }
+            }
+            if (writer != null) {
+                if (batch.size != 0) {
                     writer.addRowBatch(batch);
                     batch.reset();
                 }
-            }
-            if (batch.size != 0) {
-                writer.addRowBatch(batch);
-                batch.reset();
+                writer.close();
             }
         }
-        catch (IOException e) {
-            LOG.error("写文件文件[{}]时发生IO异常,请检查您的网络是否正常！", fileName);
+        catch (Exception e) {
+            // 除 IO 异常外，读取批次、类型转换时的运行时异常同样要关闭 writer 并清理临时目录
+            LOG.error("写文件文件[{}]时发生IO异常,请检查您的网络是否正常！", currentFile);
+            IOUtils.closeQuietly(writer);
             Path path = new Path(fileName);
             deleteDir(path.getParent());
             throw AddaxException.asAddaxException(HdfsWriterErrorCode.Write_FILE_IO_ERROR, e);
@@ -839,4 +885,33 @@ public class HdfsHelper
         }
         return suffix;
     }
+
+    /*
+     * 记录最近一次创建的输出流，用于获取 ORC 文件已经写入的字节数
+     */
+    private static class PositionTrackingFileSystem
+            extends FilterFileSystem
+    {
+        private FSDataOutputStream lastOut;
+
+        PositionTrackingFileSystem(FileSystem fs)
+        {
+            super(fs);
+        }
+
+        @Override
+        public FSDataOutputStream create(Path f, FsPermission permission, boolean overwrite, int bufferSize,
+                short replication, long blockSize, Progressable progress)
+                throws IOException
+        {
+            lastOut = super.create(f, permission, overwrite, bufferSize, replication, blockSize, progress);
+            return lastOut;
+        }
+
+        long getPos()
+                throws IOException
+        {
+            return lastOut == null ? 0L : lastOut.getPos();
+        }
+    }
 }
\ No newline at end of file
@@ -35,6 +35,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
@@ -48,8 +49,9 @@ public class HdfsWriter
             extends Writer.Job
     {
         private static final Logger LOG = LoggerFactory.getLogger(Job.class);
-        private final HashSet<String> tmpFiles = new HashSet<>();//临时文件全路径
-        private final HashSet<String> endFiles = new HashSet<>();//最终文件全路径
+        // 两者按相同顺序一一对应，重命名时依赖该顺序
+        private final LinkedHashSet<String> tmpFiles = new LinkedHashSet<>();//临时文件全路径
+        private final LinkedHashSet<String> endFiles = new LinkedHashSet<>();//最终文件全路径
         private Configuration writerSliceConfig = null;
         private String defaultFS;
         private String path;
@@ -175,6 +177,13 @@ public class HdfsWriter
                 }
             }
 
+            // rolling check
+            if (this.writerSliceConfig.getLong(Key.MAX_FILE_SIZE, 0L) < 0
+                    || this.writerSliceConfig.getLong(Key.MAX_ROWS_PER_FILE, 0L) < 0) {
+                throw AddaxException.asAddaxException(HdfsWriterErrorCode.ILLEGAL_VALUE,
+                        String.format("[%s] 和 [%s] 不能为负数", Key.MAX_FILE_SIZE, Key.MAX_ROWS_PER_FILE));
+            }
+
             //Kerberos check
             boolean haveKerberos = this.writerSliceConfig.getBool(Key.HAVE_KERBEROS, false);
             if (haveKerberos) {
@@ -49,6 +49,16 @@ public class Key
     public static final String ENCODING = "encoding";
     // not must, default no compress
     public static final String COMPRESS = "compress";
+    // not must, default 1, only for text file with gzip or bzip2 compress
+    public static final String COMPRESS_THREADS = "compressThreads";
+    public static final String COMPRESS_BLOCK_SIZE = "compressBlockSize";
+    // not must, roll to a new file when current file exceeds this size (MB), 0 means no limit
+    public static final String MAX_FILE_SIZE = "maxFileSize";
+    // not must, roll to a new file when current file has this many rows, 0 means no limit
+    public static final String MAX_ROWS_PER_FILE = "maxRowsPerFile";
+    // not must, parquet row group size and page size in bytes
+    public static final String ROW_GROUP_SIZE = "rowGroupSize";
+    public static final String PAGE_SIZE = "pageSize";
     // not must, not default \N
 //    public static final String NULL_FORMAT = "nullFormat"
     // Kerberos
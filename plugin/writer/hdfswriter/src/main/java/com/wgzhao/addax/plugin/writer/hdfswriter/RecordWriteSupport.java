@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.wgzhao.addax.plugin.writer.hdfswriter;
+
+import com.wgzhao.addax.common.element.Column;
+import com.wgzhao.addax.common.element.Record;
+import com.wgzhao.addax.common.exception.AddaxException;
+import com.wgzhao.addax.common.util.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 直接把 {@link Record} 写成 parquet 的 WriteSupport
+ * <p>
+ * 每一列的 parquet 类型和转换方式在创建时根据列配置确定，写入时先把一行的所有字段转换到
+ * 复用的数组中，全部转换成功后才交给 RecordConsumer，转换失败的行不会写入文件。
+ * 生成的 schema 与原先经由 Avro 写出的 schema 一致。
+ */
+public class RecordWriteSupport
+        extends WriteSupport<Record>
+{
+    private static final int DECIMAL_BYTES = 16;
+
+    private final MessageType schema;
+    private final String[] names;
+    private final SupportHiveDataType[] types;
+    private final int[] scales;
+
+    // 当前行转换后的值，按列的物理类型只使用其中一个
+    private final boolean[] nulls;
+    private final long[] longValues;
+    private final double[] doubleValues;
+    private final Binary[] binaryValues;
+
+    private RecordConsumer recordConsumer;
+
+    public RecordWriteSupport(List<Configuration> columns)
+    {
+        int size = columns.size();
+        this.names = new String[size];
+        this.types = new SupportHiveDataType[size];
+        this.scales = new int[size];
+        this.nulls = new boolean[size];
+        this.longValues = new long[size];
+        this.doubleValues = new double[size];
+        this.binaryValues = new Binary[size];
+
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        for (int i = 0; i < size; i++) {
+            Configuration column = columns.get(i);
+            String name = column.getString(Key.NAME);
+            String type = column.getString(Key.TYPE).trim().toUpperCase();
+            names[i] = name;
+            if ("UUID".equals(type)) {
+                types[i] = SupportHiveDataType.STRING;
+            }
+            else if (type.startsWith("DECIMAL")) {
+                types[i] = SupportHiveDataType.DECIMAL;
+            }
+            else {
+                try {
+                    types[i] = SupportHiveDataType.valueOf(type);
+                }
+                catch (IllegalArgumentException e) {
+                    throw AddaxException.asAddaxException(HdfsWriterErrorCode.ILLEGAL_VALUE,
+                            String.format("您的配置文件中的列配置信息有误. 因为Addax 不支持写入这种字段类型. 字段名:[%s], 字段类型:[%s].", name, type));
+                }
+            }
+            switch (types[i]) {
+                case TINYINT:
+                case SMALLINT:
+                case INT:
+                case INTEGER:
+                    builder.optional(PrimitiveTypeName.INT32).named(name);
+                    break;
+                case BIGINT:
+                case LONG:
+                    builder.optional(PrimitiveTypeName.INT64).named(name);
+                    break;
+                case FLOAT:
+                    builder.optional(PrimitiveTypeName.FLOAT).named(name);
+                    break;
+                case DOUBLE:
+                    builder.optional(PrimitiveTypeName.DOUBLE).named(name);
+                    break;
+                case BOOLEAN:
+                    builder.optional(PrimitiveTypeName.BOOLEAN).named(name);
+                    break;
+                case BINARY:
+                    builder.optional(PrimitiveTypeName.BINARY).named(name);
+                    break;
+                case DATE:
+                    builder.optional(PrimitiveTypeName.INT32).as(OriginalType.DATE).named(name);
+                    break;
+                case TIMESTAMP:
+                    builder.optional(PrimitiveTypeName.INT64).as(OriginalType.TIMESTAMP_MILLIS).named(name);
+                    break;
+                case DECIMAL:
+                    scales[i] = column.getInt(Key.SCALE, HdfsHelper.DECIMAL_DEFAULT_SCALE);
+                    builder.optional(PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY).length(DECIMAL_BYTES)
+                            .as(OriginalType.DECIMAL)
+                            .precision(column.getInt(Key.PRECISION, HdfsHelper.DECIMAL_DEFAULT_PRECISION))
+                            .scale(scales[i])
+                            .named(name);
+                    break;
+                default:
+                    // string, varchar, char
+                    builder.optional(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named(name);
+                    break;
+            }
+        }
+        this.schema = builder.named("datax");
+    }
+
+    public static Builder builder(Path path, List<Configuration> columns)
+    {
+        return new Builder(path, columns);
+    }
+
+    @Override
+    public WriteContext init(org.apache.hadoop.conf.Configuration configuration)
+    {
+        return new WriteContext(schema, Collections.emptyMap());
+    }
+
+    @Override
+    public void prepareForWrite(RecordConsumer recordConsumer)
+    {
+        this.recordConsumer = recordConsumer;
+    }
+
+    @Override
+    public void write(Record record)
+    {
+        // 先转换整行，出错时直接抛出，不会留下写了一半的记录
+        for (int i = 0; i < names.length; i++) {
+            Column column = i < record.getColumnNumber() ? record.getColumn(i) : null;
+            nulls[i] = column == null || column.isNull();
+            if (!nulls[i]) {
+                convert(i, column);
+            }
+        }
+
+        recordConsumer.startMessage();
+        for (int i = 0; i < names.length; i++) {
+            if (nulls[i]) {
+                continue;
+            }
+            recordConsumer.startField(names[i], i);
+            switch (types[i]) {
+                case TINYINT:
+                case SMALLINT:
+                case INT:
+                case INTEGER:
+                case DATE:
+                    recordConsumer.addInteger((int) longValues[i]);
+                    break;
+                case BIGINT:
+                case LONG:
+                case TIMESTAMP:
+                    recordConsumer.addLong(longValues[i]);
+                    break;
+                case FLOAT:
+                    recordConsumer.addFloat((float) doubleValues[i]);
+                    break;
+                case DOUBLE:
+                    recordConsumer.addDouble(doubleValues[i]);
+                    break;
+                case BOOLEAN:
+                    recordConsumer.addBoolean(longValues[i] != 0);
+                    break;
+                default:
+                    recordConsumer.addBinary(binaryValues[i]);
+                    break;
+            }
+            recordConsumer.endField(names[i], i);
+        }
+        recordConsumer.endMessage();
+    }
+
+    private void convert(int i, Column column)
+    {
+        switch (types[i]) {
+            case TINYINT:
+            case SMALLINT:
+            case INT:
+            case INTEGER:
+                longValues[i] = Math.toIntExact(column.asLong());
+                break;
+            case BIGINT:
+            case LONG:
+                longValues[i] = column.asLong();
+                break;
+            case FLOAT:
+            case DOUBLE:
+                doubleValues[i] = column.asDouble();
+                break;
+            case BOOLEAN:
+                longValues[i] = column.asBoolean() ? 1 : 0;
+                break;
+            case DATE:
+                longValues[i] = Instant.ofEpochMilli(column.asDate().getTime())
+                        .atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+                break;
+            case TIMESTAMP:
+                longValues[i] = column.asDate().getTime();
+                break;
+            case DECIMAL:
+                binaryValues[i] = Binary.fromConstantByteArray(toFixedBytes(column.asBigDecimal()
+                        .setScale(scales[i], BigDecimal.ROUND_HALF_UP).unscaledValue()));
+                break;
+            case BINARY:
+                binaryValues[i] = Binary.fromConstantByteArray(column.asBytes());
+                break;
+            default:
+                binaryValues[i] = Binary.fromString(column.asString());
+                break;
+        }
+    }
+
+    /*
+     * 按大端补码把 unscaled 值填充到定长字节数组中，与 Avro fixed decimal 的编码一致
+     */
+    private static byte[] toFixedBytes(BigInteger unscaled)
+    {
+        byte[] bytes = unscaled.toByteArray();
+        if (bytes.length > DECIMAL_BYTES) {
+            throw new IllegalArgumentException(String.format("decimal 值 [%s] 超出了可以表示的范围", unscaled));
+        }
+        byte[] fixed = new byte[DECIMAL_BYTES];
+        byte pad = (byte) (unscaled.signum() < 0 ? 0xff : 0x00);
+        int offset = DECIMAL_BYTES - bytes.length;
+        for (int i = 0; i < offset; i++) {
+            fixed[i] = pad;
+        }
+        System.arraycopy(bytes, 0, fixed, offset, bytes.length);
+        return fixed;
+    }
+
+    public static class Builder
+            extends ParquetWriter.Builder<Record, Builder>
+    {
+        private final List<Configuration> columns;
+
+        private Builder(Path path, List<Configuration> columns)
+        {
+            super(path);
+            this.columns = columns;
+        }
+
+        @Override
+        protected Builder self()
+        {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Record> getWriteSupport(org.apache.hadoop.conf.Configuration conf)
+        {
+            return new RecordWriteSupport(columns);
+        }
+    }
+}
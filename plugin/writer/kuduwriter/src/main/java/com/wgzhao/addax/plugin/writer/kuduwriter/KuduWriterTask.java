@@ -112,7 +112,7 @@ public class KuduWriterTask
             for (int i = 0; i < record.getColumnNumber(); i++) {
                 Column column = record.getColumn(i);
                 String name = columnNames.get(i);
-                if (column.getRawData() == null) {
+                if (column.isNull()) {
                     row.setNull(name);
                     continue;
                 }
@@ -66,7 +66,7 @@ public class SubCommonRdbmsWriter
                     case Types.LONGVARCHAR:
                     case Types.NVARCHAR:
                     case Types.LONGNVARCHAR:
-                        if (null == column.getRawData()) {
+                        if (column.isNull()) {
                             preparedStatement.setObject(columnIndex + 1, null);
                         }
                         else {
@@ -83,7 +83,7 @@ public class SubCommonRdbmsWriter
                         if (emptyAsNull && "".equals(strLongValue)) {
                             preparedStatement.setObject(columnIndex + 1, null);
                         }
-                        else if (null == column.getRawData()) {
+                        else if (column.isNull()) {
                             preparedStatement.setObject(columnIndex + 1, null);
                         }
                         else {
@@ -100,7 +100,7 @@ public class SubCommonRdbmsWriter
                         if (emptyAsNull && "".equals(strValue)) {
                             preparedStatement.setObject(columnIndex + 1, null);
                         }
-                        else if (null == column.getRawData()) {
+                        else if (column.isNull()) {
                             preparedStatement.setObject(columnIndex + 1, null);
                         }
                         else {
@@ -153,7 +153,7 @@ public class SubCommonRdbmsWriter
                     case Types.VARBINARY:
                     case Types.BLOB:
                     case Types.LONGVARBINARY:
-                        if (null == column.getRawData()) {
+                        if (column.isNull()) {
                             preparedStatement.setObject(columnIndex + 1, null);
                         }
                         else {
@@ -163,7 +163,7 @@ public class SubCommonRdbmsWriter
                         break;
 
                     case Types.BOOLEAN:
-                        if (null == column.getRawData()) {
+                        if (column.isNull()) {
                             preparedStatement.setNull(columnIndex + 1,
                                     Types.BOOLEAN);
                         }
@@ -176,7 +176,7 @@ public class SubCommonRdbmsWriter
                     // warn: bit(1) -> Types.BIT 可使用setBoolean
                     // warn: bit(>1) -> Types.VARBINARY 可使用setBytes
                     case Types.BIT:
-                        if (null == column.getRawData()) {
+                        if (column.isNull()) {
                             preparedStatement.setObject(columnIndex + 1, null);
                         }
                         else if (this.dataBaseType == DataBaseType.MySql) {
@@ -216,6 +216,7 @@ public class StreamWriter
                     Record record;
                     while ((record = recordReceiver.getFromReader()) != null) {
                         writer.write(recordToString(record));
+                        recordReceiver.recycle(record);
                     }
                     writer.flush();
                 }
@@ -251,6 +252,7 @@ public class StreamWriter
                         Thread.sleep(sleepTime * 1000L);
                     }
                     writer.write(recordToString(record));
+                    recordReceiver.recycle(record);
                     count++;
                 }
                 writer.flush();
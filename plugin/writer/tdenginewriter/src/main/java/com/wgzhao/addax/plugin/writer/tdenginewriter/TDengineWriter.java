@@ -86,7 +86,7 @@ public class TDengineWriter
                 protected PreparedStatement fillPreparedStatementColumnType(PreparedStatement preparedStatement, int columnIndex, int columnSqltype, Column column)
                         throws SQLException
                 {
-                    if (column.getRawData() == null) {
+                    if (column.isNull()) {
                         preparedStatement.setObject(columnIndex + 1, null);
                         return preparedStatement;
                     }
@@ -240,6 +240,12 @@ public class TxtFileWriter
             else if ("bzip2".equalsIgnoreCase(compress) || "bzip".equalsIgnoreCase(compress)) {
                 suffix = ".bz2";
             }
+            else if ("lz4".equalsIgnoreCase(compress)) {
+                suffix = ".lz4";
+            }
+            else if ("zstd".equalsIgnoreCase(compress)) {
+                suffix = ".zst";
+            }
         }
 
         @Override